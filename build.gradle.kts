@@ -48,6 +48,11 @@ configure<SourceSetContainer> {
         compileClasspath += sourceSets["main"].output
         runtimeClasspath += sourceSets["main"].output
     }
+    register("jmh") {
+        java.srcDir("src/jmh/java")
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
 }
 
 
@@ -86,6 +91,15 @@ dependencies {
         addAll(configurations["implementation"].allDependencies)
     }
 
+    //Sets the dependencies for the benchmarks
+    configurations["jmhImplementation"].withDependencies {
+        addAll(configurations["api"].allDependencies)
+        addAll(configurations["implementation"].allDependencies)
+    }
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.33")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.33")
+
     testImplementation("org.junit.jupiter:junit-jupiter:5.7.2")
 }
 
@@ -245,6 +259,17 @@ test.apply {
     failFast = true
 }
 
+//to run the benchmarks:           "gradlew jmh"
+//with a filter:                   "gradlew jmh --args=RouteBenchmark"
+val jmh = task<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with the allocation profiler"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    main = "org.openjdk.jmh.Main"
+    // Argument providers are kept when the args are replaced with --args
+    argumentProviders.add(CommandLineArgumentProvider { listOf("-prof", "gc") })
+}
+
 publishing {
     publications {
         create<MavenPublication>("S3Release") {
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles a route and resolves its rate-limit bucket, like the rate-limiter does for every request.
+ * <br>Run with {@code gradlew jmh --args=RouteBenchmark}, which attaches the gc profiler, and compare {@code gc.alloc.rate.norm}
+ * of the current implementation against the string based bucket ids used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark
+{
+    // The bucket is resolved for the rate-limit check, when queueing, before execution and when handling the response
+    private static final int LOOKUPS = 4;
+    private static final String LEGACY_MAJOR_PARAMETERS = "guild_id:channel_id:webhook_id:interaction_token";
+
+    private final String hash = "80c17d2f203122d936070c88c8d10f33";
+    private final String channelId = "841685479658389515";
+    private final String messageId = "898959138442924062";
+    private final Map<BucketKey, Object> buckets = new HashMap<>();
+    private final Map<String, Object> legacyBuckets = new HashMap<>();
+
+    @Setup
+    public void setup()
+    {
+        buckets.put(Route.Messages.EDIT_MESSAGE.compile(channelId, messageId).getBucketKey(hash), this);
+        legacyBuckets.put(hash + ":" + legacyCompile(Route.Messages.EDIT_MESSAGE, null, channelId, messageId), this);
+    }
+
+    @Benchmark
+    public void compileAndResolve(Blackhole blackhole)
+    {
+        Route.CompiledRoute route = Route.Messages.EDIT_MESSAGE.compile(channelId, messageId);
+        blackhole.consume(route.getCompiledRoute());
+        for (int i = 0; i < LOOKUPS; i++)
+            blackhole.consume(buckets.get(route.getBucketKey(hash)));
+    }
+
+    @Benchmark
+    public void legacyCompileAndResolve(Blackhole blackhole)
+    {
+        String major = legacyCompile(Route.Messages.EDIT_MESSAGE, blackhole, channelId, messageId);
+        for (int i = 0; i < LOOKUPS; i++)
+            blackhole.consume(legacyBuckets.get(hash + ":" + major));
+    }
+
+    // The previous implementation of Route#compile, returns the major parameters
+    private static String legacyCompile(Route route, Blackhole blackhole, String... params)
+    {
+        Set<String> major = new HashSet<>();
+        StringBuilder compiledRoute = new StringBuilder(route.getRoute());
+        for (int i = 0; i < route.getParamCount(); i++)
+        {
+            int paramStart = compiledRoute.indexOf("{");
+            int paramEnd = compiledRoute.indexOf("}");
+            String paramName = compiledRoute.substring(paramStart+1, paramEnd);
+            if (LEGACY_MAJOR_PARAMETERS.contains(paramName))
+            {
+                if (params[i].length() > 30)
+                    major.add(paramName + "=" + Integer.toUnsignedString(params[i].hashCode()));
+                else
+                    major.add(paramName + "=" + params[i]);
+            }
+
+            compiledRoute.replace(paramStart, paramEnd + 1, params[i]);
+        }
+
+        if (blackhole != null)
+            blackhole.consume(compiledRoute.toString());
+        return major.isEmpty() ? "n/a" : String.join(":", major);
+    }
+}
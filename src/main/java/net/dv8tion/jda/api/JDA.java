@@ -247,6 +247,31 @@ public interface JDA extends ICommandHolder
      */
     long getGatewayPing();
 
+    /**
+     * The amount of gateway payloads that are currently waiting to be sent by this session.
+     * <br>This includes member chunk requests, voice state requests, and presence updates.
+     *
+     * <p>The gateway only accepts 120 payloads per 60 seconds, these requests are sent
+     * as soon as {@link #getGatewayRequestsRemaining() tokens} are available.
+     *
+     * @return The amount of queued gateway payloads
+     *
+     * @since  4.4.0
+     */
+    int getGatewayQueueSize();
+
+    /**
+     * The amount of payloads this session can still send to the gateway in the current rate-limit window.
+     * <br>A few of these are reserved for heartbeats and session resumes.
+     *
+     * @return The remaining gateway rate-limit tokens
+     *
+     * @since  4.4.0
+     *
+     * @see    #getGatewayQueueSize()
+     */
+    int getGatewayRequestsRemaining();
+
     /**
      * The time in milliseconds that discord took to respond to a REST request.
      * <br>This will request the current user from the API and calculate the time the response took.
@@ -725,6 +750,23 @@ public interface JDA extends ICommandHolder
     @Nonnull
     List<Guild> getMutualGuilds(@Nonnull Collection<User> users);
 
+    /**
+     * Gets all {@link net.dv8tion.jda.api.entities.Guild Guilds} that contain the user with the provided id as member.
+     * <br>Unlike {@link net.dv8tion.jda.api.entities.User#getMutualGuilds() User.getMutualGuilds()} this does not require the user to be cached.
+     * JDA keeps an index of the cached members for each user, so this does not have to check every guild.
+     *
+     * <p>This only includes guilds where the member is cached, see {@link net.dv8tion.jda.api.utils.MemberCachePolicy MemberCachePolicy}.
+     *
+     * @param  userId
+     *         The id of the user
+     *
+     * @return Immutable list of all {@link net.dv8tion.jda.api.entities.Guild Guild} instances which have the user in them.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    List<Guild> getMutualGuilds(long userId);
+
     /**
      * Attempts to retrieve a {@link net.dv8tion.jda.api.entities.User User} object based on the provided id.
      * <br>This first calls {@link #getUserById(long)}, and if that returns {@code null} or the cache is inconsistent due to disabled intents then a request
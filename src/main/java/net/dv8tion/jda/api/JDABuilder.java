@@ -19,14 +19,19 @@ import com.neovisionaries.ws.client.WebSocketFactory;
 import net.dv8tion.jda.annotations.DeprecatedSince;
 import net.dv8tion.jda.annotations.ReplaceWith;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventOrdering;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.hooks.VoiceDispatchInterceptor;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator;
 import net.dv8tion.jda.api.utils.*;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheType;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.managers.PresenceImpl;
+import net.dv8tion.jda.internal.hooks.EventFilter;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
@@ -40,6 +45,7 @@ import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.security.auth.login.LoginException;
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
@@ -68,11 +74,17 @@ public class JDABuilder
     protected boolean shutdownCallbackPool = true;
     protected ExecutorService eventPool = null;
     protected boolean shutdownEventPool = true;
+    protected EventOrdering eventOrdering = EventOrdering.NONE;
+    protected int eventQueueCapacity = 1000;
+    protected boolean virtualThreads = false;
     protected ScheduledExecutorService audioPool = null;
     protected boolean shutdownAudioPool = true;
     protected EnumSet<CacheFlag> cacheFlags = EnumSet.allOf(CacheFlag.class);
+    protected EnumSet<SnowflakeCacheType> optimisticCaches = EnumSet.noneOf(SnowflakeCacheType.class);
     protected ConcurrentMap<String, String> contextMap = null;
     protected SessionController controller = null;
+    protected RateLimitCoordinator rateLimitCoordinator = null;
+    protected File snapshotDirectory = null;
     protected VoiceDispatchInterceptor voiceDispatchInterceptor = null;
     protected OkHttpClient.Builder httpClientBuilder = null;
     protected OkHttpClient httpClient = null;
@@ -92,6 +104,7 @@ public class JDABuilder
     protected ChunkingFilter chunkingFilter = ChunkingFilter.ALL;
     protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
     protected GatewayEncoding encoding = GatewayEncoding.JSON;
+    protected EventFilter eventFilter = null;
 
     private JDABuilder(@Nullable String token, int intents)
     {
@@ -520,6 +533,125 @@ public class JDABuilder
         return setFlag(ConfigFlag.RAW_EVENTS, enable);
     }
 
+    /**
+     * Whether JDA should parse gateway payloads into a compact representation.
+     * <br>Instead of hash maps, the objects of each payload are stored in flat arrays which share their keys.
+     * This reduces the allocation rate of the gateway considerably, especially during startup and member chunking,
+     * since most payloads are only read once to update the cache.
+     *
+     * <p>The {@link net.dv8tion.jda.api.utils.data.DataObject DataObject} instances provided by
+     * {@link net.dv8tion.jda.api.events.RawGatewayEvent RawGatewayEvent} use this representation as well.
+     * Lookups in objects with many keys are slightly slower, which is why this is disabled by default.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if JDA should use the compact representation for gateway payloads
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setCompactDataEnabled(boolean enable)
+    {
+        return setFlag(ConfigFlag.COMPACT_DATA, enable);
+    }
+
+    /**
+     * Declares the event types the application listens for.
+     * <br>Events which are not assignable to any of these types are never fired. Gateway dispatches which only exist to
+     * produce such events, for instance {@code TYPING_START} or reactions, are dropped before their payload is handled.
+     * The cache is still updated for all other dispatches, but JDA skips the work which is only needed to compute
+     * events, such as diffing the roles or activities of a member or building received messages.
+     *
+     * <p>Declaring a super type enables all its subtypes, so {@code GenericGuildMemberEvent.class} enables
+     * all member events and {@code GenericEvent.class} is equivalent to the default.
+     * Keep in mind that {@link net.dv8tion.jda.api.hooks.ListenerAdapter#onGenericEvent(GenericEvent) onGenericEvent}
+     * only receives the enabled events as well.
+     *
+     * <p>Default: {@code null} (all events)
+     *
+     * @param  events
+     *         The event types to fire, or null to fire all events
+     *
+     * @throws IllegalArgumentException
+     *         If the provided collection contains null
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     *
+     * @see    #setListenedEvents(Class, Class[])
+     */
+    @Nonnull
+    public JDABuilder setListenedEvents(@Nullable Collection<Class<? extends GenericEvent>> events)
+    {
+        if (events != null)
+            Checks.noneNull(events, "Events");
+        this.eventFilter = events == null ? null : new EventFilter(events);
+        return this;
+    }
+
+    /**
+     * Declares the event types the application listens for.
+     * <br>Events which are not assignable to any of these types are never fired.
+     * See {@link #setListenedEvents(Collection)} for details.
+     *
+     * <p>Example: {@code setListenedEvents(MessageReceivedEvent.class, GenericGuildMemberEvent.class)}
+     *
+     * @param  event
+     *         The first event type to fire
+     * @param  events
+     *         Additional event types to fire
+     *
+     * @throws IllegalArgumentException
+     *         If any of the provided event types is null
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     *
+     * @see    #setListenedEvents(Collection)
+     */
+    @Nonnull
+    @SafeVarargs
+    public final JDABuilder setListenedEvents(@Nonnull Class<? extends GenericEvent> event, @Nonnull Class<? extends GenericEvent>... events)
+    {
+        Checks.notNull(event, "Event");
+        Checks.noneNull(events, "Events");
+        List<Class<? extends GenericEvent>> list = new ArrayList<>(events.length + 1);
+        list.add(event);
+        Collections.addAll(list, events);
+        return setListenedEvents(list);
+    }
+
+    /**
+     * Enables lighter lookups by id for the provided cache types.
+     * <br>Lookups such as {@link net.dv8tion.jda.api.entities.Guild#getMemberById(long) Guild.getMemberById(long)}
+     * normally acquire a reentrant read-lock, which keeps track of the hold count of every reading thread.
+     * With optimistic reads, lookups don't acquire a lock at all and only check afterwards that no update happened in the meantime.
+     * Lookups which overlap with an update are repeated with the read-lock.
+     * This helps when many threads read the same cache, for instance with a large {@link #setEventPool(ExecutorService) event pool}.
+     *
+     * <p>Updates to these caches become slightly more expensive, iterating the caches is not affected.
+     *
+     * <p>Default: none
+     *
+     * @param  types
+     *         The {@link SnowflakeCacheType cache types} which should use optimistic reads, or null to disable it for all caches
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setOptimisticCacheReads(@Nullable Collection<SnowflakeCacheType> types)
+    {
+        this.optimisticCaches = types == null || types.isEmpty() ? EnumSet.noneOf(SnowflakeCacheType.class) : EnumSet.copyOf(types);
+        return this;
+    }
+
     /**
      * Whether the rate-limit should be relative to the current time plus latency.
      * <br>By default we use the {@code X-RateLimit-Reset-After} header to determine when
@@ -545,6 +677,81 @@ public class JDABuilder
         return setFlag(ConfigFlag.USE_RELATIVE_RATELIMIT, enable);
     }
 
+    /**
+     * Whether requests of the same rate-limit bucket can be executed concurrently.
+     * <br>By default a bucket executes one request at a time and waits for the response before sending the next one.
+     *
+     * <p>When enabled, a bucket will send as many requests as it has remaining uses in the current rate-limit window
+     * and update the rate-limit information as the responses arrive. This can greatly increase the throughput
+     * of routes with a high limit, such as adding reactions or sending messages in different channels.
+     * Requests of the same bucket might complete out of order with this setting.
+     * The requests are executed asynchronously, the number of parallel requests is additionally limited by the
+     * {@link okhttp3.Dispatcher Dispatcher} of the http client.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if requests of the same bucket should be executed concurrently
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setConcurrentRequestsEnabled(boolean enable)
+    {
+        return setFlag(ConfigFlag.CONCURRENT_REQUESTS, enable);
+    }
+
+    /**
+     * Whether messages should only build their attachments, embeds, stickers, reactions and components when accessed.
+     * <br>By default all parts of a message are created when it is received.
+     *
+     * <p>When enabled, the message keeps the raw payload and creates these objects on the first call to the respective getter.
+     * Listeners which only look at the content or the author of a message will no longer pay for parsing the rest of it.
+     * Messages with this setting hold on to their payload for as long as they are referenced.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if messages should build their attachments, embeds, stickers, reactions and components lazily
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setLazyMessagesEnabled(boolean enable)
+    {
+        return setFlag(ConfigFlag.LAZY_MESSAGES, enable);
+    }
+
+    /**
+     * Whether guilds should create their members as the member chunks arrive during guild setup.
+     * <br>By default the raw member data is kept until the last chunk of a guild arrived and is then converted all at once.
+     *
+     * <p>When enabled, every chunk is immediately turned into members and added or removed members are applied as they happen.
+     * Only the ids of the received members are kept in addition to the members themselves,
+     * which lowers the memory used by the setup of large guilds considerably and avoids building all members at once.
+     * The {@link #setMemberCachePolicy(MemberCachePolicy) member cache policy} is still applied once the guild is complete,
+     * since policies like {@link MemberCachePolicy#VOICE} depend on the channels and voice states of the guild.
+     * This is most useful with {@link #setChunkingFilter(ChunkingFilter) chunking} enabled for large guilds.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if members should be created per chunk
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setStreamingGuildSetupEnabled(boolean enable)
+    {
+        return setFlag(ConfigFlag.STREAMING_GUILD_SETUP, enable);
+    }
+
     /**
      * Flags used to enable selective parts of the JDA cache to reduce the runtime memory footprint.
      * <br><b>It is highly recommended to use {@link #setDisabledCacheFlags(EnumSet)} instead
@@ -1108,6 +1315,69 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets how events are ordered when they are dispatched on the event pool.
+     * <br>With {@link EventOrdering#GUILD} or {@link EventOrdering#CHANNEL} the events of different guilds or channels
+     * are handled in parallel, while the events of a single guild or channel are handled in the order they were received.
+     * If no event pool is configured, JDA creates one with a thread per available processor.
+     *
+     * <p>Each guild or channel has a queue of at most {@code queueCapacity} events.
+     * When a queue is full, the gateway stops reading new events until the listeners have caught up.
+     * Events fired from the event pool itself are never blocked.
+     *
+     * <p>Default: {@link EventOrdering#NONE}
+     *
+     * @param  ordering
+     *         The {@link EventOrdering} to use
+     * @param  queueCapacity
+     *         The maximum amount of queued events per guild or channel
+     *
+     * @throws IllegalArgumentException
+     *         If the ordering is null or the capacity is not positive
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    #setEventPool(ExecutorService, boolean)
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setEventOrdering(@Nonnull EventOrdering ordering, int queueCapacity)
+    {
+        Checks.notNull(ordering, "EventOrdering");
+        Checks.positive(queueCapacity, "Queue capacity");
+        this.eventOrdering = ordering;
+        this.eventQueueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Whether JDA should use virtual threads for its callback, event and rate-limit pools.
+     * <br>Requests block while they wait for a response, with virtual threads this does not occupy a platform thread.
+     * Pools which were configured explicitly are never replaced.
+     *
+     * <p>Events are still handled sequentially on the gateway thread, unless an {@link #setEventOrdering(EventOrdering, int) event ordering}
+     * is configured. The ordered event queues then run on virtual threads, unless an {@link #setEventPool(ExecutorService, boolean) event pool}
+     * is configured as well. The gateway and audio pools always use platform threads.
+     *
+     * <p>Virtual threads require Java 21 or newer, on older runtimes a warning is logged and the default pools are used instead.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enabled
+     *         True, to use virtual threads
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setVirtualThreadsEnabled(boolean enabled)
+    {
+        this.virtualThreads = enabled;
+        return this;
+    }
+
     /**
      * Sets the {@link ScheduledExecutorService ScheduledExecutorService} used by
      * the audio WebSocket connection. Used for sending keepalives and closing the connection.
@@ -1421,6 +1691,58 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the {@link net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator RateLimitCoordinator} used to share
+     * REST rate-limits with other processes of the same bot.
+     * <br>The coordinator is asked before every request and receives the rate-limit information of every response.
+     * This should be the same coordinator, or connected to the same coordinator server, in all processes.
+     *
+     * <p>Default: <b>null</b>
+     *
+     * @param  coordinator
+     *         The coordinator to use, or null to only handle rate-limits locally
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    net.dv8tion.jda.api.requests.ratelimit.SocketRateLimitCoordinator SocketRateLimitCoordinator
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setRateLimitCoordinator(@Nullable RateLimitCoordinator coordinator)
+    {
+        this.rateLimitCoordinator = coordinator;
+        return this;
+    }
+
+    /**
+     * Sets the directory used to keep the gateway session across restarts.
+     * <br>On {@link net.dv8tion.jda.api.JDA#shutdown() shutdown} the session id, sequence and the guild, channel, role,
+     * emote, member and user caches of each shard are written to a file in this directory, and the session is closed
+     * without invalidating it.
+     * When a shard starts and finds its file, it restores the caches from it and resumes the session instead of identifying.
+     * This skips the {@code READY} payload, the guild setup and member chunking.
+     *
+     * <p>The file is deleted once it has been loaded. If Discord refuses to resume the session, for example because the
+     * restart took too long, the restored caches are discarded and the shard identifies like usual.
+     * Presences and voice states are not part of the snapshot.
+     *
+     * <p>Default: <b>null</b>
+     *
+     * @param  directory
+     *         The directory for the session snapshots, or null to always identify
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public JDABuilder setSnapshotDirectory(@Nullable File directory)
+    {
+        this.snapshotDirectory = directory;
+        return this;
+    }
+
     /**
      * Configures a custom voice dispatch handler which handles audio connections.
      *
@@ -1821,9 +2143,12 @@ public class JDABuilder
         threadingConfig.setGatewayPool(mainWsPool, shutdownMainWsPool);
         threadingConfig.setRateLimitPool(rateLimitPool, shutdownRateLimitPool);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
+        threadingConfig.setEventOrdering(eventOrdering, eventQueueCapacity);
+        threadingConfig.setVirtualThreads(virtualThreads);
         threadingConfig.setAudioPool(audioPool, shutdownAudioPool);
-        SessionConfig sessionConfig = new SessionConfig(controller, httpClient, wsFactory, voiceDispatchInterceptor, flags, maxReconnectDelay, largeThreshold);
-        MetaConfig metaConfig = new MetaConfig(maxBufferSize, contextMap, cacheFlags, flags);
+        SessionConfig sessionConfig = new SessionConfig(controller, httpClient, wsFactory, voiceDispatchInterceptor, flags, maxReconnectDelay, largeThreshold, eventFilter, rateLimitCoordinator, null);
+        sessionConfig.setSnapshotDirectory(snapshotDirectory);
+        MetaConfig metaConfig = new MetaConfig(maxBufferSize, contextMap, cacheFlags, optimisticCaches, flags);
 
         JDAImpl jda = new JDAImpl(authConfig, sessionConfig, threadingConfig, metaConfig);
         jda.setMemberCachePolicy(memberCachePolicy);
@@ -24,6 +24,7 @@ import net.dv8tion.jda.api.requests.Request;
 import net.dv8tion.jda.api.requests.Response;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.Procedure;
 import net.dv8tion.jda.api.utils.TimeUtil;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
@@ -41,6 +42,11 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents an access point to the {@link net.dv8tion.jda.api.entities.Message Message} history of a
@@ -528,6 +534,43 @@ public class MessageHistory
         return getHistoryAfter(channel, "0");
     }
 
+    /**
+     * Creates a {@link MessageExporter MessageExporter} which streams the history of the provided channel in chunks.
+     * <br>Unlike a MessageHistory instance, the exporter does not keep the retrieved messages,
+     * which makes it suitable for archiving channels of any size.
+     *
+     * <h2>Example</h2>
+     * <pre><code>
+     * MessageHistory.export(channel)
+     *     .raw() // skip message construction
+     *     .forEachChunkAsync(chunk -&gt; {
+     *         chunk.forEach(archive::write);
+     *         return true; // continue with the next chunk
+     *     });
+     * </code></pre>
+     *
+     * @param  channel
+     *         The {@link net.dv8tion.jda.api.entities.MessageChannel MessageChannel}
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the provided MessageChannel is {@code null}
+     * @throws net.dv8tion.jda.api.exceptions.InsufficientPermissionException
+     *         If this is a TextChannel and the currently logged in account does not
+     *         have the permission {@link net.dv8tion.jda.api.Permission#MESSAGE_HISTORY Permission.MESSAGE_HISTORY}
+     *
+     * @return {@link MessageExporter MessageExporter} starting at the most recent message
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    @CheckReturnValue
+    public static MessageExporter<Message> export(@Nonnull MessageChannel channel)
+    {
+        checkArguments(channel, "0");
+        final EntityBuilder builder = ((JDAImpl) channel.getJDA()).getEntityBuilder();
+        return new MessageExporter<>(channel, json -> builder.createMessage(json, channel, false));
+    }
+
     private static void checkArguments(MessageChannel channel, String messageId)
     {
         Checks.isSnowflake(messageId, "Message ID");
@@ -610,4 +653,259 @@ public class MessageHistory
             request.onSuccess(result);
         }
     }
+
+    /**
+     * Streams the message history of a channel in chunks of up to 100 messages, without keeping the retrieved messages.
+     * <br>Only one request is in flight at a time and only the current chunk is held in memory.
+     *
+     * <p>The history is retrieved backwards from the most recent message by default,
+     * use {@link #before(long)} or {@link #after(long)} to pick the starting point and direction.
+     * Chunks retrieved {@link #after(long) forwards} are provided in chronological order,
+     * chunks retrieved backwards are provided from most recent to oldest like the rest of this class.
+     *
+     * <p>Each channel has its own rate-limit bucket, so exporters for different channels can run in parallel
+     * without waiting on each other.
+     *
+     * @param <T>
+     *        The type of the exported elements, see {@link #map(Function)}
+     *
+     * @since  4.4.0
+     */
+    public static class MessageExporter<T>
+    {
+        private final MessageChannel channel;
+        private final Function<? super DataObject, ? extends T> mapper;
+        private long pivot = 0;
+        private boolean forward = false;
+        private int chunkSize = 100;
+
+        protected MessageExporter(MessageChannel channel, Function<? super DataObject, ? extends T> mapper)
+        {
+            this.channel = channel;
+            this.mapper = mapper;
+        }
+
+        /**
+         * Retrieves the messages sent before the provided message id, from most recent to oldest.
+         *
+         * @param  messageId
+         *         The id to start from, this message is not included
+         *
+         * @return The current MessageExporter for chaining convenience
+         */
+        @Nonnull
+        public MessageExporter<T> before(long messageId)
+        {
+            this.pivot = messageId;
+            this.forward = false;
+            return this;
+        }
+
+        /**
+         * Retrieves the messages sent after the provided message id, from oldest to most recent.
+         * <br>Use {@code 0} to export the channel from the beginning.
+         *
+         * @param  messageId
+         *         The id to start from, this message is not included
+         *
+         * @return The current MessageExporter for chaining convenience
+         */
+        @Nonnull
+        public MessageExporter<T> after(long messageId)
+        {
+            this.pivot = messageId;
+            this.forward = true;
+            return this;
+        }
+
+        /**
+         * The amount of messages to retrieve per request.
+         * <br><b>Default: 100</b>
+         *
+         * @param  chunkSize
+         *         The chunk size, between 1 and 100
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If the provided chunk size is not between 1 and 100
+         *
+         * @return The current MessageExporter for chaining convenience
+         */
+        @Nonnull
+        public MessageExporter<T> chunkSize(int chunkSize)
+        {
+            Checks.positive(chunkSize, "Chunk size");
+            Checks.check(chunkSize <= 100, "Chunk size may not exceed 100!");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Exports a projection of the raw message payloads instead of {@link Message} instances.
+         * <br>This skips the construction of messages entirely, which is considerably cheaper for large exports.
+         * Payloads which cannot be mapped are logged and skipped.
+         *
+         * @param  mapper
+         *         The function used to convert each raw message
+         * @param  <R>
+         *         The type of the exported elements
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If null is provided
+         *
+         * @return New MessageExporter with the same settings
+         */
+        @Nonnull
+        public <R> MessageExporter<R> map(@Nonnull Function<? super DataObject, ? extends R> mapper)
+        {
+            Checks.notNull(mapper, "Mapper");
+            MessageExporter<R> exporter = new MessageExporter<>(channel, mapper);
+            exporter.pivot = pivot;
+            exporter.forward = forward;
+            exporter.chunkSize = chunkSize;
+            return exporter;
+        }
+
+        /**
+         * Exports the raw message payloads instead of {@link Message} instances.
+         *
+         * @return New MessageExporter with the same settings
+         *
+         * @see    #map(Function)
+         */
+        @Nonnull
+        public MessageExporter<DataObject> raw()
+        {
+            return map(Function.identity());
+        }
+
+        /**
+         * Retrieves the chunks one after another and provides them to the given procedure,
+         * until the procedure returns {@code false} or the end of the history is reached.
+         * <br>The next chunk is only requested once the procedure returned for the current one.
+         *
+         * @param  action
+         *         The procedure which handles each chunk, return {@code false} to stop
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If null is provided
+         *
+         * @return {@link CompletableFuture} which completes once the export has ended, cancelling it stops the export
+         */
+        @Nonnull
+        public CompletableFuture<Void> forEachChunkAsync(@Nonnull Procedure<? super List<T>> action)
+        {
+            Checks.notNull(action, "Procedure");
+            CompletableFuture<Void> task = new CompletableFuture<>();
+            Consumer<Chunk<T>> handler = new Consumer<Chunk<T>>()
+            {
+                @Override
+                public void accept(Chunk<T> chunk)
+                {
+                    if (task.isDone())
+                        return;
+                    try
+                    {
+                        if (!chunk.items.isEmpty() && !action.execute(chunk.items))
+                            chunk.last = true;
+                    }
+                    catch (Throwable ex)
+                    {
+                        task.completeExceptionally(ex);
+                        return;
+                    }
+
+                    if (chunk.last)
+                        task.complete(null);
+                    else
+                        retrieveChunk(chunk.nextPivot).queue(this, task::completeExceptionally);
+                }
+            };
+            retrieveChunk(pivot).queue(handler, task::completeExceptionally);
+            return task;
+        }
+
+        /**
+         * Lazily retrieves the history as a sequential {@link Stream}.
+         * <br>Chunks are retrieved with {@link RestAction#complete()} as the stream is consumed,
+         * this must not be used on a callback thread of JDA.
+         *
+         * @return Stream of the exported elements
+         */
+        @Nonnull
+        public Stream<T> stream()
+        {
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+            {
+                private Iterator<T> current = Collections.emptyIterator();
+                private long nextPivot = pivot;
+                private boolean last = false;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action)
+                {
+                    while (!current.hasNext())
+                    {
+                        if (last)
+                            return false;
+                        Chunk<T> chunk = retrieveChunk(nextPivot).complete();
+                        current = chunk.items.iterator();
+                        nextPivot = chunk.nextPivot;
+                        last = chunk.last;
+                    }
+                    action.accept(current.next());
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false);
+        }
+
+        private RestAction<Chunk<T>> retrieveChunk(long pivot)
+        {
+            Route.CompiledRoute route = Route.Messages.GET_MESSAGE_HISTORY.compile(channel.getId()).withQueryParams("limit", Integer.toString(chunkSize));
+            if (forward)
+                route = route.withQueryParams("after", Long.toUnsignedString(pivot));
+            else if (pivot != 0)
+                route = route.withQueryParams("before", Long.toUnsignedString(pivot));
+
+            return new RestActionImpl<>(channel.getJDA(), route, (response, request) ->
+            {
+                // Discord always returns the most recent message first
+                DataArray array = response.getArray();
+                int length = array.length();
+                List<T> items = new ArrayList<>(length);
+                for (int i = 0; i < length; i++)
+                {
+                    DataObject json = array.getObject(forward ? length - i - 1 : i);
+                    try
+                    {
+                        T item = mapper.apply(json);
+                        if (item != null)
+                            items.add(item);
+                    }
+                    catch (Exception e)
+                    {
+                        LOG.warn("Encountered exception when exporting messages", e);
+                    }
+                }
+
+                // The next pivot is taken from the raw payload, messages which failed to map must not stop the export
+                long nextPivot = length == 0 ? pivot : array.getObject(forward ? 0 : length - 1).getUnsignedLong("id");
+                return new Chunk<>(items, nextPivot, length < chunkSize);
+            });
+        }
+    }
+
+    private static class Chunk<T>
+    {
+        private final List<T> items;
+        private final long nextPivot;
+        private boolean last;
+
+        private Chunk(List<T> items, long nextPivot, boolean last)
+        {
+            this.items = items;
+            this.nextPivot = nextPivot;
+            this.last = last;
+        }
+    }
 }
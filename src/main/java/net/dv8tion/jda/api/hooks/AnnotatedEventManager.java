@@ -20,12 +20,14 @@ import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.utils.ClassWalker;
 
 import javax.annotation.Nonnull;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.*;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Implementation for {@link net.dv8tion.jda.api.hooks.IEventManager IEventManager}
@@ -45,14 +47,22 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * }
  * </code></pre>
  *
+ * <p>Each annotated method is compiled into a direct invoker when the listener is registered.
+ * Public methods of public classes use generated lambda invokers, other methods fall back to method handles.
+ * The resolved invokers are cached per event class until the registered listeners change.
+ *
  * @see net.dv8tion.jda.api.hooks.InterfacedEventManager
  * @see net.dv8tion.jda.api.hooks.IEventManager
  * @see net.dv8tion.jda.api.hooks.SubscribeEvent
  */
 public class AnnotatedEventManager implements IEventManager
 {
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Void.TYPE, Object.class, GenericEvent.class);
+
     private final Set<Object> listeners = ConcurrentHashMap.newKeySet();
-    private final Map<Class<?>, Map<Object, List<Method>>> methods = new ConcurrentHashMap<>();
+    private volatile Map<Class<?>, List<Invoker>> methods = Collections.emptyMap();
+    private volatile ConcurrentMap<Class<?>, Invoker[]> dispatchTable = new ConcurrentHashMap<>();
 
     @Override
     public void register(@Nonnull Object listener)
@@ -82,36 +92,41 @@ public class AnnotatedEventManager implements IEventManager
     @Override
     public void handle(@Nonnull GenericEvent event)
     {
-        for (Class<?> eventClass : ClassWalker.walk(event.getClass()))
+        ConcurrentMap<Class<?>, Invoker[]> table = dispatchTable;
+        Invoker[] invokers = table.get(event.getClass());
+        if (invokers == null)
+            invokers = table.computeIfAbsent(event.getClass(), this::resolve);
+        for (Invoker invoker : invokers)
         {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
-            if (listeners != null)
+            try
             {
-                listeners.forEach((key, value) -> value.forEach(method ->
-                {
-                    try
-                    {
-                        method.setAccessible(true);
-                        method.invoke(key, event);
-                    }
-                    catch (IllegalAccessException | InvocationTargetException e1)
-                    {
-                        JDAImpl.LOG.error("Couldn't access annotated EventListener method", e1);
-                    }
-                    catch (Throwable throwable)
-                    {
-                        JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
-                        if (throwable instanceof Error)
-                            throw (Error) throwable;
-                    }
-                }));
+                invoker.invoke(event);
+            }
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
+                if (throwable instanceof Error)
+                    throw (Error) throwable;
             }
         }
     }
 
-    private void updateMethods()
+    private Invoker[] resolve(Class<?> eventType)
     {
-        methods.clear();
+        Map<Class<?>, List<Invoker>> methods = this.methods;
+        List<Invoker> invokers = new ArrayList<>();
+        for (Class<?> eventClass : ClassWalker.walk(eventType))
+        {
+            List<Invoker> list = methods.get(eventClass);
+            if (list != null)
+                invokers.addAll(list);
+        }
+        return invokers.toArray(new Invoker[0]);
+    }
+
+    private synchronized void updateMethods()
+    {
+        Map<Class<?>, List<Invoker>> methods = new HashMap<>();
         for (Object listener : listeners)
         {
             boolean isClass = listener instanceof Class;
@@ -126,20 +141,127 @@ public class AnnotatedEventManager implements IEventManager
                 Class<?>[] pType  = m.getParameterTypes();
                 if (pType.length == 1 && GenericEvent.class.isAssignableFrom(pType[0]))
                 {
-                    Class<?> eventClass = pType[0];
-                    if (!methods.containsKey(eventClass))
-                    {
-                        methods.put(eventClass, new ConcurrentHashMap<>());
-                    }
-
-                    if (!methods.get(eventClass).containsKey(listener))
-                    {
-                        methods.get(eventClass).put(listener, new CopyOnWriteArrayList<>());
-                    }
-
-                    methods.get(eventClass).get(listener).add(m);
+                    Invoker invoker = createInvoker(listener, m);
+                    if (invoker != null)
+                        methods.computeIfAbsent(pType[0], (k) -> new ArrayList<>()).add(invoker);
                 }
             }
         }
+        this.methods = methods;
+        this.dispatchTable = new ConcurrentHashMap<>();
+    }
+
+    private static Invoker createInvoker(Object listener, Method method)
+    {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodHandle handle;
+        try
+        {
+            method.setAccessible(true);
+            handle = lookup.unreflect(method);
+        }
+        catch (IllegalAccessException | RuntimeException e)
+        {
+            JDAImpl.LOG.error("Couldn't access annotated EventListener method", e);
+            return null;
+        }
+
+        if (isGenerationSupported(method))
+        {
+            try
+            {
+                return createLambdaInvoker(listener, method, handle, isStatic);
+            }
+            catch (Throwable e)
+            {
+                JDAImpl.LOG.debug("Failed to generate invoker for {}, using method handle instead", method, e);
+            }
+        }
+
+        MethodHandle invoker = isStatic ? MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+        MethodHandle exact = invoker.asType(INVOKER_TYPE);
+        return new Invoker(listener, (target, event) ->
+        {
+            try
+            {
+                exact.invokeExact(target, event);
+            }
+            catch (RuntimeException | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Invoker createLambdaInvoker(Object listener, Method method, MethodHandle handle, boolean isStatic) throws Throwable
+    {
+        Class<?> eventType = method.getParameterTypes()[0];
+        if (isStatic)
+        {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(Consumer.class),
+                MethodType.methodType(Void.TYPE, Object.class),
+                handle,
+                MethodType.methodType(Void.TYPE, eventType));
+            Consumer<GenericEvent> consumer = (Consumer<GenericEvent>) site.getTarget().invoke();
+            return new Invoker(listener, (target, event) -> consumer.accept(event));
+        }
+
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+            MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(Void.TYPE, Object.class, Object.class),
+            handle,
+            MethodType.methodType(Void.TYPE, method.getDeclaringClass(), eventType));
+        return new Invoker(listener, (BiConsumer<Object, GenericEvent>) site.getTarget().invoke());
+    }
+
+    // The generated class is defined next to this manager, it has to be able to link against the listener
+    private static boolean isGenerationSupported(Method method)
+    {
+        Class<?> declaringClass = method.getDeclaringClass();
+        Class<?> eventType = method.getParameterTypes()[0];
+        return Modifier.isPublic(method.getModifiers())
+            && isAccessible(declaringClass)
+            && isAccessible(eventType);
+    }
+
+    private static boolean isAccessible(Class<?> type)
+    {
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass())
+        {
+            if (!Modifier.isPublic(c.getModifiers()))
+                return false;
+        }
+
+        try
+        {
+            return Class.forName(type.getName(), false, AnnotatedEventManager.class.getClassLoader()) == type;
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+
+    private static class Invoker
+    {
+        private final Object listener;
+        private final BiConsumer<Object, GenericEvent> function;
+
+        private Invoker(Object listener, BiConsumer<Object, GenericEvent> function)
+        {
+            this.listener = listener;
+            this.function = function;
+        }
+
+        private void invoke(GenericEvent event)
+        {
+            function.accept(listener, event);
+        }
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.hooks;
+
+/**
+ * Controls how events are distributed on the event pool.
+ *
+ * <p>With an ordered mode, events are dispatched in parallel while events of the same guild or channel
+ * are still handled one after another, in the order they were received.
+ * Events which have no guild, for instance {@link net.dv8tion.jda.api.events.ReadyEvent ReadyEvent}
+ * or private messages, are handled in order on a shared queue.
+ *
+ * @see net.dv8tion.jda.api.JDABuilder#setEventOrdering(EventOrdering, int)
+ *
+ * @since  4.4.0
+ */
+public enum EventOrdering
+{
+    /**
+     * Every event is submitted to the event pool on its own, without any ordering guarantees.
+     * <br>If no event pool is configured, the events are handled on the gateway thread instead.
+     */
+    NONE,
+    /**
+     * Events of the same guild are handled in order.
+     */
+    GUILD,
+    /**
+     * Events of the same channel are handled in order.
+     * <br>Events which do not belong to a channel are handled in order of their guild instead,
+     * there is no ordering guarantee between the events of a channel and the other events of its guild.
+     */
+    CHANNEL
+}
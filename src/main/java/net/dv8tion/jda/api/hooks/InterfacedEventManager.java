@@ -20,9 +20,12 @@ import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.utils.JDALogger;
 
 import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -34,6 +37,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <br>An adapter implementation is {@link net.dv8tion.jda.api.hooks.ListenerAdapter ListenerAdapter} which
  * provides methods for each individual {@link net.dv8tion.jda.api.events.Event}.
  *
+ * <p>For every event type, the listeners are compiled into a dispatch table when the type is first handled.
+ * {@link net.dv8tion.jda.api.hooks.ListenerAdapter ListenerAdapters} which do not override any of the methods for an event
+ * are left out of its table entirely, the remaining adapters only invoke the methods they override.
+ * The table is rebuilt when listeners are registered or removed.
+ *
  * <p><b>This is the default IEventManager used by JDA</b>
  *
  * @see net.dv8tion.jda.api.hooks.AnnotatedEventManager
@@ -42,6 +50,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class InterfacedEventManager implements IEventManager
 {
     private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ConcurrentMap<Class<?>, Dispatch[]> dispatchTable = new ConcurrentHashMap<>();
 
     public InterfacedEventManager()
     {
@@ -62,6 +71,7 @@ public class InterfacedEventManager implements IEventManager
             throw new IllegalArgumentException("Listener must implement EventListener");
         }
         listeners.add((EventListener) listener);
+        dispatchTable = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -76,7 +86,8 @@ public class InterfacedEventManager implements IEventManager
         }
 
         //noinspection SuspiciousMethodCalls
-        listeners.remove(listener);
+        if (listeners.remove(listener))
+            dispatchTable = new ConcurrentHashMap<>();
     }
 
     @Nonnull
@@ -89,11 +100,15 @@ public class InterfacedEventManager implements IEventManager
     @Override
     public void handle(@Nonnull GenericEvent event)
     {
-        for (EventListener listener : listeners)
+        ConcurrentMap<Class<?>, Dispatch[]> table = dispatchTable;
+        Dispatch[] dispatches = table.get(event.getClass());
+        if (dispatches == null)
+            dispatches = table.computeIfAbsent(event.getClass(), (type) -> compile(event.getClass()));
+        for (Dispatch dispatch : dispatches)
         {
             try
             {
-                listener.onEvent(event);
+                dispatch.handle(event);
             }
             catch (Throwable throwable)
             {
@@ -103,4 +118,43 @@ public class InterfacedEventManager implements IEventManager
             }
         }
     }
+
+    private Dispatch[] compile(Class<? extends GenericEvent> type)
+    {
+        List<Dispatch> dispatches = new ArrayList<>(listeners.size());
+        for (EventListener listener : listeners)
+        {
+            if (listener instanceof ListenerAdapter)
+            {
+                MethodHandle[] handles = ListenerAdapter.getHandles(((ListenerAdapter) listener).getClass(), type);
+                if (handles.length > 0)
+                    dispatches.add(new Dispatch(listener, handles));
+            }
+            else
+            {
+                dispatches.add(new Dispatch(listener, null));
+            }
+        }
+        return dispatches.toArray(new Dispatch[0]);
+    }
+
+    private static class Dispatch
+    {
+        private final EventListener listener;
+        private final MethodHandle[] handles;
+
+        private Dispatch(EventListener listener, MethodHandle[] handles)
+        {
+            this.listener = listener;
+            this.handles = handles;
+        }
+
+        private void handle(GenericEvent event)
+        {
+            if (handles == null)
+                listener.onEvent(event);
+            else
+                ((ListenerAdapter) listener).dispatch(handles, event);
+        }
+    }
 }
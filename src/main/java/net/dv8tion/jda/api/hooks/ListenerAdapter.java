@@ -100,7 +100,9 @@ import javax.annotation.Nonnull;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -441,7 +443,10 @@ public abstract class ListenerAdapter implements EventListener
     public void onGenericPermissionOverride(@Nonnull GenericPermissionOverrideEvent event) {}
 
     private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final MethodType DISPATCH_TYPE = MethodType.methodType(Void.TYPE, ListenerAdapter.class, GenericEvent.class);
+    private static final MethodHandle[] EMPTY = new MethodHandle[0];
     private static final ConcurrentMap<Class<?>, MethodHandle> methods = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, MethodHandle[]>> dispatchTable = new ConcurrentHashMap<>();
     private static final Set<Class<?>> unresolved;
     static
     {
@@ -457,30 +462,26 @@ public abstract class ListenerAdapter implements EventListener
     @Override
     public final void onEvent(@Nonnull GenericEvent event)
     {
-        onGenericEvent(event);
-        if (event instanceof UpdateEvent)
-            onGenericUpdate((UpdateEvent<?, ?>) event);
+        dispatch(getHandles(getClass(), event.getClass()), event);
+    }
 
-        //TODO: Remove once deprecated methods are removed
-        if (event instanceof ResumedEvent)
-            onResume((ResumedEvent) event);
-        else if (event instanceof ReconnectedEvent)
-            onReconnect((ReconnectedEvent) event);
+    // Used by the InterfacedEventManager to skip adapters which do not override any of the methods for an event
+    static MethodHandle[] getHandles(Class<? extends ListenerAdapter> adapter, Class<? extends GenericEvent> event)
+    {
+        ConcurrentMap<Class<?>, MethodHandle[]> table = dispatchTable.computeIfAbsent(adapter, (k) -> new ConcurrentHashMap<>());
+        MethodHandle[] handles = table.get(event);
+        if (handles == null)
+            handles = table.computeIfAbsent(event, (k) -> resolveHandles(adapter, event));
+        return handles;
+    }
 
-        for (Class<?> clazz : ClassWalker.range(event.getClass(), GenericEvent.class))
+    final void dispatch(MethodHandle[] handles, GenericEvent event)
+    {
+        for (MethodHandle mh : handles)
         {
-            if (unresolved.contains(clazz))
-                continue;
-            MethodHandle mh = methods.computeIfAbsent(clazz, ListenerAdapter::findMethod);
-            if (mh == null)
-            {
-                unresolved.add(clazz);
-                continue;
-            }
-
             try
             {
-                mh.invoke(this, event);
+                mh.invokeExact(this, event);
             }
             catch (Throwable throwable)
             {
@@ -493,16 +494,79 @@ public abstract class ListenerAdapter implements EventListener
         }
     }
 
-    private static MethodHandle findMethod(Class<?> clazz)
+    // Collects the overridden methods in the order they would be called by walking the event hierarchy
+    private static MethodHandle[] resolveHandles(Class<? extends ListenerAdapter> adapter, Class<? extends GenericEvent> event)
+    {
+        List<MethodHandle> handles = new ArrayList<>();
+        addIfOverridden(handles, adapter, "onGenericEvent", GenericEvent.class);
+        if (UpdateEvent.class.isAssignableFrom(event))
+            addIfOverridden(handles, adapter, "onGenericUpdate", UpdateEvent.class);
+
+        //TODO: Remove once deprecated methods are removed
+        if (ResumedEvent.class.isAssignableFrom(event))
+            addIfOverridden(handles, adapter, "onResume", ResumedEvent.class);
+        else if (ReconnectedEvent.class.isAssignableFrom(event))
+            addIfOverridden(handles, adapter, "onReconnect", ReconnectedEvent.class);
+
+        for (Class<?> clazz : ClassWalker.range(event, GenericEvent.class))
+        {
+            if (unresolved.contains(clazz))
+                continue;
+            MethodHandle mh = methods.computeIfAbsent(clazz, ListenerAdapter::findMethod);
+            if (mh == null)
+            {
+                unresolved.add(clazz);
+                continue;
+            }
+
+            if (isOverridden(adapter, getMethodName(clazz), clazz))
+                handles.add(mh);
+        }
+        return handles.isEmpty() ? EMPTY : handles.toArray(EMPTY);
+    }
+
+    private static void addIfOverridden(List<MethodHandle> handles, Class<?> adapter, String name, Class<?> type)
+    {
+        if (!isOverridden(adapter, name, type))
+            return;
+        try
+        {
+            MethodHandle mh = lookup.findVirtual(ListenerAdapter.class, name, MethodType.methodType(Void.TYPE, type));
+            handles.add(mh.asType(DISPATCH_TYPE));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isOverridden(Class<?> adapter, String name, Class<?> type)
+    {
+        try
+        {
+            return adapter.getMethod(name, type).getDeclaringClass() != ListenerAdapter.class;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    private static String getMethodName(Class<?> clazz)
     {
         String name = clazz.getSimpleName();
+        return "on" + name.substring(0, name.length() - "Event".length());
+    }
+
+    private static MethodHandle findMethod(Class<?> clazz)
+    {
         MethodType type = MethodType.methodType(Void.TYPE, clazz);
         try
         {
-            name = "on" + name.substring(0, name.length() - "Event".length());
-            return lookup.findVirtual(ListenerAdapter.class, name, type);
+            String name = getMethodName(clazz);
+            return lookup.findVirtual(ListenerAdapter.class, name, type).asType(DISPATCH_TYPE);
         }
-        catch (NoSuchMethodException | IllegalAccessException ignored) {} // this means this is probably a custom event!
+        catch (NoSuchMethodException | IllegalAccessException | StringIndexOutOfBoundsException ignored) {} // this means this is probably a custom event!
         return null;
     }
 }
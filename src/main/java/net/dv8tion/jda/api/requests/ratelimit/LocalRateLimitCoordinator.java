@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests.ratelimit;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link RateLimitCoordinator} which keeps track of bucket reservations.
+ * <br>This can be used to coordinate JDA instances in the same JVM or as the state of a
+ * {@link RateLimitCoordinatorServer RateLimitCoordinatorServer} which is shared by multiple processes.
+ *
+ * <p>Besides the buckets this also limits the number of reservations per second to the global rate-limit
+ * of 50 requests per second by default.
+ *
+ * <p>This class is Thread-Safe.
+ *
+ * @since  4.4.0
+ */
+public class LocalRateLimitCoordinator implements RateLimitCoordinator
+{
+    /**
+     * The default number of requests allowed per second across all buckets
+     */
+    public static final int DEFAULT_GLOBAL_LIMIT = 50;
+    /**
+     * The time in milliseconds after which reservations without any update or release of their bucket are dropped.
+     * <br>This frees the reservations of processes which disconnected before their response arrived.
+     */
+    public static final long RESERVATION_TIMEOUT = 30000;
+    /**
+     * The delay in milliseconds returned while all uses of a reset bucket are reserved by requests in flight
+     */
+    public static final long PENDING_DELAY = 100;
+
+    private final Map<String, Bucket> buckets = new HashMap<>();
+    private final int globalLimit;
+    private long globalRateLimit;
+    private long globalWindow;
+    private int globalCount;
+
+    public LocalRateLimitCoordinator()
+    {
+        this(DEFAULT_GLOBAL_LIMIT);
+    }
+
+    /**
+     * Creates a new coordinator with the provided global limit.
+     *
+     * @param  globalLimit
+     *         The number of requests allowed per second across all buckets
+     *
+     * @throws IllegalArgumentException
+     *         If the provided limit is not positive
+     */
+    public LocalRateLimitCoordinator(int globalLimit)
+    {
+        Checks.positive(globalLimit, "Global limit");
+        this.globalLimit = globalLimit;
+    }
+
+    @Override
+    public synchronized long reserve(@Nonnull String bucket)
+    {
+        long now = getNow();
+        if (globalRateLimit > now)
+            return globalRateLimit - now;
+        // The global limit is counted in fixed windows of one second
+        if (globalWindow <= now)
+        {
+            globalWindow = now + 1000;
+            globalCount = 0;
+        }
+        if (globalCount >= globalLimit)
+            return globalWindow - now;
+
+        Bucket state = buckets.get(bucket);
+        if (state != null)
+        {
+            if (state.reserved > 0 && now - state.updated > RESERVATION_TIMEOUT)
+                state.reserved = 0;
+            // The window has reset, we expect the full limit until we are told otherwise
+            if (state.reset <= now && !state.expired)
+            {
+                state.remaining = state.limit;
+                state.reserved = 0;
+                state.expired = true;
+            }
+            if (state.remaining - state.reserved < 1)
+                return state.reset > now ? state.reset - now : PENDING_DELAY;
+            if (state.reserved++ == 0)
+                state.updated = now;
+        }
+        globalCount++;
+        return 0;
+    }
+
+    @Override
+    public synchronized void update(@Nonnull String bucket, int limit, int remaining, long reset)
+    {
+        Bucket state = buckets.computeIfAbsent(bucket, (k) -> new Bucket());
+        // Responses of the same window might arrive out of order, only a new window can increase the remaining uses
+        if (state.reset == reset)
+            remaining = Math.min(remaining, state.remaining);
+        else
+            state.expired = false;
+        state.limit = Math.max(1, limit);
+        state.remaining = remaining;
+        state.reset = reset;
+        state.updated = getNow();
+    }
+
+    @Override
+    public synchronized void release(@Nonnull String bucket)
+    {
+        // Reservations of unknown or expired buckets are not tracked
+        Bucket state = buckets.get(bucket);
+        if (state == null || state.reserved == 0)
+            return;
+        state.reserved--;
+        state.updated = getNow();
+    }
+
+    @Override
+    public synchronized void setGlobalRateLimit(long timestamp)
+    {
+        globalRateLimit = Math.max(globalRateLimit, timestamp);
+    }
+
+    /**
+     * Removes all buckets which have been reset before the provided timestamp.
+     *
+     * @param  timestamp
+     *         The epoch timestamp in milliseconds
+     */
+    public synchronized void cleanup(long timestamp)
+    {
+        buckets.values().removeIf(bucket -> bucket.reset < timestamp);
+    }
+
+    /**
+     * The number of buckets currently known to this coordinator
+     *
+     * @return The number of buckets
+     */
+    public synchronized int size()
+    {
+        return buckets.size();
+    }
+
+    /**
+     * The current time in milliseconds, used for all rate-limit calculations.
+     *
+     * @return The current epoch timestamp in milliseconds
+     */
+    protected long getNow()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private static class Bucket
+    {
+        private int limit = 1;
+        private int remaining = 1;
+        private int reserved = 0;
+        private long reset = 0;
+        private long updated = 0;
+        // Whether the reservations of the current window have been dropped after its reset
+        private boolean expired = false;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests.ratelimit;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Coordinates the REST rate-limits of multiple processes which use the same bot token.
+ * <br>Every JDA instance still handles its own rate-limits, the coordinator is asked before each request is sent
+ * and receives the rate-limit information of every response.
+ * This allows processes to share what they know about buckets instead of each of them learning the limits through 429 responses.
+ *
+ * <p>Buckets are identified by a key which is derived from the bucket hash provided by Discord and the major parameters
+ * of the route. The key is the same for all processes of the same bot.
+ * Buckets which are unknown to the coordinator should not be limited.
+ *
+ * <p>The methods of this interface are called from the rate-limit threads and should return quickly.
+ * Exceptions thrown by an implementation are logged and the request is sent as if no coordinator was configured.
+ *
+ * @since  4.4.0
+ *
+ * @see    LocalRateLimitCoordinator
+ * @see    SocketRateLimitCoordinator
+ */
+public interface RateLimitCoordinator
+{
+    /**
+     * Reserves one use of the provided bucket for a request which is about to be sent.
+     * <br>Every reservation is returned by exactly one {@link #release(String) release} once the request completed,
+     * even if it failed or was cancelled. Reservations also expire once the bucket resets.
+     *
+     * @param  bucket
+     *         The bucket key
+     *
+     * @return {@code 0} if the request can be sent, otherwise the delay in milliseconds before the request should be reserved again
+     */
+    long reserve(@Nonnull String bucket);
+
+    /**
+     * Updates the rate-limit information of a bucket after a response was received.
+     *
+     * @param  bucket
+     *         The bucket key
+     * @param  limit
+     *         The number of requests allowed per reset window
+     * @param  remaining
+     *         The remaining uses of the current window
+     * @param  reset
+     *         The epoch timestamp in milliseconds at which the current window resets
+     */
+    void update(@Nonnull String bucket, int limit, int remaining, long reset);
+
+    /**
+     * Returns a reservation of the provided bucket after its request completed.
+     * <br>This is called after the {@link #update(String, int, int, long) update} for the response, if there was one.
+     * Requests which fail with a server error or an I/O error never update the bucket and only release their reservation.
+     *
+     * @param  bucket
+     *         The bucket key
+     */
+    void release(@Nonnull String bucket);
+
+    /**
+     * Called when a process encountered the global rate-limit.
+     * <br>Reservations of all buckets should be delayed until the provided timestamp.
+     *
+     * @param  timestamp
+     *         The epoch timestamp in milliseconds at which the global rate-limit ends
+     */
+    void setGlobalRateLimit(long timestamp);
+}
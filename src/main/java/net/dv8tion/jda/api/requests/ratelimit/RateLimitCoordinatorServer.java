@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests.ratelimit;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Serves a {@link RateLimitCoordinator} to other processes, which connect using a {@link SocketRateLimitCoordinator}.
+ *
+ * <p>The protocol is line based and uses UTF-8, every request line is answered by exactly one response line.
+ * <ul>
+ *     <li>{@code RESERVE <bucket>} is answered with the delay returned by {@link RateLimitCoordinator#reserve(String)}</li>
+ *     <li>{@code UPDATE <limit> <remaining> <reset> <bucket>} is answered with {@code OK}</li>
+ *     <li>{@code RELEASE <bucket>} is answered with {@code OK}</li>
+ *     <li>{@code GLOBAL <timestamp>} is answered with {@code OK}</li>
+ * </ul>
+ * Invalid requests are answered with {@code ERROR <message>}. The bucket key is always the rest of the line.
+ *
+ * <p>A server with a secret expects {@code AUTH <secret>} as the first line of every connection, which is answered with {@code OK}.
+ * Connections which send a different first line are answered with {@code ERROR} and closed.
+ * The secret is sent in plain text, remote connections should only be used within a trusted network.
+ *
+ * <p>Every connection is handled by its own daemon thread.
+ * Requests of a connection may be pipelined, the responses are sent in the same order.
+ *
+ * <h2>Example</h2>
+ * <pre><code>
+ * // Only reachable from the same machine
+ * RateLimitCoordinatorServer server = new RateLimitCoordinatorServer(new LocalRateLimitCoordinator(), 7400);
+ * server.start();
+ *
+ * // Reachable from other machines, clients must use the same secret
+ * RateLimitCoordinatorServer remote = new RateLimitCoordinatorServer(new LocalRateLimitCoordinator(), new InetSocketAddress("10.0.0.2", 7400), secret);
+ * remote.start();
+ * </code></pre>
+ *
+ * @since  4.4.0
+ */
+public class RateLimitCoordinatorServer implements Closeable
+{
+    public static final Logger LOG = JDALogger.getLog(RateLimitCoordinatorServer.class);
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory threadFactory = new CountingThreadFactory(() -> "RateLimitCoordinator", "Server");
+    private final RateLimitCoordinator coordinator;
+    private final ServerSocket server;
+    private final byte[] secret;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new server on the provided port of the loopback address.
+     * <br>Only processes of the same machine can connect to this server.
+     *
+     * @param  coordinator
+     *         The coordinator to serve
+     * @param  port
+     *         The port, or {@code 0} to use any free port
+     *
+     * @throws IOException
+     *         If the server socket cannot be bound
+     */
+    public RateLimitCoordinatorServer(@Nonnull RateLimitCoordinator coordinator, int port) throws IOException
+    {
+        this(coordinator, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Creates a new server on the provided loopback address.
+     *
+     * @param  coordinator
+     *         The coordinator to serve
+     * @param  address
+     *         The loopback address to bind to
+     *
+     * @throws IllegalArgumentException
+     *         If the address is not a loopback address, use {@link #RateLimitCoordinatorServer(RateLimitCoordinator, SocketAddress, String)} instead
+     * @throws IOException
+     *         If the server socket cannot be bound
+     */
+    public RateLimitCoordinatorServer(@Nonnull RateLimitCoordinator coordinator, @Nonnull SocketAddress address) throws IOException
+    {
+        this(coordinator, address, null);
+    }
+
+    /**
+     * Creates a new server on the provided address.
+     * <br>Servers which are reachable from other machines require a secret, which has to be provided by every client.
+     *
+     * @param  coordinator
+     *         The coordinator to serve
+     * @param  address
+     *         The address to bind to
+     * @param  secret
+     *         The shared secret of the clients, or {@code null} to accept all connections of a loopback address
+     *
+     * @throws IllegalArgumentException
+     *         If the secret is empty, or null for an address which is not a loopback address
+     * @throws IOException
+     *         If the server socket cannot be bound
+     */
+    public RateLimitCoordinatorServer(@Nonnull RateLimitCoordinator coordinator, @Nonnull SocketAddress address, @Nullable String secret) throws IOException
+    {
+        Checks.notNull(coordinator, "Coordinator");
+        Checks.notNull(address, "Address");
+        if (secret == null)
+            Checks.check(isLoopback(address), "A secret is required to bind to %s, which is not a loopback address", address);
+        else
+            Checks.notEmpty(secret, "Secret");
+        this.coordinator = coordinator;
+        this.secret = secret == null ? null : secret.getBytes(StandardCharsets.UTF_8);
+        this.server = new ServerSocket();
+        this.server.bind(address);
+    }
+
+    /**
+     * The local port of this server
+     *
+     * @return The port
+     */
+    public int getPort()
+    {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections on a new daemon thread.
+     *
+     * @return This server instance. Useful for chaining.
+     */
+    @Nonnull
+    public RateLimitCoordinatorServer start()
+    {
+        threadFactory.newThread(this::accept).start();
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        server.close();
+        for (Socket socket : connections)
+            socket.close();
+        connections.clear();
+    }
+
+    private void accept()
+    {
+        while (!closed)
+        {
+            try
+            {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                threadFactory.newThread(() -> serve(socket)).start();
+            }
+            catch (IOException e)
+            {
+                if (!closed)
+                    LOG.error("Failed to accept rate-limit coordinator connection", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket)
+    {
+        try (Socket ignored = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))
+        {
+            if (secret != null && !authenticate(reader.readLine()))
+            {
+                LOG.warn("Rejected rate-limit coordinator connection from {} with an invalid secret", socket.getRemoteSocketAddress());
+                writer.write("ERROR Invalid secret\n");
+                writer.flush();
+                return;
+            }
+            if (secret != null)
+                writer.write("OK\n");
+
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                writer.write(handle(coordinator, line));
+                writer.write('\n');
+                // Pipelined requests are answered with a single flush
+                if (!reader.ready())
+                    writer.flush();
+            }
+        }
+        catch (IOException e)
+        {
+            if (!closed)
+                LOG.debug("Rate-limit coordinator connection closed", e);
+        }
+        finally
+        {
+            connections.remove(socket);
+        }
+    }
+
+    private boolean authenticate(String line)
+    {
+        if (line == null || !line.startsWith("AUTH "))
+            return false;
+        byte[] provided = line.substring(5).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(secret, provided);
+    }
+
+    private static boolean isLoopback(SocketAddress address)
+    {
+        if (!(address instanceof InetSocketAddress))
+            return false;
+        InetAddress inetAddress = ((InetSocketAddress) address).getAddress();
+        return inetAddress != null && inetAddress.isLoopbackAddress();
+    }
+
+    static String handle(RateLimitCoordinator coordinator, String line)
+    {
+        int index = line.indexOf(' ');
+        if (index < 0)
+            return "ERROR Missing arguments";
+        String command = line.substring(0, index);
+        String arguments = line.substring(index + 1);
+        try
+        {
+            switch (command)
+            {
+                case "RESERVE":
+                    return Long.toString(coordinator.reserve(arguments));
+                case "UPDATE":
+                    String[] parts = arguments.split(" ", 4);
+                    if (parts.length < 4)
+                        return "ERROR Missing arguments";
+                    coordinator.update(parts[3], Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+                    return "OK";
+                case "RELEASE":
+                    coordinator.release(arguments);
+                    return "OK";
+                case "GLOBAL":
+                    coordinator.setGlobalRateLimit(Long.parseLong(arguments));
+                    return "OK";
+                default:
+                    return "ERROR Unknown command " + command;
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            return "ERROR Invalid number " + e.getMessage();
+        }
+    }
+}
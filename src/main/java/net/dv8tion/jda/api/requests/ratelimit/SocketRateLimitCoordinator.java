@@ -0,0 +1,306 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests.ratelimit;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * {@link RateLimitCoordinator} which forwards all calls to a {@link RateLimitCoordinatorServer} of another process.
+ *
+ * <p>All calls share a single connection, requests of concurrent threads are pipelined instead of waiting for each other.
+ * Only {@link #reserve(String) reserve} waits for the response of the server,
+ * all other calls return once the request was written.
+ * If the server cannot be reached the coordinator is bypassed, requests are then only limited by the local rate-limit handling.
+ * A new connection is attempted after {@link #RECONNECT_DELAY} milliseconds.
+ *
+ * <h2>Example</h2>
+ * <pre><code>
+ * JDABuilder.createDefault(BOT_TOKEN)
+ *     .setRateLimitCoordinator(new SocketRateLimitCoordinator(new InetSocketAddress("10.0.0.2", 7400), 1000, secret))
+ *     .build();
+ * </code></pre>
+ *
+ * <p>This class is Thread-Safe.
+ *
+ * @since  4.4.0
+ */
+public class SocketRateLimitCoordinator implements RateLimitCoordinator, Closeable
+{
+    public static final Logger LOG = JDALogger.getLog(SocketRateLimitCoordinator.class);
+    /**
+     * The delay in milliseconds before connecting again after the connection failed
+     */
+    public static final long RECONNECT_DELAY = 5000;
+
+    private final ThreadFactory threadFactory = new CountingThreadFactory(() -> "RateLimitCoordinator", "Client");
+    private final SocketAddress address;
+    private final int timeout;
+    private final String secret;
+    private Connection connection;
+    private long reconnectTime = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new coordinator client with a timeout of 1 second and without a secret.
+     *
+     * @param  host
+     *         The host of the {@link RateLimitCoordinatorServer}
+     * @param  port
+     *         The port of the {@link RateLimitCoordinatorServer}
+     */
+    public SocketRateLimitCoordinator(@Nonnull String host, int port)
+    {
+        this(new InetSocketAddress(host, port), 1000);
+    }
+
+    /**
+     * Creates a new coordinator client without a secret.
+     *
+     * @param  address
+     *         The address of the {@link RateLimitCoordinatorServer}
+     * @param  timeout
+     *         The connect and read timeout in milliseconds
+     *
+     * @throws IllegalArgumentException
+     *         If the address is null or the timeout is not positive
+     */
+    public SocketRateLimitCoordinator(@Nonnull SocketAddress address, int timeout)
+    {
+        this(address, timeout, null);
+    }
+
+    /**
+     * Creates a new coordinator client.
+     *
+     * @param  address
+     *         The address of the {@link RateLimitCoordinatorServer}
+     * @param  timeout
+     *         The connect and read timeout in milliseconds
+     * @param  secret
+     *         The secret of the {@link RateLimitCoordinatorServer}, or {@code null} if the server does not use a secret
+     *
+     * @throws IllegalArgumentException
+     *         If the address is null, the timeout is not positive or the secret is empty
+     */
+    public SocketRateLimitCoordinator(@Nonnull SocketAddress address, int timeout, @Nullable String secret)
+    {
+        Checks.notNull(address, "Address");
+        Checks.positive(timeout, "Timeout");
+        if (secret != null)
+            Checks.notEmpty(secret, "Secret");
+        this.address = address;
+        this.timeout = timeout;
+        this.secret = secret;
+    }
+
+    @Override
+    public long reserve(@Nonnull String bucket)
+    {
+        Connection connection = getConnection();
+        if (connection == null)
+            return 0L;
+        CompletableFuture<String> response = connection.send("RESERVE " + bucket);
+        try
+        {
+            String delay = response.get(timeout, TimeUnit.MILLISECONDS);
+            return delay == null ? 0L : Long.parseLong(delay);
+        }
+        catch (TimeoutException e)
+        {
+            failed(connection, new SocketTimeoutException("No response within " + timeout + " ms"));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ignored) {}
+        return 0L;
+    }
+
+    @Override
+    public void update(@Nonnull String bucket, int limit, int remaining, long reset)
+    {
+        post("UPDATE " + limit + " " + remaining + " " + reset + " " + bucket);
+    }
+
+    @Override
+    public void release(@Nonnull String bucket)
+    {
+        post("RELEASE " + bucket);
+    }
+
+    @Override
+    public void setGlobalRateLimit(long timestamp)
+    {
+        post("GLOBAL " + timestamp);
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        if (connection != null)
+            connection.close();
+        connection = null;
+    }
+
+    private void post(String request)
+    {
+        Connection connection = getConnection();
+        if (connection != null)
+            connection.send(request);
+    }
+
+    private synchronized Connection getConnection()
+    {
+        if (closed || connection != null)
+            return connection;
+        long now = System.currentTimeMillis();
+        if (reconnectTime > now)
+            return null;
+        Socket socket = new Socket();
+        try
+        {
+            socket.connect(address, timeout);
+            socket.setTcpNoDelay(true);
+            connection = new Connection(socket);
+            threadFactory.newThread(connection::read).start();
+            // The server answers the secret before any other request, which lets it be pipelined as well
+            if (secret != null)
+                connection.send("AUTH " + secret);
+            return connection;
+        }
+        catch (IOException e)
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException ignored) {}
+            connection = null;
+            reconnectTime = now + RECONNECT_DELAY;
+            LOG.warn("Failed to reach rate-limit coordinator at {}, trying again in {} ms: {}", address, RECONNECT_DELAY, e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized void failed(Connection connection, IOException error)
+    {
+        connection.close();
+        if (this.connection != connection)
+            return;
+        this.connection = null;
+        reconnectTime = System.currentTimeMillis() + RECONNECT_DELAY;
+        LOG.warn("Failed to reach rate-limit coordinator at {}, trying again in {} ms: {}", address, RECONNECT_DELAY, error.getMessage());
+    }
+
+    private class Connection
+    {
+        // Responses are sent in the order of the requests, each one completes the oldest pending request
+        private final Queue<CompletableFuture<String>> pending = new ConcurrentLinkedQueue<>();
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final Writer writer;
+        private volatile boolean closed = false;
+
+        private Connection(Socket socket) throws IOException
+        {
+            this.socket = socket;
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        private CompletableFuture<String> send(String request)
+        {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            try
+            {
+                synchronized (this)
+                {
+                    pending.add(response);
+                    if (closed)
+                        throw new EOFException("Connection closed");
+                    writer.write(request);
+                    writer.write('\n');
+                    writer.flush();
+                }
+            }
+            catch (IOException e)
+            {
+                failed(this, e);
+                response.complete(null);
+                return response;
+            }
+            return response.thenApply(line ->
+            {
+                if (line == null || !line.startsWith("ERROR"))
+                    return line;
+                LOG.warn("Rate-limit coordinator rejected request '{}': {}", request.startsWith("AUTH ") ? "AUTH" : request, line);
+                return null;
+            });
+        }
+
+        private void read()
+        {
+            try
+            {
+                String line;
+                while ((line = reader.readLine()) != null)
+                {
+                    CompletableFuture<String> response = pending.poll();
+                    if (response != null)
+                        response.complete(line);
+                }
+                throw new EOFException("Connection closed by coordinator");
+            }
+            catch (IOException e)
+            {
+                if (!closed)
+                    failed(this, e);
+            }
+        }
+
+        private void close()
+        {
+            // Not synchronized, a write which is blocked by the server is interrupted by closing the socket
+            closed = true;
+            try
+            {
+                socket.close();
+            }
+            catch (IOException ignored) {}
+            // Requests without a response bypass the coordinator
+            CompletableFuture<String> response;
+            while ((response = pending.poll()) != null)
+                response.complete(null);
+        }
+    }
+}
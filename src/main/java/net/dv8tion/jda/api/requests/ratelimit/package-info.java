@@ -0,0 +1,27 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Coordination of REST rate-limits between multiple processes.
+ *
+ * <p>A {@link net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator RateLimitCoordinator} can be configured
+ * on the {@link net.dv8tion.jda.api.JDABuilder JDABuilder} or {@link net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder DefaultShardManagerBuilder}
+ * to share bucket reservations between all processes of the same bot.
+ * The {@link net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinatorServer RateLimitCoordinatorServer}
+ * and {@link net.dv8tion.jda.api.requests.ratelimit.SocketRateLimitCoordinator SocketRateLimitCoordinator} provide a reference implementation
+ * over a simple line based socket protocol.
+ */
+package net.dv8tion.jda.api.requests.ratelimit;
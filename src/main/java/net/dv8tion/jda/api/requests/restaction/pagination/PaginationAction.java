@@ -251,6 +251,38 @@ public interface PaginationAction<T, M extends PaginationAction<T, M>> extends R
      */
     boolean isCacheEnabled();
 
+    /**
+     * Whether the next page should already be requested while the current page is being consumed.
+     * <br>This is used by {@link #forEachAsync(Procedure)}, {@link #forEachRemainingAsync(Procedure)} and the {@link #iterator() iterator},
+     * which otherwise only request the next page once the consumer has finished the current one.
+     *
+     * <p>Pages are requested relative to the last retrieved entity, which means only one page can be requested ahead of time.
+     * When the consumer stops early, the prefetched page is kept in the {@link #getCached() cache}.
+     * For this reason prefetching is only used while the {@link #cache(boolean) cache} is enabled.
+     *
+     * <p><b>Default: false</b>
+     *
+     * @param  enable
+     *         Whether to request the next page ahead of time
+     *
+     * @return The current PaginationAction implementation instance
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    M prefetch(boolean enable);
+
+    /**
+     * Whether the next page is requested while the current page is being consumed.
+     *
+     * @return True, if pages are prefetched
+     *
+     * @see    #prefetch(boolean)
+     *
+     * @since  4.4.0
+     */
+    boolean isPrefetch();
+
     /**
      * The maximum limit that can be used for this PaginationAction
      * <br>Limits provided to {@link #limit(int)} must not be greater
@@ -21,6 +21,7 @@ import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.hooks.EventOrdering;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.ChunkingFilter;
 import net.dv8tion.jda.api.utils.MiscUtil;
@@ -31,6 +32,7 @@ import net.dv8tion.jda.internal.entities.SelfUserImpl;
 import net.dv8tion.jda.internal.managers.PresenceImpl;
 import net.dv8tion.jda.internal.requests.RestActionImpl;
 import net.dv8tion.jda.internal.requests.Route;
+import net.dv8tion.jda.internal.requests.ratelimit.RateLimitRegistry;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
@@ -50,6 +52,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.IntFunction;
@@ -64,6 +67,8 @@ import java.util.function.IntFunction;
 public class DefaultShardManager implements ShardManager
 {
     public static final Logger LOG = JDALogger.getLog(ShardManager.class);
+    // Size of the rate-limit pool of a single shard
+    protected static final int RATE_LIMIT_THREADS = 5;
     public static final ThreadFactory DEFAULT_THREAD_FACTORY = r ->
     {
         final Thread t = new Thread(r, "DefaultShardManager");
@@ -146,6 +151,21 @@ public class DefaultShardManager implements ShardManager
      */
     protected final ChunkingFilter chunkingFilter;
 
+    /**
+     * {@link RateLimitRegistry} shared by all shards, {@code null} if every shard handles its own rate-limits.
+     */
+    protected final RateLimitRegistry rateLimitRegistry;
+
+    /**
+     * The shards which use the scheduler of the shared {@link #rateLimitRegistry}, the scheduler is sized by this count.
+     */
+    protected final Set<Integer> rateLimitShards = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The event pool shared by all shards without their own event pool, only created when an event ordering is configured.
+     */
+    protected ExecutorService sharedEventPool;
+
     public DefaultShardManager(@Nonnull String token)
     {
         this(token, null);
@@ -173,6 +193,7 @@ public class DefaultShardManager implements ShardManager
         this.chunkingFilter = chunkingFilter == null ? ChunkingFilter.ALL : chunkingFilter;
         this.executor = createExecutor(this.threadingConfig.getThreadFactory());
         this.shutdownHook = this.metaConfig.isUseShutdownHook() ? new Thread(this::shutdown, "JDA Shutdown Hook") : null;
+        this.rateLimitRegistry = this.sessionConfig.isSharedRateLimit() ? createRateLimitRegistry() : null;
 
         synchronized (queue)
         {
@@ -355,15 +376,28 @@ public class DefaultShardManager implements ShardManager
                     });
                     queue.clear();
                 }
+                if (this.rateLimitRegistry != null)
+                    this.rateLimitRegistry.close();
+                shutdownSharedEventPool();
                 this.executor.shutdown();
             });
         }
         else
         {
+            if (this.rateLimitRegistry != null)
+                this.rateLimitRegistry.close();
+            shutdownSharedEventPool();
             this.executor.shutdown();
         }
     }
 
+    // The shards hand their remaining events to the pool before they are shutdown, which lets the pool finish them
+    protected synchronized void shutdownSharedEventPool()
+    {
+        if (sharedEventPool != null)
+            sharedEventPool.shutdown();
+    }
+
     @Override
     public void shutdown(final int shardId)
     {
@@ -486,6 +520,12 @@ public class DefaultShardManager implements ShardManager
         ExecutorPair<ScheduledExecutorService> rateLimitPair = resolveExecutor(threadingConfig.getRateLimitPoolProvider(), shardId);
         ScheduledExecutorService rateLimitPool = rateLimitPair.executor;
         boolean shutdownRateLimitPool = rateLimitPair.automaticShutdown;
+        if (rateLimitPool == null && rateLimitRegistry != null)
+        {
+            // Shards use the scheduler of the shared registry, it is shutdown by the registry itself
+            rateLimitPool = getSharedRateLimitPool(shardId);
+            shutdownRateLimitPool = false;
+        }
 
         ExecutorPair<ScheduledExecutorService> gatewayPair = resolveExecutor(threadingConfig.getGatewayPoolProvider(), shardId);
         ScheduledExecutorService gatewayPool = gatewayPair.executor;
@@ -498,20 +538,28 @@ public class DefaultShardManager implements ShardManager
         ExecutorPair<ExecutorService> eventPair = resolveExecutor(threadingConfig.getEventPoolProvider(), shardId);
         ExecutorService eventPool = eventPair.executor;
         boolean shutdownEventPool = eventPair.automaticShutdown;
+        if (eventPool == null && this.threadingConfig.getEventOrdering() != EventOrdering.NONE)
+        {
+            // Shards share one event pool, it is shutdown by the manager
+            eventPool = getSharedEventPool();
+            shutdownEventPool = false;
+        }
 
         ExecutorPair<ScheduledExecutorService> audioPair = resolveExecutor(threadingConfig.getAudioPoolProvider(), shardId);
         ScheduledExecutorService audioPool = audioPair.executor;
         boolean shutdownAudioPool = audioPair.automaticShutdown;
 
         AuthorizationConfig authConfig = new AuthorizationConfig(token);
-        SessionConfig sessionConfig = this.sessionConfig.toSessionConfig(httpClient);
+        SessionConfig sessionConfig = this.sessionConfig.toSessionConfig(httpClient, rateLimitRegistry);
         ThreadingConfig threadingConfig = new ThreadingConfig();
         threadingConfig.setRateLimitPool(rateLimitPool, shutdownRateLimitPool);
         threadingConfig.setGatewayPool(gatewayPool, shutdownGatewayPool);
         threadingConfig.setCallbackPool(callbackPool, shutdownCallbackPool);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
+        threadingConfig.setEventOrdering(this.threadingConfig.getEventOrdering(), this.threadingConfig.getEventQueueCapacity());
+        threadingConfig.setVirtualThreads(this.threadingConfig.isVirtualThreads());
         threadingConfig.setAudioPool(audioPool, shutdownAudioPool);
-        MetaConfig metaConfig = new MetaConfig(this.metaConfig.getMaxBufferSize(), this.metaConfig.getContextMap(shardId), this.metaConfig.getCacheFlags(), this.sessionConfig.getFlags());
+        MetaConfig metaConfig = new MetaConfig(this.metaConfig.getMaxBufferSize(), this.metaConfig.getContextMap(shardId), this.metaConfig.getCacheFlags(), this.metaConfig.getOptimisticCaches(), this.sessionConfig.getFlags());
         final JDAImpl jda = new JDAImpl(authConfig, sessionConfig, threadingConfig, metaConfig);
         jda.setMemberCachePolicy(shardingConfig.getMemberCachePolicy());
         threadingConfig.init(jda::getIdentifierString);
@@ -646,6 +694,57 @@ public class DefaultShardManager implements ShardManager
         return Executors.newSingleThreadScheduledExecutor(factory);
     }
 
+    /**
+     * Creates the {@link RateLimitRegistry} shared by all shards.
+     * <br>The registry owns its scheduler and shuts it down once all shards have finished their requests.
+     * The scheduler starts with the threads of a single shard and grows with every shard using it, see {@link #getSharedRateLimitPool(int)}.
+     *
+     * @return A new RateLimitRegistry
+     */
+    protected RateLimitRegistry createRateLimitRegistry()
+    {
+        ScheduledExecutorService scheduler = ThreadingConfig.newScheduler(RATE_LIMIT_THREADS, () -> "DefaultShardManager", "RateLimit", false);
+        return new RateLimitRegistry(scheduler, sessionConfig.getSessionController(), sessionConfig.getRateLimitCoordinator(),
+                sessionConfig.isRelativeRateLimit(), sessionConfig.isConcurrentRequests());
+    }
+
+    /**
+     * Provides the scheduler of the shared {@link RateLimitRegistry} to the shard.
+     * <br>Buckets still block a thread while a request is executed unless concurrent requests are enabled,
+     * so the scheduler gets as many threads for each shard as the shard would have with its own pool.
+     *
+     * @param  shardId
+     *         The id of the shard using the scheduler
+     *
+     * @return The scheduler of the shared registry
+     */
+    protected ScheduledExecutorService getSharedRateLimitPool(int shardId)
+    {
+        ScheduledExecutorService scheduler = rateLimitRegistry.getScheduler();
+        if (rateLimitShards.add(shardId) && scheduler instanceof ScheduledThreadPoolExecutor)
+        {
+            ScheduledThreadPoolExecutor executor = (ScheduledThreadPoolExecutor) scheduler;
+            synchronized (rateLimitShards)
+            {
+                executor.setCorePoolSize(Math.max(executor.getCorePoolSize(), RATE_LIMIT_THREADS * rateLimitShards.size()));
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Provides the event pool shared by all shards without an {@link ThreadingProviderConfig#getEventPoolProvider() event pool provider}.
+     * <br>The pool is created for the first shard, so a sharded bot only gets a single pool with one thread per core.
+     *
+     * @return The shared event pool
+     */
+    protected synchronized ExecutorService getSharedEventPool()
+    {
+        if (sharedEventPool == null)
+            sharedEventPool = ThreadingConfig.newEventPool(() -> "DefaultShardManager", this.threadingConfig.isVirtualThreads());
+        return sharedEventPool;
+    }
+
     protected static <E extends ExecutorService> ExecutorPair<E> resolveExecutor(ThreadPoolProvider<? extends E> provider, int shardId)
     {
         E executor = null;
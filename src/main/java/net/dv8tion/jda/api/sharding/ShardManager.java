@@ -491,9 +491,8 @@ public interface ShardManager
     {
         Checks.noneNull(users, "users");
         return Collections.unmodifiableList(
-                this.getGuildCache().stream()
-                .filter(guild -> users.stream()
-                        .allMatch(guild::isMember))
+                this.getShardCache().stream()
+                .flatMap(shard -> shard.getMutualGuilds(users).stream())
                 .collect(Collectors.toList()));
     }
 
@@ -512,6 +511,26 @@ public interface ShardManager
         return this.getMutualGuilds(Arrays.asList(users));
     }
 
+    /**
+     * Gets all {@link net.dv8tion.jda.api.entities.Guild Guilds} that contain the user with the provided id as member.
+     * <br>This uses the membership index of each shard, see {@link JDA#getMutualGuilds(long)}.
+     *
+     * @param  userId
+     *         The id of the user
+     *
+     * @return Unmodifiable list of all {@link net.dv8tion.jda.api.entities.Guild Guild} instances which have the user in them.
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    default List<Guild> getMutualGuilds(final long userId)
+    {
+        return Collections.unmodifiableList(
+                this.getShardCache().stream()
+                .flatMap(shard -> shard.getMutualGuilds(userId).stream())
+                .collect(Collectors.toList()));
+    }
+
     /**
      * Attempts to retrieve a {@link net.dv8tion.jda.api.entities.User User} object based on the provided id.
      * <br>This first calls {@link #getUserById(long)}, and if the return is {@code null} then a request
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.cache;
+
+/**
+ * The snowflake caches of JDA which can be configured individually.
+ *
+ * @see net.dv8tion.jda.api.JDABuilder#setOptimisticCacheReads(java.util.Collection)
+ * @see net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setOptimisticCacheReads(java.util.Collection)
+ *
+ * @since 4.4.0
+ */
+public enum SnowflakeCacheType
+{
+    /** The {@link net.dv8tion.jda.api.JDA#getUserCache() user cache} */
+    USER,
+    /** The {@link net.dv8tion.jda.api.JDA#getGuildCache() guild cache} */
+    GUILD,
+    /** The text, voice, store and category caches of JDA and each guild */
+    CHANNEL,
+    /** The {@link net.dv8tion.jda.api.JDA#getPrivateChannelCache() private channel cache} */
+    PRIVATE_CHANNEL,
+    /** The {@link net.dv8tion.jda.api.entities.Guild#getMemberCache() member cache} of each guild */
+    MEMBER,
+    /** The {@link net.dv8tion.jda.api.entities.Guild#getRoleCache() role cache} of each guild */
+    ROLE,
+    /** The {@link net.dv8tion.jda.api.entities.Guild#getEmoteCache() emote cache} of each guild */
+    EMOTE
+}
@@ -28,6 +28,8 @@ import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
 import net.dv8tion.jda.api.utils.data.etf.ExTermEncoder;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.Helpers;
+import net.dv8tion.jda.internal.utils.data.CompactJsonParser;
+import net.dv8tion.jda.internal.utils.data.CompactMap;
 import org.jetbrains.annotations.Contract;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +56,7 @@ public class DataObject implements SerializableData
     private static final ObjectMapper mapper;
     private static final SimpleModule module;
     private static final MapType mapType;
+    private static final ExTermDecoder COMPACT_DECODER = new ExTermDecoder(CompactMap::new);
 
     static
     {
@@ -185,6 +188,74 @@ public class DataObject implements SerializableData
         }
     }
 
+    /**
+     * Parses a JSON payload into a DataObject instance.
+     * <br>This reads the remaining bytes of the buffer without copying them first.
+     * The position of the provided buffer is not modified.
+     *
+     * @param  buffer
+     *         The correctly formatted JSON payload to parse
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided json is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public static DataObject fromJson(@Nonnull ByteBuffer buffer)
+    {
+        Checks.notNull(buffer, "Buffer");
+        if (!buffer.hasArray())
+            return fromJson(new ByteBufferInputStream(buffer.duplicate()));
+        try
+        {
+            Map<String, Object> map = mapper.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), mapType);
+            return new DataObject(map);
+        }
+        catch (IOException ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
+    /**
+     * Parses a JSON payload into a compact DataObject instance.
+     * <br>Instead of {@link HashMap HashMaps}, the objects of the payload are stored in flat arrays
+     * which share the key instances between payloads. This reduces the allocations for short-lived payloads
+     * that are only read once, at the cost of linear lookups for objects with many keys.
+     *
+     * <p>The position of the provided buffer is not modified.
+     *
+     * @param  buffer
+     *         The correctly formatted JSON payload to parse
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided json is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public static DataObject fromCompactJson(@Nonnull ByteBuffer buffer)
+    {
+        Checks.notNull(buffer, "Buffer");
+        try
+        {
+            if (buffer.hasArray())
+                return new DataObject(CompactJsonParser.parseObject(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+            byte[] data = new byte[buffer.remaining()];
+            buffer.duplicate().get(data);
+            return new DataObject(CompactJsonParser.parseObject(data, 0, data.length));
+        }
+        catch (IOException ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
     /**
      * Parses using {@link ExTermDecoder}.
      * The provided data must start with the correct version header (131).
@@ -217,6 +288,102 @@ public class DataObject implements SerializableData
         }
     }
 
+    /**
+     * Parses using {@link ExTermDecoder}.
+     * The provided data must start with the correct version header (131).
+     * <br>This reads the remaining bytes of the buffer without copying them first.
+     * The position of the provided buffer is not modified.
+     *
+     * @param  buffer
+     *         The data to decode
+     *
+     * @throws IllegalArgumentException
+     *         If the provided buffer is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted or an I/O error occurred
+     *
+     * @return A DataObject instance for the provided payload
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public static DataObject fromETF(@Nonnull ByteBuffer buffer)
+    {
+        Checks.notNull(buffer, "Buffer");
+        try
+        {
+            Map<String, Object> map = ExTermDecoder.unpackMap(buffer.duplicate());
+            return new DataObject(map);
+        }
+        catch (Exception ex)
+        {
+            log.error("Failed to parse ETF data of length {}", buffer.remaining(), ex);
+            throw new ParsingException(ex);
+        }
+    }
+
+    /**
+     * Parses using {@link ExTermDecoder} into a compact DataObject instance.
+     * <br>See {@link #fromCompactJson(ByteBuffer)} for details on the compact representation.
+     *
+     * <p>The position of the provided buffer is not modified.
+     *
+     * @param  buffer
+     *         The data to decode
+     *
+     * @throws IllegalArgumentException
+     *         If the provided buffer is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted or an I/O error occurred
+     *
+     * @return A DataObject instance for the provided payload
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public static DataObject fromCompactETF(@Nonnull ByteBuffer buffer)
+    {
+        return fromETF(buffer, COMPACT_DECODER);
+    }
+
+    /**
+     * Parses using the provided {@link ExTermDecoder}.
+     * The provided data must start with the correct version header (131).
+     * <br>The decoder configuration decides which map type is used and which keys are skipped.
+     *
+     * <p>The position of the provided buffer is not modified.
+     *
+     * @param  buffer
+     *         The data to decode
+     * @param  decoder
+     *         The decoder to use
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted or an I/O error occurred
+     *
+     * @return A DataObject instance for the provided payload
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    public static DataObject fromETF(@Nonnull ByteBuffer buffer, @Nonnull ExTermDecoder decoder)
+    {
+        Checks.notNull(buffer, "Buffer");
+        Checks.notNull(decoder, "Decoder");
+        try
+        {
+            Map<String, Object> map = decoder.decodeMap(buffer.duplicate());
+            return new DataObject(map);
+        }
+        catch (Exception ex)
+        {
+            log.error("Failed to parse ETF data of length {}", buffer.remaining(), ex);
+            throw new ParsingException(ex);
+        }
+    }
+
     /**
      * Whether the specified key is present.
      *
@@ -832,4 +999,38 @@ public class DataObject implements SerializableData
         throw new ParsingException(Helpers.format("Cannot parse value for %s into type %s: %s instance of %s",
                                                       key, type.getSimpleName(), value, value.getClass().getSimpleName()));
     }
+
+    private static class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] b, int off, int len)
+        {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
 }
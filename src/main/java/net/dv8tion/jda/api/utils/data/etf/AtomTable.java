@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.data.etf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Bounded intern table for atoms and map keys.
+ *
+ * <p>This is a direct-mapped cache, a colliding key simply replaces the previous entry.
+ * Entries are immutable so racing writers can at worst evict each other, which only costs another decode.
+ */
+class AtomTable
+{
+    private static final int SIZE = 1024; // must be a power of 2
+    private static final int MAX_LENGTH = 32;
+    private static final Entry[] table = new Entry[SIZE];
+
+    static String get(ByteBuffer buffer, Charset charset, int length)
+    {
+        if (length > MAX_LENGTH || !buffer.hasArray())
+            return ExTermDecoder.getString(buffer, charset, length);
+
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset() + buffer.position();
+        int hash = 1;
+        for (int i = 0; i < length; i++)
+        {
+            byte b = array[offset + i];
+            if (b < 0) // only intern ascii, which decodes the same for both charsets
+                return ExTermDecoder.getString(buffer, charset, length);
+            hash = 31 * hash + b;
+        }
+
+        int index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        Entry entry = table[index];
+        if (entry != null && entry.matches(array, offset, length))
+        {
+            buffer.position(buffer.position() + length);
+            return entry.value;
+        }
+
+        String value = ExTermDecoder.getString(buffer, charset, length);
+        table[index] = new Entry(array, offset, length, value);
+        return value;
+    }
+
+    private static class Entry
+    {
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(byte[] array, int offset, int length, String value)
+        {
+            this.bytes = new byte[length];
+            System.arraycopy(array, offset, this.bytes, 0, length);
+            this.value = value;
+        }
+
+        private boolean matches(byte[] array, int offset, int length)
+        {
+            if (bytes.length != length)
+                return false;
+            for (int i = 0; i < length; i++)
+            {
+                if (bytes[i] != array[offset + i])
+                    return false;
+            }
+            return true;
+        }
+    }
+}
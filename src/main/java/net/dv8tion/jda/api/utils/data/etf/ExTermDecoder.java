@@ -16,6 +16,10 @@
 
 package net.dv8tion.jda.api.utils.data.etf;
 
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.data.CompactMap;
+
+import javax.annotation.Nonnull;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -23,6 +27,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.zip.InflaterOutputStream;
 
 import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
@@ -30,6 +35,14 @@ import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
 /**
  * Decodes an ETF encoded payload to a java object representation.
  *
+ * <p>Atoms and map keys are interned in a table shared by all decoders, so repeated keys such as {@code "id"}
+ * are only decoded once. Binaries are decoded directly from the backing array of the buffer.
+ *
+ * <p>Instances of this class can be configured with a map factory and the paths of values which are skipped entirely,
+ * without decoding any of the nested terms. The paths are scoped to a type, which is read from a key of the root map.
+ * For example, a decoder with the type key {@code "t"} which skips {@code "d.presences"} for {@code "GUILD_CREATE"}
+ * will only leave out the presences of the guild in payloads with {@code "t": "GUILD_CREATE"}.
+ *
  * @see #unpack(ByteBuffer)
  * @see #unpackMap(ByteBuffer)
  * @see #unpackList(ByteBuffer)
@@ -38,6 +51,72 @@ import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
  */
 public class ExTermDecoder
 {
+    private static final ExTermDecoder DEFAULT = new ExTermDecoder(HashMap::new);
+
+    private final IntFunction<? extends Map<String, Object>> mapFactory;
+    private final String typeKey;
+    private final PathNode skippedPaths;
+
+    /**
+     * Creates a new decoder which decodes all values.
+     *
+     * @param  mapFactory
+     *         The factory used to create the map instances, receives the amount of entries of the map
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @since  4.4.0
+     */
+    public ExTermDecoder(@Nonnull IntFunction<? extends Map<String, Object>> mapFactory)
+    {
+        this(mapFactory, "", Collections.emptyMap());
+    }
+
+    /**
+     * Creates a new decoder which skips the values at the provided paths.
+     * <br>A path is a list of keys separated by dots, starting at the root map. Lists are traversed transparently,
+     * so {@code "d.presences.activities"} addresses the activities of every presence in the list {@code "d.presences"}.
+     *
+     * <p>Skipped values are only left out of payloads whose root map has the respective type for the {@code typeKey}.
+     * Values are skipped before the type is known, if the type turns out not to match they are decoded afterwards.
+     *
+     * @param  mapFactory
+     *         The factory used to create the map instances, receives the amount of entries of the map
+     * @param  typeKey
+     *         The key of the root map which contains the type of the payload
+     * @param  skippedPaths
+     *         The paths which should be left out of the decoded payload, by the type of the payload
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @since  4.4.0
+     */
+    public ExTermDecoder(@Nonnull IntFunction<? extends Map<String, Object>> mapFactory, @Nonnull String typeKey, @Nonnull Map<String, ? extends Collection<String>> skippedPaths)
+    {
+        Checks.notNull(mapFactory, "Map Factory");
+        Checks.notNull(typeKey, "Type Key");
+        Checks.notNull(skippedPaths, "Skipped Paths");
+        this.mapFactory = mapFactory;
+        this.typeKey = typeKey;
+
+        PathNode root = new PathNode();
+        skippedPaths.forEach((type, paths) ->
+        {
+            Checks.notNull(type, "Type");
+            Checks.noneNull(paths, "Skipped Paths");
+            for (String path : paths)
+            {
+                PathNode node = root;
+                for (String key : path.split("\\."))
+                    node = node.children.computeIfAbsent(key, k -> new PathNode());
+                node.types.add(type);
+            }
+        });
+        this.skippedPaths = root.children.isEmpty() ? null : root;
+    }
+
     /**
      * Unpacks the provided term into a java object.
      *
@@ -47,7 +126,8 @@ public class ExTermDecoder
      *     <li>{@code Small BigInt -> Long}</li>
      *     <li>{@code Float | New Float -> Double}</li>
      *     <li>{@code Small Atom | Atom -> Boolean | null | String}</li>
-     *     <li>{@code Binary | String -> String}</li>
+     *     <li>{@code Binary -> String}</li>
+     *     <li>{@code String -> List<Integer>}</li>
      *     <li>{@code List | NIL -> List}</li>
      *     <li>{@code Map -> Map}</li>
      * </ul>
@@ -62,10 +142,7 @@ public class ExTermDecoder
      */
     public static Object unpack(ByteBuffer buffer)
     {
-        if (buffer.get() != -125)
-            throw new IllegalArgumentException("Failed header check");
-
-        return unpack0(buffer);
+        return DEFAULT.decode(buffer);
     }
 
     /**
@@ -77,7 +154,8 @@ public class ExTermDecoder
      *     <li>{@code Small BigInt -> Long}</li>
      *     <li>{@code Float | New Float -> Double}</li>
      *     <li>{@code Small Atom | Atom -> Boolean | null | String}</li>
-     *     <li>{@code Binary | String -> String}</li>
+     *     <li>{@code Binary -> String}</li>
+     *     <li>{@code String -> List<Integer>}</li>
      *     <li>{@code List | NIL -> List}</li>
      *     <li>{@code Map -> Map}</li>
      * </ul>
@@ -90,13 +168,9 @@ public class ExTermDecoder
      *
      * @return The parsed {@link Map} instance
      */
-    @SuppressWarnings("unchecked")
     public static Map<String, Object> unpackMap(ByteBuffer buffer)
     {
-        byte tag = buffer.get(1);
-        if (tag != MAP)
-            throw new IllegalArgumentException("Cannot unpack map from tag " + tag);
-        return (Map<String, Object>) unpack(buffer);
+        return DEFAULT.decodeMap(buffer);
     }
 
     /**
@@ -108,7 +182,8 @@ public class ExTermDecoder
      *     <li>{@code Small BigInt -> Long}</li>
      *     <li>{@code Float | New Float -> Double}</li>
      *     <li>{@code Small Atom | Atom -> Boolean | null | String}</li>
-     *     <li>{@code Binary | String -> String}</li>
+     *     <li>{@code Binary -> String}</li>
+     *     <li>{@code String -> List<Integer>}</li>
      *     <li>{@code List | NIL -> List}</li>
      *     <li>{@code Map -> Map}</li>
      * </ul>
@@ -121,21 +196,102 @@ public class ExTermDecoder
      *
      * @return The parsed {@link List} instance
      */
-    @SuppressWarnings("unchecked")
     public static List<Object> unpackList(ByteBuffer buffer)
     {
-        byte tag = buffer.get(1);
-        if (tag != LIST)
+        return DEFAULT.decodeList(buffer);
+    }
+
+    /**
+     * Decodes the provided term into a java object.
+     * <br>The mapping is the same as for {@link #unpack(ByteBuffer)}.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer} containing the encoded term
+     *
+     * @throws IllegalArgumentException
+     *         If the buffer does not start with the version byte {@code 131} or contains an unsupported tag
+     *
+     * @return The java object
+     *
+     * @since  4.4.0
+     */
+    public Object decode(@Nonnull ByteBuffer buffer)
+    {
+        if (buffer.get() != -125)
+            throw new IllegalArgumentException("Failed header check");
+        if (skippedPaths == null)
+            return unpack0(buffer, null, null);
+
+        List<SkippedValue> skipped = new ArrayList<>();
+        Object value = unpack0(buffer, skippedPaths, skipped);
+        Object type = value instanceof Map ? ((Map<?, ?>) value).get(typeKey) : null;
+        // Decoding a value which is not skipped for this type can skip more values, which are appended to the list
+        for (int i = 0; i < skipped.size(); i++)
+        {
+            SkippedValue entry = skipped.get(i);
+            if (type != null && entry.node.types.contains(type))
+                continue;
+            ByteBuffer nested = entry.buffer.duplicate();
+            nested.position(entry.position);
+            entry.map.put(entry.key, unpack0(nested, entry.node, skipped));
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the provided term into a java {@link Map}.
+     * <br>The mapping is the same as for {@link #unpackMap(ByteBuffer)}.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer} containing the encoded term
+     *
+     * @throws IllegalArgumentException
+     *         If the buffer does not start with a Map term, does not have the right version byte, or the format includes an unsupported tag
+     *
+     * @return The parsed {@link Map} instance
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decodeMap(@Nonnull ByteBuffer buffer)
+    {
+        byte tag = buffer.get(buffer.position() + 1);
+        if (tag != MAP)
+            throw new IllegalArgumentException("Cannot unpack map from tag " + tag);
+        return (Map<String, Object>) decode(buffer);
+    }
+
+    /**
+     * Decodes the provided term into a java {@link List}.
+     * <br>The mapping is the same as for {@link #unpackList(ByteBuffer)}.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer} containing the encoded term
+     *
+     * @throws IllegalArgumentException
+     *         If the buffer does not start with a List or NIL term, does not have the right version byte, or the format includes an unsupported tag
+     *
+     * @return The parsed {@link List} instance
+     *
+     * @since  4.4.0
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public List<Object> decodeList(@Nonnull ByteBuffer buffer)
+    {
+        byte tag = buffer.get(buffer.position() + 1);
+        if (tag != LIST && tag != NIL)
             throw new IllegalArgumentException("Cannot unpack list from tag " + tag);
 
-        return (List<Object>) unpack(buffer);
+        return (List<Object>) decode(buffer);
     }
 
-    private static Object unpack0(ByteBuffer buffer)
+    private Object unpack0(ByteBuffer buffer, PathNode node, List<SkippedValue> skipped)
     {
         int tag = buffer.get();
         switch (tag) {
-        case COMPRESSED: return unpackCompressed(buffer);
+        case COMPRESSED: return unpackCompressed(buffer, node, skipped);
         case SMALL_INT: return unpackSmallInt(buffer);
         case SMALL_BIGINT: return unpackSmallBigint(buffer);
         case INT: return unpackInt(buffer);
@@ -148,8 +304,8 @@ public class ExTermDecoder
         case ATOM_UTF8: return unpackAtom(buffer, StandardCharsets.UTF_8);
         case ATOM: return unpackAtom(buffer, StandardCharsets.ISO_8859_1);
 
-        case MAP: return unpackMap0(buffer);
-        case LIST: return unpackList0(buffer);
+        case MAP: return unpackMap0(buffer, node, skipped);
+        case LIST: return unpackList0(buffer, node, skipped);
         case NIL: return Collections.emptyList();
 
         case STRING: return unpackString(buffer);
@@ -159,13 +315,53 @@ public class ExTermDecoder
         }
     }
 
-    private static Object unpackCompressed(ByteBuffer buffer)
+    private static void skip0(ByteBuffer buffer)
+    {
+        int tag = buffer.get();
+        switch (tag) {
+        case SMALL_INT: skip(buffer, 1); break;
+        case SMALL_BIGINT: skip(buffer, Byte.toUnsignedInt(buffer.get()) + 1); break;
+        case INT: skip(buffer, 4); break;
+
+        case FLOAT: skip(buffer, 31); break;
+        case NEW_FLOAT: skip(buffer, 8); break;
+
+        case SMALL_ATOM_UTF8:
+        case SMALL_ATOM: skip(buffer, Byte.toUnsignedInt(buffer.get())); break;
+        case ATOM_UTF8:
+        case ATOM:
+        case STRING: skip(buffer, Short.toUnsignedInt(buffer.getShort())); break;
+        case BINARY: skip(buffer, buffer.getInt()); break;
+
+        case MAP:
+            for (int arity = buffer.getInt(); arity > 0; arity--)
+            {
+                skip0(buffer);
+                skip0(buffer);
+            }
+            break;
+        case LIST:
+            for (int length = buffer.getInt(); length >= 0; length--) // includes the tail
+                skip0(buffer);
+            break;
+        case NIL: break;
+        default:
+            throw new IllegalArgumentException("Cannot skip tag " + tag);
+        }
+    }
+
+    private static void skip(ByteBuffer buffer, int length)
+    {
+        buffer.position(buffer.position() + length);
+    }
+
+    private Object unpackCompressed(ByteBuffer buffer, PathNode node, List<SkippedValue> skipped)
     {
         int size = buffer.getInt();
         ByteArrayOutputStream decompressed = new ByteArrayOutputStream(size);
         try (InflaterOutputStream inflater = new InflaterOutputStream(decompressed))
         {
-            inflater.write(buffer.array(), buffer.position(), buffer.remaining());
+            inflater.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
         }
         catch (IOException e)
         {
@@ -173,7 +369,7 @@ public class ExTermDecoder
         }
 
         buffer = ByteBuffer.wrap(decompressed.toByteArray());
-        return unpack0(buffer);
+        return unpack0(buffer, node, skipped);
     }
 
     private static double unpackOldFloat(ByteBuffer buffer)
@@ -212,12 +408,13 @@ public class ExTermDecoder
         return buffer.getInt();
     }
 
+    // STRING_EXT is how erlang encodes lists of small integers
     private static List<Object> unpackString(ByteBuffer buffer)
     {
         int length = Short.toUnsignedInt(buffer.getShort());
         List<Object> bytes = new ArrayList<>(length);
         while (length-- > 0)
-            bytes.add(buffer.get());
+            bytes.add(Byte.toUnsignedInt(buffer.get()));
         return bytes;
     }
 
@@ -241,7 +438,7 @@ public class ExTermDecoder
 
     private static Object unpackAtom(ByteBuffer buffer, Charset charset, int length)
     {
-        String value = getString(buffer, charset, length);
+        String value = AtomTable.get(buffer, charset, length);
         switch (value)
         {
         case "true": return true;
@@ -251,37 +448,99 @@ public class ExTermDecoder
         }
     }
 
-    private static String getString(ByteBuffer buffer, Charset charset, int length)
+    static String getString(ByteBuffer buffer, Charset charset, int length)
     {
-        byte[] array = new byte[length];
-        buffer.get(array);
-        return new String(array, charset);
+        String value;
+        if (buffer.hasArray())
+        {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, charset);
+            skip(buffer, length);
+        }
+        else
+        {
+            byte[] array = new byte[length];
+            buffer.get(array);
+            value = new String(array, charset);
+        }
+        return value;
     }
 
-    private static List<Object> unpackList0(ByteBuffer buffer)
+    private String unpackKey(ByteBuffer buffer)
+    {
+        int tag = buffer.get();
+        switch (tag) {
+        case SMALL_ATOM_UTF8: return AtomTable.get(buffer, StandardCharsets.UTF_8, Byte.toUnsignedInt(buffer.get()));
+        case SMALL_ATOM: return AtomTable.get(buffer, StandardCharsets.ISO_8859_1, Byte.toUnsignedInt(buffer.get()));
+        case ATOM_UTF8: return AtomTable.get(buffer, StandardCharsets.UTF_8, Short.toUnsignedInt(buffer.getShort()));
+        case ATOM: return AtomTable.get(buffer, StandardCharsets.ISO_8859_1, Short.toUnsignedInt(buffer.getShort()));
+        case BINARY: return AtomTable.get(buffer, StandardCharsets.UTF_8, buffer.getInt());
+        default:
+            // Let the regular decoding handle the failure for unexpected key types
+            buffer.position(buffer.position() - 1);
+            return (String) unpack0(buffer, null, null);
+        }
+    }
+
+    private List<Object> unpackList0(ByteBuffer buffer, PathNode node, List<SkippedValue> skipped)
     {
         int length = buffer.getInt();
         List<Object> list = new ArrayList<>(length);
         while (length-- > 0)
         {
-            list.add(unpack0(buffer));
+            list.add(unpack0(buffer, node, skipped));
         }
-        Object tail = unpack0(buffer);
+        Object tail = unpack0(buffer, null, null);
         if (tail != Collections.emptyList())
             throw new IllegalArgumentException("Unexpected tail " + tail);
         return list;
     }
 
-    private static Map<String, Object> unpackMap0(ByteBuffer buffer)
+    private Map<String, Object> unpackMap0(ByteBuffer buffer, PathNode node, List<SkippedValue> skipped)
     {
-        Map<String, Object> map = new HashMap<>();
         int arity = buffer.getInt();
+        Map<String, Object> map = mapFactory.apply(arity);
+        // Payloads never contain duplicate keys, so the compact map can skip the lookup
+        CompactMap compact = map instanceof CompactMap ? (CompactMap) map : null;
         while (arity-- > 0)
         {
-            String key = (String) unpack0(buffer);
-            Object value = unpack0(buffer);
-            map.put(key, value);
+            String key = unpackKey(buffer);
+            PathNode child = node == null ? null : node.children.get(key);
+            if (child != null && !child.types.isEmpty())
+            {
+                skipped.add(new SkippedValue(buffer, buffer.position(), map, key, child));
+                skip0(buffer);
+                continue;
+            }
+            Object value = unpack0(buffer, child, skipped);
+            if (compact != null)
+                compact.append(key, value);
+            else
+                map.put(key, value);
         }
         return map;
     }
+
+    private static class PathNode
+    {
+        private final Map<String, PathNode> children = new HashMap<>();
+        private final Set<String> types = new HashSet<>();
+    }
+
+    private static class SkippedValue
+    {
+        private final ByteBuffer buffer;
+        private final int position;
+        private final Map<String, Object> map;
+        private final String key;
+        private final PathNode node;
+
+        private SkippedValue(ByteBuffer buffer, int position, Map<String, Object> map, String key, PathNode node)
+        {
+            this.buffer = buffer;
+            this.position = position;
+            this.map = map;
+            this.key = key;
+            this.node = node;
+        }
+    }
 }
@@ -39,6 +39,7 @@ import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.requests.Request;
 import net.dv8tion.jda.api.requests.Response;
 import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator;
 import net.dv8tion.jda.api.requests.restaction.CommandCreateAction;
 import net.dv8tion.jda.api.requests.restaction.CommandEditAction;
 import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
@@ -46,6 +47,7 @@ import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.api.utils.*;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.cache.CacheView;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheType;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
@@ -53,10 +55,12 @@ import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.entities.UserImpl;
 import net.dv8tion.jda.internal.handle.EventCache;
 import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.hooks.EventFilter;
 import net.dv8tion.jda.internal.hooks.EventManagerProxy;
 import net.dv8tion.jda.internal.managers.DirectAudioControllerImpl;
 import net.dv8tion.jda.internal.managers.PresenceImpl;
 import net.dv8tion.jda.internal.requests.*;
+import net.dv8tion.jda.internal.requests.ratelimit.RateLimitRegistry;
 import net.dv8tion.jda.internal.requests.restaction.CommandCreateActionImpl;
 import net.dv8tion.jda.internal.requests.restaction.CommandEditActionImpl;
 import net.dv8tion.jda.internal.requests.restaction.CommandListUpdateActionImpl;
@@ -66,6 +70,8 @@ import net.dv8tion.jda.internal.utils.Helpers;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.PresenceIndex;
+import net.dv8tion.jda.internal.utils.cache.UserGuildIndex;
 import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import net.dv8tion.jda.internal.utils.config.MetaConfig;
 import net.dv8tion.jda.internal.utils.config.SessionConfig;
@@ -75,7 +81,9 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.security.auth.login.LoginException;
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -95,6 +103,8 @@ public class JDAImpl implements JDA
     protected final SnowflakeCacheViewImpl<VoiceChannel> voiceChannelCache = new SnowflakeCacheViewImpl<>(VoiceChannel.class, GuildChannel::getName);
     protected final SnowflakeCacheViewImpl<PrivateChannel> privateChannelCache = new SnowflakeCacheViewImpl<>(PrivateChannel.class, MessageChannel::getName);
     protected final LinkedList<Long> privateChannelLRU = new LinkedList<>();
+    protected final UserGuildIndex userGuildIndex = new UserGuildIndex();
+    protected final PresenceIndex presenceIndex = new PresenceIndex();
 
     protected final PresenceImpl presence;
     protected final Thread shutdownHook;
@@ -137,6 +147,14 @@ public class JDAImpl implements JDA
         this.threadConfig = threadConfig == null ? ThreadingConfig.getDefault() : threadConfig;
         this.sessionConfig = sessionConfig == null ? SessionConfig.getDefault() : sessionConfig;
         this.metaConfig = metaConfig == null ? MetaConfig.getDefault() : metaConfig;
+        this.userCache.setOptimisticReads(this.metaConfig.isOptimisticReads(SnowflakeCacheType.USER));
+        this.guildCache.setOptimisticReads(this.metaConfig.isOptimisticReads(SnowflakeCacheType.GUILD));
+        this.privateChannelCache.setOptimisticReads(this.metaConfig.isOptimisticReads(SnowflakeCacheType.PRIVATE_CHANNEL));
+        boolean optimisticChannels = this.metaConfig.isOptimisticReads(SnowflakeCacheType.CHANNEL);
+        this.categories.setOptimisticReads(optimisticChannels);
+        this.storeChannelCache.setOptimisticReads(optimisticChannels);
+        this.textChannelCache.setOptimisticReads(optimisticChannels);
+        this.voiceChannelCache.setOptimisticReads(optimisticChannels);
         this.shutdownHook = this.metaConfig.isUseShutdownHook() ? new Thread(this::shutdown, "JDA Shutdown Hook") : null;
         this.presence = new PresenceImpl(this);
         this.requester = new Requester(this);
@@ -144,12 +162,26 @@ public class JDAImpl implements JDA
         this.guildSetupController = new GuildSetupController(this);
         this.audioController = new DirectAudioControllerImpl(this);
         this.eventCache = new EventCache();
-        this.eventManager = new EventManagerProxy(new InterfacedEventManager(), this.threadConfig.getEventPool());
+        this.threadConfig.initEventPool(this::getIdentifierString);
+        this.eventManager = new EventManagerProxy(new InterfacedEventManager(), this.threadConfig.getEventPool(),
+                this.threadConfig.getEventOrdering(), this.threadConfig.getEventQueueCapacity());
     }
 
     public void handleEvent(@Nonnull GenericEvent event)
     {
-        eventManager.handle(event);
+        if (isEventEnabled(event.getClass()))
+            eventManager.handle(event);
+    }
+
+    public boolean isEventEnabled(Class<? extends GenericEvent> type)
+    {
+        return sessionConfig.getEventFilter().isEnabled(type);
+    }
+
+    @Nonnull
+    public EventFilter getEventFilter()
+    {
+        return sessionConfig.getEventFilter();
     }
 
     public boolean isRawEvents()
@@ -157,11 +189,52 @@ public class JDAImpl implements JDA
         return sessionConfig.isRawEvents();
     }
 
+    public boolean isCompactData()
+    {
+        return sessionConfig.isCompactData();
+    }
+
     public boolean isRelativeRateLimit()
     {
         return sessionConfig.isRelativeRateLimit();
     }
 
+    public boolean isConcurrentRequests()
+    {
+        return sessionConfig.isConcurrentRequests();
+    }
+
+    public boolean isLazyMessages()
+    {
+        return sessionConfig.isLazyMessages();
+    }
+
+    public boolean isStreamingGuildSetup()
+    {
+        return sessionConfig.isStreamingGuildSetup();
+    }
+
+    @Nullable
+    public File getSnapshotFile()
+    {
+        File directory = sessionConfig.getSnapshotDirectory();
+        if (directory == null)
+            return null;
+        return new File(directory, shardInfo == null ? "session.snapshot" : "session-" + shardInfo.getShardId() + ".snapshot");
+    }
+
+    @Nullable
+    public RateLimitCoordinator getRateLimitCoordinator()
+    {
+        return sessionConfig.getRateLimitCoordinator();
+    }
+
+    @Nullable
+    public RateLimitRegistry getRateLimitRegistry()
+    {
+        return sessionConfig.getRateLimitRegistry();
+    }
+
     public boolean isCacheFlagSet(CacheFlag flag)
     {
         return metaConfig.getCacheFlags().contains(flag);
@@ -427,6 +500,12 @@ public class JDAImpl implements JDA
         return GatewayIntent.getIntents(client.getGatewayIntents());
     }
 
+    @Nonnull
+    public MetaConfig getMetaConfig()
+    {
+        return metaConfig;
+    }
+
     @Nonnull
     @Override
     public EnumSet<CacheFlag> getCacheFlags()
@@ -455,6 +534,20 @@ public class JDAImpl implements JDA
         return gatewayPing;
     }
 
+    @Override
+    public int getGatewayQueueSize()
+    {
+        WebSocketClient client = getClient();
+        return client == null ? 0 : client.getQueueSize();
+    }
+
+    @Override
+    public int getGatewayRequestsRemaining()
+    {
+        WebSocketClient client = getClient();
+        return client == null ? 0 : client.getRemainingTokens();
+    }
+
     @Nonnull
     @Override
     public JDA awaitStatus(@Nonnull Status status, @Nonnull Status... failOn) throws InterruptedException
@@ -535,9 +628,41 @@ public class JDAImpl implements JDA
         Checks.notNull(users, "users");
         for(User u : users)
             Checks.notNull(u, "All users");
-        return Collections.unmodifiableList(getGuilds().stream()
-                .filter(guild -> users.stream().allMatch(guild::isMember))
-                .collect(Collectors.toList()));
+        if (users.isEmpty())
+            return getGuilds();
+        // Only the guilds of the user with the fewest memberships have to be checked
+        long[] candidates = null;
+        for (User user : users)
+        {
+            long[] guildIds = userGuildIndex.getGuildIds(user.getIdLong());
+            if (candidates == null || guildIds.length < candidates.length)
+                candidates = guildIds;
+        }
+        List<Guild> guilds = new ArrayList<>(candidates.length);
+        for (long guildId : candidates)
+        {
+            if (!users.stream().allMatch(user -> userGuildIndex.isMember(user.getIdLong(), guildId)))
+                continue;
+            Guild guild = getGuildById(guildId);
+            if (guild != null)
+                guilds.add(guild);
+        }
+        return Collections.unmodifiableList(guilds);
+    }
+
+    @Nonnull
+    @Override
+    public List<Guild> getMutualGuilds(long userId)
+    {
+        long[] guildIds = userGuildIndex.getGuildIds(userId);
+        List<Guild> guilds = new ArrayList<>(guildIds.length);
+        for (long guildId : guildIds)
+        {
+            Guild guild = getGuildById(guildId);
+            if (guild != null)
+                guilds.add(guild);
+        }
+        return Collections.unmodifiableList(guilds);
     }
 
     @Nonnull
@@ -712,7 +837,7 @@ public class JDAImpl implements JDA
         if (client != null)
         {
             client.getChunkManager().shutdown();
-            client.shutdown();
+            client.shutdown(getSnapshotFile());
         }
     }
 
@@ -1033,6 +1158,16 @@ public class JDAImpl implements JDA
         return guildCache;
     }
 
+    public UserGuildIndex getUserGuildIndex()
+    {
+        return userGuildIndex;
+    }
+
+    public PresenceIndex getPresenceIndex()
+    {
+        return presenceIndex;
+    }
+
     public SnowflakeCacheViewImpl<Category> getCategoriesView()
     {
         return categories;
@@ -55,6 +55,7 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.UserGuildIndex;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.slf4j.Logger;
@@ -174,6 +175,62 @@ public class EntityBuilder
     }
 
     public GuildImpl createGuild(long guildId, DataObject guildJson, TLongObjectMap<DataObject> members, int memberCount)
+    {
+        final GuildImpl guildObj = createGuildShell(guildId, guildJson, memberCount);
+        final DataArray voiceStateArray = guildJson.getArray("voice_states");
+        final Optional<DataArray> presencesArray = guildJson.optArray("presences");
+        cacheGuild(guildObj, guildJson);
+
+        TLongObjectMap<DataObject> voiceStates = convertToUserMap((o) -> o.getUnsignedLong("user_id", 0L), voiceStateArray);
+        TLongObjectMap<DataObject> presences = presencesArray.map(o1 -> convertToUserMap(o2 -> o2.getObject("user").getUnsignedLong("id"), o1)).orElseGet(TLongObjectHashMap::new);
+        try (UnlockHook h1 = guildObj.getMembersView().writeLock();
+             UnlockHook h2 = getJDA().getUsersView().writeLock())
+        {
+            //Add members to cache when subscriptions are disabled when they appear here
+            // this is done because we can still keep track of members in voice channels
+            for (DataObject memberJson : members.valueCollection())
+            {
+                long userId = memberJson.getObject("user").getUnsignedLong("id");
+                DataObject voiceState = voiceStates.get(userId);
+                DataObject presence = presences.get(userId);
+                updateMemberCache(createMember(guildObj, memberJson, voiceState, presence));
+            }
+        }
+
+        completeGuild(guildObj, guildJson);
+        return guildObj;
+    }
+
+    // Used by the streaming guild setup, the members have been created by createSetupMember as their chunks arrived
+    public GuildImpl createGuild(GuildImpl guildObj, DataObject guildJson, TLongObjectMap<MemberImpl> members)
+    {
+        final DataArray voiceStateArray = guildJson.getArray("voice_states");
+        cacheGuild(guildObj, guildJson);
+
+        TLongObjectMap<DataObject> voiceStates = convertToUserMap((o) -> o.getUnsignedLong("user_id", 0L), voiceStateArray);
+        try (UnlockHook h1 = guildObj.getMembersView().writeLock();
+             UnlockHook h2 = getJDA().getUsersView().writeLock())
+        {
+            for (MemberImpl member : members.valueCollection())
+            {
+                // Voice states can only be loaded now that the channels exist, the cache policy depends on them
+                DataObject voiceState = voiceStates.get(member.getIdLong());
+                if (voiceState != null && member.getVoiceState() != null)
+                    createVoiceState(guildObj, voiceState, member.getUser(), member);
+                if (!updateMemberCache(member))
+                    removeSetupMember(guildObj.getIdLong(), member.getIdLong());
+            }
+        }
+
+        completeGuild(guildObj, guildJson);
+        return guildObj;
+    }
+
+    /**
+     * Creates a guild with its settings and roles, without adding it to the cache.
+     * <br>This is enough to create members for the guild, the setup is finished by one of the createGuild methods.
+     */
+    public GuildImpl createGuildShell(long guildId, DataObject guildJson, int memberCount)
     {
         final GuildImpl guildObj = new GuildImpl(getJDA(), guildId);
         final String name = guildJson.getString("name", "");
@@ -185,16 +242,8 @@ public class EntityBuilder
         final String bannerId = guildJson.getString("banner", null);
         final String locale = guildJson.getString("preferred_locale", "en");
         final DataArray roleArray = guildJson.getArray("roles");
-        final DataArray channelArray = guildJson.getArray("channels");
-        final DataArray emotesArray = guildJson.getArray("emojis");
-        final DataArray voiceStateArray = guildJson.getArray("voice_states");
         final Optional<DataArray> featuresArray = guildJson.optArray("features");
-        final Optional<DataArray> presencesArray = guildJson.optArray("presences");
         final long ownerId = guildJson.getUnsignedLong("owner_id", 0L);
-        final long afkChannelId = guildJson.getUnsignedLong("afk_channel_id", 0L);
-        final long systemChannelId = guildJson.getUnsignedLong("system_channel_id", 0L);
-        final long rulesChannelId = guildJson.getUnsignedLong("rules_channel_id", 0L);
-        final long communityUpdatesChannelId = guildJson.getUnsignedLong("public_updates_channel_id", 0L);
         final int boostCount = guildJson.getInt("premium_subscription_count", 0);
         final int boostTier = guildJson.getInt("premium_tier", 0);
         final int maxMembers = guildJson.getInt("max_members", 0);
@@ -228,12 +277,6 @@ public class EntityBuilder
                 .setMemberCount(memberCount)
                 .setNSFWLevel(Guild.NSFWLevel.fromKey(nsfwLevel));
 
-        SnowflakeCacheViewImpl<Guild> guildView = getJDA().getGuildsView();
-        try (UnlockHook hook = guildView.writeLock())
-        {
-            guildView.getMap().put(guildId, guildObj);
-        }
-
         guildObj.setFeatures(featuresArray.map(it ->
             StreamSupport.stream(it.spliterator(), false)
                          .map(String::valueOf)
@@ -254,31 +297,67 @@ public class EntityBuilder
             }
         }
 
+        return guildObj;
+    }
+
+    /**
+     * Creates a member for a guild which is still being set up by the streaming guild setup.
+     * <br>The user is registered in the users view right away, so every guild in setup shares the same user instance.
+     * The user guild index keeps track of the guilds in setup which reference the user, until the member is either
+     * cached or dropped by {@link #removeSetupMember(long, long)}.
+     * The cache policy is only checked once the guild is complete.
+     */
+    public MemberImpl createSetupMember(GuildImpl guildObj, DataObject memberJson, @Nullable DataObject presence)
+    {
+        MemberImpl member = createMember(guildObj, memberJson, null, presence);
+        UserImpl user = (UserImpl) member.getUser();
+        getJDA().getUserGuildIndex().add(user.getIdLong(), guildObj.getIdLong());
+        SnowflakeCacheViewImpl<User> usersView = getJDA().getUsersView();
+        try (UnlockHook hook = usersView.writeLock())
+        {
+            usersView.getMap().putIfAbsent(user.getIdLong(), user);
+        }
+        return member;
+    }
+
+    // Drops a member created by createSetupMember, the user is unloaded if it is no longer referenced by any guild
+    public void removeSetupMember(long guildId, long userId)
+    {
+        UserGuildIndex index = getJDA().getUserGuildIndex();
+        index.remove(userId, guildId);
+        if (userId == getJDA().getSelfUser().getIdLong() || index.hasGuilds(userId))
+            return;
+        UserImpl user = (UserImpl) getJDA().getUsersView().remove(userId);
+        if (user != null)
+            user.setFake(true);
+    }
+
+    private void cacheGuild(GuildImpl guildObj, DataObject guildJson)
+    {
+        final DataArray channelArray = guildJson.getArray("channels");
+        SnowflakeCacheViewImpl<Guild> guildView = getJDA().getGuildsView();
+        try (UnlockHook hook = guildView.writeLock())
+        {
+            guildView.getMap().put(guildObj.getIdLong(), guildObj);
+        }
+
         for (int i = 0; i < channelArray.length(); i++)
         {
             DataObject channelJson = channelArray.getObject(i);
             createGuildChannel(guildObj, channelJson);
         }
+    }
 
-        TLongObjectMap<DataObject> voiceStates = convertToUserMap((o) -> o.getUnsignedLong("user_id", 0L), voiceStateArray);
-        TLongObjectMap<DataObject> presences = presencesArray.map(o1 -> convertToUserMap(o2 -> o2.getObject("user").getUnsignedLong("id"), o1)).orElseGet(TLongObjectHashMap::new);
-        try (UnlockHook h1 = guildObj.getMembersView().writeLock();
-             UnlockHook h2 = getJDA().getUsersView().writeLock())
-        {
-            //Add members to cache when subscriptions are disabled when they appear here
-            // this is done because we can still keep track of members in voice channels
-            for (DataObject memberJson : members.valueCollection())
-            {
-                long userId = memberJson.getObject("user").getUnsignedLong("id");
-                DataObject voiceState = voiceStates.get(userId);
-                DataObject presence = presences.get(userId);
-                updateMemberCache(createMember(guildObj, memberJson, voiceState, presence));
-            }
-        }
+    private void completeGuild(GuildImpl guildObj, DataObject guildJson)
+    {
+        final DataArray emotesArray = guildJson.getArray("emojis");
+        final long afkChannelId = guildJson.getUnsignedLong("afk_channel_id", 0L);
+        final long systemChannelId = guildJson.getUnsignedLong("system_channel_id", 0L);
+        final long rulesChannelId = guildJson.getUnsignedLong("rules_channel_id", 0L);
+        final long communityUpdatesChannelId = guildJson.getUnsignedLong("public_updates_channel_id", 0L);
 
         if (guildObj.getOwner() == null)
-            LOG.debug("Finished setup for guild with a null owner. GuildId: {} OwnerId: {}", guildId, guildJson.opt("owner_id").orElse(null));
-
+            LOG.debug("Finished setup for guild with a null owner. GuildId: {} OwnerId: {}", guildObj.getId(), guildJson.opt("owner_id").orElse(null));
 
         createGuildEmotePass(guildObj, emotesArray);
         guildJson.optArray("stage_instances")
@@ -289,8 +368,6 @@ public class EntityBuilder
                 .setSystemChannel(guildObj.getTextChannelById(systemChannelId))
                 .setRulesChannel(guildObj.getTextChannelById(rulesChannelId))
                 .setCommunityUpdatesChannel(guildObj.getTextChannelById(communityUpdatesChannelId));
-
-        return guildObj;
     }
 
     private void createGuildChannel(GuildImpl guildObj, DataObject channelData)
@@ -416,8 +493,9 @@ public class EntityBuilder
         {
             if (membersView.remove(member.getIdLong()) == null)
                 return false;
+            guild.getPermissionCache().invalidateMember(member.getIdLong());
             LOG.trace("Unloading member {}", member);
-            if (user.getMutualGuilds().isEmpty())
+            if (!getJDA().getUserGuildIndex().hasGuilds(user.getIdLong()))
             {
                 // we no longer share any guilds/channels with this user so remove it from cache
                 user.setFake(true);
@@ -454,7 +532,7 @@ public class EntityBuilder
 
         try (UnlockHook hook = membersView.writeLock())
         {
-            membersView.getMap().put(member.getIdLong(), member);
+            membersView.put(member);
             if (member.isOwner())
                 guild.setOwner(member);
         }
@@ -490,7 +568,7 @@ public class EntityBuilder
             member.setBoostDate(epoch);
             if (!memberJson.isNull("pending"))
                 member.setPending(memberJson.getBoolean("pending"));
-            Set<Role> roles = member.getRoleSet();
+            List<Role> roles = new ArrayList<>(roleArray.length());
             for (int i = 0; i < roleArray.length(); i++)
             {
                 long roleId = roleArray.getUnsignedLong(i);
@@ -498,6 +576,7 @@ public class EntityBuilder
                 if (role != null)
                     roles.add(role);
             }
+            member.setRoles(roles);
         }
         else
         {
@@ -627,7 +706,18 @@ public class EntityBuilder
 
     private void updateMemberRoles(MemberImpl member, List<Role> newRoles, long responseNumber)
     {
-        Set<Role> currentRoles = member.getRoleSet();
+        List<Role> currentRoles = member.getRoles();
+        //Skip the diff if nobody listens for the role events
+        if (!getJDA().isEventEnabled(GuildMemberRoleAddEvent.class) && !getJDA().isEventEnabled(GuildMemberRoleRemoveEvent.class))
+        {
+            if (currentRoles.size() != newRoles.size() || !currentRoles.containsAll(newRoles))
+            {
+                member.setRoles(newRoles);
+                member.getGuild().getPermissionCache().invalidateMember(member.getIdLong());
+            }
+            return;
+        }
+        List<Role> updatedRoles = new ArrayList<>(newRoles);
         //Find the roles removed.
         List<Role> removedRoles = new LinkedList<>();
         each:
@@ -645,10 +735,11 @@ public class EntityBuilder
             removedRoles.add(role);
         }
 
-        if (removedRoles.size() > 0)
-            currentRoles.removeAll(removedRoles);
-        if (newRoles.size() > 0)
-            currentRoles.addAll(newRoles);
+        if (removedRoles.size() > 0 || newRoles.size() > 0)
+        {
+            member.setRoles(updatedRoles);
+            member.getGuild().getPermissionCache().invalidateMember(member.getIdLong());
+        }
 
         if (removedRoles.size() > 0)
         {
@@ -691,11 +782,12 @@ public class EntityBuilder
 
         DataArray activityArray = !cacheGame || presenceJson.isNull("activities") ? null : presenceJson.getArray("activities");
         DataObject clientStatusJson = !cacheStatus || presenceJson.isNull("client_status") ? null : presenceJson.getObject("client_status");
-        List<Activity> activities = new ArrayList<>();
-        boolean parsedActivity = false;
+        List<Activity> activities = activityArray == null ? null : getJDA().getPresenceIndex().getActivities(member.getIdLong(), activityArray);
+        boolean parsedActivity = activities != null;
 
-        if (cacheGame && activityArray != null)
+        if (!parsedActivity && cacheGame && activityArray != null)
         {
+            activities = new ArrayList<>();
             for (int i = 0; i < activityArray.length(); i++)
             {
                 try
@@ -712,6 +804,8 @@ public class EntityBuilder
                         LOG.warn("Encountered exception trying to parse a presence! UserId: {} Message: {} Enable debug for details", userId, ex.getMessage());
                 }
             }
+            if (parsedActivity)
+                activities = getJDA().getPresenceIndex().putActivities(member.getIdLong(), activityArray, activities);
         }
         if (cacheGame && parsedActivity)
             presence.setActivities(activities);
@@ -1140,6 +1234,40 @@ public class EntityBuilder
 
         return createMessage(jsonObject, chan, modifyCache);
     }
+
+    // Applies the author of a received message to the cache, without building the message itself
+    public void updateMessageAuthor(DataObject jsonObject, MessageChannel channel)
+    {
+        if (jsonObject.hasKey("webhook_id"))
+            return;
+        final DataObject author = jsonObject.getObject("author");
+        final long authorId = author.getLong("id");
+        User user = null;
+        if (channel instanceof GuildChannel)
+        {
+            GuildImpl guild = (GuildImpl) ((GuildChannel) channel).getGuild();
+            Member member;
+            if (jsonObject.isNull("member"))
+            {
+                member = guild.getMemberById(authorId);
+            }
+            else
+            {
+                DataObject memberJson = jsonObject.getObject("member");
+                memberJson.put("user", author);
+                member = createMember(guild, memberJson);
+                updateMemberCache((MemberImpl) member);
+            }
+            user = member == null ? null : member.getUser();
+        }
+        else if (channel instanceof PrivateChannel && authorId != getJDA().getSelfUser().getIdLong())
+        {
+            user = ((PrivateChannel) channel).getUser();
+        }
+
+        if (user != null)
+            updateUser((UserImpl) user, author);
+    }
     public ReceivedMessage createMessage(DataObject jsonObject, @Nullable MessageChannel channel, boolean modifyCache)
     {
         long channelId = jsonObject.getUnsignedLong("channel_id");
@@ -1188,11 +1316,24 @@ public class EntityBuilder
         final String nonce = jsonObject.isNull("nonce") ? null : jsonObject.get("nonce").toString();
         final int flags = jsonObject.getInt("flags", 0);
 
+        final MessageType type = MessageType.fromId(jsonObject.getInt("type"));
+        // Lazy messages build these from the payload on first access
+        final boolean lazy = getJDA().isLazyMessages() && !type.isSystem();
+
         MessageChannel tmpChannel = channel; // because java
-        final List<Message.Attachment> attachments = map(jsonObject, "attachments",   this::createMessageAttachment);
-        final List<MessageEmbed>       embeds      = map(jsonObject, "embeds",        this::createMessageEmbed);
-        final List<MessageReaction>    reactions   = map(jsonObject, "reactions",     (obj) -> createMessageReaction(tmpChannel, id, obj));
-        final List<MessageSticker>     stickers    = map(jsonObject, "sticker_items", this::createSticker);
+        List<Message.Attachment> attachments = Collections.emptyList();
+        List<MessageEmbed>       embeds      = Collections.emptyList();
+        List<MessageReaction>    reactions   = Collections.emptyList();
+        List<MessageSticker>     stickers    = Collections.emptyList();
+        List<ActionRow>          components  = Collections.emptyList();
+        if (!lazy)
+        {
+            attachments = map(jsonObject, "attachments",   this::createMessageAttachment);
+            embeds      = map(jsonObject, "embeds",        this::createMessageEmbed);
+            reactions   = map(jsonObject, "reactions",     (obj) -> createMessageReaction(tmpChannel, id, obj));
+            stickers    = map(jsonObject, "sticker_items", this::createSticker);
+            components  = createActionRows(jsonObject);
+        }
 
         MessageActivity activity = null;
 
@@ -1238,7 +1379,6 @@ public class EntityBuilder
                 mentionedRoles.add(arr.getLong(i));
         });
 
-        MessageType type = MessageType.fromId(jsonObject.getInt("type"));
         ReceivedMessage message;
         Message referencedMessage = null;
         if (!jsonObject.isNull("referenced_message"))
@@ -1276,17 +1416,6 @@ public class EntityBuilder
             );
         }
 
-        List<ActionRow> components = Collections.emptyList();
-        Optional<DataArray> componentsArrayOpt = jsonObject.optArray("components");
-        if (componentsArrayOpt.isPresent())
-        {
-            DataArray array = componentsArrayOpt.get();
-            components = array.stream(DataArray::getObject)
-                    .filter(it -> it.getInt("type", 0) == 1)
-                    .map(ActionRow::fromData)
-                    .collect(Collectors.toList());
-        }
-
         Message.Interaction messageInteraction = null;
         if (!jsonObject.isNull("interaction"))
         {
@@ -1300,7 +1429,13 @@ public class EntityBuilder
 
         if (type == MessageType.UNKNOWN)
             throw new IllegalArgumentException(UNKNOWN_MESSAGE_TYPE);
-        if (!type.isSystem())
+        if (lazy)
+        {
+            message = new LazyReceivedMessage(jsonObject, id, channel, type, messageReference, fromWebhook,
+                    mentionsEveryone, mentionedUsers, mentionedRoles, tts, pinned,
+                    content, nonce, user, member, activity, editTime, flags, messageInteraction);
+        }
+        else if (!type.isSystem())
         {
             message = new ReceivedMessage(id, channel, type, messageReference, fromWebhook,
                     mentionsEveryone, mentionedUsers, mentionedRoles, tts, pinned,
@@ -1351,6 +1486,17 @@ public class EntityBuilder
         return message;
     }
 
+    public List<ActionRow> createActionRows(DataObject jsonObject)
+    {
+        Optional<DataArray> componentsArrayOpt = jsonObject.optArray("components");
+        if (!componentsArrayOpt.isPresent())
+            return Collections.emptyList();
+        return componentsArrayOpt.get().stream(DataArray::getObject)
+                .filter(it -> it.getInt("type", 0) == 1)
+                .map(ActionRow::fromData)
+                .collect(Collectors.toList());
+    }
+
     private static MessageActivity createMessageActivity(DataObject jsonObject)
     {
         DataObject activityData = jsonObject.getObject("activity");
@@ -1928,7 +2074,7 @@ public class EntityBuilder
         return changesList.stream().collect(Collectors.toMap(AuditLogChange::getKey, UnaryOperator.identity()));
     }
 
-    private <T> List<T> map(DataObject jsonObject, String key, Function<DataObject, T> convert)
+    <T> List<T> map(DataObject jsonObject, String key, Function<DataObject, T> convert)
     {
         if (jsonObject.isNull(key))
             return Collections.emptyList();
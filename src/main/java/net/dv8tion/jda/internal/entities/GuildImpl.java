@@ -50,8 +50,10 @@ import net.dv8tion.jda.internal.requests.restaction.pagination.AuditLogPaginatio
 import net.dv8tion.jda.internal.utils.*;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
 import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.config.MetaConfig;
 import net.dv8tion.jda.internal.utils.concurrent.task.GatewayTask;
 import okhttp3.RequestBody;
 
@@ -62,6 +64,7 @@ import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -78,7 +81,9 @@ public class GuildImpl implements Guild
     private final SortedSnowflakeCacheViewImpl<TextChannel> textChannelCache = new SortedSnowflakeCacheViewImpl<>(TextChannel.class, GuildChannel::getName, Comparator.naturalOrder());
     private final SortedSnowflakeCacheViewImpl<Role> roleCache = new SortedSnowflakeCacheViewImpl<>(Role.class, Role::getName, Comparator.reverseOrder());
     private final SnowflakeCacheViewImpl<Emote> emoteCache = new SnowflakeCacheViewImpl<>(Emote.class, Emote::getName);
-    private final MemberCacheViewImpl memberCache = new MemberCacheViewImpl();
+    private final MemberCacheViewImpl memberCache;
+    private final PermissionCache permissionCache = new PermissionCache();
+    private final AtomicInteger roleOrder = new AtomicInteger();
     private final CacheView.SimpleCacheView<MemberPresenceImpl> memberPresences;
 
     private GuildManager manager;
@@ -115,10 +120,21 @@ public class GuildImpl implements Guild
     {
         this.id = id;
         this.api = api;
+        this.memberCache = new MemberCacheViewImpl(api.getUserGuildIndex(), id);
         if (api.getCacheFlags().stream().anyMatch(CacheFlag::isPresence))
             memberPresences = new CacheView.SimpleCacheView<>(MemberPresenceImpl.class, null);
         else
             memberPresences = null;
+
+        MetaConfig metaConfig = api.getMetaConfig();
+        boolean optimisticChannels = metaConfig.isOptimisticReads(SnowflakeCacheType.CHANNEL);
+        categoryCache.setOptimisticReads(optimisticChannels);
+        voiceChannelCache.setOptimisticReads(optimisticChannels);
+        storeChannelCache.setOptimisticReads(optimisticChannels);
+        textChannelCache.setOptimisticReads(optimisticChannels);
+        roleCache.setOptimisticReads(metaConfig.isOptimisticReads(SnowflakeCacheType.ROLE));
+        emoteCache.setOptimisticReads(metaConfig.isOptimisticReads(SnowflakeCacheType.EMOTE));
+        memberCache.setOptimisticReads(metaConfig.isOptimisticReads(SnowflakeCacheType.MEMBER));
     }
 
     @Nonnull
@@ -993,7 +1009,7 @@ public class GuildImpl implements Guild
         task.onSuccess((members) -> {
             try (UnlockHook hook = memberCache.writeLock())
             {
-                members.forEach((it) -> memberCache.getMap().put(it.getIdLong(), it));
+                members.forEach(memberCache::put);
             }
             future.complete(null);
         });
@@ -1454,7 +1470,7 @@ public class GuildImpl implements Guild
         Checks.notNull(member, "Member");
         checkGuild(member.getGuild(), "Member");
         checkPermission(Permission.MANAGE_ROLES);
-        Set<Role> currentRoles = new HashSet<>(((MemberImpl) member).getRoleSet());
+        Set<Role> currentRoles = new HashSet<>(member.getRoles());
         if (rolesToAdd != null)
         {
             checkRoles(rolesToAdd, "add", "to");
@@ -1958,6 +1974,22 @@ public class GuildImpl implements Guild
         return memberCache;
     }
 
+    public PermissionCache getPermissionCache()
+    {
+        return permissionCache;
+    }
+
+    // Incremented whenever role positions change, members sort their roles again when this differs
+    public int getRoleOrder()
+    {
+        return roleOrder.get();
+    }
+
+    public void invalidateRoleOrder()
+    {
+        roleOrder.incrementAndGet();
+    }
+
     @Nonnull
     @Override
     public NSFWLevel getNSFWLevel()
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.entities;
+
+import gnu.trove.set.TLongSet;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import javax.annotation.Nonnull;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Received message which keeps its payload and only builds attachments, embeds, stickers, reactions and components
+ * on first access.
+ *
+ * <p>Mentions are resolved lazily by every {@link ReceivedMessage}, the mentioned members
+ * are still created eagerly by the {@link EntityBuilder} since they update the member cache.
+ * The payload is released once all parts have been built.
+ */
+public class LazyReceivedMessage extends ReceivedMessage
+{
+    private final LazyList<Attachment> lazyAttachments;
+    private final LazyList<MessageEmbed> lazyEmbeds;
+    private final LazyList<MessageSticker> lazyStickers;
+    private final LazyList<MessageReaction> lazyReactions;
+    private final LazyList<ActionRow> lazyComponents;
+
+    public LazyReceivedMessage(
+        DataObject json, long id, MessageChannel channel, MessageType type, MessageReference messageReference,
+        boolean fromWebhook, boolean mentionsEveryone, TLongSet mentionedUsers, TLongSet mentionedRoles, boolean tts, boolean pinned,
+        String content, String nonce, User author, Member member, MessageActivity activity, OffsetDateTime editTime,
+        int flags, Message.Interaction interaction)
+    {
+        super(id, channel, type, messageReference, fromWebhook, mentionsEveryone, mentionedUsers, mentionedRoles, tts, pinned,
+            content, nonce, author, member, activity, editTime,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+            flags, interaction);
+        EntityBuilder builder = api.getEntityBuilder();
+        Payload payload = new Payload(json, 5);
+        this.lazyAttachments = new LazyList<>(payload, (data) -> builder.map(data, "attachments", builder::createMessageAttachment));
+        this.lazyEmbeds = new LazyList<>(payload, (data) -> builder.map(data, "embeds", builder::createMessageEmbed));
+        this.lazyStickers = new LazyList<>(payload, (data) -> builder.map(data, "sticker_items", builder::createSticker));
+        this.lazyReactions = new LazyList<>(payload, (data) -> builder.map(data, "reactions", (obj) -> builder.createMessageReaction(channel, id, obj)));
+        this.lazyComponents = new LazyList<>(payload, builder::createActionRows);
+    }
+
+    @Nonnull
+    @Override
+    public List<Attachment> getAttachments()
+    {
+        return lazyAttachments.get();
+    }
+
+    @Nonnull
+    @Override
+    public List<MessageEmbed> getEmbeds()
+    {
+        return lazyEmbeds.get();
+    }
+
+    @Nonnull
+    @Override
+    public List<MessageSticker> getStickers()
+    {
+        return lazyStickers.get();
+    }
+
+    @Nonnull
+    @Override
+    public List<MessageReaction> getReactions()
+    {
+        return lazyReactions.get();
+    }
+
+    @Nonnull
+    @Override
+    public List<ActionRow> getActionRows()
+    {
+        return lazyComponents.get();
+    }
+
+    // The payload shared by all parts, only referenced while at least one of them has not been built
+    private static final class Payload
+    {
+        private final AtomicInteger remaining;
+        private volatile DataObject json;
+
+        private Payload(DataObject json, int parts)
+        {
+            this.json = json;
+            this.remaining = new AtomicInteger(parts);
+        }
+
+        private void built()
+        {
+            if (remaining.decrementAndGet() == 0)
+                json = null;
+        }
+    }
+
+    private static final class LazyList<T>
+    {
+        private final Payload payload;
+        private Function<DataObject, List<T>> builder;
+        private volatile List<T> list;
+
+        private LazyList(Payload payload, Function<DataObject, List<T>> builder)
+        {
+            this.payload = payload;
+            this.builder = builder;
+        }
+
+        private List<T> get()
+        {
+            List<T> value = list;
+            if (value != null)
+                return value;
+            synchronized (this)
+            {
+                if (list == null)
+                {
+                    list = Collections.unmodifiableList(builder.apply(payload.json));
+                    builder = null;
+                    payload.built();
+                }
+                return list;
+            }
+        }
+    }
+}
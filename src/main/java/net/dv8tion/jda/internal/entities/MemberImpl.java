@@ -34,12 +34,11 @@ import java.awt.*;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class MemberImpl implements Member
 {
     private final JDAImpl api;
-    private final Set<Role> roles = ConcurrentHashMap.newKeySet();
+    private volatile RoleList roles = RoleList.EMPTY;
     private final GuildVoiceState voiceState;
 
     private GuildImpl guild;
@@ -173,10 +172,10 @@ public class MemberImpl implements Member
     @Override
     public List<Role> getRoles()
     {
-        List<Role> roleList = new ArrayList<>(roles);
-        roleList.sort(Comparator.reverseOrder());
-
-        return Collections.unmodifiableList(roleList);
+        RoleList list = roles;
+        int order = guild.getRoleOrder();
+        // Lists with less than two roles are always sorted
+        return list.order == order || list.roles.length < 2 ? list : sortRoles(list, order);
     }
 
     @Override
@@ -189,9 +188,10 @@ public class MemberImpl implements Member
     @Override
     public int getColorRaw()
     {
-        for (Role r : getRoles())
+        List<Role> roles = getRoles();
+        for (int i = 0; i < roles.size(); i++)
         {
-            final int colorRaw = r.getColorRaw();
+            final int colorRaw = roles.get(i).getColorRaw();
             if (colorRaw != Role.DEFAULT_COLOR_RAW)
                 return colorRaw;
         }
@@ -367,8 +367,43 @@ public class MemberImpl implements Member
         return this;
     }
 
-    public Set<Role> getRoleSet()
+    public boolean hasRole(Role role)
+    {
+        return roles.indexOf(role) >= 0;
+    }
+
+    public synchronized void setRoles(Collection<Role> roles)
+    {
+        Role[] array = roles.toArray(RoleList.NO_ROLES);
+        if (array.length == 0)
+        {
+            this.roles = RoleList.EMPTY;
+            return;
+        }
+        int order = guild.getRoleOrder();
+        Arrays.sort(array, Comparator.reverseOrder());
+        this.roles = new RoleList(array, order);
+    }
+
+    public synchronized boolean removeRole(Role role)
     {
+        RoleList list = roles;
+        int index = list.indexOf(role);
+        if (index < 0)
+            return false;
+        Role[] array = new Role[list.size() - 1];
+        System.arraycopy(list.roles, 0, array, 0, index);
+        System.arraycopy(list.roles, index + 1, array, index, array.length - index);
+        // Removing a role keeps the remaining roles sorted
+        roles = array.length == 0 ? RoleList.EMPTY : new RoleList(array, list.order);
+        return true;
+    }
+
+    // Role positions changed since the list was sorted
+    private synchronized RoleList sortRoles(RoleList list, int order)
+    {
+        if (roles == list)
+            roles = list.sorted(order);
         return roles;
     }
 
@@ -418,4 +453,61 @@ public class MemberImpl implements Member
                  .filter(c -> hasPermission(c, Permission.MESSAGE_READ))
                  .findFirst().orElse(null);
     }
+
+    /**
+     * Immutable list of roles in descending hierarchy order.
+     *
+     * <p>The order is the {@link GuildImpl#getRoleOrder() role order} of the guild at the time of sorting,
+     * the list is sorted again once role positions have changed.
+     */
+    private static final class RoleList extends AbstractList<Role> implements RandomAccess
+    {
+        private static final Role[] NO_ROLES = new Role[0];
+        private static final RoleList EMPTY = new RoleList(NO_ROLES, -1);
+
+        private final Role[] roles;
+        private final int order;
+
+        private RoleList(Role[] roles, int order)
+        {
+            this.roles = roles;
+            this.order = order;
+        }
+
+        private RoleList sorted(int order)
+        {
+            Role[] array = roles.clone();
+            Arrays.sort(array, Comparator.reverseOrder());
+            return new RoleList(array, order);
+        }
+
+        @Override
+        public Role get(int index)
+        {
+            return roles[index];
+        }
+
+        @Override
+        public int size()
+        {
+            return roles.length;
+        }
+
+        @Override
+        public int indexOf(Object o)
+        {
+            for (int i = 0; i < roles.length; i++)
+            {
+                if (roles[i].equals(o))
+                    return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return indexOf(o) >= 0;
+        }
+    }
 }
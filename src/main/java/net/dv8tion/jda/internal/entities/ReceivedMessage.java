@@ -16,6 +16,9 @@
 
 package net.dv8tion.jda.internal.entities;
 
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
 import gnu.trove.set.TLongSet;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.Permission;
@@ -39,6 +42,9 @@ import net.dv8tion.jda.internal.requests.Route;
 import net.dv8tion.jda.internal.requests.restaction.AuditableRestActionImpl;
 import net.dv8tion.jda.internal.requests.restaction.MessageActionImpl;
 import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.MentionTokenizer;
+import net.dv8tion.jda.internal.utils.MentionTokenizer.Token;
+import net.dv8tion.jda.internal.utils.MentionTokenizer.TokenType;
 import org.apache.commons.collections4.Bag;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.bag.HashBag;
@@ -49,7 +55,6 @@ import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ReceivedMessage extends AbstractMessage
 {
@@ -82,6 +87,7 @@ public class ReceivedMessage extends AbstractMessage
     // LAZY EVALUATED
     protected String altContent = null;
     protected String strippedContent = null;
+    protected volatile List<Token> mentionTokens = null;
 
     protected List<User> userMentions = null;
     protected List<Member> memberMentions = null;
@@ -175,7 +181,7 @@ public class ReceivedMessage extends AbstractMessage
         
         Checks.notNull(emote, "Emote");
 
-        boolean missingReaction = reactions.stream()
+        boolean missingReaction = getReactions().stream()
                    .map(MessageReaction::getReactionEmote)
                    .filter(MessageReaction.ReactionEmote::isEmote)
                    .noneMatch(r -> r.getIdLong() == emote.getIdLong());
@@ -309,7 +315,7 @@ public class ReceivedMessage extends AbstractMessage
         Checks.notEmpty(unicode, "Emoji");
         Checks.noWhitespace(unicode, "Emoji");
 
-        return this.reactions.stream()
+        return getReactions().stream()
             .map(MessageReaction::getReactionEmote)
             .filter(r -> r.isEmoji() && r.getEmoji().equals(unicode))
             .findFirst().orElse(null);
@@ -324,7 +330,7 @@ public class ReceivedMessage extends AbstractMessage
     @Override
     public MessageReaction.ReactionEmote getReactionById(long id)
     {
-        return this.reactions.stream()
+        return getReactions().stream()
             .map(MessageReaction::getReactionEmote)
             .filter(r -> r.isEmote() && r.getIdLong() == id)
             .findFirst().orElse(null);
@@ -357,9 +363,9 @@ public class ReceivedMessage extends AbstractMessage
         return String.format("https://discord.com/channels/%s/%s/%s", isFromGuild() ? getGuild().getId() : "@me", getChannel().getId(), getId());
     }
 
-    private User matchUser(Matcher matcher)
+    private User matchUser(Token token)
     {
-        long userId = MiscUtil.parseSnowflake(matcher.group(1));
+        long userId = token.id;
         if (!mentionedUsers.contains(userId))
             return null;
         User user = getJDA().getUserById(userId);
@@ -373,7 +379,7 @@ public class ReceivedMessage extends AbstractMessage
     public synchronized List<User> getMentionedUsers()
     {
         if (userMentions == null)
-            userMentions = Collections.unmodifiableList(processMentions(MentionType.USER, new ArrayList<>(), true, this::matchUser));
+            userMentions = Collections.unmodifiableList(processMentions(TokenType.USER, new ArrayList<>(), true, this::matchUser));
         return userMentions;
     }
 
@@ -381,13 +387,12 @@ public class ReceivedMessage extends AbstractMessage
     @Override
     public Bag<User> getMentionedUsersBag()
     {
-        return processMentions(MentionType.USER, new HashBag<>(), false, this::matchUser);
+        return processMentions(TokenType.USER, new HashBag<>(), false, this::matchUser);
     }
 
-    private TextChannel matchTextChannel(Matcher matcher)
+    private TextChannel matchTextChannel(Token token)
     {
-        long channelId = MiscUtil.parseSnowflake(matcher.group(1));
-        return getJDA().getTextChannelById(channelId);
+        return getJDA().getTextChannelById(token.id);
     }
 
     @Nonnull
@@ -395,7 +400,7 @@ public class ReceivedMessage extends AbstractMessage
     public synchronized List<TextChannel> getMentionedChannels()
     {
         if (channelMentions == null)
-            channelMentions = Collections.unmodifiableList(processMentions(MentionType.CHANNEL, new ArrayList<>(), true, this::matchTextChannel));
+            channelMentions = Collections.unmodifiableList(processMentions(TokenType.CHANNEL, new ArrayList<>(), true, this::matchTextChannel));
         return channelMentions;
     }
 
@@ -403,12 +408,12 @@ public class ReceivedMessage extends AbstractMessage
     @Override
     public Bag<TextChannel> getMentionedChannelsBag()
     {
-        return processMentions(MentionType.CHANNEL, new HashBag<>(), false, this::matchTextChannel);
+        return processMentions(TokenType.CHANNEL, new HashBag<>(), false, this::matchTextChannel);
     }
 
-    private Role matchRole(Matcher matcher)
+    private Role matchRole(Token token)
     {
-        long roleId = MiscUtil.parseSnowflake(matcher.group(1));
+        long roleId = token.id;
         if (!mentionedRoles.contains(roleId))
             return null;
         if (getChannelType().isGuild())
@@ -422,7 +427,7 @@ public class ReceivedMessage extends AbstractMessage
     public synchronized List<Role> getMentionedRoles()
     {
         if (roleMentions == null)
-            roleMentions = Collections.unmodifiableList(processMentions(MentionType.ROLE, new ArrayList<>(), true, this::matchRole));
+            roleMentions = Collections.unmodifiableList(processMentions(TokenType.ROLE, new ArrayList<>(), true, this::matchRole));
         return roleMentions;
     }
 
@@ -430,7 +435,7 @@ public class ReceivedMessage extends AbstractMessage
     @Override
     public Bag<Role> getMentionedRolesBag()
     {
-        return processMentions(MentionType.ROLE, new HashBag<>(), false, this::matchRole);
+        return processMentions(TokenType.ROLE, new HashBag<>(), false, this::matchRole);
     }
 
     @Nonnull
@@ -658,29 +663,49 @@ public class ReceivedMessage extends AbstractMessage
         {
             if (altContent != null)
                 return altContent;
-            String tmp = content;
-            for (User user : getMentionedUsers())
+            List<Token> tokens = getMentionTokens();
+            if (tokens.isEmpty())
+                return altContent = content;
+            StringBuilder builder = new StringBuilder(content.length());
+            int last = 0;
+            for (Token token : tokens)
             {
-                String name;
-                if (isFromGuild() && getGuild().isMember(user))
-                    name = getGuild().getMember(user).getEffectiveName();
-                else
-                    name = user.getName();
-                tmp = tmp.replaceAll("<@!?" + Pattern.quote(user.getId()) + '>', '@' + Matcher.quoteReplacement(name));
+                String display = getDisplay(token);
+                if (display == null)
+                    continue;
+                builder.append(content, last, token.start).append(display);
+                last = token.end;
             }
-            for (Emote emote : getEmotes())
+            return altContent = builder.append(content, last, content.length()).toString();
+        }
+    }
+
+    private String getDisplay(Token token)
+    {
+        switch (token.type)
+        {
+            case USER:
             {
-                tmp = tmp.replace(emote.getAsMention(), ":" + emote.getName() + ":");
+                User user = matchUser(token);
+                if (user == null)
+                    return null;
+                Member member = isFromGuild() ? getGuild().getMember(user) : null;
+                return '@' + (member != null ? member.getEffectiveName() : user.getName());
             }
-            for (TextChannel mentionedChannel : getMentionedChannels())
+            case ROLE:
             {
-                tmp = tmp.replace(mentionedChannel.getAsMention(), '#' + mentionedChannel.getName());
+                Role role = matchRole(token);
+                return role == null ? null : '@' + role.getName();
             }
-            for (Role mentionedRole : getMentionedRoles())
+            case CHANNEL:
             {
-                tmp = tmp.replace(mentionedRole.getAsMention(), '@' + mentionedRole.getName());
+                TextChannel channel = matchTextChannel(token);
+                return channel == null ? null : '#' + channel.getName();
             }
-            return altContent = tmp;
+            case EMOTE:
+                return ':' + matchEmote(token).getName() + ':';
+            default:
+                return null;
         }
     }
 
@@ -789,14 +814,11 @@ public class ReceivedMessage extends AbstractMessage
         return components;
     }
 
-    private Emote matchEmote(Matcher m)
+    private Emote matchEmote(Token token)
     {
-        long emoteId = MiscUtil.parseSnowflake(m.group(2));
-        String name = m.group(1);
-        boolean animated = m.group(0).startsWith("<a:");
-        Emote emote = getJDA().getEmoteById(emoteId);
+        Emote emote = getJDA().getEmoteById(token.id);
         if (emote == null)
-            emote = new EmoteImpl(emoteId, api).setName(name).setAnimated(animated);
+            emote = new EmoteImpl(token.id, api).setName(token.name).setAnimated(token.animated);
         return emote;
     }
 
@@ -805,7 +827,7 @@ public class ReceivedMessage extends AbstractMessage
     public synchronized List<Emote> getEmotes()
     {
         if (this.emoteMentions == null)
-            emoteMentions = Collections.unmodifiableList(processMentions(MentionType.EMOTE, new ArrayList<>(), true, this::matchEmote));
+            emoteMentions = Collections.unmodifiableList(processMentions(TokenType.EMOTE, new ArrayList<>(), true, this::matchEmote));
         return emoteMentions;
     }
 
@@ -813,7 +835,7 @@ public class ReceivedMessage extends AbstractMessage
     @Override
     public Bag<Emote> getEmotesBag()
     {
-        return processMentions(MentionType.EMOTE, new HashBag<>(), false, this::matchEmote);
+        return processMentions(TokenType.EMOTE, new HashBag<>(), false, this::matchEmote);
     }
 
     @Nonnull
@@ -1030,32 +1052,39 @@ public class ReceivedMessage extends AbstractMessage
 
     public void setMentions(List<User> users, List<Member> members)
     {
-        users.sort(Comparator.comparing((user) ->
-                Math.max(content.indexOf("<@" + user.getId() + ">"),
-                        content.indexOf("<@!" + user.getId() + ">")
-                )));
-        members.sort(Comparator.comparing((user) ->
-                Math.max(content.indexOf("<@" + user.getId() + ">"),
-                         content.indexOf("<@!" + user.getId() + ">")
-                )));
+        // Order by first occurrence in the content, users which are not mentioned in the content come first
+        TLongIntMap positions = new TLongIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, 0, -1);
+        for (Token token : getMentionTokens())
+        {
+            if (token.type == TokenType.USER)
+                positions.putIfAbsent(token.id, token.start);
+        }
+        users.sort(Comparator.comparingInt((user) -> positions.get(user.getIdLong())));
+        members.sort(Comparator.comparingInt((member) -> positions.get(member.getIdLong())));
 
         this.userMentions = Collections.unmodifiableList(users);
         this.memberMentions = Collections.unmodifiableList(members);
     }
 
-    private <T, C extends Collection<T>> C processMentions(MentionType type, C collection, boolean distinct, Function<Matcher, T> map)
+    // Tokenizing is idempotent, so racing threads only waste some work
+    protected List<Token> getMentionTokens()
+    {
+        List<Token> tokens = mentionTokens;
+        if (tokens == null)
+            mentionTokens = tokens = MentionTokenizer.tokenize(content);
+        return tokens;
+    }
+
+    private <T, C extends Collection<T>> C processMentions(TokenType type, C collection, boolean distinct, Function<Token, T> map)
     {
-        Matcher matcher = type.getPattern().matcher(getContentRaw());
-        while (matcher.find())
+        for (Token token : getMentionTokens())
         {
-            try
-            {
-                T elem = map.apply(matcher);
-                if (elem == null || (distinct && collection.contains(elem)))
-                    continue;
-                collection.add(elem);
-            }
-            catch (NumberFormatException ignored) {}
+            if (token.type != type)
+                continue;
+            T elem = map.apply(token);
+            if (elem == null || (distinct && collection.contains(elem)))
+                continue;
+            collection.add(elem);
         }
         return collection;
     }
@@ -433,6 +433,7 @@ public class RoleImpl implements Role
         SortedSnowflakeCacheViewImpl<Role> roleCache = (SortedSnowflakeCacheViewImpl<Role>) getGuild().getRoleCache();
         roleCache.clearCachedLists();
         this.rawPosition = rawPosition;
+        ((GuildImpl) getGuild()).invalidateRoleOrder();
         return this;
     }
 
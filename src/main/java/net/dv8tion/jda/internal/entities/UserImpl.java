@@ -121,7 +121,7 @@ public class UserImpl extends UserById implements User
     @Override
     public List<Guild> getMutualGuilds()
     {
-        return getJDA().getMutualGuilds(this);
+        return getJDA().getMutualGuilds(getIdLong());
     }
 
     @Override
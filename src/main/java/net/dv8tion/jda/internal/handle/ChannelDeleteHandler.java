@@ -62,6 +62,7 @@ public class ChannelDeleteHandler extends SocketHandler
                 }
 
                 guild.getStoreChannelView().remove(channelId);
+                guild.getPermissionCache().invalidateChannel(channelId);
                 getJDA().handleEvent(
                     new StoreChannelDeleteEvent(
                         getJDA(), responseNumber,
@@ -78,6 +79,7 @@ public class ChannelDeleteHandler extends SocketHandler
                 }
 
                 guild.getTextChannelsView().remove(channel.getIdLong());
+                guild.getPermissionCache().invalidateChannel(channelId);
                 getJDA().handleEvent(
                     new TextChannelDeleteEvent(
                         getJDA(), responseNumber,
@@ -103,6 +105,7 @@ public class ChannelDeleteHandler extends SocketHandler
 //                    manager.closeAudioConnection(ConnectionStatus.DISCONNECTED_CHANNEL_DELETED);
 //                }
                 guild.getVoiceChannelsView().remove(channel.getIdLong());
+                guild.getPermissionCache().invalidateChannel(channelId);
                 getJDA().handleEvent(
                     new VoiceChannelDeleteEvent(
                         getJDA(), responseNumber,
@@ -119,6 +122,7 @@ public class ChannelDeleteHandler extends SocketHandler
                 }
 
                 guild.getCategoriesView().remove(channelId);
+                guild.getPermissionCache().invalidateChannel(channelId);
                 getJDA().handleEvent(
                     new CategoryDeleteEvent(
                         getJDA(), responseNumber,
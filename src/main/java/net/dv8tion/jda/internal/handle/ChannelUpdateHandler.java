@@ -36,6 +36,7 @@ import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.*;
 import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -131,6 +132,7 @@ public class ChannelUpdateHandler extends SocketHandler
                 if (!Objects.equals(oldParent, parentId))
                 {
                     textChannel.setParent(parentId == null ? 0 : parentId);
+                    invalidatePermissions(textChannel);
                     getJDA().handleEvent(
                            new TextChannelUpdateParentEvent(
                                getJDA(), responseNumber,
@@ -223,6 +225,7 @@ public class ChannelUpdateHandler extends SocketHandler
                 if (!Objects.equals(oldParent, parentId))
                 {
                     voiceChannel.setParent(parentId == null ? 0 : parentId);
+                    invalidatePermissions(voiceChannel);
                     getJDA().handleEvent(
                             new VoiceChannelUpdateParentEvent(
                                     getJDA(), responseNumber,
@@ -298,19 +301,22 @@ public class ChannelUpdateHandler extends SocketHandler
     private void applyPermissions(AbstractChannelImpl<?,?> channel, DataArray permOverwrites)
     {
         TLongObjectMap<PermissionOverride> currentOverrides = new TLongObjectHashMap<>(channel.getOverrideMap());
-        List<IPermissionHolder> changed = new ArrayList<>(currentOverrides.size());
+        // The changed holders are only collected for the permissions update event of the channel
+        List<IPermissionHolder> changed = isPermissionsEventEnabled(channel.getType()) ? new ArrayList<>(currentOverrides.size()) : null;
         Guild guild = channel.getGuild();
         for (int i = 0; i < permOverwrites.length(); i++)
         {
             DataObject overrideJson = permOverwrites.getObject(i);
             long id = overrideJson.getUnsignedLong("id", 0);
-            if (handlePermissionOverride(currentOverrides.remove(id), overrideJson, id, channel))
+            if (handlePermissionOverride(currentOverrides.remove(id), overrideJson, id, channel) && changed != null)
                 addPermissionHolder(changed, guild, id);
         }
 
         currentOverrides.forEachValue(override -> {
             channel.getOverrideMap().remove(override.getIdLong());
-            addPermissionHolder(changed, guild, override.getIdLong());
+            invalidatePermissions(channel);
+            if (changed != null)
+                addPermissionHolder(changed, guild, override.getIdLong());
             api.handleEvent(
                 new PermissionOverrideDeleteEvent(
                     api, responseNumber,
@@ -318,7 +324,7 @@ public class ChannelUpdateHandler extends SocketHandler
             return true;
         });
 
-        if (changed.isEmpty())
+        if (changed == null || changed.isEmpty())
             return;
         switch (channel.getType())
         {
@@ -350,6 +356,24 @@ public class ChannelUpdateHandler extends SocketHandler
         }
     }
 
+    private boolean isPermissionsEventEnabled(ChannelType type)
+    {
+        switch (type)
+        {
+        case CATEGORY:
+            return api.isEventEnabled(CategoryUpdatePermissionsEvent.class);
+        case STORE:
+            return api.isEventEnabled(StoreChannelUpdatePermissionsEvent.class);
+        case STAGE:
+        case VOICE:
+            return api.isEventEnabled(VoiceChannelUpdatePermissionsEvent.class);
+        case TEXT:
+            return api.isEventEnabled(TextChannelUpdatePermissionsEvent.class);
+        default:
+            return false;
+        }
+    }
+
     private void addPermissionHolder(List<IPermissionHolder> changed, Guild guild, long id)
     {
         IPermissionHolder holder = guild.getRoleById(id);
@@ -392,6 +416,7 @@ public class ChannelUpdateHandler extends SocketHandler
             {
                 // We delete empty overrides for the @everyone role because that's what the client also does, otherwise our sync checks don't work!
                 channel.getOverrideMap().remove(overrideId);
+                invalidatePermissions(channel);
                 api.handleEvent(
                     new PermissionOverrideDeleteEvent(
                         api, responseNumber,
@@ -401,6 +426,7 @@ public class ChannelUpdateHandler extends SocketHandler
 
             impl.setAllow(allow);
             impl.setDeny(deny);
+            invalidatePermissions(channel);
             api.handleEvent(
                 new PermissionOverrideUpdateEvent(
                     api, responseNumber,
@@ -416,6 +442,7 @@ public class ChannelUpdateHandler extends SocketHandler
             impl.setAllow(allow);
             impl.setDeny(deny);
             channel.getOverrideMap().put(overrideId, currentOverride);
+            invalidatePermissions(channel);
             api.handleEvent(
                 new PermissionOverrideCreateEvent(
                     api, responseNumber,
@@ -424,4 +451,15 @@ public class ChannelUpdateHandler extends SocketHandler
 
         return true;
     }
+
+    // Must be called after the channel was updated, but before any event is fired
+    private void invalidatePermissions(AbstractChannelImpl<?,?> channel)
+    {
+        PermissionCache cache = ((GuildImpl) channel.getGuild()).getPermissionCache();
+        // The permissions of the channels in a category depend on the category as well
+        if (channel.getType() == ChannelType.CATEGORY)
+            cache.clear();
+        else
+            cache.invalidateChannel(channel.getIdLong());
+    }
 }
@@ -29,6 +29,7 @@ import net.dv8tion.jda.internal.requests.WebSocketClient;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.UserGuildIndex;
 
 public class GuildDeleteHandler extends SocketHandler
 {
@@ -95,20 +96,18 @@ public class GuildDeleteHandler extends SocketHandler
         audioManagerView.remove(id); //write-lock access/release
 
         //cleaning up all users that we do not share a guild with anymore
-        // Anything left in memberIds will be removed from the main userMap
-        //Use a new HashSet so that we don't actually modify the Member map so it doesn't affect Guild#getMembers for the leave event.
+        // The members stay in the guild cache so they are still accessible for the leave event.
         TLongSet memberIds = guild.getMembersView().keySet(); // copies keys
-        getJDA().getGuildCache().stream()
-                .map(GuildImpl.class::cast)
-                .forEach(g -> memberIds.removeAll(g.getMembersView().keySet()));
-        // Remember, everything left in memberIds is removed from the userMap
+        guild.getMembersView().removeFromIndex();
+        // Everything in memberIds which is no longer in the index is removed from the userMap
+        UserGuildIndex index = getJDA().getUserGuildIndex();
         SnowflakeCacheViewImpl<User> userView = getJDA().getUsersView();
         try (UnlockHook hook = userView.writeLock())
         {
             long selfId = getJDA().getSelfUser().getIdLong();
             memberIds.forEach(memberId -> {
-                if (memberId == selfId)
-                    return true; // don't remove selfUser from cache
+                if (memberId == selfId || index.hasGuilds(memberId))
+                    return true; // don't remove selfUser or users we still share a guild with
                 userView.remove(memberId);
                 getJDA().getEventCache().clear(EventCache.Type.USER, memberId);
                 return true;
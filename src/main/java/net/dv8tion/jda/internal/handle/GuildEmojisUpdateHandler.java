@@ -59,6 +59,8 @@ public class GuildEmojisUpdateHandler extends SocketHandler
         }
 
         DataArray array = content.getArray("emojis");
+        // The previous state is only copied if there is an event to compare it with
+        boolean updateEvents = getJDA().getEventFilter().isAnyEnabled(EmoteUpdateNameEvent.class, EmoteUpdateRolesEvent.class);
         List<Emote> oldEmotes, newEmotes;
         SnowflakeCacheViewImpl<Emote> emoteView = guild.getEmotesView();
         try (UnlockHook hook = emoteView.writeLock())
@@ -82,7 +84,8 @@ public class GuildEmojisUpdateHandler extends SocketHandler
                 {
                     // emote is in our cache which is why we don't want to remove it in cleanup later
                     oldEmotes.remove(emote);
-                    oldEmote = emote.clone();
+                    if (updateEvents)
+                        oldEmote = emote.clone();
                 }
 
                 emote.setName(current.getString("name"))
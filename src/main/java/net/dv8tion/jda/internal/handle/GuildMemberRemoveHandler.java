@@ -67,6 +67,7 @@ public class GuildMemberRemoveHandler extends SocketHandler
 
         User user = api.getEntityBuilder().createUser(content.getObject("user"));
         MemberImpl member = (MemberImpl) guild.getMembersView().remove(userId);
+        guild.getPermissionCache().invalidateMember(userId);
 
         if (member == null)
         {
@@ -109,8 +110,7 @@ public class GuildMemberRemoveHandler extends SocketHandler
         try (UnlockHook hook = userView.writeLock())
         {
             if (userId != getJDA().getSelfUser().getIdLong() // don't remove selfUser from cache
-                    && getJDA().getGuildsView().stream()
-                               .noneMatch(g -> g.getMemberById(userId) != null))
+                    && !getJDA().getUserGuildIndex().hasGuilds(userId))
             {
                 userView.remove(userId);
                 getJDA().getEventCache().clear(EventCache.Type.USER, userId);
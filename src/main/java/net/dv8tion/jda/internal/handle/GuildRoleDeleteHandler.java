@@ -24,6 +24,7 @@ import net.dv8tion.jda.internal.entities.EmoteImpl;
 import net.dv8tion.jda.internal.entities.GuildImpl;
 import net.dv8tion.jda.internal.entities.MemberImpl;
 import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 
 public class GuildRoleDeleteHandler extends SocketHandler
 {
@@ -57,10 +58,12 @@ public class GuildRoleDeleteHandler extends SocketHandler
         }
 
         //Now that the role is removed from the Guild, remove it from all users and emotes.
+        PermissionCache permissionCache = guild.getPermissionCache();
         guild.getMembersView().forEach(m ->
         {
             MemberImpl member = (MemberImpl) m;
-            member.getRoleSet().remove(removedRole);
+            if (member.removeRole(removedRole))
+                permissionCache.invalidateMember(member.getIdLong());
         });
 
         for (Emote emote : guild.getEmoteCache())
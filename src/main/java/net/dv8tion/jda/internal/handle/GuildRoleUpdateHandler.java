@@ -20,7 +20,9 @@ import net.dv8tion.jda.api.events.role.update.*;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
 import net.dv8tion.jda.internal.entities.RoleImpl;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 
 import java.util.Objects;
 
@@ -97,6 +99,7 @@ public class GuildRoleUpdateHandler extends SocketHandler
         {
             long oldPermissionsRaw = role.getPermissionsRaw();
             role.setRawPermissions(permissions);
+            invalidatePermissions(guild, role);
             getJDA().handleEvent(
                     new RoleUpdatePermissionsEvent(
                             getJDA(), responseNumber,
@@ -123,4 +126,19 @@ public class GuildRoleUpdateHandler extends SocketHandler
         }
         return null;
     }
+
+    private void invalidatePermissions(GuildImpl guild, Role role)
+    {
+        PermissionCache cache = guild.getPermissionCache();
+        if (role.isPublicRole())
+        {
+            cache.clear();
+            return;
+        }
+        cache.invalidateMembers(id ->
+        {
+            MemberImpl member = (MemberImpl) guild.getMembersView().get(id);
+            return member == null || member.hasRole(role);
+        });
+    }
 }
@@ -29,7 +29,9 @@ import net.dv8tion.jda.api.events.guild.UnavailableGuildJoinedEvent;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
 
 import javax.annotation.Nullable;
 import java.util.LinkedList;
@@ -43,6 +45,12 @@ public class GuildSetupNode
     private final List<DataObject> cachedEvents = new LinkedList<>();
     private TLongObjectMap<DataObject> members;
     private TLongSet removedMembers;
+    // Streaming setup, members are created as their chunks arrive
+    private boolean streaming;
+    private GuildImpl setupGuild;
+    private TLongObjectMap<MemberImpl> setupMembers;
+    private TLongSet memberIds;
+    private TLongObjectMap<DataObject> presences;
     private DataObject partialGuild;
     private int expectedMemberCount = 1;
     boolean requestedChunk;
@@ -87,6 +95,10 @@ public class GuildSetupNode
 
     public int getCurrentMemberCount()
     {
+        if (isStreaming())
+            return memberIds.size();
+        if (members == null)
+            return 0;
         TLongHashSet knownMembers = new TLongHashSet(members.keySet());
         knownMembers.removeAll(removedMembers);
         return knownMembers.size();
@@ -114,6 +126,8 @@ public class GuildSetupNode
 
     public boolean containsMember(long userId)
     {
+        if (isStreaming())
+            return memberIds.contains(userId);
         if (members == null || members.isEmpty())
             return false;
         return members.containsKey(userId);
@@ -176,6 +190,7 @@ public class GuildSetupNode
             members.clear();
         if (removedMembers != null)
             removedMembers.clear();
+        clearStreamingState();
         cachedEvents.clear();
     }
 
@@ -240,13 +255,9 @@ public class GuildSetupNode
             return true;
         }
         for (int index = 0; index < arr.length(); index++)
-        {
-            DataObject obj = arr.getObject(index);
-            long id = obj.getObject("user").getLong("id");
-            members.put(id, obj);
-        }
+            addMember(arr.getObject(index));
 
-        if (last || members.size() >= expectedMemberCount || !getController().getJDA().chunkGuild(id))
+        if (last || getMemberCount() >= expectedMemberCount || !getController().getJDA().chunkGuild(id))
         {
             completeSetup();
             return false;
@@ -256,21 +267,30 @@ public class GuildSetupNode
 
     void handleAddMember(DataObject member)
     {
-        if (members == null || removedMembers == null)
+        if (!hasMembers())
             return;
         expectedMemberCount++;
         long userId = member.getObject("user").getLong("id");
-        members.put(userId, member);
         removedMembers.remove(userId);
+        addMember(member);
     }
 
     void handleRemoveMember(DataObject member)
     {
-        if (members == null || removedMembers == null)
+        if (!hasMembers())
             return;
         expectedMemberCount--;
         long userId = member.getObject("user").getLong("id");
-        members.remove(userId);
+        if (isStreaming())
+        {
+            memberIds.remove(userId);
+            if (setupMembers.remove(userId) != null)
+                getController().getJDA().getEntityBuilder().removeSetupMember(id, userId);
+        }
+        else
+        {
+            members.remove(userId);
+        }
         removedMembers.add(userId);
         EventCache eventCache = getController().getJDA().getEventCache();
         if (!getController().containsMember(userId, this)) // if no other setup node contains this userId we clear it here
@@ -306,6 +326,7 @@ public class GuildSetupNode
         updateStatus(GuildSetupController.Status.REMOVED);
         EventCache eventCache = getController().getJDA().getEventCache();
         eventCache.clear(EventCache.Type.GUILD, id);
+        releaseSetupMembers();
         if (partialGuild == null)
             return;
 
@@ -339,16 +360,41 @@ public class GuildSetupNode
                     eventCache.clear(EventCache.Type.USER, userId);
             }
         }
+        else if (memberIds != null)
+        {
+            for (TLongIterator it = memberIds.iterator(); it.hasNext();)
+            {
+                long userId = it.next();
+                if (!getController().containsMember(userId, this))
+                    eventCache.clear(EventCache.Type.USER, userId);
+            }
+        }
+        clearStreamingState();
     }
 
     private void completeSetup()
     {
         updateStatus(GuildSetupController.Status.BUILDING);
         JDAImpl api = getController().getJDA();
-        for (TLongIterator it = removedMembers.iterator(); it.hasNext(); )
-            members.remove(it.next());
-        removedMembers.clear();
-        GuildImpl guild = api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount);
+        GuildImpl guild;
+        if (isStreaming())
+        {
+            // Removed members were already dropped when the removal arrived
+            removedMembers.clear();
+            setupGuild.setMemberCount(expectedMemberCount);
+            guild = api.getEntityBuilder().createGuild(setupGuild, partialGuild, setupMembers);
+            // Only the ids are kept for containsMember
+            setupGuild = null;
+            setupMembers = null;
+            presences = null;
+        }
+        else
+        {
+            for (TLongIterator it = removedMembers.iterator(); it.hasNext(); )
+                members.remove(it.next());
+            removedMembers.clear();
+            guild = api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount);
+        }
         switch (type)
         {
         case AVAILABLE:
@@ -376,8 +422,11 @@ public class GuildSetupNode
     private void ensureMembers()
     {
         expectedMemberCount = partialGuild.getInt("member_count");
-        members = new TLongObjectHashMap<>(expectedMemberCount);
         removedMembers = new TLongHashSet();
+        if (getController().getJDA().isStreamingGuildSetup())
+            startStreaming();
+        else
+            members = new TLongObjectHashMap<>(expectedMemberCount);
         DataArray memberArray = partialGuild.getArray("members");
         if (!getController().getJDA().chunkGuild(id))
         {
@@ -398,14 +447,95 @@ public class GuildSetupNode
             GuildSetupController.log.trace(
                 "Received suspicious members with a guild payload. Attempting to chunk. " +
                 "member_count: {} members: {} actual_members: {} guild_id: {}",
-                expectedMemberCount, memberArray.length(), members.size(), id);
-            members.clear();
+                expectedMemberCount, memberArray.length(), getMemberCount(), id);
+            clearMembers();
             updateStatus(GuildSetupController.Status.CHUNKING);
             getController().addGuildForChunking(id, isJoin());
             requestedChunk = true;
         }
     }
 
+    private boolean isStreaming()
+    {
+        return streaming;
+    }
+
+    private boolean hasMembers()
+    {
+        return removedMembers != null && (streaming ? setupMembers != null : members != null);
+    }
+
+    private int getMemberCount()
+    {
+        return isStreaming() ? memberIds.size() : members.size();
+    }
+
+    private void addMember(DataObject obj)
+    {
+        long userId = obj.getObject("user").getLong("id");
+        if (!isStreaming())
+        {
+            members.put(userId, obj);
+            return;
+        }
+
+        // The chunk might have been created before the member was removed
+        if (setupGuild == null || removedMembers.contains(userId))
+            return;
+        memberIds.add(userId);
+        EntityBuilder builder = getController().getJDA().getEntityBuilder();
+        setupMembers.put(userId, builder.createSetupMember(setupGuild, obj, presences.remove(userId)));
+    }
+
+    private void clearMembers()
+    {
+        if (isStreaming())
+        {
+            memberIds.clear();
+            releaseSetupMembers();
+        }
+        else
+        {
+            members.clear();
+        }
+    }
+
+    private void startStreaming()
+    {
+        EntityBuilder builder = getController().getJDA().getEntityBuilder();
+        members = null;
+        streaming = true;
+        setupGuild = builder.createGuildShell(id, partialGuild, expectedMemberCount);
+        setupMembers = new TLongObjectHashMap<>();
+        memberIds = new TLongHashSet(expectedMemberCount);
+        presences = partialGuild.optArray("presences")
+            .map(arr -> builder.convertToUserMap(o -> o.getObject("user").getUnsignedLong("id"), arr))
+            .orElseGet(TLongObjectHashMap::new);
+    }
+
+    // The members of an incomplete setup are dropped, this unloads the users which are not referenced by another guild
+    private void releaseSetupMembers()
+    {
+        if (setupMembers == null)
+            return;
+        EntityBuilder builder = getController().getJDA().getEntityBuilder();
+        setupMembers.forEachKey(userId ->
+        {
+            builder.removeSetupMember(id, userId);
+            return true;
+        });
+        setupMembers.clear();
+    }
+
+    private void clearStreamingState()
+    {
+        streaming = false;
+        setupGuild = null;
+        setupMembers = null;
+        memberIds = null;
+        presences = null;
+    }
+
     public enum Type
     {
         INIT, JOIN, AVAILABLE
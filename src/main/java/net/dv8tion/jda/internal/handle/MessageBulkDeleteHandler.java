@@ -57,6 +57,8 @@ public class MessageBulkDeleteHandler extends SocketHandler
         }
         else
         {
+            if (!getJDA().isEventEnabled(MessageBulkDeleteEvent.class))
+                return null;
             TextChannel channel = getJDA().getTextChannelById(channelId);
             if (channel == null)
             {
@@ -16,6 +16,7 @@
 package net.dv8tion.jda.internal.handle;
 
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
 import net.dv8tion.jda.api.entities.MessageType;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
@@ -53,6 +54,9 @@ public class MessageCreateHandler extends SocketHandler
                 return guildId;
         }
 
+        if (!jda.getEventFilter().isAnyEnabled(MessageReceivedEvent.class, GuildMessageReceivedEvent.class, PrivateMessageReceivedEvent.class))
+            return updateCache(content);
+
         Message message;
         try
         {
@@ -126,4 +130,29 @@ public class MessageCreateHandler extends SocketHandler
                 message));
         return null;
     }
+
+    // Without any message events only the cached channel and author are updated, the message itself is never built
+    private Long updateCache(DataObject content)
+    {
+        JDAImpl jda = getJDA();
+        final long messageId = content.getLong("id");
+        final long channelId = content.getLong("channel_id");
+        MessageChannel channel = jda.getTextChannelById(channelId);
+        if (channel == null)
+            channel = jda.getPrivateChannelById(channelId);
+        if (channel == null)
+            return null;
+
+        if (channel instanceof TextChannelImpl)
+        {
+            ((TextChannelImpl) channel).setLastMessageId(messageId);
+        }
+        else
+        {
+            ((PrivateChannelImpl) channel).setLastMessageId(messageId);
+            jda.usedPrivateChannel(channelId);
+        }
+        jda.getEntityBuilder().updateMessageAuthor(content, channel);
+        return null;
+    }
 }
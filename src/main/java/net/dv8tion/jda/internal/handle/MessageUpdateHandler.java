@@ -73,6 +73,10 @@ public class MessageUpdateHandler extends SocketHandler
 
     private Long handleMessage(DataObject content)
     {
+        // Message updates do not change the cache, the message is only built for the events
+        if (!getJDA().getEventFilter().isAnyEnabled(MessageUpdateEvent.class, GuildMessageUpdateEvent.class, PrivateMessageUpdateEvent.class))
+            return null;
+
         Message message;
         try
         {
@@ -144,6 +148,9 @@ public class MessageUpdateHandler extends SocketHandler
 
     private Long handleMessageEmbed(DataObject content)
     {
+        if (!getJDA().getEventFilter().isAnyEnabled(MessageEmbedEvent.class, GuildMessageEmbedEvent.class, PrivateMessageEmbedEvent.class))
+            return null;
+
         EntityBuilder builder = getJDA().getEntityBuilder();
         final long messageId = content.getLong("id");
         final long channelId = content.getLong("channel_id");
@@ -102,8 +102,16 @@ public class PresenceUpdateHandler extends SocketHandler
         // This is stored in the Member objects.
         //We set the activities to null to prevent parsing if the cache was disabled
         final DataArray activityArray = !getJDA().isCacheFlagSet(CacheFlag.ACTIVITY) || content.isNull("activities") ? null : content.getArray("activities");
-        List<Activity> newActivities = new ArrayList<>();
-        boolean parsedActivity = parseActivities(userId, activityArray, newActivities);
+        // Updates for the other mutual guilds carry the same activities, those are shared instead of parsed again
+        List<Activity> newActivities = activityArray == null ? null : getJDA().getPresenceIndex().getActivities(userId, activityArray);
+        boolean parsedActivity = newActivities != null;
+        if (!parsedActivity)
+        {
+            newActivities = new ArrayList<>();
+            parsedActivity = parseActivities(userId, activityArray, newActivities);
+            if (parsedActivity)
+                newActivities = getJDA().getPresenceIndex().putActivities(userId, activityArray, newActivities);
+        }
 
         if (getJDA().isCacheFlagSet(CacheFlag.CLIENT_STATUS) && !content.isNull("client_status"))
             handleClientStatus(content, presence);
@@ -161,6 +169,8 @@ public class PresenceUpdateHandler extends SocketHandler
         boolean unorderedEquals = Helpers.deepEqualsUnordered(oldActivities, newActivities);
         if (unorderedEquals)
         {
+            if (!getJDA().isEventEnabled(UserUpdateActivityOrderEvent.class))
+                return;
             boolean deepEquals = Helpers.deepEquals(oldActivities, newActivities);
             if (!deepEquals)
             {
@@ -173,6 +183,14 @@ public class PresenceUpdateHandler extends SocketHandler
         else
         {
             getJDA().getEntityBuilder().updateMemberCache(member);
+            if (!getJDA().isEventEnabled(UserActivityStartEvent.class) && !getJDA().isEventEnabled(UserActivityEndEvent.class))
+            {
+                getJDA().handleEvent(
+                    new UserUpdateActivitiesEvent(
+                        getJDA(), responseNumber,
+                        member, oldActivities));
+                return;
+            }
             List<Activity> stoppedActivities = new ArrayList<>(oldActivities); // create modifiable copy
             List<Activity> startedActivities = new ArrayList<>();
             for (Activity activity : newActivities)
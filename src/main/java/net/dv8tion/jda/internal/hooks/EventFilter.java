@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.hooks;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which events are fired, based on the event classes declared on the builder.
+ *
+ * <p>An event type is enabled if it is assignable to one of the declared classes,
+ * so declaring {@link net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent GenericGuildMemberEvent}
+ * enables all member events.
+ */
+public class EventFilter
+{
+    public static final EventFilter ALL = new EventFilter(null);
+
+    private final Set<Class<? extends GenericEvent>> events;
+    private final Map<Class<?>, Boolean> resolved = new ConcurrentHashMap<>();
+
+    public EventFilter(@Nullable Collection<Class<? extends GenericEvent>> events)
+    {
+        this.events = events == null ? null : new HashSet<>(events);
+    }
+
+    public boolean isAll()
+    {
+        return events == null;
+    }
+
+    public boolean isEnabled(Class<? extends GenericEvent> type)
+    {
+        if (events == null)
+            return true;
+        return resolved.computeIfAbsent(type, this::resolve);
+    }
+
+    @SafeVarargs
+    public final boolean isAnyEnabled(Class<? extends GenericEvent>... types)
+    {
+        for (Class<? extends GenericEvent> type : types)
+        {
+            if (isEnabled(type))
+                return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    public Set<Class<? extends GenericEvent>> getEvents()
+    {
+        return events;
+    }
+
+    private boolean resolve(Class<?> type)
+    {
+        for (Class<? extends GenericEvent> event : events)
+        {
+            if (event.isAssignableFrom(type))
+                return true;
+        }
+        return false;
+    }
+}
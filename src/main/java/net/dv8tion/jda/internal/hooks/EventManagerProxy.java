@@ -17,6 +17,7 @@
 package net.dv8tion.jda.internal.hooks;
 
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventOrdering;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.hooks.InterfacedEventManager;
 import net.dv8tion.jda.internal.JDAImpl;
@@ -29,12 +30,19 @@ import java.util.concurrent.RejectedExecutionException;
 public class EventManagerProxy implements IEventManager
 {
     private final ExecutorService executor;
+    private final OrderedEventExecutor orderedExecutor;
     private IEventManager subject;
 
     public EventManagerProxy(IEventManager subject, ExecutorService executor)
+    {
+        this(subject, executor, EventOrdering.NONE, 0);
+    }
+
+    public EventManagerProxy(IEventManager subject, ExecutorService executor, EventOrdering ordering, int queueCapacity)
     {
         this.subject = subject;
         this.executor = executor;
+        this.orderedExecutor = executor == null || ordering == EventOrdering.NONE ? null : new OrderedEventExecutor(executor, ordering, queueCapacity);
     }
 
     public void setSubject(IEventManager subject)
@@ -64,7 +72,9 @@ public class EventManagerProxy implements IEventManager
     {
         try
         {
-            if (executor != null && !executor.isShutdown())
+            if (orderedExecutor != null)
+                orderedExecutor.execute(event, () -> handleInternally(event));
+            else if (executor != null && !executor.isShutdown())
                 executor.execute(() -> handleInternally(event));
             else
                 handleInternally(event);
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.hooks;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.application.GenericApplicationCommandEvent;
+import net.dv8tion.jda.api.events.channel.category.GenericCategoryEvent;
+import net.dv8tion.jda.api.events.channel.store.GenericStoreChannelEvent;
+import net.dv8tion.jda.api.events.channel.text.GenericTextChannelEvent;
+import net.dv8tion.jda.api.events.channel.voice.GenericVoiceChannelEvent;
+import net.dv8tion.jda.api.events.emote.GenericEmoteEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.events.message.guild.GenericGuildMessageEvent;
+import net.dv8tion.jda.api.events.message.priv.GenericPrivateMessageEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.user.UserTypingEvent;
+import net.dv8tion.jda.api.events.user.update.GenericUserPresenceEvent;
+import net.dv8tion.jda.api.hooks.EventOrdering;
+import net.dv8tion.jda.internal.JDAImpl;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the tasks of each key one after another, while different keys run in parallel on the executor.
+ *
+ * <p>Each key has a bounded queue, once it is full the submitting thread is blocked until the key catches up.
+ * This pushes back on the gateway reader instead of buffering an unbounded amount of events.
+ * Threads of the executor never block, since they could be the ones that have to drain the queue.
+ */
+public class OrderedEventExecutor
+{
+    private static final int BATCH_SIZE = 32;
+    // The executor does not tell us when it is shutdown, blocked producers check for it in this interval
+    private static final long SHUTDOWN_CHECK_INTERVAL = 100;
+    private static final ThreadLocal<Boolean> isWorker = ThreadLocal.withInitial(() -> false);
+
+    private final ConcurrentMap<Long, KeyQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final EventOrdering ordering;
+    private final int capacity;
+
+    public OrderedEventExecutor(ExecutorService executor, EventOrdering ordering, int capacity)
+    {
+        this.executor = executor;
+        this.ordering = ordering;
+        this.capacity = capacity;
+    }
+
+    public void execute(GenericEvent event, Runnable task)
+    {
+        long key = getKey(ordering, event);
+        // The queue might be retired concurrently, in which case a new one has to be created
+        boolean added;
+        do
+        {
+            added = queues.computeIfAbsent(key, KeyQueue::new).offer(task);
+        } while (!added);
+    }
+
+    static long getKey(EventOrdering ordering, GenericEvent event)
+    {
+        if (ordering == EventOrdering.CHANNEL)
+        {
+            if (event instanceof GenericMessageEvent)
+                return ((GenericMessageEvent) event).getChannel().getIdLong();
+            if (event instanceof GenericGuildMessageEvent)
+                return ((GenericGuildMessageEvent) event).getChannel().getIdLong();
+            if (event instanceof GenericPrivateMessageEvent)
+                return ((GenericPrivateMessageEvent) event).getChannel().getIdLong();
+            if (event instanceof MessageBulkDeleteEvent)
+                return ((MessageBulkDeleteEvent) event).getChannel().getIdLong();
+            if (event instanceof UserTypingEvent)
+                return ((UserTypingEvent) event).getChannel().getIdLong();
+            if (event instanceof GenericTextChannelEvent)
+                return ((GenericTextChannelEvent) event).getChannel().getIdLong();
+            if (event instanceof GenericVoiceChannelEvent)
+                return ((GenericVoiceChannelEvent) event).getChannel().getIdLong();
+            if (event instanceof GenericStoreChannelEvent)
+                return ((GenericStoreChannelEvent) event).getChannel().getIdLong();
+            if (event instanceof GenericCategoryEvent)
+                return ((GenericCategoryEvent) event).getIdLong();
+        }
+
+        Guild guild = getGuild(event);
+        return guild == null ? 0 : guild.getIdLong();
+    }
+
+    private static Guild getGuild(GenericEvent event)
+    {
+        if (event instanceof GenericGuildEvent)
+            return ((GenericGuildEvent) event).getGuild();
+        if (event instanceof GenericMessageEvent)
+        {
+            GenericMessageEvent messageEvent = (GenericMessageEvent) event;
+            return messageEvent.isFromGuild() ? messageEvent.getGuild() : null;
+        }
+        if (event instanceof GenericUserPresenceEvent)
+            return ((GenericUserPresenceEvent) event).getGuild();
+        if (event instanceof UserTypingEvent)
+            return ((UserTypingEvent) event).getGuild();
+        if (event instanceof GenericTextChannelEvent)
+            return ((GenericTextChannelEvent) event).getGuild();
+        if (event instanceof GenericVoiceChannelEvent)
+            return ((GenericVoiceChannelEvent) event).getGuild();
+        if (event instanceof GenericStoreChannelEvent)
+            return ((GenericStoreChannelEvent) event).getChannel().getGuild();
+        if (event instanceof GenericCategoryEvent)
+            return ((GenericCategoryEvent) event).getGuild();
+        if (event instanceof GenericRoleEvent)
+            return ((GenericRoleEvent) event).getGuild();
+        if (event instanceof GenericEmoteEvent)
+            return ((GenericEmoteEvent) event).getGuild();
+        if (event instanceof MessageBulkDeleteEvent)
+            return ((MessageBulkDeleteEvent) event).getGuild();
+        if (event instanceof GenericInteractionCreateEvent)
+            return ((GenericInteractionCreateEvent) event).getGuild();
+        if (event instanceof GenericApplicationCommandEvent)
+            return ((GenericApplicationCommandEvent) event).getGuild();
+        return null;
+    }
+
+    private class KeyQueue implements Runnable
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final long key;
+        private boolean scheduled;
+        private boolean retired;
+
+        private KeyQueue(long key)
+        {
+            this.key = key;
+        }
+
+        private boolean offer(Runnable task)
+        {
+            boolean schedule = false;
+            lock.lock();
+            try
+            {
+                while (tasks.size() >= capacity && !isWorker.get() && !executor.isShutdown())
+                {
+                    try
+                    {
+                        notFull.await(SHUTDOWN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                // The queue might have been drained and retired while waiting
+                if (retired)
+                    return false;
+                tasks.add(task);
+                if (!scheduled)
+                    schedule = scheduled = true;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            if (schedule)
+                submit();
+            return true;
+        }
+
+        private void submit()
+        {
+            try
+            {
+                executor.execute(this);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                JDAImpl.LOG.warn("Event-Pool rejected event execution! Running on handling thread instead...");
+                while (drain(Integer.MAX_VALUE));
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            if (drain(BATCH_SIZE))
+                submit(); // give other keys a chance to run
+        }
+
+        // Returns true if tasks are remaining after the limit was reached
+        private boolean drain(int limit)
+        {
+            boolean wasWorker = isWorker.get();
+            isWorker.set(true);
+            try
+            {
+                for (int i = 0; i < limit; i++)
+                {
+                    Runnable task;
+                    lock.lock();
+                    try
+                    {
+                        task = tasks.poll();
+                        if (task == null)
+                        {
+                            scheduled = false;
+                            retired = true;
+                            queues.remove(key, this);
+                            return false;
+                        }
+                        notFull.signal();
+                    }
+                    finally
+                    {
+                        lock.unlock();
+                    }
+
+                    try
+                    {
+                        task.run();
+                    }
+                    catch (Throwable throwable)
+                    {
+                        JDAImpl.LOG.error("Encountered exception while handling event", throwable);
+                        if (throwable instanceof Error)
+                        {
+                            submit(); // the remaining tasks still have to run
+                            throw (Error) throwable;
+                        }
+                    }
+                }
+                return true;
+            }
+            finally
+            {
+                isWorker.set(wasWorker);
+            }
+        }
+    }
+}
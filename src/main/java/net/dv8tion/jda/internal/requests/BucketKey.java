@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import java.util.Arrays;
+
+/**
+ * Identity of a rate-limit bucket.
+ * <br>Buckets are identified by the hash provided by discord and the major parameters of the route.
+ * Routes without a known hash have their own bucket, identified by the route instead.
+ *
+ * <p>The hash code is computed once, lookups with an existing key do not allocate.
+ */
+public final class BucketKey
+{
+    private final Route route;
+    private final String hash;
+    private final long[] major;
+    private final String[] rawMajor;
+    private final int hashCode;
+
+    BucketKey(Route route, String hash, long[] major, String[] rawMajor)
+    {
+        this.route = route;
+        this.hash = hash;
+        this.major = major;
+        this.rawMajor = rawMajor;
+        // Parameters which are not snowflakes already contribute the hash of their raw string to the values
+        int result = hash == null ? route.hashCode() : hash.hashCode();
+        this.hashCode = 31 * result + Arrays.hashCode(major);
+    }
+
+    public String getHash()
+    {
+        return hash;
+    }
+
+    public boolean isUnlimited()
+    {
+        return hash == null;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof BucketKey))
+            return false;
+        BucketKey other = (BucketKey) obj;
+        if (hashCode != other.hashCode || !Arrays.equals(major, other.major) || !Arrays.equals(rawMajor, other.rawMajor))
+            return false;
+        // Buckets with the same hash are shared between routes, the major parameter names must still match
+        if (hash == null)
+            return other.hash == null && route.equals(other.route);
+        return hash.equals(other.hash) && Arrays.equals(route.getMajorNames(), other.route.getMajorNames());
+    }
+
+    @Override
+    public String toString()
+    {
+        // Used as the bucket id in logs and by the rate-limit coordinator
+        String major = route.formatMajorParameters(this.major, rawMajor);
+        return hash == null ? "unlimited+" + route + ":" + major : hash + ":" + major;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket for the gateway send limit of 120 payloads per 60 seconds.
+ *
+ * <p>The gateway counts payloads per connection in fixed windows, so the bucket is refilled in full once the
+ * current window has elapsed rather than trickling tokens back in. A small reserve is kept for priority payloads
+ * (heartbeat, identify, resume) which must never be starved by queued requests.
+ */
+public class GatewayTokenBucket
+{
+    public static final int CAPACITY = 120;
+    public static final int PRIORITY_RESERVE = 4;
+    public static final long WINDOW = TimeUnit.SECONDS.toMillis(60);
+
+    private int tokens = CAPACITY;
+    private long resetTime;
+
+    public synchronized void reset(long now)
+    {
+        tokens = CAPACITY;
+        resetTime = now + WINDOW;
+    }
+
+    public synchronized boolean tryAcquire(long now, boolean priority)
+    {
+        refill(now);
+        int floor = priority ? 0 : PRIORITY_RESERVE;
+        if (tokens <= floor)
+            return false;
+        tokens--;
+        return true;
+    }
+
+    public synchronized int getTokens(long now)
+    {
+        refill(now);
+        return tokens;
+    }
+
+    public synchronized boolean isDepleted(long now)
+    {
+        refill(now);
+        return tokens <= PRIORITY_RESERVE;
+    }
+
+    // Milliseconds until the next refill, 0 if regular payloads can be sent right now
+    public synchronized long getDelay(long now)
+    {
+        refill(now);
+        if (tokens > PRIORITY_RESERVE)
+            return 0;
+        return Math.max(0, resetTime - now);
+    }
+
+    private void refill(long now)
+    {
+        if (resetTime <= now)
+            reset(now);
+    }
+}
@@ -26,6 +26,7 @@ import net.dv8tion.jda.internal.utils.Helpers;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -33,6 +34,7 @@ import okhttp3.internal.http.HttpMethod;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
+import javax.annotation.Nonnull;
 import javax.net.ssl.SSLPeerUnverifiedException;
 import java.io.IOException;
 import java.net.SocketException;
@@ -42,8 +44,10 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class Requester
 {
@@ -78,7 +82,7 @@ public class Requester
 
         this.authConfig = authConfig;
         this.api = (JDAImpl) api;
-        this.rateLimiter = new BotRateLimiter(this);
+        this.rateLimiter = new BotRateLimiter(this, this.api.getRateLimitRegistry());
         this.httpClient = this.api.getHttpClient();
     }
 
@@ -152,36 +156,8 @@ public class Requester
             return retryAfter;
         }
 
-        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
-
-        String url = DISCORD_API_PREFIX + route.getCompiledRoute();
-        builder.url(url);
-
-        String method = apiRequest.getRoute().getMethod().toString();
-        RequestBody body = apiRequest.getBody();
-
-        if (body == null && HttpMethod.requiresRequestBody(method))
-            body = EMPTY_BODY;
-
-        builder.method(method, body)
-                .header("X-RateLimit-Precision", "millisecond")
-                .header("user-agent", USER_AGENT)
-                .header("accept-encoding", "gzip");
-
-        //adding token to all requests to the discord api or cdn pages
-        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
-        if (url.startsWith(DISCORD_API_PREFIX))
-            builder.header("authorization", api.getToken());
-
-        // Apply custom headers like X-Audit-Log-Reason
-        // If customHeaders is null this does nothing
-        if (apiRequest.getHeaders() != null)
-        {
-            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
-                builder.addHeader(header.getKey(), header.getValue());
-        }
-
-        okhttp3.Request request = builder.build();
+        okhttp3.Request request = createRequest(apiRequest);
+        String url = request.url().toString();
 
         Set<String> rays = new LinkedHashSet<>();
         okhttp3.Response[] responses = new okhttp3.Response[4];
@@ -219,26 +195,7 @@ public class Requester
             }
             while (attempt < 3 && lastResponse.code() >= 500);
 
-            LOG.trace("Finished Request {} {} with code {}", route.getMethod(), lastResponse.request().url(), lastResponse.code());
-
-            if (lastResponse.code() >= 500)
-            {
-                //Epic failure from other end. Attempted 4 times.
-                Response response = new Response(lastResponse, -1, rays);
-                apiRequest.handleResponse(response);
-                return null;
-            }
-
-            retryAfter = rateLimiter.handleResponse(route, lastResponse);
-            if (!rays.isEmpty())
-                LOG.debug("Received response with following cf-rays: {}", rays);
-
-            if (retryAfter == null)
-                apiRequest.handleResponse(new Response(lastResponse, -1, rays));
-            else if (handleOnRatelimit)
-                apiRequest.handleResponse(new Response(lastResponse, retryAfter, rays));
-
-            return retryAfter;
+            return handleResult(apiRequest, lastResponse, rays, handleOnRatelimit);
         }
         catch (UnknownHostException e)
         {
@@ -271,6 +228,99 @@ public class Requester
         }
     }
 
+    /**
+     * Asynchronous version of {@link #execute(Request)}.
+     * <br>The call is enqueued on the OkHttp dispatcher and server errors are retried with a scheduled delay
+     * on the rate-limit pool, no thread of the rate-limit pool is blocked while the request is in flight.
+     * The response is handled on the rate-limit pool, like the responses of synchronous requests.
+     *
+     * @param  apiRequest
+     *         The API request that needs to be sent
+     *
+     * @return Future completed with the same value {@link #execute(Request)} would return.
+     *         The future never completes exceptionally.
+     */
+    public CompletableFuture<Long> executeAsync(Request<?> apiRequest)
+    {
+        Long retryAfter = rateLimiter.getRateLimit(apiRequest.getRoute());
+        if (retryAfter != null && retryAfter > 0)
+            return CompletableFuture.completedFuture(retryAfter);
+
+        AsyncCall call;
+        try
+        {
+            call = new AsyncCall(apiRequest, createRequest(apiRequest));
+        }
+        catch (Exception e)
+        {
+            LOG.error("There was an unexpected error while executing a REST request", e);
+            apiRequest.handleResponse(new Response(e, Collections.emptySet()));
+            return CompletableFuture.completedFuture(null);
+        }
+        LOG.trace("Executing request {} {}", apiRequest.getRoute().getMethod(), call.request.url());
+        call.enqueue();
+        return call.future;
+    }
+
+    private okhttp3.Request createRequest(Request<?> apiRequest)
+    {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
+
+        String url = DISCORD_API_PREFIX + apiRequest.getRoute().getCompiledRoute();
+        builder.url(url);
+
+        String method = apiRequest.getRoute().getMethod().toString();
+        RequestBody body = apiRequest.getBody();
+
+        if (body == null && HttpMethod.requiresRequestBody(method))
+            body = EMPTY_BODY;
+
+        builder.method(method, body)
+                .header("X-RateLimit-Precision", "millisecond")
+                .header("user-agent", USER_AGENT)
+                .header("accept-encoding", "gzip");
+
+        //adding token to all requests to the discord api or cdn pages
+        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
+        if (url.startsWith(DISCORD_API_PREFIX))
+            builder.header("authorization", api.getToken());
+
+        // Apply custom headers like X-Audit-Log-Reason
+        // If customHeaders is null this does nothing
+        if (apiRequest.getHeaders() != null)
+        {
+            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
+                builder.addHeader(header.getKey(), header.getValue());
+        }
+
+        return builder.build();
+    }
+
+    private Long handleResult(Request<?> apiRequest, okhttp3.Response lastResponse, Set<String> rays, boolean handleOnRatelimit)
+    {
+        Route.CompiledRoute route = apiRequest.getRoute();
+        LOG.trace("Finished Request {} {} with code {}", route.getMethod(), lastResponse.request().url(), lastResponse.code());
+
+        if (lastResponse.code() >= 500)
+        {
+            //Epic failure from other end. Attempted 4 times.
+            Response response = new Response(lastResponse, -1, rays);
+            apiRequest.handleResponse(response);
+            return null;
+        }
+
+        Long retryAfter = rateLimiter.handleResponse(route, lastResponse);
+        if (!rays.isEmpty())
+            LOG.debug("Received response with following cf-rays: {}", rays);
+
+        if (retryAfter == null)
+            apiRequest.handleResponse(new Response(lastResponse, -1, rays));
+        else if (handleOnRatelimit)
+            apiRequest.handleResponse(new Response(lastResponse, retryAfter, rays));
+
+        return retryAfter;
+    }
+
     private void applyBody(Request<?> apiRequest, okhttp3.Request.Builder builder)
     {
         String method = apiRequest.getRoute().getMethod().toString();
@@ -327,4 +377,132 @@ public class Requester
         rateLimiter.shutdown();
     }
 
+    private class AsyncCall implements Callback
+    {
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private final Set<String> rays = new LinkedHashSet<>();
+        private final Request<?> apiRequest;
+        private final okhttp3.Request request;
+        private boolean retried = false;
+        private int attempt = 0;
+
+        private AsyncCall(Request<?> apiRequest, okhttp3.Request request)
+        {
+            this.apiRequest = apiRequest;
+            this.request = request;
+        }
+
+        private void enqueue()
+        {
+            if (apiRequest.isSkipped())
+            {
+                future.complete(null);
+                return;
+            }
+
+            try
+            {
+                httpClient.newCall(request).enqueue(this);
+            }
+            catch (Exception e)
+            {
+                // The dispatcher rejects calls once the client has been shutdown
+                fail(e);
+            }
+        }
+
+        private void retry(long delay)
+        {
+            try
+            {
+                api.getRateLimitPool().schedule(this::enqueue, delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                enqueue();
+            }
+        }
+
+        private void fail(Exception e)
+        {
+            try
+            {
+                if (e instanceof UnknownHostException)
+                    LOG.error("DNS resolution failed: {}", e.getMessage());
+                else if (e instanceof IOException)
+                    LOG.error("There was an I/O error while executing a REST request: {}", e.getMessage());
+                else
+                    LOG.error("There was an unexpected error while executing a REST request", e);
+                apiRequest.handleResponse(new Response(e, rays));
+            }
+            finally
+            {
+                future.complete(null);
+            }
+        }
+
+        // The dispatcher threads are shared by all clients, the result is handled on the rate-limit pool with the context of this shard
+        private void handOff(Runnable task)
+        {
+            Runnable contextTask = () ->
+            {
+                setContext();
+                task.run();
+            };
+            try
+            {
+                api.getRateLimitPool().execute(contextTask);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                contextTask.run();
+            }
+        }
+
+        @Override
+        public void onFailure(@Nonnull Call call, @Nonnull IOException e)
+        {
+            if (retryOnTimeout && !retried && isRetry(e))
+            {
+                retried = true;
+                attempt = 0;
+                enqueue();
+                return;
+            }
+            handOff(() -> fail(e));
+        }
+
+        @Override
+        public void onResponse(@Nonnull Call call, @Nonnull okhttp3.Response response)
+        {
+            handOff(() -> handle(response));
+        }
+
+        private void handle(okhttp3.Response response)
+        {
+            try (okhttp3.Response lastResponse = response)
+            {
+                String cfRay = lastResponse.header("CF-RAY");
+                if (cfRay != null)
+                    rays.add(cfRay);
+
+                if (lastResponse.code() >= 500 && attempt < 3)
+                {
+                    attempt++;
+                    LOG.debug("Requesting {} -> {} returned status {}... retrying (attempt {})",
+                            apiRequest.getRoute().getMethod(),
+                            request.url(), lastResponse.code(), attempt);
+                    retry(50 * attempt);
+                    return;
+                }
+
+                future.complete(handleResult(apiRequest, lastResponse, rays, false));
+            }
+            catch (Exception e)
+            {
+                fail(e);
+            }
+        }
+    }
+
 }
@@ -21,8 +21,12 @@ import net.dv8tion.jda.internal.utils.Helpers;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
-import java.util.HashSet;
-import java.util.Set;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.dv8tion.jda.internal.requests.Method.*;
 
@@ -286,7 +290,7 @@ public class Route
         Checks.notNull(method, "Method");
         Checks.notEmpty(route, "Route");
         Checks.noWhitespace(route, "Route");
-        return new Route(method, route);
+        return new Route(method, route, false);
     }
 
     @Nonnull
@@ -320,11 +324,28 @@ public class Route
     }
 
     private static final String majorParameters = "guild_id:channel_id:webhook_id:interaction_token";
+    private static final long[] EMPTY_MAJORS = new long[0];
+    // Method + Route -> Ordinal, only filled by the predefined routes to keep it bounded
+    private static final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private static final AtomicInteger ordinalCounter = new AtomicInteger();
+
     private final String route;
     private final Method method;
     private final int paramCount;
+    private final int ordinal;
+    private final int hashCode;
+    // The route is split into the literal segments between the parameters
+    private final String[] segments;
+    private final int segmentsLength;
+    private final String[] majorNames;
+    private final int[] majorIndices;
 
     private Route(Method method, String route)
+    {
+        this(method, route, true);
+    }
+
+    private Route(Method method, String route, boolean predefined)
     {
         this.method = method;
         this.route = route;
@@ -332,6 +353,34 @@ public class Route
 
         if (paramCount != Helpers.countMatches(route, '}'))
             throw new IllegalArgumentException("An argument does not have both {}'s for route: " + method + "  " + route);
+
+        this.hashCode = (route + method.toString()).hashCode();
+        // Custom routes have no ordinal and are compared by method and route instead
+        this.ordinal = predefined ? ordinals.computeIfAbsent(method + "/" + route, (k) -> ordinalCounter.getAndIncrement()) : -1;
+        this.segments = new String[paramCount + 1];
+        List<String> majorNames = new ArrayList<>();
+        List<Integer> majorIndices = new ArrayList<>();
+        int length = 0, start = 0;
+        for (int i = 0; i < paramCount; i++)
+        {
+            int paramStart = route.indexOf('{', start);
+            int paramEnd = route.indexOf('}', paramStart);
+            if (paramEnd < 0)
+                throw new IllegalArgumentException("An argument does not have both {}'s for route: " + method + "  " + route);
+            segments[i] = route.substring(start, paramStart);
+            length += segments[i].length();
+            String paramName = route.substring(paramStart + 1, paramEnd);
+            if (majorParameters.contains(paramName))
+            {
+                majorNames.add(paramName);
+                majorIndices.add(i);
+            }
+            start = paramEnd + 1;
+        }
+        segments[paramCount] = route.substring(start);
+        this.segmentsLength = length + segments[paramCount].length();
+        this.majorNames = majorNames.toArray(new String[0]);
+        this.majorIndices = majorIndices.stream().mapToInt(Integer::intValue).toArray();
     }
 
     public Method getMethod()
@@ -349,6 +398,16 @@ public class Route
         return paramCount;
     }
 
+    public int getOrdinal()
+    {
+        return ordinal;
+    }
+
+    String[] getMajorNames()
+    {
+        return majorNames;
+    }
+
     public CompiledRoute compile(String... params)
     {
         if (params.length != paramCount)
@@ -358,41 +417,90 @@ public class Route
         }
 
         //Compile the route for interfacing with discord.
-        Set<String> major = new HashSet<>();
-        StringBuilder compiledRoute = new StringBuilder(route);
+        int length = segmentsLength;
+        for (String param : params)
+            length += param.length();
+        StringBuilder compiledRoute = new StringBuilder(length).append(segments[0]);
         for (int i = 0; i < paramCount; i++)
+            compiledRoute.append(params[i]).append(segments[i + 1]);
+
+        // Snowflakes are stored as their value, everything else (like an interaction_token) keeps the raw string
+        // and uses its hash as the value, the bucket key compares the full string
+        long[] major = majorIndices.length == 0 ? EMPTY_MAJORS : new long[majorIndices.length];
+        String[] rawMajor = null;
+        for (int i = 0; i < majorIndices.length; i++)
         {
-            int paramStart = compiledRoute.indexOf("{");
-            int paramEnd = compiledRoute.indexOf("}");
-            String paramName = compiledRoute.substring(paramStart+1, paramEnd);
-            if (majorParameters.contains(paramName))
+            String param = params[majorIndices[i]];
+            long value = parseSnowflake(param);
+            if (value < 0)
             {
-                if (params[i].length() > 30) // probably a long interaction_token, hash it to keep logs clean (not useful anyway)
-                    major.add(paramName + "=" + Integer.toUnsignedString(params[i].hashCode()));
-                else
-                    major.add(paramName + "=" + params[i]);
+                if (rawMajor == null)
+                    rawMajor = new String[majorIndices.length];
+                rawMajor[i] = param;
+                value = Integer.toUnsignedLong(param.hashCode());
             }
+            major[i] = value;
+        }
 
-            compiledRoute.replace(paramStart, paramEnd + 1, params[i]);
+        return new CompiledRoute(this, compiledRoute.toString(), major, rawMajor, false);
+    }
+
+    // Parses an unsigned decimal without allocations, returns -1 if the input is not a valid number
+    private static long parseSnowflake(String input)
+    {
+        int length = input.length();
+        if (length == 0 || length > 19)
+            return -1;
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10)
+                return -1;
+            value = value * 10 + digit;
         }
+        return value;
+    }
 
-        return new CompiledRoute(this, compiledRoute.toString(), major.isEmpty() ? "n/a" : String.join(":", major));
+    String formatMajorParameters(long[] major, String[] rawMajor)
+    {
+        if (major.length == 0)
+            return "n/a";
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < major.length; i++)
+        {
+            if (i > 0)
+                builder.append(':');
+            builder.append(majorNames[i]).append('=');
+            String raw = rawMajor == null ? null : rawMajor[i];
+            if (raw == null)
+                builder.append(major[i]);
+            else if (raw.length() > 30) // probably a long interaction_token, hash it to keep logs clean (not useful anyway)
+                builder.append(Integer.toUnsignedString(raw.hashCode()));
+            else
+                builder.append(raw);
+        }
+        return builder.toString();
     }
 
     @Override
     public int hashCode()
     {
-        return (route + method.toString()).hashCode();
+        return hashCode;
     }
 
     @Override
     public boolean equals(Object o)
     {
+        if (this == o)
+            return true;
         if (!(o instanceof Route))
             return false;
 
         Route oRoute = (Route) o;
-        return method.equals(oRoute.method) && route.equals(oRoute.route);
+        if (ordinal >= 0 && oRoute.ordinal >= 0)
+            return ordinal == oRoute.ordinal;
+        return method == oRoute.method && route.equals(oRoute.route);
     }
 
     @Override
@@ -404,23 +512,22 @@ public class Route
     public class CompiledRoute
     {
         private final Route baseRoute;
-        private final String major;
+        private final long[] major;
+        private final String[] rawMajor;
         private final String compiledRoute;
-        private final boolean hasQueryParams; 
+        private final boolean hasQueryParams;
+        private String majorParameters;
+        private BucketKey bucketKey;
 
-        private CompiledRoute(Route baseRoute, String compiledRoute, String major, boolean hasQueryParams)
+        private CompiledRoute(Route baseRoute, String compiledRoute, long[] major, String[] rawMajor, boolean hasQueryParams)
         {
             this.baseRoute = baseRoute;
             this.compiledRoute = compiledRoute;
             this.major = major;
+            this.rawMajor = rawMajor;
             this.hasQueryParams = hasQueryParams;
         }
 
-        private CompiledRoute(Route baseRoute, String compiledRoute, String major)
-        {
-            this(baseRoute, compiledRoute, major, false);
-        }
-
         @Nonnull
         @CheckReturnValue
         public CompiledRoute withQueryParams(String... params)
@@ -433,12 +540,34 @@ public class Route
             for (int i = 0; i < params.length; i++)
                 newRoute.append(!hasQueryParams && i == 0 ? '?' : '&').append(params[i]).append('=').append(params[++i]);
 
-            return new CompiledRoute(baseRoute, newRoute.toString(), major, true);
+            return new CompiledRoute(baseRoute, newRoute.toString(), major, rawMajor, true);
         }
 
         public String getMajorParameters()
         {
-            return major;
+            // Only used for logging and exceptions, the rate-limiter uses the bucket key instead
+            String majorParameters = this.majorParameters;
+            if (majorParameters == null)
+                this.majorParameters = majorParameters = formatMajorParameters(major, rawMajor);
+            return majorParameters;
+        }
+
+        /**
+         * The key of the rate-limit bucket for this route.
+         * <br>The key is cached, as long as the same hash is provided this does not allocate.
+         *
+         * @param  hash
+         *         The bucket hash of the base route, or null if it is not known yet
+         *
+         * @return The bucket key
+         */
+        @Nonnull
+        public BucketKey getBucketKey(@Nullable String hash)
+        {
+            BucketKey key = this.bucketKey;
+            if (key == null || key.getHash() != hash)
+                this.bucketKey = key = new BucketKey(baseRoute, hash, major, rawMajor);
+            return key;
         }
 
         public String getCompiledRoute()
@@ -459,7 +588,7 @@ public class Route
         @Override
         public int hashCode()
         {
-            return (compiledRoute + method.toString()).hashCode();
+            return compiledRoute.hashCode() * 31 + method.hashCode();
         }
 
         @Override
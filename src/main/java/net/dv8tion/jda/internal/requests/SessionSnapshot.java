@@ -0,0 +1,379 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import gnu.trove.map.TLongObjectMap;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of a gateway session and the entity caches, used to resume the session after a restart.
+ *
+ * <p>The file starts with a small header (session id, sequence and shard), followed by the self user
+ * and one entry per guild. Each entry is a length prefixed ETF term in the shape of a {@code GUILD_CREATE} payload,
+ * which means restoring a guild goes through the same {@link EntityBuilder} code as the initial setup.
+ * The file is read into a single heap buffer, the guilds are only decoded from it when they are restored.
+ * No mapping of the file is kept, so it can be deleted or replaced right after reading.
+ *
+ * <p>Presences, voice states, stage instances and private channels are not part of the snapshot,
+ * since those are either short-lived or not sent again after a resume.
+ */
+public class SessionSnapshot
+{
+    public static final int MAGIC = 0x4A444153; // JDAS
+    public static final int VERSION = 1;
+
+    private final String sessionId;
+    private final long sequence;
+    private final int shardId;
+    private final int shardTotal;
+    private final DataObject selfUser;
+    private final List<ByteBuffer> guilds;
+
+    private SessionSnapshot(String sessionId, long sequence, int shardId, int shardTotal, DataObject selfUser, List<ByteBuffer> guilds)
+    {
+        this.sessionId = sessionId;
+        this.sequence = sequence;
+        this.shardId = shardId;
+        this.shardTotal = shardTotal;
+        this.selfUser = selfUser;
+        this.guilds = guilds;
+    }
+
+    @Nonnull
+    public String getSessionId()
+    {
+        return sessionId;
+    }
+
+    public long getSequence()
+    {
+        return sequence;
+    }
+
+    public int getShardId()
+    {
+        return shardId;
+    }
+
+    public int getShardTotal()
+    {
+        return shardTotal;
+    }
+
+    @Nonnull
+    public DataObject getSelfUser()
+    {
+        return selfUser;
+    }
+
+    public int getGuildCount()
+    {
+        return guilds.size();
+    }
+
+    @Nonnull
+    public DataObject getGuild(int index)
+    {
+        return DataObject.fromETF(guilds.get(index));
+    }
+
+    public boolean isShard(@Nonnull JDA.ShardInfo shardInfo)
+    {
+        return shardId == shardInfo.getShardId() && shardTotal == shardInfo.getShardTotal();
+    }
+
+    /**
+     * Creates the self user and the guilds of this snapshot in the caches of the provided JDA instance.
+     */
+    public void restore(@Nonnull JDAImpl api)
+    {
+        EntityBuilder builder = api.getEntityBuilder();
+        builder.createSelfUser(selfUser);
+        for (int i = 0; i < guilds.size(); i++)
+        {
+            DataObject guildJson = getGuild(i);
+            long guildId = guildJson.getUnsignedLong("id");
+            DataArray memberArray = guildJson.getArray("members");
+            TLongObjectMap<DataObject> members = builder.convertToUserMap(o -> o.getObject("user").getUnsignedLong("id"), memberArray);
+            builder.createGuild(guildId, guildJson, members, guildJson.getInt("member_count"));
+        }
+    }
+
+    @Nonnull
+    public static SessionSnapshot read(@Nonnull File file) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        try
+        {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC)
+                throw new IOException("File is not a session snapshot");
+            int version = buffer.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported snapshot version " + version);
+
+            byte[] session = new byte[buffer.getInt()];
+            buffer.get(session);
+            long sequence = buffer.getLong();
+            int shardId = buffer.getInt();
+            int shardTotal = buffer.getInt();
+            DataObject selfUser = DataObject.fromETF(nextEntry(buffer));
+            int guildCount = buffer.getInt();
+            List<ByteBuffer> guilds = new ArrayList<>(guildCount);
+            for (int i = 0; i < guildCount; i++)
+                guilds.add(nextEntry(buffer));
+            return new SessionSnapshot(new String(session, StandardCharsets.UTF_8), sequence, shardId, shardTotal, selfUser, Collections.unmodifiableList(guilds));
+        }
+        catch (RuntimeException e)
+        {
+            throw new IOException("Failed to read session snapshot", e);
+        }
+    }
+
+    /**
+     * Writes the session and the current caches of the provided JDA instance.
+     * <br>The snapshot is written to a temporary file first, which replaces the target file once it is complete.
+     */
+    public static void write(@Nonnull JDAImpl api, @Nonnull String sessionId, long sequence, @Nonnull File file) throws IOException
+    {
+        JDA.ShardInfo shardInfo = api.getShardInfo();
+        List<DataObject> guilds = new ArrayList<>((int) api.getGuildCache().size());
+        api.getGuildCache().forEach(guild -> guilds.add(toData((GuildImpl) guild)));
+        write(file, sessionId, sequence, shardInfo.getShardId(), shardInfo.getShardTotal(), toData((SelfUserImpl) api.getSelfUser()), guilds);
+    }
+
+    public static void write(@Nonnull File file, @Nonnull String sessionId, long sequence, int shardId, int shardTotal,
+                             @Nonnull DataObject selfUser, @Nonnull List<DataObject> guilds) throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            Files.createDirectories(parent.toPath());
+        File temp = new File(parent, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024)))
+        {
+            byte[] session = sessionId.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(session.length);
+            out.write(session);
+            out.writeLong(sequence);
+            out.writeInt(shardId);
+            out.writeInt(shardTotal);
+            writeEntry(out, selfUser);
+            out.writeInt(guilds.size());
+            for (DataObject guild : guilds)
+                writeEntry(out, guild);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeEntry(DataOutputStream out, DataObject data) throws IOException
+    {
+        byte[] etf = data.toETF();
+        out.writeInt(etf.length);
+        out.write(etf);
+    }
+
+    private static ByteBuffer nextEntry(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        ByteBuffer entry = buffer.slice();
+        entry.limit(length);
+        buffer.position(buffer.position() + length);
+        return entry;
+    }
+
+    private static DataObject toData(SelfUserImpl self)
+    {
+        return toData((User) self)
+            .put("verified", self.isVerified())
+            .put("mfa_enabled", self.isMfaEnabled())
+            .put("application_id", self.getApplicationIdLong());
+    }
+
+    private static DataObject toData(User user)
+    {
+        return DataObject.empty()
+            .put("id", user.getId())
+            .put("username", user.getName())
+            .put("discriminator", user.getDiscriminator())
+            .put("avatar", user.getAvatarId())
+            .put("bot", user.isBot())
+            .put("system", user.isSystem())
+            .put("public_flags", user.getFlagsRaw());
+    }
+
+    private static DataObject toData(GuildImpl guild)
+    {
+        DataArray roles = DataArray.empty();
+        guild.getRoleCache().forEach(role -> roles.add(toData((RoleImpl) role)));
+        DataArray channels = DataArray.empty();
+        guild.getCategoryCache().forEach(channel -> channels.add(toData((AbstractChannelImpl<?, ?>) channel)));
+        guild.getTextChannelCache().forEach(channel -> channels.add(toData((TextChannelImpl) channel)));
+        guild.getVoiceChannelCache().forEach(channel -> channels.add(toData((VoiceChannelImpl) channel)));
+        guild.getStoreChannelCache().forEach(channel -> channels.add(toData((AbstractChannelImpl<?, ?>) channel)));
+        DataArray emojis = DataArray.empty();
+        guild.getEmoteCache().forEach(emote -> emojis.add(toData(emote)));
+        DataArray members = DataArray.empty();
+        guild.getMemberCache().forEach(member -> members.add(toData((MemberImpl) member)));
+
+        return DataObject.empty()
+            .put("id", guild.getId())
+            .put("name", guild.getName())
+            .put("icon", guild.getIconId())
+            .put("splash", guild.getSplashId())
+            .put("region", guild.getRegionRaw())
+            .put("description", guild.getDescription())
+            .put("vanity_url_code", guild.getVanityCode())
+            .put("banner", guild.getBannerId())
+            .put("preferred_locale", guild.getLocale().toLanguageTag())
+            .put("features", DataArray.fromCollection(guild.getFeatures()))
+            .put("owner_id", guild.getOwnerId())
+            .put("premium_subscription_count", guild.getBoostCount())
+            .put("premium_tier", guild.getBoostTier().getKey())
+            .put("max_members", guild.getMaxMembers())
+            .put("max_presences", guild.getMaxPresences())
+            .put("mfa_level", guild.getRequiredMFALevel().getKey())
+            .put("afk_timeout", guild.getAfkTimeout().getSeconds())
+            .put("verification_level", guild.getVerificationLevel().getKey())
+            .put("default_message_notifications", guild.getDefaultNotificationLevel().getKey())
+            .put("explicit_content_filter", guild.getExplicitContentLevel().getKey())
+            .put("nsfw_level", guild.getNSFWLevel().getKey())
+            .put("member_count", guild.getMemberCount())
+            .put("afk_channel_id", getId(guild.getAfkChannel()))
+            .put("system_channel_id", getId(guild.getSystemChannel()))
+            .put("rules_channel_id", getId(guild.getRulesChannel()))
+            .put("public_updates_channel_id", getId(guild.getCommunityUpdatesChannel()))
+            .put("roles", roles)
+            .put("channels", channels)
+            .put("emojis", emojis)
+            .put("members", members)
+            .put("voice_states", DataArray.empty());
+    }
+
+    private static DataObject toData(RoleImpl role)
+    {
+        Role.RoleTags tags = role.getTags();
+        DataObject tagsJson = DataObject.empty();
+        if (tags.isBot())
+            tagsJson.put("bot_id", tags.getBotId());
+        if (tags.isIntegration())
+            tagsJson.put("integration_id", tags.getIntegrationId());
+        if (tags.isBoost())
+            tagsJson.put("premium_subscriber", null);
+
+        return DataObject.empty()
+            .put("id", role.getId())
+            .put("name", role.getName())
+            .put("color", role.getColorRaw() == Role.DEFAULT_COLOR_RAW ? 0 : role.getColorRaw())
+            .put("position", role.getPositionRaw())
+            .put("permissions", role.getPermissionsRaw())
+            .put("managed", role.isManaged())
+            .put("hoist", role.isHoisted())
+            .put("mentionable", role.isMentionable())
+            .put("tags", tagsJson);
+    }
+
+    private static DataObject toData(AbstractChannelImpl<?, ?> channel)
+    {
+        DataArray overrides = DataArray.empty();
+        for (PermissionOverride override : channel.getOverrideMap().valueCollection())
+        {
+            overrides.add(DataObject.empty()
+                .put("id", override.getId())
+                .put("type", override.isRoleOverride() ? 0 : 1)
+                .put("allow", override.getAllowedRaw())
+                .put("deny", override.getDeniedRaw()));
+        }
+
+        Category parent = channel.getParent();
+        return DataObject.empty()
+            .put("id", channel.getId())
+            .put("type", channel.getType().getId())
+            .put("name", channel.getName())
+            .put("position", channel.getPositionRaw())
+            .put("parent_id", getId(parent))
+            .put("permission_overwrites", overrides);
+    }
+
+    private static DataObject toData(TextChannelImpl channel)
+    {
+        return toData((AbstractChannelImpl<?, ?>) channel)
+            .put("type", channel.isNews() ? 5 : ChannelType.TEXT.getId())
+            .put("topic", channel.getTopic())
+            .put("nsfw", channel.isNSFW())
+            .put("rate_limit_per_user", channel.getSlowmode())
+            .put("last_message_id", channel.hasLatestMessage() ? channel.getLatestMessageId() : null);
+    }
+
+    private static DataObject toData(VoiceChannelImpl channel)
+    {
+        return toData((AbstractChannelImpl<?, ?>) channel)
+            .put("user_limit", channel.getUserLimit())
+            .put("bitrate", channel.getBitrate())
+            .put("rtc_region", channel.getRegionRaw());
+    }
+
+    private static DataObject toData(Emote emote)
+    {
+        DataArray roles = DataArray.empty();
+        if (emote.canProvideRoles())
+            emote.getRoles().forEach(role -> roles.add(role.getId()));
+        return DataObject.empty()
+            .put("id", emote.getId())
+            .put("name", emote.getName())
+            .put("animated", emote.isAnimated())
+            .put("managed", emote.isManaged())
+            .put("available", emote.isAvailable())
+            .put("roles", roles);
+    }
+
+    private static DataObject toData(MemberImpl member)
+    {
+        DataArray roles = DataArray.empty();
+        member.getRoles().forEach(role -> roles.add(role.getId()));
+        return DataObject.empty()
+            .put("user", toData(member.getUser()))
+            .put("nick", member.getNickname())
+            .put("roles", roles)
+            .put("joined_at", member.hasTimeJoined() ? DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(member.getTimeJoined()) : null)
+            .put("premium_since", member.getTimeBoosted() == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(member.getTimeBoosted()))
+            .put("pending", member.isPending());
+    }
+
+    @Nullable
+    private static String getId(@Nullable ISnowflake entity)
+    {
+        return entity == null ? null : entity.getId();
+    }
+}
@@ -22,14 +22,35 @@ import net.dv8tion.jda.api.*;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.VoiceChannel;
 import net.dv8tion.jda.api.events.*;
+import net.dv8tion.jda.api.events.application.ApplicationCommandCreateEvent;
+import net.dv8tion.jda.api.events.application.ApplicationCommandDeleteEvent;
+import net.dv8tion.jda.api.events.application.ApplicationCommandUpdateEvent;
+import net.dv8tion.jda.api.events.guild.GuildBanEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnbanEvent;
+import net.dv8tion.jda.api.events.guild.invite.GuildInviteCreateEvent;
+import net.dv8tion.jda.api.events.guild.invite.GuildInviteDeleteEvent;
+import net.dv8tion.jda.api.events.interaction.ButtonClickEvent;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.SelectionMenuEvent;
+import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
+import net.dv8tion.jda.api.events.message.guild.react.*;
+import net.dv8tion.jda.api.events.message.priv.react.PrivateMessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.priv.react.PrivateMessageReactionRemoveEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveAllEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEmoteEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
+import net.dv8tion.jda.api.events.user.UserTypingEvent;
 import net.dv8tion.jda.api.exceptions.ParsingException;
 import net.dv8tion.jda.api.requests.CloseCode;
 import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.api.utils.data.DataType;
+import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.audio.ConnectionRequest;
 import net.dv8tion.jda.internal.audio.ConnectionStage;
@@ -39,21 +60,22 @@ import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.compress.Decompressor;
 import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import net.dv8tion.jda.internal.utils.data.CompactMap;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
-import java.io.ByteArrayOutputStream;
+import javax.annotation.Nullable;
+import java.io.File;
 import java.io.IOException;
-import java.lang.ref.SoftReference;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -77,6 +99,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected final int gatewayIntents;
     protected final MemberChunkManager chunkManager;
     protected final GatewayEncoding encoding;
+    protected final boolean compactData;
+    protected final ExTermDecoder etfDecoder;
 
     public WebSocket socket;
     protected volatile String sessionId = null;
@@ -99,8 +123,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected final Queue<DataObject> chunkSyncQueue = new ConcurrentLinkedQueue<>();
     protected final Queue<DataObject> ratelimitQueue = new ConcurrentLinkedQueue<>();
 
-    protected volatile long ratelimitResetTime;
-    protected final AtomicInteger messagesSent = new AtomicInteger(0);
+    protected final GatewayTokenBucket bucket = new GatewayTokenBucket();
 
     protected volatile boolean shutdown = false;
     protected boolean shouldReconnect;
@@ -111,6 +134,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected volatile boolean sentAuthInfo = false;
     protected boolean firstInit = true;
     protected boolean processingReady = true;
+    protected boolean restored = false;
+    protected volatile boolean suspended = false;
+    // Only used to suspend the event handling while a snapshot is written
+    protected final boolean snapshots;
+    protected final Object eventLock = new Object();
 
     protected volatile ConnectNode connectNode;
 
@@ -123,9 +151,13 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         this.gatewayIntents = gatewayIntents;
         this.chunkManager = new MemberChunkManager(this);
         this.encoding = encoding;
+        this.compactData = api.isCompactData();
+        this.etfDecoder = createDecoder();
         this.shouldReconnect = api.isAutoReconnect();
+        this.snapshots = api.getSnapshotFile() != null;
         this.connectNode = new StartingNode();
         setupHandlers();
+        restoreSnapshot();
         try
         {
             api.getSessionController().appendSession(connectNode);
@@ -224,6 +256,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     public void send(DataObject message)
     {
         locked("Interrupted while trying to add request to queue", () -> ratelimitQueue.add(message));
+        wakeSendingThread();
     }
 
     public void cancelChunkRequest(String nonce)
@@ -235,6 +268,25 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     public void sendChunkRequest(DataObject request)
     {
         locked("Interrupted while trying to add chunk request", () -> chunkSyncQueue.add(request));
+        wakeSendingThread();
+    }
+
+    public int getQueueSize()
+    {
+        WebSocketSendingThread thread = ratelimitThread;
+        return thread == null ? 0 : thread.getQueueSize();
+    }
+
+    public int getRemainingTokens()
+    {
+        return bucket.getTokens(System.currentTimeMillis());
+    }
+
+    protected void wakeSendingThread()
+    {
+        WebSocketSendingThread thread = ratelimitThread;
+        if (thread != null)
+            thread.wake();
     }
 
     protected boolean send(DataObject message, boolean skipQueue)
@@ -243,23 +295,17 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             return false;
 
         long now = System.currentTimeMillis();
+        if (!bucket.isDepleted(now))
+            printedRateLimitMessage = false;
 
-        if (this.ratelimitResetTime <= now)
-        {
-            this.messagesSent.set(0);
-            this.ratelimitResetTime = now + 60000;//60 seconds
-            this.printedRateLimitMessage = false;
-        }
-
-        //Allows 115 messages to be sent before limiting.
-        if (this.messagesSent.get() <= 115 || (skipQueue && this.messagesSent.get() <= 119))   //technically we could go to 120, but we aren't going to chance it
+        //Keeps a few tokens in reserve for heartbeats and identify/resume.
+        if (bucket.tryAcquire(now, skipQueue))
         {
             LOG.trace("<- {}", message);
             if (encoding == GatewayEncoding.ETF)
                 socket.sendBinary(message.toETF());
             else
                 socket.sendText(message.toString());
-            this.messagesSent.getAndIncrement();
             return true;
         }
         else
@@ -316,18 +362,80 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     }
 
     public synchronized void shutdown()
+    {
+        shutdown(null);
+    }
+
+    public synchronized void shutdown(@Nullable File snapshotFile)
     {
         shutdown = true;
         shouldReconnect = false;
         if (connectNode != null)
             api.getSessionController().removeSession(connectNode);
-        close(1000, "Shutting down");
+        // Closing with 1000 invalidates the session, which would make the snapshot useless
+        boolean keepSession = snapshots && snapshotFile != null && saveSnapshot(snapshotFile);
+        close(keepSession ? 4900 : 1000, "Shutting down");
     }
 
     /*
         ### Start Internal methods ###
      */
 
+    protected void restoreSnapshot()
+    {
+        File file = api.getSnapshotFile();
+        if (file == null || !file.exists())
+            return;
+        try
+        {
+            SessionSnapshot snapshot = SessionSnapshot.read(file);
+            if (!snapshot.isShard(api.getShardInfo()))
+            {
+                LOG.warn("Ignoring session snapshot for shard [{} / {}]", snapshot.getShardId(), snapshot.getShardTotal());
+                return;
+            }
+            snapshot.restore(api);
+            api.setResponseTotal((int) snapshot.getSequence());
+            sessionId = snapshot.getSessionId();
+            restored = true;
+            processingReady = false;
+            LOG.info("Restored {} guilds from session snapshot, resuming session", snapshot.getGuildCount());
+        }
+        catch (Exception e)
+        {
+            LOG.error("Failed to restore session snapshot, identifying instead", e);
+            invalidate();
+        }
+        finally
+        {
+            // A snapshot can only be resumed once, the sequence is outdated as soon as the session continues
+            if (!file.delete())
+                LOG.warn("Failed to delete session snapshot {}", file);
+        }
+    }
+
+    protected boolean saveSnapshot(File file)
+    {
+        synchronized (eventLock)
+        {
+            if (sessionId == null || !sentAuthInfo || initiating)
+                return false;
+            // Events received after this point are not applied, Discord will send them again when the session is resumed
+            suspended = true;
+            try
+            {
+                SessionSnapshot.write(api, sessionId, api.getResponseTotal(), file);
+                LOG.info("Saved session snapshot with {} guilds", api.getGuildCache().size());
+                return true;
+            }
+            catch (Exception e)
+            {
+                LOG.error("Failed to save session snapshot", e);
+                return false;
+            }
+        }
+    }
+
     protected synchronized void connect()
     {
         if (api.getStatus() != JDA.Status.ATTEMPTING_TO_RECONNECT)
@@ -399,8 +507,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         }
         connected = true;
         //reconnectTimeoutS = 2; We will reset this when the session was started successfully (ready/resume)
-        messagesSent.set(0);
-        ratelimitResetTime = System.currentTimeMillis() + 60000;
+        bucket.reset(System.currentTimeMillis());
+        printedRateLimitMessage = false;
         if (sessionId == null)
             sendIdentify();
         else
@@ -713,6 +821,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         handleIdentifyRateLimit = true;
         identifyTime = System.currentTimeMillis();
         sentAuthInfo = true;
+        wakeSendingThread();
         api.setStatus(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
     }
 
@@ -734,6 +843,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     {
         sessionId = null;
         sentAuthInfo = false;
+        restored = false;
 
         locked("Interrupted while trying to invalidate chunk/sync queue", chunkSyncQueue::clear);
 
@@ -742,6 +852,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.getStoreChannelsView().clear();
         api.getCategoriesView().clear();
         api.getGuildsView().clear();
+        api.getUserGuildIndex().clear();
         api.getUsersView().clear();
         api.getPrivateChannelsView().clear();
         api.getEventCache().clear();
@@ -775,6 +886,21 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     }
 
     protected void handleEvent(DataObject content)
+    {
+        if (!snapshots)
+        {
+            dispatchEvent(content);
+            return;
+        }
+
+        synchronized (eventLock)
+        {
+            if (!suspended)
+                dispatchEvent(content);
+        }
+    }
+
+    protected void dispatchEvent(DataObject content)
     {
         try
         {
@@ -889,11 +1015,20 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     // otherwise the audio connection requests that are currently pending might be removed in the process
                     handlers.get("READY").handle(responseTotal, raw);
                     sessionId = content.getString("session_id");
+                    // pending audio requests can only be sent once we have a session
+                    wakeSendingThread();
                     break;
                 case "RESUMED":
                     reconnectTimeoutS = 2;
                     sentAuthInfo = true;
-                    if (!processingReady)
+                    wakeSendingThread();
+                    if (restored)
+                    {
+                        // The session was restored from a snapshot, this is still the first ready for this instance
+                        restored = false;
+                        ready();
+                    }
+                    else if (!processingReady)
                     {
                         initiating = false;
                         ready();
@@ -939,7 +1074,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     @Override
     public void onTextMessage(WebSocket websocket, byte[] data)
     {
-        handleEvent(DataObject.fromJson(data));
+        if (compactData)
+            handleEvent(DataObject.fromCompactJson(ByteBuffer.wrap(data)));
+        else
+            handleEvent(DataObject.fromJson(data));
     }
 
     @Override
@@ -955,16 +1093,44 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             handleEvent(message);
     }
 
+    protected ExTermDecoder createDecoder()
+    {
+        Map<String, Set<String>> skipped = new HashMap<>();
+        // Raw events have to include the full payload
+        if (!api.isRawEvents())
+        {
+            Set<String> presenceKeys = new HashSet<>();
+            if (!api.isCacheFlagSet(CacheFlag.ACTIVITY))
+                presenceKeys.add("activities");
+            if (!api.isCacheFlagSet(CacheFlag.CLIENT_STATUS))
+                presenceKeys.add("client_status");
+
+            // Presences of members are only used if at least one of the presence flags is enabled
+            Set<String> memberPresences = new HashSet<>();
+            if (api.getCacheFlags().stream().noneMatch(CacheFlag::isPresence))
+                memberPresences.add("d.presences");
+            else
+                presenceKeys.forEach(key -> memberPresences.add("d.presences." + key));
+            skipped.put("GUILD_CREATE", memberPresences);
+            skipped.put("GUILD_MEMBERS_CHUNK", memberPresences);
+
+            Set<String> presenceUpdate = new HashSet<>();
+            presenceKeys.forEach(key -> presenceUpdate.add("d." + key));
+            skipped.put("PRESENCE_UPDATE", presenceUpdate);
+        }
+        return new ExTermDecoder(compactData ? CompactMap::new : HashMap::new, "t", skipped);
+    }
+
     protected DataObject handleBinary(byte[] binary) throws DataFormatException
     {
         if (decompressor == null)
         {
             if (encoding == GatewayEncoding.ETF)
-                return DataObject.fromETF(binary);
+                return DataObject.fromETF(ByteBuffer.wrap(binary), etfDecoder);
             throw new IllegalStateException("Cannot decompress binary message due to unknown compression algorithm: " + compression);
         }
         // Scoping allows us to print the json that possibly failed parsing
-        byte[] data;
+        ByteBuffer data;
         try
         {
             data = decompressor.decompress(binary);
@@ -979,17 +1145,18 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
         try
         {
+            // The buffer is reused by the decompressor, so it has to be parsed before releasing the read lock
             if (encoding == GatewayEncoding.ETF)
-                return DataObject.fromETF(data);
+                return DataObject.fromETF(data, etfDecoder);
             else
-                return DataObject.fromJson(data);
+                return compactData ? DataObject.fromCompactJson(data) : DataObject.fromJson(data);
         }
         catch (ParsingException e)
         {
             String jsonString = "malformed";
             try
             {
-                jsonString = new String(data, StandardCharsets.UTF_8);
+                jsonString = new String(data.array(), data.arrayOffset() + data.position(), data.remaining(), StandardCharsets.UTF_8);
             }
             catch (Exception ignored) {}
             // Print the string that could not be parsed and re-throw the exception
@@ -1103,6 +1270,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             // in all cases, update to this channel
             request.setChannel(channel);
         });
+        wakeSendingThread();
     }
 
     public void queueAudioConnect(VoiceChannel channel, boolean selfMute, boolean selfDeaf)
@@ -1130,6 +1298,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             // in all cases, update to this channel
             request.setChannel(channel);
         });
+        wakeSendingThread();
     }
 
     public void queueAudioDisconnect(Guild guild)
@@ -1150,6 +1319,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 request.setStage(ConnectionStage.DISCONNECT);
             }
         });
+        wakeSendingThread();
     }
 
     public ConnectionRequest removeAudioConnection(long guildId)
@@ -1188,6 +1358,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 case RECONNECT:
                     request.setStage(ConnectionStage.CONNECT);
                     request.setNextAttemptEpoch(System.currentTimeMillis());
+                    wakeSendingThread();
                 default:
                     return null;
             }
@@ -1203,11 +1374,6 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         return null;
     }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer()
-    {
-        return new SoftReference<>(new ByteArrayOutputStream(1024));
-    }
-
     protected ConnectionRequest getNextAudioConnectRequest()
     {
         //Don't try to setup audio connections before JDA has finished loading.
@@ -1326,6 +1492,31 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         handlers.put("GUILD_INTEGRATIONS_UPDATE", nopHandler);
         handlers.put("PRESENCES_REPLACE",         nopHandler);
         handlers.put("WEBHOOKS_UPDATE",           nopHandler);
+
+        // Dispatches which only produce events, these can be ignored if none of the events are enabled
+        if (!api.getEventFilter().isAll())
+        {
+            disableUnused(nopHandler, "APPLICATION_COMMAND_CREATE",    ApplicationCommandCreateEvent.class);
+            disableUnused(nopHandler, "APPLICATION_COMMAND_DELETE",    ApplicationCommandDeleteEvent.class);
+            disableUnused(nopHandler, "APPLICATION_COMMAND_UPDATE",    ApplicationCommandUpdateEvent.class);
+            disableUnused(nopHandler, "GUILD_BAN_ADD",                 GuildBanEvent.class);
+            disableUnused(nopHandler, "GUILD_BAN_REMOVE",              GuildUnbanEvent.class);
+            disableUnused(nopHandler, "INTERACTION_CREATE",            GenericInteractionCreateEvent.class, SlashCommandEvent.class, ButtonClickEvent.class, SelectionMenuEvent.class);
+            disableUnused(nopHandler, "INVITE_CREATE",                 GuildInviteCreateEvent.class);
+            disableUnused(nopHandler, "INVITE_DELETE",                 GuildInviteDeleteEvent.class);
+            disableUnused(nopHandler, "MESSAGE_REACTION_ADD",          MessageReactionAddEvent.class, GuildMessageReactionAddEvent.class, PrivateMessageReactionAddEvent.class);
+            disableUnused(nopHandler, "MESSAGE_REACTION_REMOVE",       MessageReactionRemoveEvent.class, GuildMessageReactionRemoveEvent.class, PrivateMessageReactionRemoveEvent.class);
+            disableUnused(nopHandler, "MESSAGE_REACTION_REMOVE_ALL",   MessageReactionRemoveAllEvent.class, GuildMessageReactionRemoveAllEvent.class);
+            disableUnused(nopHandler, "MESSAGE_REACTION_REMOVE_EMOTE", MessageReactionRemoveEmoteEvent.class, GuildMessageReactionRemoveEmoteEvent.class);
+            disableUnused(nopHandler, "TYPING_START",                  UserTypingEvent.class);
+        }
+    }
+
+    @SafeVarargs
+    private final void disableUnused(SocketHandler nopHandler, String type, Class<? extends GenericEvent>... events)
+    {
+        if (!api.getEventFilter().isAnyEnabled(events))
+            handlers.put(type, nopHandler);
     }
 
     protected abstract class ConnectNode implements SessionController.SessionConnectNode
@@ -31,12 +31,17 @@ import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 //Helper class delegated to WebSocketClient
+// Only runs when something was enqueued or when the next token/audio retry becomes available
 class WebSocketSendingThread implements Runnable
 {
     private static final Logger LOG = WebSocketClient.LOG;
+    // Used to re-check audio requests that are waiting for their guild to finish setup
+    private static final long AUDIO_RETRY_DELAY = 500;
 
     private final WebSocketClient client;
     private final JDAImpl api;
@@ -44,12 +49,19 @@ class WebSocketSendingThread implements Runnable
     private final Queue<DataObject> chunkQueue;
     private final Queue<DataObject> ratelimitQueue;
     private final TLongObjectMap<ConnectionRequest> queuedAudioConnections;
+    private final GatewayTokenBucket bucket;
     private final ScheduledExecutorService executor;
-    private Future<?> handle;
+
+    // true while a run is submitted or running, guarantees a single drain at a time
+    private final AtomicBoolean active = new AtomicBoolean(false);
+    // set by every wake-up, checked after a drain to avoid lost signals
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private Future<?> delayedHandle;
+    private long delayedTime;
 
     private boolean needRateLimit = false;
     private boolean attemptedToSend = false;
-    private boolean shutdown = false;
+    private volatile boolean shutdown = false;
 
     WebSocketSendingThread(WebSocketClient client)
     {
@@ -59,66 +71,156 @@ class WebSocketSendingThread implements Runnable
         this.chunkQueue = client.chunkSyncQueue;
         this.ratelimitQueue = client.ratelimitQueue;
         this.queuedAudioConnections = client.queuedAudioConnections;
+        this.bucket = client.bucket;
         this.executor = client.executor;
     }
 
     public void shutdown()
     {
         shutdown = true;
-        if (handle != null)
-            handle.cancel(false);
+        synchronized (this)
+        {
+            if (delayedHandle != null)
+                delayedHandle.cancel(false);
+            delayedHandle = null;
+        }
     }
 
     public void start()
     {
         shutdown = false;
-        handle = executor.submit(this);
+        wake();
     }
 
-    private void scheduleIdle()
+    public void wake()
     {
         if (shutdown)
             return;
-        handle = executor.schedule(this, 500, TimeUnit.MILLISECONDS);
+        pending.set(true);
+        if (active.compareAndSet(false, true))
+            submit();
     }
 
-    private void scheduleSentMessage()
+    private void submit()
     {
-        if (shutdown)
-            return;
-        handle = executor.schedule(this, 10, TimeUnit.MILLISECONDS);
+        try
+        {
+            executor.execute(this);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            active.set(false);
+            if (api.getStatus() == JDA.Status.SHUTTING_DOWN || api.getStatus() == JDA.Status.SHUTDOWN)
+                LOG.debug("Rejected task after shutdown", ex);
+            else
+                LOG.error("Was unable to schedule next packet due to rejected execution by threadpool", ex);
+        }
     }
 
-    private void scheduleRateLimit()
+    private void scheduleWake(long delay)
     {
         if (shutdown)
             return;
-        handle = executor.schedule(this, 1, TimeUnit.MINUTES);
+        long time = System.currentTimeMillis() + delay;
+        synchronized (this)
+        {
+            // Keep only the earliest pending wake-up
+            if (delayedHandle != null && !delayedHandle.isDone())
+            {
+                if (delayedTime <= time)
+                    return;
+                delayedHandle.cancel(false);
+            }
+            try
+            {
+                delayedTime = time;
+                delayedHandle = executor.schedule(this::wake, delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                delayedHandle = null;
+                if (api.getStatus() == JDA.Status.SHUTTING_DOWN || api.getStatus() == JDA.Status.SHUTDOWN)
+                    LOG.debug("Rejected task after shutdown", ex);
+                else
+                    LOG.error("Was unable to schedule next packet due to rejected execution by threadpool", ex);
+            }
+        }
+    }
+
+    public int getQueueSize()
+    {
+        return chunkQueue.size() + ratelimitQueue.size() + queuedAudioConnections.size();
     }
 
     @Override
     public void run()
+    {
+        try
+        {
+            api.setContext();
+            do
+            {
+                pending.set(false);
+                if (!drain())
+                    break;
+            }
+            while (pending.get() && !shutdown);
+        }
+        finally
+        {
+            active.set(false);
+        }
+
+        // Something was enqueued after we finished the last drain, make sure it isn't lost
+        if (pending.get() && !shutdown && !needRateLimit && active.compareAndSet(false, true))
+            submit();
+    }
+
+    // returns false if the run should stop early
+    private boolean drain()
     {
         //Make sure that we don't send any packets before sending auth info.
+        // We are woken up again once the identify/resume was sent.
         if (!client.sentAuthInfo)
+            return false;
+
+        needRateLimit = false;
+        do
         {
-            scheduleIdle();
-            return;
+            if (!sendNext())
+                return false;
+        }
+        while (attemptedToSend && !needRateLimit && !shutdown);
+
+        if (needRateLimit)
+        {
+            // A send without depleted bucket means we lost the connection,
+            // in that case we are woken up again once the identify/resume was sent
+            long delay = bucket.getDelay(System.currentTimeMillis());
+            if (delay > 0)
+                scheduleWake(delay);
+            return false;
         }
 
+        scheduleAudioRetry();
+        return true;
+    }
+
+    // Sends a single payload, returns false if the run should stop early
+    private boolean sendNext()
+    {
         ConnectionRequest audioRequest = null;
         DataObject chunkRequest = null;
+        DataObject normalRequest = null;
+        attemptedToSend = false;
         try
         {
-            api.setContext();
-            attemptedToSend = false;
-            needRateLimit = false;
             // We do this outside of the lock because otherwise we could potentially deadlock here
             audioRequest = client.getNextAudioConnectRequest();
             if (!queueLock.tryLock() && !queueLock.tryLock(10, TimeUnit.SECONDS))
             {
-                scheduleNext();
-                return;
+                scheduleWake(10);
+                return false;
             }
 
             chunkRequest = chunkQueue.peek();
@@ -126,19 +228,23 @@ class WebSocketSendingThread implements Runnable
                 handleChunkSync(chunkRequest);
             else if (audioRequest != null)
                 handleAudioRequest(audioRequest);
-            else
-                handleNormalRequest();
+            else if ((normalRequest = ratelimitQueue.peek()) != null)
+                handleNormalRequest(normalRequest);
         }
         catch (InterruptedException ignored)
         {
             LOG.debug("Main WS send thread interrupted. Most likely JDA is disconnecting the websocket.");
-            return;
+            return false;
         }
         catch (Throwable ex)
         {
             // Log error
             LOG.error("Encountered error in gateway worker", ex);
 
+            // A failed payload is dropped, even if it already used a send of the bucket,
+            // otherwise it would be retried right away and block all other payloads
+            if (normalRequest != null)
+                ratelimitQueue.remove(normalRequest);
             if (!attemptedToSend)
             {
                 // Try to remove the failed request
@@ -146,6 +252,8 @@ class WebSocketSendingThread implements Runnable
                     client.chunkSyncQueue.remove(chunkRequest);
                 else if (audioRequest != null)
                     client.removeAudioConnection(audioRequest.getGuildIdLong());
+                // Continue with the remaining requests
+                attemptedToSend = true;
             }
 
             // Rethrow if error to kill thread
@@ -157,28 +265,24 @@ class WebSocketSendingThread implements Runnable
             // on any exception that might cause this lock to not release
             client.maybeUnlock();
         }
-
-        scheduleNext();
+        return true;
     }
 
-    private void scheduleNext()
+    private void scheduleAudioRetry()
     {
-        try
-        {
-            if (needRateLimit)
-                scheduleRateLimit();
-            else if (!attemptedToSend)
-                scheduleIdle();
-            else
-                scheduleSentMessage();
-        }
-        catch (RejectedExecutionException ex)
+        if (queuedAudioConnections.isEmpty())
+            return;
+        long now = System.currentTimeMillis();
+        AtomicLong next = new AtomicLong(Long.MAX_VALUE);
+        queuedAudioConnections.forEachValue((request) ->
         {
-            if (api.getStatus() == JDA.Status.SHUTTING_DOWN || api.getStatus() == JDA.Status.SHUTDOWN)
-                LOG.debug("Rejected task after shutdown", ex);
-            else
-                LOG.error("Was unable to schedule next packet due to rejected execution by threadpool", ex);
-        }
+            long epoch = request.getNextAttemptEpoch();
+            // Requests that are due but were not sent are waiting for their guild or session
+            next.accumulateAndGet(epoch < now ? now + AUDIO_RETRY_DELAY : epoch, Math::min);
+            return true;
+        });
+        if (next.get() != Long.MAX_VALUE)
+            scheduleWake(Math.max(1, next.get() - now));
     }
 
     private void handleChunkSync(DataObject chunkOrSyncRequest)
@@ -204,6 +308,8 @@ class WebSocketSendingThread implements Runnable
             LOG.debug("Discarding voice request due to null guild {}", guildId);
             // race condition on guild delete, avoid NPE on DISCONNECT requests
             queuedAudioConnections.remove(guildId);
+            // nothing was sent but we can continue with the next request
+            attemptedToSend = true;
             return;
         }
         ConnectionStage stage = audioRequest.getStage();
@@ -233,15 +339,11 @@ class WebSocketSendingThread implements Runnable
         }
     }
 
-    private void handleNormalRequest()
+    private void handleNormalRequest(DataObject message)
     {
-        DataObject message = ratelimitQueue.peek();
-        if (message != null)
-        {
-            LOG.debug("Sending normal message {}", message);
-            if (send(message))
-                ratelimitQueue.remove();
-        }
+        LOG.debug("Sending normal message {}", message);
+        if (send(message))
+            ratelimitQueue.remove();
     }
 
     //returns true if send was successful
@@ -17,17 +17,14 @@
 package net.dv8tion.jda.internal.requests.ratelimit;
 
 import net.dv8tion.jda.api.requests.Request;
-import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.requests.RateLimiter;
 import net.dv8tion.jda.internal.requests.Requester;
 import net.dv8tion.jda.internal.requests.Route;
-import okhttp3.Headers;
-import org.jetbrains.annotations.Contract;
 
-import java.util.*;
-import java.util.concurrent.*;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
 
 /*
 
@@ -64,443 +61,127 @@ This will send 100 messages on startup. At this point we don't yet know the hash
 The bucket iterates the requests in sync and gets the first response. This response provides the hash for this route and we create a bucket for it.
 Once the response is handled we continue with the next request in the unlimited bucket and notice the new bucket. We then move all related requests to this bucket.
 
+** Concurrent requests **
+
+By default a bucket executes one request at a time. With concurrent requests enabled, a bucket dispatches as many requests as
+it has remaining uses as asynchronous http calls and continues once responses arrive. The remaining uses are taken from the response headers
+minus the requests which are still in flight. Responses can arrive out of order, within one reset window the remaining uses therefore
+only ever decrease. Buckets without a known hash have a limit of 1 and still run their requests in sequence.
+
+Each bucket has its own lock, which guards its rate-limit state. Buckets are created atomically in the concurrent map
+and are flagged as removed by the cleanup, requests are never added to a removed bucket.
+
+** Shared buckets **
+
+The buckets and hashes are stored in a RateLimitRegistry. By default every shard has its own registry,
+a DefaultShardManager can instead share one registry and scheduler between all of its shards. Buckets which are not specific to
+a guild are then only discovered once and their remaining uses are respected across all shards. Each BotRateLimiter only
+keeps track of the requests of its own shard, so that a shard can be shutdown while the other shards keep using the buckets.
+
  */
 public class BotRateLimiter extends RateLimiter
 {
-    private static final String RESET_AFTER_HEADER = "X-RateLimit-Reset-After";
-    private static final String RESET_HEADER = "X-RateLimit-Reset";
-    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
-    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
-    private static final String GLOBAL_HEADER = "X-RateLimit-Global";
-    private static final String HASH_HEADER = "X-RateLimit-Bucket";
-    private static final String RETRY_AFTER_HEADER = "Retry-After";
-    private static final String UNLIMITED_BUCKET = "unlimited"; // we generate an unlimited bucket for every major parameter configuration
-
-    private final ReentrantLock bucketLock = new ReentrantLock();
-    // Route -> Should we print warning for 429? AKA did we already hit it once before
-    private final Set<Route> hitRatelimit = ConcurrentHashMap.newKeySet(5);
-    // Route -> Hash
-    private final Map<Route, String> hashes = new ConcurrentHashMap<>();
-    // Hash + Major Parameter -> Bucket
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
-    // Bucket -> Rate-Limit Worker
-    private final Map<Bucket, Future<?>> rateLimitQueue = new ConcurrentHashMap<>();
-    private Future<?> cleanupWorker;
+    private final RateLimitRegistry registry;
+    // Requests of this shard which are queued or in flight
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicBoolean finished = new AtomicBoolean(false);
 
     public BotRateLimiter(Requester requester)
     {
-        super(requester);
+        this(requester, null);
     }
 
-    @Override
-    public void init()
+    public BotRateLimiter(Requester requester, @Nullable RateLimitRegistry registry)
     {
-        cleanupWorker = getScheduler().scheduleAtFixedRate(this::cleanup, 30, 30, TimeUnit.SECONDS);
+        super(requester);
+        if (registry == null)
+        {
+            JDAImpl api = requester.getJDA();
+            registry = new RateLimitRegistry(api::getRateLimitPool, api.getSessionController(), api.getRateLimitCoordinator(), api.isRelativeRateLimit(), api.isConcurrentRequests());
+        }
+        this.registry = registry;
+        this.registry.attach(this);
     }
 
-    private ScheduledExecutorService getScheduler()
+    public RateLimitRegistry getRegistry()
     {
-        return requester.getJDA().getRateLimitPool();
+        return registry;
     }
 
-    @Override
-    public int cancelRequests()
+    Requester getRequester()
     {
-        return MiscUtil.locked(bucketLock, () -> {
-            // Empty buckets will be removed by the cleanup worker, which also checks for rate limit parameters
-            AtomicInteger count = new AtomicInteger(0);
-            buckets.values()
-                .stream()
-                .map(Bucket::getRequests)
-                .flatMap(Collection::stream)
-                .filter(request -> !request.isPriority() && !request.isCancelled())
-                .forEach(request -> {
-                    request.cancel();
-                    count.incrementAndGet();
-                });
-
-            int cancelled = count.get();
-            if (cancelled == 1)
-                RateLimiter.log.warn("Cancelled 1 request!");
-            else if (cancelled > 1)
-                RateLimiter.log.warn("Cancelled {} requests!", cancelled);
-            return cancelled;
-        });
+        return requester;
     }
 
-    private void cleanup()
+    boolean isShutdown()
     {
-        // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
-        // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
-        MiscUtil.locked(bucketLock, () -> {
-            int size = buckets.size();
-            Iterator<Map.Entry<String, Bucket>> entries = buckets.entrySet().iterator();
-
-            while (entries.hasNext())
-            {
-                Map.Entry<String, Bucket> entry = entries.next();
-                String key = entry.getKey();
-                Bucket bucket = entry.getValue();
-                // Remove cancelled requests
-                bucket.requests.removeIf(Request::isSkipped);
-
-                // Check if the bucket is empty
-                if (bucket.isUnlimited() && bucket.requests.isEmpty())
-                    entries.remove(); // remove unlimited if requests are empty
-                // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
-                else if (bucket.requests.isEmpty() && bucket.reset <= getNow())
-                    entries.remove();
-            }
-            // Log how many buckets were removed
-            size -= buckets.size();
-            if (size > 0)
-                log.debug("Removed {} expired buckets", size);
-        });
+        return isShutdown;
     }
 
-    private String getRouteHash(Route route)
+    // Called by the registry once a request of this shard is done or dropped
+    void finish()
     {
-        return hashes.getOrDefault(route, UNLIMITED_BUCKET + "+" + route);
+        if (pending.decrementAndGet() == 0 && isStopped && finished.compareAndSet(false, true))
+            requester.getJDA().shutdownRequester();
     }
 
     @Override
-    protected boolean stop()
+    public void init()
     {
-        return MiscUtil.locked(bucketLock, () -> {
-            if (isStopped)
-                return false;
-            super.stop();
-            if (cleanupWorker != null)
-                cleanupWorker.cancel(false);
-            cleanup();
-            int size = buckets.size();
-            if (!isShutdown && size > 0) // Tell user about active buckets so they don't get confused by the longer shutdown
-            {
-                int average = (int) Math.ceil(
-                        buckets.values().stream()
-                            .map(Bucket::getRequests)
-                            .mapToInt(Collection::size)
-                            .average().orElse(0)
-                );
-
-                log.info("Waiting for {} bucket(s) to finish. Average queue size of {} requests", size, average);
-            }
-            // No more requests to process?
-            return size < 1;
-        });
+        registry.init();
     }
 
     @Override
-    public Long getRateLimit(Route.CompiledRoute route)
+    public int cancelRequests()
     {
-        Bucket bucket = getBucket(route, false);
-        return bucket == null ? 0L : bucket.getRateLimit();
+        // Cancelled requests will be removed by the cleanup worker, which also checks for rate limit parameters
+        int cancelled = registry.cancelRequests(this);
+        if (cancelled == 1)
+            RateLimiter.log.warn("Cancelled 1 request!");
+        else if (cancelled > 1)
+            RateLimiter.log.warn("Cancelled {} requests!", cancelled);
+        return cancelled;
     }
 
     @Override
-    @SuppressWarnings("rawtypes")
-    protected void queueRequest(Request request)
+    protected synchronized boolean stop()
     {
-        // Create bucket and enqueue request
-        MiscUtil.locked(bucketLock, () -> {
-            Bucket bucket = getBucket(request.getRoute(), true);
-            bucket.enqueue(request);
-            runBucket(bucket);
-        });
+        if (isStopped)
+            return false;
+        super.stop();
+        if (!registry.isShared())
+            registry.cleanup();
+        int size = pending.get();
+        if (!isShutdown && size > 0) // Tell user about active requests so they don't get confused by the longer shutdown
+            log.info("Waiting for {} request(s) to finish", size);
+        // No more requests to process?
+        return size < 1 && finished.compareAndSet(false, true);
     }
 
     @Override
-    protected Long handleResponse(Route.CompiledRoute route, okhttp3.Response response)
-    {
-        return MiscUtil.locked(bucketLock, () -> {
-            long rateLimit = updateBucket(route, response).getRateLimit();
-            if (response.code() == 429)
-                return rateLimit;
-            else
-                return null;
-        });
-    }
-
-    private Bucket updateBucket(Route.CompiledRoute route, okhttp3.Response response)
-    {
-        return MiscUtil.locked(bucketLock, () -> {
-            try
-            {
-                Bucket bucket = getBucket(route, true);
-                Headers headers = response.headers();
-
-                boolean global = headers.get(GLOBAL_HEADER) != null;
-                boolean cloudflare = headers.get("via") == null;
-                String hash = headers.get(HASH_HEADER);
-                long now = getNow();
-
-                // Create a new bucket for the hash if needed
-                Route baseRoute = route.getBaseRoute();
-                if (hash != null)
-                {
-                    if (!this.hashes.containsKey(baseRoute))
-                    {
-                        this.hashes.put(baseRoute, hash);
-                        log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
-                    }
-
-                    bucket = getBucket(route, true);
-                }
-
-                if (response.code() == 429)
-                {
-                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
-                    long retryAfter = parseLong(retryAfterHeader) * 1000; // seconds precision
-                    // Handle global rate limit if necessary
-                    if (global)
-                    {
-                        requester.getJDA().getSessionController().setGlobalRatelimit(now + retryAfter);
-                        log.error("Encountered global rate limit! Retry-After: {} ms", retryAfter);
-                    }
-                    // Handle cloudflare rate limits, this applies to all routes and uses seconds for retry-after
-                    else if (cloudflare)
-                    {
-                        requester.getJDA().getSessionController().setGlobalRatelimit(now + retryAfter);
-                        log.error("Encountered cloudflare rate limit! Retry-After: {} s", retryAfter / 1000);
-                    }
-                    // Handle hard rate limit, pretty much just log that it happened
-                    else
-                    {
-                        boolean firstHit = hitRatelimit.add(baseRoute) && retryAfter < 60000;
-                        // Update the bucket to the new information
-                        bucket.remaining = 0;
-                        bucket.reset = getNow() + retryAfter;
-                        // don't log warning if we hit the rate limit for the first time, likely due to initialization of the bucket
-                        // unless its a long retry-after delay (more than a minute)
-                        if (firstHit)
-                            log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
-                        else
-                            log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
-                    }
-                    return bucket;
-                }
-
-                // If hash is null this means we didn't get enough information to update a bucket
-                if (hash == null)
-                    return bucket;
-
-                // Update the bucket parameters with new information
-                String limitHeader = headers.get(LIMIT_HEADER);
-                String remainingHeader = headers.get(REMAINING_HEADER);
-                String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
-                String resetHeader = headers.get(RESET_HEADER);
-
-                bucket.limit = (int) Math.max(1L, parseLong(limitHeader));
-                bucket.remaining = (int) parseLong(remainingHeader);
-                if (requester.getJDA().isRelativeRateLimit())
-                    bucket.reset = now + parseDouble(resetAfterHeader);
-                else
-                    bucket.reset = parseDouble(resetHeader);
-                log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, bucket.remaining, bucket.limit, bucket.reset - now);
-                return bucket;
-            }
-            catch (Exception e)
-            {
-                Bucket bucket = getBucket(route, true);
-                log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
-                        route.getBaseRoute(), bucket, response.code(), response.headers(), e);
-                return bucket;
-            }
-        });
-    }
-
-    @Contract("_,true->!null")
-    private Bucket getBucket(Route.CompiledRoute route, boolean create)
-    {
-        return MiscUtil.locked(bucketLock, () ->
-        {
-            // Retrieve the hash via the route
-            String hash = getRouteHash(route.getBaseRoute());
-            // Get or create a bucket for the hash + major parameters
-            String bucketId = hash + ":" + route.getMajorParameters();
-            Bucket bucket = this.buckets.get(bucketId);
-            if (bucket == null && create)
-                this.buckets.put(bucketId, bucket = new Bucket(bucketId));
-
-            return bucket;
-        });
-    }
-
-    private void runBucket(Bucket bucket)
-    {
-        if (isShutdown)
-            return;
-        // Schedule a new bucket worker if no worker is running
-        MiscUtil.locked(bucketLock, () ->
-            rateLimitQueue.computeIfAbsent(bucket,
-                (k) -> getScheduler().schedule(bucket, bucket.getRateLimit(), TimeUnit.MILLISECONDS)));
-    }
-
-    private long parseLong(String input)
+    protected void shutdown()
     {
-        return input == null ? 0L : Long.parseLong(input);
+        super.shutdown();
+        registry.detach(this);
     }
 
-    private long parseDouble(String input)
+    @Override
+    public Long getRateLimit(Route.CompiledRoute route)
     {
-        //The header value is using a double to represent milliseconds and seconds:
-        // 5.250 this is 5 seconds and 250 milliseconds (5250 milliseconds)
-        return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
+        return registry.getRateLimit(route);
     }
 
-    public long getNow()
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected void queueRequest(Request request)
     {
-        return System.currentTimeMillis();
+        pending.incrementAndGet();
+        registry.queueRequest(request);
     }
 
-    @SuppressWarnings("rawtypes")
-    private class Bucket implements IBucket, Runnable
+    @Override
+    protected Long handleResponse(Route.CompiledRoute route, okhttp3.Response response)
     {
-        private final String bucketId;
-        private final Deque<Request> requests = new ConcurrentLinkedDeque<>();
-
-        private long reset = 0;
-        private int remaining = 1;
-        private int limit = 1;
-
-        public Bucket(String bucketId)
-        {
-            this.bucketId = bucketId;
-        }
-
-        public void enqueue(Request request)
-        {
-            requests.addLast(request);
-        }
-
-        public void retry(Request request)
-        {
-            requests.addFirst(request);
-        }
-
-        private boolean isGlobalRateLimit()
-        {
-            return requester.getJDA().getSessionController().getGlobalRatelimit() > getNow();
-        }
-
-        public long getRateLimit()
-        {
-            long now = getNow();
-            long global = requester.getJDA().getSessionController().getGlobalRatelimit();
-            // Global rate limit is more important to handle
-            if (global > now)
-                return global - now;
-            // Check if the bucket reset time has expired
-            if (reset <= now)
-            {
-                // Update the remaining uses to the limit (we don't know better)
-                remaining = limit;
-                return 0L;
-            }
-
-            // If there are remaining requests we don't need to do anything, otherwise return backoff in milliseconds
-            return remaining < 1 ? reset - now : 0L;
-        }
-
-        public long getReset()
-        {
-            return reset;
-        }
-
-        public int getRemaining()
-        {
-            return remaining;
-        }
-
-        public int getLimit()
-        {
-            return limit;
-        }
-
-        private boolean isUnlimited()
-        {
-            return bucketId.startsWith("unlimited");
-        }
-
-        private void backoff()
-        {
-            // Schedule backoff if requests are not done
-            MiscUtil.locked(bucketLock, () -> {
-                rateLimitQueue.remove(this);
-                if (!requests.isEmpty())
-                    runBucket(this);
-                else if (isStopped)
-                    buckets.remove(bucketId);
-                if (isStopped && buckets.isEmpty())
-                    requester.getJDA().shutdownRequester();
-            });
-        }
-
-        @Override
-        public void run()
-        {
-            log.trace("Bucket {} is running {} requests", bucketId, requests.size());
-            while (!requests.isEmpty())
-            {
-                Long rateLimit = getRateLimit();
-                if (rateLimit > 0L)
-                {
-                    // We need to backoff since we ran out of remaining uses or hit the global rate limit
-                    Request request = requests.peekFirst(); // this *should* not be null
-                    String baseRoute = request != null ? request.getRoute().getBaseRoute().toString() : "N/A";
-                    if (!isGlobalRateLimit() && rateLimit >= 1000 * 60 * 30) // 30 minutes
-                        log.warn("Encountered long {} minutes Rate-Limit on route {}", TimeUnit.MILLISECONDS.toMinutes(rateLimit), baseRoute);
-                    log.debug("Backing off {} ms for bucket {} on route {}", rateLimit, bucketId, baseRoute);
-                    break;
-                }
-
-                Request request = requests.removeFirst();
-                if (request.isSkipped())
-                    continue;
-                if (isUnlimited())
-                {
-                    boolean shouldSkip = MiscUtil.locked(bucketLock, () -> {
-                        // Attempt moving request to correct bucket if it has been created
-                        Bucket bucket = getBucket(request.getRoute(), true);
-                        if (bucket != this)
-                        {
-                            bucket.enqueue(request);
-                            runBucket(bucket);
-                            return true;
-                        }
-                        return false;
-                    });
-                    if (shouldSkip) continue;
-                }
-
-                try
-                {
-                    rateLimit = requester.execute(request);
-                    if (rateLimit != null)
-                        retry(request); // this means we hit a hard rate limit (429) so the request needs to be retried
-                }
-                catch (Throwable ex)
-                {
-                    log.error("Encountered exception trying to execute request", ex);
-                    if (ex instanceof Error)
-                        throw (Error) ex;
-                    break;
-                }
-            }
-
-            backoff();
-        }
-
-        @Override
-        public Queue<Request> getRequests()
-        {
-            return requests;
-        }
-
-        @Override
-        public String toString()
-        {
-            return bucketId;
-        }
+        return registry.handleResponse(route, response);
     }
 }
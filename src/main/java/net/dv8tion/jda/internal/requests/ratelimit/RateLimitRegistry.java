@@ -0,0 +1,685 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests.ratelimit;
+
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator;
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.internal.requests.BucketKey;
+import net.dv8tion.jda.internal.requests.RateLimiter;
+import net.dv8tion.jda.internal.requests.Route;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import okhttp3.Headers;
+import org.jetbrains.annotations.Contract;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Buckets, route hashes and rate-limit workers used by {@link BotRateLimiter}.
+ *
+ * <p>Every shard has its own registry by default. A {@link net.dv8tion.jda.api.sharding.DefaultShardManager DefaultShardManager}
+ * can instead share one registry and scheduler between all of its shards.
+ * Requests of all shards are then queued in the same buckets and each request is executed
+ * by the {@link net.dv8tion.jda.internal.requests.Requester Requester} of the shard it belongs to.
+ */
+@SuppressWarnings("rawtypes")
+public class RateLimitRegistry
+{
+    private static final Logger log = JDALogger.getLog(RateLimiter.class);
+    private static final String RESET_AFTER_HEADER = "X-RateLimit-Reset-After";
+    private static final String RESET_HEADER = "X-RateLimit-Reset";
+    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String GLOBAL_HEADER = "X-RateLimit-Global";
+    private static final String HASH_HEADER = "X-RateLimit-Bucket";
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    // Route -> Should we print warning for 429? AKA did we already hit it once before
+    private final Set<Route> hitRatelimit = ConcurrentHashMap.newKeySet(5);
+    // Route -> Hash
+    private final Map<Route, String> hashes = new ConcurrentHashMap<>();
+    // Hash + Major Parameter -> Bucket, routes without hash get an unlimited bucket for every major parameter configuration
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    // Bucket -> Rate-Limit Worker
+    private final Map<Bucket, Future<?>> rateLimitQueue = new ConcurrentHashMap<>();
+    // Rate limiters of the shards using this registry
+    private final Set<BotRateLimiter> limiters = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private final SessionController sessionController;
+    private final RateLimitCoordinator coordinator;
+    private final boolean relative;
+    private final boolean concurrent;
+    private final boolean shared;
+    private volatile boolean isShutdown = false;
+    private boolean isClosed = false;
+    private Future<?> cleanupWorker;
+
+    /**
+     * Creates a registry for a single shard, which is shutdown with its rate limiter.
+     */
+    public RateLimitRegistry(Supplier<ScheduledExecutorService> scheduler, SessionController sessionController, @Nullable RateLimitCoordinator coordinator, boolean relative, boolean concurrent)
+    {
+        this(scheduler, sessionController, coordinator, relative, concurrent, false);
+    }
+
+    /**
+     * Creates a registry shared by multiple shards, which is shutdown once it has been {@link #close() closed}
+     * and all shards have finished their requests. The scheduler is shutdown with the registry.
+     */
+    public RateLimitRegistry(ScheduledExecutorService scheduler, SessionController sessionController, @Nullable RateLimitCoordinator coordinator, boolean relative, boolean concurrent)
+    {
+        this(() -> scheduler, sessionController, coordinator, relative, concurrent, true);
+    }
+
+    private RateLimitRegistry(Supplier<ScheduledExecutorService> scheduler, SessionController sessionController, RateLimitCoordinator coordinator, boolean relative, boolean concurrent, boolean shared)
+    {
+        this.scheduler = scheduler;
+        this.sessionController = sessionController;
+        this.coordinator = coordinator;
+        this.relative = relative;
+        this.concurrent = concurrent;
+        this.shared = shared;
+    }
+
+    public boolean isShared()
+    {
+        return shared;
+    }
+
+    public ScheduledExecutorService getScheduler()
+    {
+        return scheduler.get();
+    }
+
+    // -- Lifecycle --
+
+    void attach(BotRateLimiter limiter)
+    {
+        limiters.add(limiter);
+    }
+
+    void init()
+    {
+        MiscUtil.locked(lock, () -> {
+            if (cleanupWorker == null && !isShutdown)
+                cleanupWorker = getScheduler().scheduleAtFixedRate(this::cleanup, 30, 30, TimeUnit.SECONDS);
+        });
+    }
+
+    void detach(BotRateLimiter limiter)
+    {
+        limiters.remove(limiter);
+        MiscUtil.locked(lock, () -> {
+            if (!shared || isClosed && limiters.isEmpty())
+                shutdown();
+        });
+    }
+
+    /**
+     * Shuts down this registry once all shards using it have finished their requests.
+     */
+    public void close()
+    {
+        MiscUtil.locked(lock, () -> {
+            isClosed = true;
+            if (limiters.isEmpty())
+                shutdown();
+        });
+    }
+
+    private void shutdown()
+    {
+        if (isShutdown)
+            return;
+        isShutdown = true;
+        if (cleanupWorker != null)
+            cleanupWorker.cancel(false);
+        if (shared)
+            getScheduler().shutdown();
+    }
+
+    // -- Requests --
+
+    int cancelRequests(BotRateLimiter limiter)
+    {
+        int count = 0;
+        for (Bucket bucket : buckets.values())
+        {
+            for (Request request : bucket.requests)
+            {
+                if (!request.isPriority() && !request.isCancelled() && getLimiter(request) == limiter)
+                {
+                    request.cancel();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    void cleanup()
+    {
+        // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
+        // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
+        int size = buckets.size();
+        for (Bucket bucket : buckets.values())
+        {
+            MiscUtil.locked(bucket.lock, () -> {
+                // Remove cancelled requests
+                for (Request request : bucket.requests)
+                {
+                    if (request.isSkipped() && bucket.requests.removeFirstOccurrence(request))
+                        getLimiter(request).finish();
+                }
+                if (!bucket.requests.isEmpty() || bucket.inFlight > 0)
+                    return;
+                // Remove unlimited if requests are empty
+                // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
+                if (bucket.isUnlimited() || bucket.reset <= getNow())
+                {
+                    bucket.removed = true;
+                    buckets.remove(bucket.key, bucket);
+                }
+            });
+        }
+        // Log how many buckets were removed
+        size -= buckets.size();
+        if (size > 0)
+            log.debug("Removed {} expired buckets", size);
+    }
+
+    Long getRateLimit(Route.CompiledRoute route)
+    {
+        Bucket bucket = getBucket(route, false);
+        return bucket == null ? 0L : bucket.getRateLimit();
+    }
+
+    void queueRequest(Request request)
+    {
+        // Create bucket and enqueue request
+        runBucket(enqueue(request));
+    }
+
+    private Bucket enqueue(Request request)
+    {
+        // The bucket might have been removed by the cleanup after we retrieved it
+        Bucket bucket;
+        do
+        {
+            bucket = getBucket(request.getRoute(), true);
+        }
+        while (!bucket.enqueue(request));
+        return bucket;
+    }
+
+    Long handleResponse(Route.CompiledRoute route, okhttp3.Response response)
+    {
+        Bucket bucket = updateBucket(route, response);
+        if (coordinator != null)
+            publish(bucket, response);
+        long rateLimit = bucket.getRateLimit();
+        if (response.code() == 429)
+            return rateLimit;
+        else
+            return null;
+    }
+
+    private Bucket updateBucket(Route.CompiledRoute route, okhttp3.Response response)
+    {
+        Headers headers = response.headers();
+        String hash = headers.get(HASH_HEADER);
+        // Create a new bucket for the hash if needed
+        Route baseRoute = route.getBaseRoute();
+        if (hash != null && this.hashes.putIfAbsent(baseRoute, hash) == null)
+            log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
+
+        Bucket bucket = getBucket(route, true);
+        return MiscUtil.locked(bucket.lock, () -> {
+            try
+            {
+                boolean global = headers.get(GLOBAL_HEADER) != null;
+                boolean cloudflare = headers.get("via") == null;
+                long now = getNow();
+
+                if (response.code() == 429)
+                {
+                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                    long retryAfter = parseLong(retryAfterHeader) * 1000; // seconds precision
+                    // Handle global rate limit if necessary
+                    if (global)
+                    {
+                        sessionController.setGlobalRatelimit(now + retryAfter);
+                        log.error("Encountered global rate limit! Retry-After: {} ms", retryAfter);
+                    }
+                    // Handle cloudflare rate limits, this applies to all routes and uses seconds for retry-after
+                    else if (cloudflare)
+                    {
+                        sessionController.setGlobalRatelimit(now + retryAfter);
+                        log.error("Encountered cloudflare rate limit! Retry-After: {} s", retryAfter / 1000);
+                    }
+                    // Handle hard rate limit, pretty much just log that it happened
+                    else
+                    {
+                        boolean firstHit = hitRatelimit.add(baseRoute) && retryAfter < 60000;
+                        // Update the bucket to the new information
+                        bucket.remaining = 0;
+                        bucket.reset = getNow() + retryAfter;
+                        // don't log warning if we hit the rate limit for the first time, likely due to initialization of the bucket
+                        // unless its a long retry-after delay (more than a minute)
+                        if (firstHit)
+                            log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
+                        else
+                            log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
+                    }
+                    return bucket;
+                }
+
+                // If hash is null this means we didn't get enough information to update a bucket
+                if (hash == null)
+                    return bucket;
+
+                // Update the bucket parameters with new information
+                String limitHeader = headers.get(LIMIT_HEADER);
+                String remainingHeader = headers.get(REMAINING_HEADER);
+                String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
+                String resetHeader = headers.get(RESET_HEADER);
+
+                bucket.limit = (int) Math.max(1L, parseLong(limitHeader));
+                int remaining = (int) parseLong(remainingHeader);
+                if (concurrent || shared)
+                {
+                    // Responses might arrive out of order, only a new window can increase the remaining uses
+                    long window = parseDouble(resetHeader);
+                    if (window == bucket.window)
+                        remaining = Math.min(remaining, bucket.remaining);
+                    bucket.window = window;
+                }
+                bucket.remaining = remaining;
+                if (relative)
+                    bucket.reset = now + parseDouble(resetAfterHeader);
+                else
+                    bucket.reset = parseDouble(resetHeader);
+                log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, bucket.remaining, bucket.limit, bucket.reset - now);
+                return bucket;
+            }
+            catch (Exception e)
+            {
+                log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
+                        route.getBaseRoute(), bucket, response.code(), response.headers(), e);
+                return bucket;
+            }
+        });
+    }
+
+    private void publish(Bucket bucket, okhttp3.Response response)
+    {
+        // Share the new information with the other processes
+        Headers headers = response.headers();
+        try
+        {
+            if (response.code() == 429 && (headers.get(GLOBAL_HEADER) != null || headers.get("via") == null))
+                coordinator.setGlobalRateLimit(sessionController.getGlobalRatelimit());
+            else if (response.code() == 429 || headers.get(HASH_HEADER) != null)
+                coordinator.update(bucket.bucketId, bucket.limit, bucket.remaining, bucket.reset);
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to update bucket {} on rate-limit coordinator", bucket.bucketId, e);
+        }
+    }
+
+    @Contract("_,true->!null")
+    private Bucket getBucket(Route.CompiledRoute route, boolean create)
+    {
+        // Retrieve the hash via the route
+        String hash = hashes.get(route.getBaseRoute());
+        // Get or create a bucket for the hash + major parameters
+        BucketKey key = route.getBucketKey(hash);
+        if (create)
+            return this.buckets.computeIfAbsent(key, Bucket::new);
+        return this.buckets.get(key);
+    }
+
+    private void runBucket(Bucket bucket)
+    {
+        if (isShutdown)
+            return;
+        // Schedule a new bucket worker if no worker is running
+        long delay = bucket.getRateLimit();
+        try
+        {
+            rateLimitQueue.computeIfAbsent(bucket,
+                (k) -> getScheduler().schedule(bucket, delay, TimeUnit.MILLISECONDS));
+        }
+        catch (RejectedExecutionException ex)
+        {
+            // The scheduler of a single shard is shutdown with the shard
+            if (!isShutdown)
+                throw ex;
+        }
+    }
+
+    private static BotRateLimiter getLimiter(Request request)
+    {
+        return (BotRateLimiter) request.getJDA().getRequester().getRateLimiter();
+    }
+
+    private long parseLong(String input)
+    {
+        return input == null ? 0L : Long.parseLong(input);
+    }
+
+    private long parseDouble(String input)
+    {
+        //The header value is using a double to represent milliseconds and seconds:
+        // 5.250 this is 5 seconds and 250 milliseconds (5250 milliseconds)
+        return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
+    }
+
+    public long getNow()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private class Bucket implements IBucket, Runnable
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final BucketKey key;
+        private final String bucketId;
+        private final Deque<Request> requests = new ConcurrentLinkedDeque<>();
+
+        private long reset = 0;
+        private int remaining = 1;
+        private int limit = 1;
+        // Only used with concurrent requests or a shared registry
+        private long window = 0;
+        private int inFlight = 0;
+        private boolean removed = false;
+        // Only used with a coordinator
+        private long blockedUntil = 0;
+
+        public Bucket(BucketKey key)
+        {
+            this.key = key;
+            this.bucketId = key.toString();
+        }
+
+        public boolean enqueue(Request request)
+        {
+            return MiscUtil.locked(lock, () -> {
+                if (removed)
+                    return false;
+                requests.addLast(request);
+                return true;
+            });
+        }
+
+        public void retry(Request request)
+        {
+            requests.addFirst(request);
+        }
+
+        private boolean isGlobalRateLimit()
+        {
+            return sessionController.getGlobalRatelimit() > getNow();
+        }
+
+        public long getRateLimit()
+        {
+            return MiscUtil.locked(lock, () -> {
+                long now = getNow();
+                long global = sessionController.getGlobalRatelimit();
+                // Global rate limit is more important to handle
+                if (global > now)
+                    return global - now;
+                // The coordinator asked us to wait
+                if (blockedUntil > now)
+                    return blockedUntil - now;
+                // Check if the bucket reset time has expired
+                if (reset <= now)
+                {
+                    // Update the remaining uses to the limit (we don't know better)
+                    remaining = limit;
+                    return 0L;
+                }
+
+                // If there are remaining requests we don't need to do anything, otherwise return backoff in milliseconds
+                return remaining < 1 ? reset - now : 0L;
+            });
+        }
+
+        public long getReset()
+        {
+            return reset;
+        }
+
+        public int getRemaining()
+        {
+            return remaining;
+        }
+
+        public int getLimit()
+        {
+            return limit;
+        }
+
+        private boolean isUnlimited()
+        {
+            return key.isUnlimited();
+        }
+
+        // Reserves one of the remaining uses for a request, the caller must check the rate limit first
+        private boolean tryReserve()
+        {
+            return MiscUtil.locked(lock, () -> {
+                if (remaining - inFlight < 1)
+                    return false;
+                inFlight++;
+                return true;
+            });
+        }
+
+        private void release()
+        {
+            MiscUtil.locked(lock, () -> { inFlight--; });
+        }
+
+        // Reserves the request with the coordinator, returns the delay before trying again
+        private long reserve()
+        {
+            if (coordinator == null)
+                return 0L;
+            try
+            {
+                long delay = coordinator.reserve(bucketId);
+                if (delay > 0L)
+                    MiscUtil.locked(lock, () -> { blockedUntil = getNow() + delay; });
+                return delay;
+            }
+            catch (Exception e)
+            {
+                log.error("Failed to reserve bucket {} on rate-limit coordinator", bucketId, e);
+                return 0L;
+            }
+        }
+
+        // Returns the reservation once the request completed, responses with server errors and I/O errors never update the bucket
+        private void unreserve()
+        {
+            if (coordinator == null)
+                return;
+            try
+            {
+                coordinator.release(bucketId);
+            }
+            catch (Exception e)
+            {
+                log.error("Failed to release bucket {} on rate-limit coordinator", bucketId, e);
+            }
+        }
+
+        private void backoff()
+        {
+            // Schedule backoff if requests are not done
+            MiscUtil.locked(lock, () -> {
+                rateLimitQueue.remove(this);
+                // With requests in flight and no remaining uses, the next response schedules the bucket again
+                if (!requests.isEmpty() && (inFlight == 0 || getRateLimit() == 0L && remaining - inFlight > 0))
+                    runBucket(this);
+            });
+        }
+
+        private void complete(BotRateLimiter limiter, Request request, Long rateLimit)
+        {
+            MiscUtil.locked(lock, () -> {
+                inFlight--;
+                if (rateLimit != null)
+                    retry(request); // this means we hit a hard rate limit (429) so the request needs to be retried
+                if (!requests.isEmpty())
+                    runBucket(this);
+            });
+            if (rateLimit == null)
+                limiter.finish();
+        }
+
+        private void dispatch(BotRateLimiter limiter, Request request)
+        {
+            // The response is handled on the http client threads, the bucket is scheduled again once it arrives
+            limiter.getRequester().executeAsync(request).whenComplete((rateLimit, error) -> {
+                unreserve();
+                if (error != null)
+                    log.error("Encountered exception trying to execute request", error);
+                complete(limiter, request, rateLimit);
+            });
+        }
+
+        @Override
+        public void run()
+        {
+            log.trace("Bucket {} is running {} requests", bucketId, requests.size());
+            while (!requests.isEmpty())
+            {
+                Long rateLimit = getRateLimit();
+                if (rateLimit > 0L)
+                {
+                    // We need to backoff since we ran out of remaining uses or hit the global rate limit
+                    Request request = requests.peekFirst(); // this *should* not be null
+                    String baseRoute = request != null ? request.getRoute().getBaseRoute().toString() : "N/A";
+                    if (!isGlobalRateLimit() && rateLimit >= 1000 * 60 * 30) // 30 minutes
+                        log.warn("Encountered long {} minutes Rate-Limit on route {}", TimeUnit.MILLISECONDS.toMinutes(rateLimit), baseRoute);
+                    log.debug("Backing off {} ms for bucket {} on route {}", rateLimit, bucketId, baseRoute);
+                    break;
+                }
+
+                // All remaining uses are taken by requests in flight
+                if (concurrent && !tryReserve())
+                    break;
+
+                Request request = requests.pollFirst();
+                if (request == null)
+                {
+                    if (concurrent)
+                        release();
+                    continue;
+                }
+
+                // Requests of a shard which has been shutdown are dropped
+                BotRateLimiter limiter = getLimiter(request);
+                if (request.isSkipped() || limiter.isShutdown())
+                {
+                    if (concurrent)
+                        release();
+                    limiter.finish();
+                    continue;
+                }
+
+                if (isUnlimited())
+                {
+                    // Attempt moving request to correct bucket if it has been created
+                    Bucket bucket = getBucket(request.getRoute(), true);
+                    if (bucket != this)
+                    {
+                        if (concurrent)
+                            release();
+                        runBucket(RateLimitRegistry.this.enqueue(request));
+                        continue;
+                    }
+                }
+
+                long delay = reserve();
+                if (delay > 0L)
+                {
+                    // Another process is using the remaining uses of this bucket
+                    if (concurrent)
+                        release();
+                    retry(request);
+                    log.debug("Backing off {} ms for bucket {} as requested by the rate-limit coordinator", delay, bucketId);
+                    break;
+                }
+
+                if (concurrent)
+                {
+                    dispatch(limiter, request);
+                    continue;
+                }
+
+                try
+                {
+                    rateLimit = limiter.getRequester().execute(request);
+                    if (rateLimit != null)
+                        retry(request); // this means we hit a hard rate limit (429) so the request needs to be retried
+                    else
+                        limiter.finish();
+                }
+                catch (Throwable ex)
+                {
+                    limiter.finish();
+                    log.error("Encountered exception trying to execute request", ex);
+                    if (ex instanceof Error)
+                        throw (Error) ex;
+                    break;
+                }
+                finally
+                {
+                    unreserve();
+                }
+            }
+
+            backoff();
+        }
+
+        @Override
+        public Queue<Request> getRequests()
+        {
+            return requests;
+        }
+
+        @Override
+        public String toString()
+        {
+            return bucketId;
+        }
+    }
+}
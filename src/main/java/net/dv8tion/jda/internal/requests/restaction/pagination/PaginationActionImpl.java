@@ -22,22 +22,24 @@ import net.dv8tion.jda.api.utils.Procedure;
 import net.dv8tion.jda.internal.requests.RestActionImpl;
 import net.dv8tion.jda.internal.requests.Route;
 import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.concurrent.AppendOnlyList;
 
 import javax.annotation.Nonnull;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
     extends RestActionImpl<List<T>>
     implements PaginationAction<T, M>
 {
-    protected final List<T> cached = new CopyOnWriteArrayList<>();
+    protected final List<T> cached = new AppendOnlyList<>();
     protected final int maxLimit;
     protected final int minLimit;
     protected final AtomicInteger limit;
@@ -46,6 +48,7 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
     protected volatile long lastKey = 0;
     protected volatile T last = null;
     protected volatile boolean useCache = true;
+    protected volatile boolean prefetch = false;
 
     /**
      * Creates a new PaginationAction instance
@@ -197,6 +200,21 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         return useCache;
     }
 
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public M prefetch(boolean enable)
+    {
+        this.prefetch = enable;
+        return (M) this;
+    }
+
+    @Override
+    public boolean isPrefetch()
+    {
+        return prefetch;
+    }
+
     @Override
     public final int getMaxLimit()
     {
@@ -248,7 +266,7 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
     @Override
     public PaginationIterator<T> iterator()
     {
-        return new PaginationIterator<>(cached, this::getNextChunk);
+        return new PaginationIterator<>(cached, isPrefetching() ? new PrefetchSupplier() : this::getNextChunk);
     }
 
     @Nonnull
@@ -341,11 +359,26 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         return list;
     }
 
+    // Prefetched pages which are not consumed are only kept in the cache
+    protected boolean isPrefetching()
+    {
+        return prefetch && useCache;
+    }
+
+    protected CompletableFuture<List<T>> requestNextChunk()
+    {
+        final int current = limit.getAndSet(getMaxLimit());
+        CompletableFuture<List<T>> future = submit();
+        limit.set(current);
+        return future;
+    }
+
     protected abstract long getKey(T it);
 
     protected int getIteratorIndex()
     {
-        for (int i = 0; i < cached.size(); i++)
+        // The iterator index is usually one of the last cached entities
+        for (int i = cached.size() - 1; i >= 0; i--)
         {
             if (getKey(cached.get(i)) == iteratorIndex)
                 return i + 1;
@@ -389,6 +422,9 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
             }
             initial = false;
 
+            // The next page only depends on the last key, which has already been updated for this page
+            final CompletableFuture<List<T>> next = isPrefetching() ? requestNextChunk() : null;
+
             T previous = null;
             for (T it : list)
             {
@@ -409,9 +445,62 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
                 return;
             }
 
-            final int currentLimit = limit.getAndSet(maxLimit);
-            queue(this, throwableConsumer);
-            limit.set(currentLimit);
+            if (next == null)
+            {
+                final int currentLimit = limit.getAndSet(maxLimit);
+                queue(this, throwableConsumer);
+                limit.set(currentLimit);
+                return;
+            }
+
+            next.whenComplete((result, error) ->
+            {
+                try
+                {
+                    if (error != null)
+                        throwableConsumer.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    else
+                        accept(result);
+                }
+                catch (Throwable ex)
+                {
+                    throwableConsumer.accept(ex);
+                }
+            });
+        }
+    }
+
+    protected class PrefetchSupplier implements Supplier<List<T>>
+    {
+        protected CompletableFuture<List<T>> next;
+
+        @Override
+        public List<T> get()
+        {
+            List<T> list;
+            if (next == null)
+            {
+                list = getNextChunk();
+            }
+            else
+            {
+                try
+                {
+                    list = next.join();
+                }
+                catch (CompletionException ex)
+                {
+                    // Match the exceptions thrown by complete()
+                    if (ex.getCause() instanceof RuntimeException)
+                        throw (RuntimeException) ex.getCause();
+                    if (ex.getCause() instanceof Error)
+                        throw (Error) ex.getCause();
+                    throw ex;
+                }
+            }
+
+            next = list.isEmpty() ? null : requestNextChunk();
+            return list;
         }
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single pass tokenizer for the markdown mentions of a message.
+ *
+ * <p>All mentions start with {@code <} and end at the first {@code >} after it,
+ * so the content is scanned once from one {@code <} to the next and every candidate is parsed by hand.
+ * This accepts exactly what the patterns of {@link net.dv8tion.jda.api.entities.Message.MentionType MentionType}
+ * and {@link net.dv8tion.jda.api.utils.TimeFormat#MARKDOWN TimeFormat.MARKDOWN} accept,
+ * except that ids which do not fit into a long are skipped right away.
+ */
+public final class MentionTokenizer
+{
+    public enum TokenType
+    {
+        USER, ROLE, CHANNEL, EMOTE, SLASH_COMMAND, TIMESTAMP
+    }
+
+    public static final class Token
+    {
+        public final TokenType type;
+        public final int start;
+        public final int end; // exclusive
+        public final long id; // timestamp in seconds for TIMESTAMP
+        public final String name; // emote name, command name or timestamp style
+        public final boolean animated;
+
+        private Token(TokenType type, int start, int end, long id, String name, boolean animated)
+        {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.name = name;
+            this.animated = animated;
+        }
+
+        @Override
+        public String toString()
+        {
+            return type + "(" + id + (name == null ? "" : ":" + name) + ")[" + start + ", " + end + ")";
+        }
+    }
+
+    private static final String TIME_STYLES = "tTdDfFR";
+
+    private final String content;
+    private final int length;
+    private int position;
+    private long number;
+
+    private MentionTokenizer(String content)
+    {
+        this.content = content;
+        this.length = content.length();
+    }
+
+    /**
+     * Finds all mentions in the provided content, ordered by their position.
+     *
+     * @param  content
+     *         The raw content
+     *
+     * @return Immutable list of tokens
+     */
+    @Nonnull
+    public static List<Token> tokenize(@Nonnull String content)
+    {
+        int start = content.indexOf('<');
+        if (start < 0)
+            return Collections.emptyList();
+        MentionTokenizer tokenizer = new MentionTokenizer(content);
+        List<Token> tokens = new ArrayList<>();
+        while (start >= 0)
+        {
+            Token token = tokenizer.parse(start);
+            if (token != null)
+                tokens.add(token);
+            start = content.indexOf('<', token == null ? start + 1 : token.end);
+        }
+        return tokens.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(tokens);
+    }
+
+    private Token parse(int start)
+    {
+        position = start + 1;
+        if (position >= length)
+            return null;
+        switch (content.charAt(position++))
+        {
+            case '@':
+                if (accept('&'))
+                    return parseId(TokenType.ROLE, start);
+                accept('!');
+                return parseId(TokenType.USER, start);
+            case '#':
+                return parseId(TokenType.CHANNEL, start);
+            case 'a':
+                return accept(':') ? parseEmote(start, true) : null;
+            case ':':
+                return parseEmote(start, false);
+            case '/':
+                return parseCommand(start);
+            case 't':
+                return accept(':') ? parseTimestamp(start) : null;
+            default:
+                return null;
+        }
+    }
+
+    // <@id> <@!id> <@&id> <#id>
+    private Token parseId(TokenType type, int start)
+    {
+        if (!readId() || !accept('>'))
+            return null;
+        return new Token(type, start, position, number, null, false);
+    }
+
+    // <:name:id> <a:name:id>
+    private Token parseEmote(int start, boolean animated)
+    {
+        int nameStart = position;
+        while (position < length && isEmoteNameChar(content.charAt(position)))
+            position++;
+        if (position == nameStart || !accept(':'))
+            return null;
+        String name = content.substring(nameStart, position - 1);
+        if (!readId() || !accept('>'))
+            return null;
+        return new Token(TokenType.EMOTE, start, position, number, name, animated);
+    }
+
+    // </name:id> </name subcommand:id>
+    private Token parseCommand(int start)
+    {
+        int nameStart = position;
+        while (position < length && isCommandNameChar(content.charAt(position)))
+            position++;
+        if (position == nameStart || !accept(':'))
+            return null;
+        String name = content.substring(nameStart, position - 1);
+        if (!readId() || !accept('>'))
+            return null;
+        return new Token(TokenType.SLASH_COMMAND, start, position, number, name, false);
+    }
+
+    // <t:time> <t:time:style>
+    private Token parseTimestamp(int start)
+    {
+        boolean negative = accept('-');
+        if (!readNumber(17))
+            return null;
+        long time = negative ? -number : number;
+        String style = null;
+        if (accept(':'))
+        {
+            if (position >= length || TIME_STYLES.indexOf(content.charAt(position)) < 0)
+                return null;
+            style = String.valueOf(content.charAt(position++));
+        }
+        if (!accept('>'))
+            return null;
+        return new Token(TokenType.TIMESTAMP, start, position, time, style, false);
+    }
+
+    private boolean accept(char c)
+    {
+        if (position < length && content.charAt(position) == c)
+        {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean readId()
+    {
+        return readNumber(Integer.MAX_VALUE);
+    }
+
+    // Reads up to maxDigits ascii digits into number, fails on empty input or if the value does not fit into a long
+    private boolean readNumber(int maxDigits)
+    {
+        int digitsStart = position;
+        long value = 0;
+        while (position < length)
+        {
+            int digit = content.charAt(position) - '0';
+            if (digit < 0 || digit > 9)
+                break;
+            if (position - digitsStart == maxDigits || value > (Long.MAX_VALUE - digit) / 10)
+                return false;
+            value = value * 10 + digit;
+            position++;
+        }
+        number = value;
+        return position > digitsStart;
+    }
+
+    private static boolean isEmoteNameChar(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isCommandNameChar(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == ' ';
+    }
+}
@@ -18,6 +18,7 @@ package net.dv8tion.jda.internal.utils;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.List;
@@ -306,6 +307,22 @@ public class PermissionUtil
 
         if (member.isOwner())
             return Permission.ALL_PERMISSIONS;
+
+        PermissionCache cache = getCache(member);
+        if (cache == null)
+            return computeEffectivePermission(member);
+        long generation = cache.getGeneration();
+        long permission = cache.get(member.getIdLong(), PermissionCache.GUILD);
+        if (permission == PermissionCache.NOT_CACHED)
+        {
+            permission = computeEffectivePermission(member);
+            cache.put(member.getIdLong(), PermissionCache.GUILD, permission, generation);
+        }
+        return permission;
+    }
+
+    private static long computeEffectivePermission(Member member)
+    {
         //Default to binary OR of all global permissions in this guild
         long permission = member.getGuild().getPublicRole().getPermissionsRaw();
         for (Role role : member.getRoles())
@@ -350,6 +367,21 @@ public class PermissionUtil
             return Permission.ALL_PERMISSIONS;
         }
 
+        PermissionCache cache = getCache(member);
+        if (cache == null)
+            return computeEffectivePermission(channel, member);
+        long generation = cache.getGeneration();
+        long permission = cache.get(member.getIdLong(), channel.getIdLong());
+        if (permission == PermissionCache.NOT_CACHED)
+        {
+            permission = computeEffectivePermission(channel, member);
+            cache.put(member.getIdLong(), channel.getIdLong(), permission, generation);
+        }
+        return permission;
+    }
+
+    private static long computeEffectivePermission(GuildChannel channel, Member member)
+    {
         long permission = getEffectivePermission(member);
         final long admin = Permission.ADMINISTRATOR.getRawValue();
         if (isApplied(permission, admin))
@@ -591,6 +623,13 @@ public class PermissionUtil
             : apply(permission, override.getAllowedRaw(), override.getDeniedRaw());
     }
 
+    // Only the cached member instances are cached, other instances might not be up-to-date
+    private static PermissionCache getCache(Member member)
+    {
+        GuildImpl guild = (GuildImpl) member.getGuild();
+        return guild.getMembersView().get(member.getIdLong()) == member ? guild.getPermissionCache() : null;
+    }
+
     private static void getExplicitOverrides(GuildChannel channel, Member member, AtomicLong allow, AtomicLong deny)
     {
         PermissionOverride override = channel.getPermissionOverride(member.getGuild().getPublicRole());
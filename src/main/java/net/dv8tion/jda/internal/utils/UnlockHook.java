@@ -21,15 +21,31 @@ import java.util.concurrent.locks.Lock;
 public class UnlockHook implements AutoCloseable
 {
     private final Lock lock;
+    private final Lock inner;
 
     public UnlockHook(Lock lock)
+    {
+        this(lock, null);
+    }
+
+    // The inner lock is released first
+    public UnlockHook(Lock lock, Lock inner)
     {
         this.lock = lock;
+        this.inner = inner;
     }
 
     @Override
     public void close()
     {
-        lock.unlock();
+        try
+        {
+            if (inner != null)
+                inner.unlock();
+        }
+        finally
+        {
+            lock.unlock();
+        }
     }
 }
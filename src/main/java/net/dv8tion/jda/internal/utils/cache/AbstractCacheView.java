@@ -31,6 +31,7 @@ import javax.annotation.Nonnull;
 import java.lang.reflect.Array;
 import java.util.*;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -68,6 +69,26 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
 
     public T get(long id)
     {
+        StampedLock stamped = optimisticLock;
+        if (stamped != null)
+        {
+            // Zero while a writer holds the cache, which might be the current thread
+            long stamp = stamped.tryOptimisticRead();
+            if (stamp != 0L)
+            {
+                try
+                {
+                    T element = elements.get(id);
+                    if (stamped.validate(stamp))
+                        return element;
+                }
+                catch (RuntimeException ignored)
+                {
+                    // The map was modified during the lookup, which also invalidates the stamp
+                }
+            }
+        }
+
         try (UnlockHook hook = readLock())
         {
             return elements.get(id);
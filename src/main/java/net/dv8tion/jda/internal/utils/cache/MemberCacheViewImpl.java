@@ -20,6 +20,7 @@ import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.utils.cache.MemberCacheView;
 import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.UnlockHook;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -27,9 +28,52 @@ import java.util.*;
 
 public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implements MemberCacheView
 {
+    protected final long guildId;
+    protected UserGuildIndex index;
+
     public MemberCacheViewImpl()
+    {
+        this(null, 0L);
+    }
+
+    public MemberCacheViewImpl(UserGuildIndex index, long guildId)
     {
         super(Member.class, Member::getEffectiveName);
+        this.index = index;
+        this.guildId = guildId;
+    }
+
+    // Requires the write lock, the members must be added through this method to keep the index updated
+    public void put(@Nonnull Member member)
+    {
+        if (elements.put(member.getIdLong(), member) == null && index != null)
+            index.add(member.getIdLong(), guildId);
+    }
+
+    @Override
+    public Member remove(long id)
+    {
+        Member member = super.remove(id);
+        if (member != null && index != null)
+            index.remove(id, guildId);
+        return member;
+    }
+
+    // Called when the guild is removed from cache, the members are kept for the leave events
+    public void removeFromIndex()
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            if (index == null)
+                return;
+            UserGuildIndex index = this.index;
+            elements.forEachKey((id) ->
+            {
+                index.remove(id, guildId);
+                return true;
+            });
+            this.index = null;
+        }
     }
 
     @Override
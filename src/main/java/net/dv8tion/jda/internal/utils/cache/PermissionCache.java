@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Cache for the effective permissions of the members of a single guild.
+ *
+ * <p>The permissions are stored per member and per channel, the guild-level permissions use the channel id {@code 0}.
+ * Every invalidation increments a generation counter, results computed before an invalidation are never stored.
+ * This way a computation which raced with an update cannot leave stale permissions behind.
+ */
+public class PermissionCache
+{
+    public static final long NOT_CACHED = -1;
+    public static final long GUILD = 0;
+    // Stop caching new permissions once this many are stored, caching resumes when invalidations free up space
+    private static final int MAX_SIZE = 10000;
+
+    private final TLongObjectMap<TLongLongMap> permissions = new TLongObjectHashMap<>();
+    private long generation;
+    private int size;
+
+    public synchronized long getGeneration()
+    {
+        return generation;
+    }
+
+    public synchronized long get(long memberId, long channelId)
+    {
+        TLongLongMap channels = permissions.get(memberId);
+        return channels == null ? NOT_CACHED : channels.get(channelId);
+    }
+
+    // Only stores the permissions if nothing was invalidated since the generation was read
+    public synchronized void put(long memberId, long channelId, long permission, long generation)
+    {
+        if (this.generation != generation || size >= MAX_SIZE)
+            return;
+        TLongLongMap channels = permissions.get(memberId);
+        if (channels == null)
+            permissions.put(memberId, channels = new TLongLongHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, 0, NOT_CACHED));
+        if (channels.put(channelId, permission) == NOT_CACHED)
+            size++;
+    }
+
+    public synchronized void invalidateMember(long memberId)
+    {
+        generation++;
+        TLongLongMap channels = permissions.remove(memberId);
+        if (channels != null)
+            size -= channels.size();
+    }
+
+    public synchronized void invalidateMembers(LongPredicate filter)
+    {
+        generation++;
+        permissions.retainEntries((memberId, channels) ->
+        {
+            if (!filter.test(memberId))
+                return true;
+            size -= channels.size();
+            return false;
+        });
+    }
+
+    public synchronized void invalidateChannel(long channelId)
+    {
+        generation++;
+        permissions.retainEntries((memberId, channels) ->
+        {
+            if (channels.remove(channelId) != NOT_CACHED)
+                size--;
+            return !channels.isEmpty();
+        });
+    }
+
+    public synchronized void clear()
+    {
+        generation++;
+        permissions.clear();
+        size = 0;
+    }
+}
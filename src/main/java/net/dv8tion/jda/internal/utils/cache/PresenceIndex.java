@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.internal.entities.ActivityImpl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares the parsed activities of a user between the presences of all guilds the user is in.
+ *
+ * <p>Discord sends one presence update per mutual guild, each with the same activities.
+ * The first update of such a burst is parsed and remembered for {@link #WINDOW} together with its raw payload,
+ * the following updates with an equal payload reuse the same immutable list without parsing it again.
+ * Since every guild then holds the same list instance, the activity diff for those updates is an identity check.
+ *
+ * <p>Plain activities without an emoji are also interned in a bounded LRU map,
+ * so common activities like the same game or stream are only kept once in memory.
+ * Other activities are never interned, their equality does not cover all of their fields.
+ */
+public class PresenceIndex
+{
+    public static final long WINDOW = TimeUnit.SECONDS.toMillis(5);
+    public static final int INTERN_LIMIT = 1024;
+
+    private final TLongObjectMap<Entry> entries = new TLongObjectHashMap<>();
+    private final ArrayDeque<Entry> expiry = new ArrayDeque<>();
+    private final Map<Activity, Activity> interned = new LinkedHashMap<Activity, Activity>(64, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Activity, Activity> eldest)
+        {
+            return size() > INTERN_LIMIT;
+        }
+    };
+
+    /**
+     * The previously parsed activities for this payload, if they were shared within the last {@link #WINDOW}.
+     *
+     * @return The shared activities, or null if the payload has to be parsed
+     */
+    @Nullable
+    public List<Activity> getActivities(long userId, @Nonnull DataArray activityArray)
+    {
+        return getActivities(userId, activityArray, System.currentTimeMillis());
+    }
+
+    @Nullable
+    public synchronized List<Activity> getActivities(long userId, @Nonnull DataArray activityArray, long now)
+    {
+        expire(now);
+        Entry entry = entries.get(userId);
+        if (entry == null || !isSamePayload(entry.raw, activityArray))
+            return null;
+        return entry.activities;
+    }
+
+    /**
+     * Interns the parsed activities and shares them for equal payloads of this user during the next {@link #WINDOW}.
+     *
+     * @return The immutable list which should be stored in the presence
+     */
+    @Nonnull
+    public List<Activity> putActivities(long userId, @Nonnull DataArray activityArray, @Nonnull List<Activity> activities)
+    {
+        return putActivities(userId, activityArray, activities, System.currentTimeMillis());
+    }
+
+    @Nonnull
+    public synchronized List<Activity> putActivities(long userId, @Nonnull DataArray activityArray, @Nonnull List<Activity> activities, long now)
+    {
+        expire(now);
+        List<Activity> shared;
+        switch (activities.size())
+        {
+        case 0:
+            shared = Collections.emptyList();
+            break;
+        case 1:
+            shared = Collections.singletonList(intern(activities.get(0)));
+            break;
+        default:
+            Activity[] array = new Activity[activities.size()];
+            for (int i = 0; i < array.length; i++)
+                array[i] = intern(activities.get(i));
+            shared = Collections.unmodifiableList(Arrays.asList(array));
+        }
+
+        Entry entry = new Entry(userId, activityArray, shared, now + WINDOW);
+        entries.put(userId, entry);
+        expiry.addLast(entry);
+        return shared;
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+        expiry.clear();
+        interned.clear();
+    }
+
+    private Activity intern(Activity activity)
+    {
+        // Equality of activities ignores the emoji and most fields of rich presences, those must not be swapped
+        if (activity.getClass() != ActivityImpl.class || activity.getEmoji() != null)
+            return activity;
+        Activity existing = interned.putIfAbsent(activity, activity);
+        return existing == null ? activity : existing;
+    }
+
+    private static boolean isSamePayload(DataArray previous, DataArray current)
+    {
+        // Both arrays are backed by the parsed JSON, comparing the backing lists does not copy them
+        return previous.length() == current.length() && previous.toList().equals(current.toList());
+    }
+
+    private void expire(long now)
+    {
+        Entry entry;
+        while ((entry = expiry.peekFirst()) != null && entry.expires <= now)
+        {
+            expiry.pollFirst();
+            // Only remove the entry if it has not been replaced by a more recent update
+            if (entries.get(entry.userId) == entry)
+                entries.remove(entry.userId);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final long userId;
+        private final DataArray raw;
+        private final List<Activity> activities;
+        private final long expires;
+
+        private Entry(long userId, DataArray raw, List<Activity> activities, long expires)
+        {
+            this.userId = userId;
+            this.raw = raw;
+            this.activities = activities;
+            this.expires = expires;
+        }
+    }
+}
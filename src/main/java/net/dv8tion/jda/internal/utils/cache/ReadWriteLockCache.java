@@ -24,11 +24,16 @@ import java.util.Collections;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 public abstract class ReadWriteLockCache<T>
 {
     protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Only set for caches with optimistic reads, writers hold it for as long as they hold the write lock
+    // Lookups read without a lock and validate the stamp afterwards, falling back to the reentrant read-lock
+    protected StampedLock optimisticLock;
     protected WeakReference<List<T>> cachedList;
     protected WeakReference<Set<T>>  cachedSet;
 
@@ -38,9 +43,16 @@ public abstract class ReadWriteLockCache<T>
             throw new IllegalStateException("Unable to acquire write-lock while holding read-lock!");
         ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
         MiscUtil.tryLock(writeLock);
+        Lock inner = null;
+        if (optimisticLock != null && writeLock.getHoldCount() == 1)
+        {
+            // Invalidates the stamps of all concurrent lookups
+            inner = optimisticLock.asWriteLock();
+            inner.lock();
+        }
         onAcquireWriteLock();
         clearCachedLists();
-        return new UnlockHook(writeLock);
+        return new UnlockHook(writeLock, inner);
     }
 
     public UnlockHook readLock()
@@ -51,6 +63,25 @@ public abstract class ReadWriteLockCache<T>
         return new UnlockHook(readLock);
     }
 
+    /**
+     * Enables optimistic lookups for single elements.
+     * <br>Lookups read the map without acquiring a lock and validate a {@link StampedLock} stamp afterwards.
+     * If a writer was active in the meantime, the result is discarded and the lookup is repeated with the reentrant read-lock.
+     * This must be called before the cache is shared between threads.
+     *
+     * @param enabled
+     *        True, to use the stamped lock for lookups
+     */
+    public void setOptimisticReads(boolean enabled)
+    {
+        this.optimisticLock = enabled ? new StampedLock() : null;
+    }
+
+    public boolean isOptimisticReads()
+    {
+        return optimisticLock != null;
+    }
+
     public void clearCachedLists()
     {
         cachedList = null;
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index of the cached guild memberships for each user, maintained by the {@link MemberCacheViewImpl member caches}.
+ *
+ * <p>The guild ids of a user are kept in a sorted array, which is replaced on every change rather than modified.
+ * Most users only share a few guilds with the bot, which keeps updates cheap and the memory footprint small.
+ */
+public class UserGuildIndex
+{
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TLongObjectMap<long[]> guildsByUser = new TLongObjectHashMap<>();
+
+    public void add(long userId, long guildId)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            long[] guilds = guildsByUser.get(userId);
+            if (guilds == null)
+            {
+                guildsByUser.put(userId, new long[] { guildId });
+                return;
+            }
+            int index = Arrays.binarySearch(guilds, guildId);
+            if (index >= 0)
+                return;
+            index = -index - 1;
+            long[] updated = new long[guilds.length + 1];
+            System.arraycopy(guilds, 0, updated, 0, index);
+            updated[index] = guildId;
+            System.arraycopy(guilds, index, updated, index + 1, guilds.length - index);
+            guildsByUser.put(userId, updated);
+        }
+    }
+
+    public void remove(long userId, long guildId)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            long[] guilds = guildsByUser.get(userId);
+            if (guilds == null)
+                return;
+            int index = Arrays.binarySearch(guilds, guildId);
+            if (index < 0)
+                return;
+            if (guilds.length == 1)
+            {
+                guildsByUser.remove(userId);
+                return;
+            }
+            long[] updated = new long[guilds.length - 1];
+            System.arraycopy(guilds, 0, updated, 0, index);
+            System.arraycopy(guilds, index + 1, updated, index, updated.length - index);
+            guildsByUser.put(userId, updated);
+        }
+    }
+
+    public void clear()
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            guildsByUser.clear();
+        }
+    }
+
+    // The returned array is shared and must not be modified
+    @Nonnull
+    public long[] getGuildIds(long userId)
+    {
+        try (UnlockHook hook = readLock())
+        {
+            long[] guilds = guildsByUser.get(userId);
+            return guilds == null ? EMPTY : guilds;
+        }
+    }
+
+    public boolean hasGuilds(long userId)
+    {
+        try (UnlockHook hook = readLock())
+        {
+            return guildsByUser.containsKey(userId);
+        }
+    }
+
+    public boolean isMember(long userId, long guildId)
+    {
+        return Arrays.binarySearch(getGuildIds(userId), guildId) >= 0;
+    }
+
+    public int size()
+    {
+        try (UnlockHook hook = readLock())
+        {
+            return guildsByUser.size();
+        }
+    }
+
+    private UnlockHook writeLock()
+    {
+        ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
+        MiscUtil.tryLock(writeLock);
+        return new UnlockHook(writeLock);
+    }
+
+    private UnlockHook readLock()
+    {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        MiscUtil.tryLock(readLock);
+        return new UnlockHook(readLock);
+    }
+}
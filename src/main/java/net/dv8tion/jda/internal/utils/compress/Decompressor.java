@@ -21,6 +21,7 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
 import java.util.zip.DataFormatException;
 
 public interface Decompressor
@@ -33,6 +34,7 @@ public interface Decompressor
 
     void shutdown();
 
+    // The returned buffer is a view of an internal buffer and is only valid until the next call
     @Nullable // returns null when the decompression isn't done, for example when no Z_SYNC_FLUSH was present
-    byte[] decompress(byte[] data) throws DataFormatException;
+    ByteBuffer decompress(byte[] data) throws DataFormatException;
 }
@@ -20,14 +20,11 @@ import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.JDALogger;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterOutputStream;
 
 public class ZlibDecompressor implements Decompressor
 {
@@ -35,28 +32,34 @@ public class ZlibDecompressor implements Decompressor
 
     private final int maxBufferSize;
     private final Inflater inflater = new Inflater();
-    private ByteBuffer flushBuffer = null;
-    private SoftReference<ByteArrayOutputStream> decompressBuffer = null;
+    // Partial frames are collected here until we receive the Z_SYNC_FLUSH suffix
+    private byte[] flushBuffer = null;
+    private int flushLength = 0;
+    // Decompressed payloads are written here, the returned views are only valid until the next call
+    private SoftReference<byte[]> decompressBuffer = null;
 
     public ZlibDecompressor(int maxBufferSize)
     {
         this.maxBufferSize = maxBufferSize;
     }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer()
+    private byte[] newDecompressBuffer()
     {
-        return new SoftReference<>(new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        byte[] buffer = new byte[Math.min(1024, maxBufferSize)];
+        decompressBuffer = new SoftReference<>(buffer);
+        return buffer;
     }
 
-    private ByteArrayOutputStream getDecompressBuffer()
+    private byte[] getDecompressBuffer()
     {
         // If no buffer has been allocated yet we do that here (lazy init)
         if (decompressBuffer == null)
-            decompressBuffer = newDecompressBuffer();
+            return newDecompressBuffer();
         // Check if the buffer has been collected by the GC or not
-        ByteArrayOutputStream buffer = decompressBuffer.get();
-        if (buffer == null) // create a ne buffer because the GC got it
-            decompressBuffer = new SoftReference<>(buffer = new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        byte[] buffer = decompressBuffer.get();
+        // create a new buffer because the GC got it or the previous payload grew it beyond the limit
+        if (buffer == null || buffer.length > maxBufferSize)
+            return newDecompressBuffer();
         return buffer;
     }
 
@@ -71,23 +74,27 @@ public class ZlibDecompressor implements Decompressor
     private void buffer(byte[] data)
     {
         if (flushBuffer == null)
-            flushBuffer = ByteBuffer.allocate(data.length * 2);
+            flushBuffer = new byte[data.length * 2];
 
-        //Ensure the capacity can hold the new data, ByteBuffer doesn't grow automatically
-        if (flushBuffer.capacity() < data.length + flushBuffer.position())
-        {
-            //Flip to make it a read buffer
-            flushBuffer.flip();
-            //Reallocate for the new capacity
-            flushBuffer = IOUtil.reallocate(flushBuffer, (flushBuffer.capacity() + data.length) * 2);
-        }
+        //Ensure the capacity can hold the new data, arrays don't grow automatically
+        if (flushBuffer.length < data.length + flushLength)
+            flushBuffer = Arrays.copyOf(flushBuffer, (flushBuffer.length + data.length) * 2);
 
-        flushBuffer.put(data);
+        System.arraycopy(data, 0, flushBuffer, flushLength, data.length);
+        flushLength += data.length;
     }
 
-    private Object lazy(byte[] data)
+    private void clearFlushBuffer()
     {
-        return JDALogger.getLazyString(() -> Arrays.toString(data));
+        flushLength = 0;
+        // Keep the buffer around for the next split message unless it got too big
+        if (flushBuffer != null && flushBuffer.length > maxBufferSize)
+            flushBuffer = null;
+    }
+
+    private Object lazy(byte[] data, int length)
+    {
+        return JDALogger.getLazyString(() -> Arrays.toString(Arrays.copyOf(data, length)));
     }
 
     @Override
@@ -100,6 +107,7 @@ public class ZlibDecompressor implements Decompressor
     public void reset()
     {
         inflater.reset();
+        clearFlushBuffer();
     }
 
     @Override
@@ -109,8 +117,10 @@ public class ZlibDecompressor implements Decompressor
     }
 
     @Override
-    public byte[] decompress(byte[] data) throws DataFormatException
+    public ByteBuffer decompress(byte[] data) throws DataFormatException
     {
+        byte[] input = data;
+        int length = data.length;
         //Handle split messages
         if (!isFlush(data))
         {
@@ -119,40 +129,46 @@ public class ZlibDecompressor implements Decompressor
             buffer(data);
             return null; // signal failure to decompress
         }
-        else if (flushBuffer != null)
+        else if (flushLength > 0)
         {
             //This has a flush suffix and we have an incomplete package buffered
             //concatenate the package with the new data and decompress it below
             LOG.debug("Received final part of incomplete data");
             buffer(data);
-            byte[] arr = flushBuffer.array();
-            data = new byte[flushBuffer.position()];
-            System.arraycopy(arr, 0, data, 0, data.length);
-            flushBuffer = null;
+            input = flushBuffer;
+            length = flushLength;
         }
-        LOG.trace("Decompressing data {}", lazy(data));
-        //Get the compressed message and inflate it
-        //We use the same buffer here to optimize gc use
-        ByteArrayOutputStream buffer = getDecompressBuffer();
-        try (InflaterOutputStream decompressor = new InflaterOutputStream(buffer, inflater))
-        {
-            // This decompressor writes the received data and inflates it
-            decompressor.write(data);
-            // Once decompressed we re-interpret the data as a String which can be used for JSON parsing
-            return buffer.toByteArray();
-        }
-        catch (IOException e)
+
+        LOG.trace("Decompressing data {}", lazy(input, length));
+        try
         {
-            // Some issue appeared during decompression that caused a failure
-            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
+            //Inflate directly into the shared buffer, growing it when the payload doesn't fit
+            byte[] buffer = getDecompressBuffer();
+            int written = 0;
+            inflater.setInput(input, 0, length);
+            while (true)
+            {
+                written += inflater.inflate(buffer, written, buffer.length - written);
+                if (written == buffer.length)
+                {
+                    // The inflater might still hold pending output, so we have to try again with more space
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    decompressBuffer = new SoftReference<>(buffer);
+                }
+                else if (inflater.needsInput() || inflater.finished())
+                {
+                    break;
+                }
+                else if (inflater.needsDictionary())
+                {
+                    throw new DataFormatException("Malformed");
+                }
+            }
+            return ByteBuffer.wrap(buffer, 0, written);
         }
         finally
         {
-            // When done with decompression we want to reset the buffer so it can be used again later
-            if (buffer.size() > maxBufferSize)
-                decompressBuffer = newDecompressBuffer();
-            else
-                buffer.reset();
+            clearFlushBuffer();
         }
     }
 }
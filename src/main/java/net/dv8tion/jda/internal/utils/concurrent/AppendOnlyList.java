@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.concurrent;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Thread-safe list which only supports appending elements.
+ *
+ * <p>Unlike {@link java.util.concurrent.CopyOnWriteArrayList} this does not copy the backing array on every append,
+ * the array grows like an {@link ArrayList} which keeps appends amortized constant.
+ * Readers never lock, since elements are never replaced or removed they can rely on a consistent prefix:
+ * the size is published after the element has been written and the array is replaced before the size grows past it.
+ *
+ * <p>Iterators only cover the elements that were present when they were created, elements appended while iterating are not visited.
+ */
+@SuppressWarnings("unchecked")
+public class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess
+{
+    private volatile Object[] elements = new Object[16];
+    private volatile int size;
+
+    @Override
+    public synchronized boolean add(E element)
+    {
+        Object[] array = elements;
+        int index = size;
+        if (index == array.length)
+            elements = array = Arrays.copyOf(array, index + (index >> 1));
+        array[index] = element;
+        size = index + 1;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addAll(@Nonnull Collection<? extends E> collection)
+    {
+        for (E element : collection)
+            add(element);
+        return !collection.isEmpty();
+    }
+
+    @Override
+    public E get(int index)
+    {
+        int size = this.size;
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<E> iterator()
+    {
+        // The size has to be read before the array to see all of its elements
+        int size = this.size;
+        Object[] array = elements;
+        return new Iterator<E>()
+        {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            public E next()
+            {
+                if (index >= size)
+                    throw new NoSuchElementException();
+                return (E) array[index++];
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.concurrent;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Scheduler which only keeps track of the delays on a single platform thread.
+ * <br>Once a one-shot task is due, it is handed off to a new virtual thread, so blocking tasks never hold up the scheduler.
+ * Periodic tasks are expected to be short and run on the scheduler thread directly.
+ *
+ * <p>The returned futures still complete once the task itself is done.
+ */
+public class VirtualThreadScheduler extends ScheduledThreadPoolExecutor
+{
+    private final ExecutorService executor;
+
+    public VirtualThreadScheduler(@Nonnull Supplier<String> identifier, @Nonnull String specifier)
+    {
+        super(1, new CountingThreadFactory(identifier, specifier + " Scheduler", false));
+        this.executor = VirtualThreads.newExecutor(identifier, specifier);
+        setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task)
+    {
+        return task.isPeriodic() ? task : new HandoffTask<>(task);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task)
+    {
+        return new HandoffTask<>(task);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        super.shutdown();
+        executor.shutdown();
+    }
+
+    @Nonnull
+    @Override
+    public java.util.List<Runnable> shutdownNow()
+    {
+        java.util.List<Runnable> tasks = super.shutdownNow();
+        executor.shutdownNow();
+        return tasks;
+    }
+
+    private class HandoffTask<V> implements RunnableScheduledFuture<V>
+    {
+        private final RunnableScheduledFuture<V> task;
+
+        private HandoffTask(RunnableScheduledFuture<V> task)
+        {
+            this.task = task;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                task.run(); // the scheduler is shutting down
+            }
+        }
+
+        @Override
+        public boolean isPeriodic()
+        {
+            return false;
+        }
+
+        @Override
+        public long getDelay(@Nonnull TimeUnit unit)
+        {
+            return task.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(@Nonnull Delayed o)
+        {
+            return task.compareTo(o instanceof HandoffTask ? ((HandoffTask<?>) o).task : o);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            boolean cancelled = task.cancel(mayInterruptIfRunning);
+            if (cancelled)
+                remove(this);
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return task.isCancelled();
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return task.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException
+        {
+            return task.get();
+        }
+
+        @Override
+        public V get(long timeout, @Nonnull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+        {
+            return task.get(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.concurrent;
+
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Access to virtual threads without depending on a newer runtime.
+ * <br>The required methods are looked up and tried once, on runtimes without virtual threads {@link #isSupported()} is false.
+ */
+public class VirtualThreads
+{
+    private static final Logger LOG = JDALogger.getLog(VirtualThreads.class);
+    private static final MethodHandle newFactory;
+    private static final MethodHandle newExecutor;
+
+    static
+    {
+        MethodHandle factory = null;
+        MethodHandle executor = null;
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+            MethodHandle toFactory = lookup.findVirtual(builderType, "factory", MethodType.methodType(ThreadFactory.class));
+            factory = MethodHandles.filterReturnValue(ofVirtual, toFactory.asType(MethodType.methodType(ThreadFactory.class, ofVirtual.type().returnType())));
+            executor = lookup.findStatic(java.util.concurrent.Executors.class, "newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            // Preview runtimes have these methods but throw without --enable-preview, start one thread to be sure
+            // The probe is not joined, it cannot run before this class is initialized
+            ((ThreadFactory) factory.invoke()).newThread(() -> {}).start();
+        }
+        catch (Throwable ignored)
+        {
+            factory = null;
+            executor = null;
+        }
+        newFactory = factory;
+        newExecutor = executor;
+    }
+
+    public static boolean isSupported()
+    {
+        return newExecutor != null;
+    }
+
+    // Logs a warning if virtual threads were requested on a runtime without them
+    public static boolean checkSupported()
+    {
+        if (isSupported())
+            return true;
+        LOG.warn("Virtual threads are not supported by this runtime ({}), using the default thread pools instead", System.getProperty("java.version"));
+        return false;
+    }
+
+    @Nonnull
+    public static ThreadFactory newThreadFactory(@Nonnull Supplier<String> identifier, @Nonnull String specifier)
+    {
+        ThreadFactory factory = invokeFactory();
+        AtomicLong count = new AtomicLong(1);
+        return (r) ->
+        {
+            Thread thread = factory.newThread(r);
+            thread.setName(identifier.get() + " " + specifier + "-Worker " + count.getAndIncrement());
+            return thread;
+        };
+    }
+
+    // Creates an executor which starts a new virtual thread for every task
+    @Nonnull
+    public static ExecutorService newExecutor(@Nonnull Supplier<String> identifier, @Nonnull String specifier)
+    {
+        try
+        {
+            return (ExecutorService) newExecutor.invoke(newThreadFactory(identifier, specifier));
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static ThreadFactory invokeFactory()
+    {
+        if (newFactory == null)
+            throw new UnsupportedOperationException("Virtual threads are not supported by this runtime");
+        try
+        {
+            return (ThreadFactory) newFactory.invoke();
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package net.dv8tion.jda.internal.utils.config;
 
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheType;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 
 import javax.annotation.Nonnull;
@@ -30,6 +31,7 @@ public class MetaConfig
     private static final MetaConfig defaultConfig = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), ConfigFlag.getDefault());
     private final ConcurrentMap<String, String> mdcContextMap;
     private final EnumSet<CacheFlag> cacheFlags;
+    private final EnumSet<SnowflakeCacheType> optimisticCaches;
     private final boolean enableMDC;
     private final boolean useShutdownHook;
     private final int maxBufferSize;
@@ -38,9 +40,19 @@ public class MetaConfig
             int maxBufferSize,
             @Nullable ConcurrentMap<String, String> mdcContextMap,
             @Nullable EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags)
+    {
+        this(maxBufferSize, mdcContextMap, cacheFlags, null, flags);
+    }
+
+    public MetaConfig(
+            int maxBufferSize,
+            @Nullable ConcurrentMap<String, String> mdcContextMap,
+            @Nullable EnumSet<CacheFlag> cacheFlags,
+            @Nullable EnumSet<SnowflakeCacheType> optimisticCaches, EnumSet<ConfigFlag> flags)
     {
         this.maxBufferSize = maxBufferSize;
         this.cacheFlags = cacheFlags == null ? EnumSet.allOf(CacheFlag.class) : cacheFlags;
+        this.optimisticCaches = optimisticCaches == null ? EnumSet.noneOf(SnowflakeCacheType.class) : optimisticCaches;
         this.enableMDC = flags.contains(ConfigFlag.MDC_CONTEXT);
         if (enableMDC)
             this.mdcContextMap = mdcContextMap == null ? new ConcurrentHashMap<>() : null;
@@ -61,6 +73,17 @@ public class MetaConfig
         return cacheFlags;
     }
 
+    @Nonnull
+    public EnumSet<SnowflakeCacheType> getOptimisticCaches()
+    {
+        return optimisticCaches;
+    }
+
+    public boolean isOptimisticReads(@Nonnull SnowflakeCacheType type)
+    {
+        return optimisticCaches.contains(type);
+    }
+
     public boolean isEnableMDC()
     {
         return enableMDC;
@@ -18,13 +18,17 @@ package net.dv8tion.jda.internal.utils.config;
 
 import com.neovisionaries.ws.client.WebSocketFactory;
 import net.dv8tion.jda.api.hooks.VoiceDispatchInterceptor;
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator;
 import net.dv8tion.jda.api.utils.ConcurrentSessionController;
 import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.internal.hooks.EventFilter;
+import net.dv8tion.jda.internal.requests.ratelimit.RateLimitRegistry;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 import okhttp3.OkHttpClient;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.File;
 import java.util.EnumSet;
 
 public class SessionConfig
@@ -34,13 +38,26 @@ public class SessionConfig
     private final WebSocketFactory webSocketFactory;
     private final VoiceDispatchInterceptor interceptor;
     private final int largeThreshold;
+    private final EventFilter eventFilter;
+    private final RateLimitCoordinator rateLimitCoordinator;
+    private final RateLimitRegistry rateLimitRegistry;
     private EnumSet<ConfigFlag> flags;
     private int maxReconnectDelay;
+    private File snapshotDirectory;
 
     public SessionConfig(
         @Nullable SessionController sessionController, @Nullable OkHttpClient httpClient,
         @Nullable WebSocketFactory webSocketFactory, @Nullable VoiceDispatchInterceptor interceptor,
-        EnumSet<ConfigFlag> flags, int maxReconnectDelay, int largeThreshold)
+        EnumSet<ConfigFlag> flags, int maxReconnectDelay, int largeThreshold, @Nullable EventFilter eventFilter)
+    {
+        this(sessionController, httpClient, webSocketFactory, interceptor, flags, maxReconnectDelay, largeThreshold, eventFilter, null, null);
+    }
+
+    public SessionConfig(
+        @Nullable SessionController sessionController, @Nullable OkHttpClient httpClient,
+        @Nullable WebSocketFactory webSocketFactory, @Nullable VoiceDispatchInterceptor interceptor,
+        EnumSet<ConfigFlag> flags, int maxReconnectDelay, int largeThreshold, @Nullable EventFilter eventFilter,
+        @Nullable RateLimitCoordinator rateLimitCoordinator, @Nullable RateLimitRegistry rateLimitRegistry)
     {
         this.sessionController = sessionController == null ? new ConcurrentSessionController() : sessionController;
         this.httpClient = httpClient;
@@ -49,6 +66,9 @@ public class SessionConfig
         this.flags = flags;
         this.maxReconnectDelay = maxReconnectDelay;
         this.largeThreshold = largeThreshold;
+        this.eventFilter = eventFilter == null ? EventFilter.ALL : eventFilter;
+        this.rateLimitCoordinator = rateLimitCoordinator;
+        this.rateLimitRegistry = rateLimitRegistry;
     }
 
     private static WebSocketFactory newWebSocketFactory()
@@ -64,6 +84,11 @@ public class SessionConfig
             flags.remove(ConfigFlag.AUTO_RECONNECT);
     }
 
+    public void setSnapshotDirectory(@Nullable File snapshotDirectory)
+    {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
     @Nonnull
     public SessionController getSessionController()
     {
@@ -108,11 +133,31 @@ public class SessionConfig
         return flags.contains(ConfigFlag.RAW_EVENTS);
     }
 
+    public boolean isCompactData()
+    {
+        return flags.contains(ConfigFlag.COMPACT_DATA);
+    }
+
     public boolean isRelativeRateLimit()
     {
         return flags.contains(ConfigFlag.USE_RELATIVE_RATELIMIT);
     }
 
+    public boolean isConcurrentRequests()
+    {
+        return flags.contains(ConfigFlag.CONCURRENT_REQUESTS);
+    }
+
+    public boolean isLazyMessages()
+    {
+        return flags.contains(ConfigFlag.LAZY_MESSAGES);
+    }
+
+    public boolean isStreamingGuildSetup()
+    {
+        return flags.contains(ConfigFlag.STREAMING_GUILD_SETUP);
+    }
+
     public int getMaxReconnectDelay()
     {
         return maxReconnectDelay;
@@ -123,6 +168,30 @@ public class SessionConfig
         return largeThreshold;
     }
 
+    @Nonnull
+    public EventFilter getEventFilter()
+    {
+        return eventFilter;
+    }
+
+    @Nullable
+    public RateLimitCoordinator getRateLimitCoordinator()
+    {
+        return rateLimitCoordinator;
+    }
+
+    @Nullable
+    public RateLimitRegistry getRateLimitRegistry()
+    {
+        return rateLimitRegistry;
+    }
+
+    @Nullable
+    public File getSnapshotDirectory()
+    {
+        return snapshotDirectory;
+    }
+
     public EnumSet<ConfigFlag> getFlags()
     {
         return flags;
@@ -131,6 +200,6 @@ public class SessionConfig
     @Nonnull
     public static SessionConfig getDefault()
     {
-        return new SessionConfig(null, new OkHttpClient(), null, null, ConfigFlag.getDefault(), 900, 250);
+        return new SessionConfig(null, new OkHttpClient(), null, null, ConfigFlag.getDefault(), 900, 250, null);
     }
 }
@@ -16,7 +16,10 @@
 
 package net.dv8tion.jda.internal.utils.config;
 
+import net.dv8tion.jda.api.hooks.EventOrdering;
 import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import net.dv8tion.jda.internal.utils.concurrent.VirtualThreadScheduler;
+import net.dv8tion.jda.internal.utils.concurrent.VirtualThreads;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -38,10 +41,16 @@ public class ThreadingConfig
     private boolean shutdownCallbackPool;
     private boolean shutdownEventPool;
     private boolean shutdownAudioPool;
+    private boolean defaultCallbackPool;
+
+    private boolean virtualThreads;
+    private EventOrdering eventOrdering = EventOrdering.NONE;
+    private int eventQueueCapacity = 1000;
 
     public ThreadingConfig()
     {
         this.callbackPool = ForkJoinPool.commonPool();
+        this.defaultCallbackPool = true;
 
         this.shutdownRateLimitPool = true;
         this.shutdownGatewayPool = true;
@@ -65,6 +74,7 @@ public class ThreadingConfig
     {
         this.callbackPool = executor == null ? ForkJoinPool.commonPool() : executor;
         this.shutdownCallbackPool = shutdown;
+        this.defaultCallbackPool = executor == null;
     }
 
     public void setEventPool(@Nullable ExecutorService executor, boolean shutdown)
@@ -79,10 +89,38 @@ public class ThreadingConfig
         this.shutdownAudioPool = shutdown;
     }
 
+    public void setEventOrdering(@Nonnull EventOrdering ordering, int queueCapacity)
+    {
+        this.eventOrdering = ordering;
+        this.eventQueueCapacity = queueCapacity;
+    }
+
+    public void setVirtualThreads(boolean enabled)
+    {
+        this.virtualThreads = enabled;
+    }
+
+    // The event manager is created before the other pools are initialized
+    public void initEventPool(@Nonnull Supplier<String> identifier)
+    {
+        // Without an ordering events are handled sequentially on the gateway thread, even with virtual threads
+        if (this.eventPool != null || this.eventOrdering == EventOrdering.NONE)
+            return;
+        this.eventPool = newEventPool(identifier, virtualThreads);
+        this.shutdownEventPool = true;
+    }
+
     public void init(@Nonnull Supplier<String> identifier)
     {
+        boolean useVirtualThreads = isUseVirtualThreads();
         if (this.rateLimitPool == null)
-            this.rateLimitPool = newScheduler(5, identifier, "RateLimit", false);
+            this.rateLimitPool = useVirtualThreads ? new VirtualThreadScheduler(identifier, "RateLimit") : newScheduler(5, identifier, "RateLimit", false);
+        if (this.defaultCallbackPool && useVirtualThreads)
+        {
+            this.callbackPool = VirtualThreads.newExecutor(identifier, "Callback");
+            this.shutdownCallbackPool = true;
+            this.defaultCallbackPool = false;
+        }
         if (this.gatewayPool == null)
             this.gatewayPool = newScheduler(1, identifier, "Gateway");
     }
@@ -156,6 +194,28 @@ public class ThreadingConfig
         return eventPool;
     }
 
+    @Nonnull
+    public EventOrdering getEventOrdering()
+    {
+        return eventOrdering;
+    }
+
+    public int getEventQueueCapacity()
+    {
+        return eventQueueCapacity;
+    }
+
+    public boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    // The gateway and audio pools stay on platform threads, they have strict timing requirements
+    private boolean isUseVirtualThreads()
+    {
+        return virtualThreads && VirtualThreads.checkSupported();
+    }
+
     @Nullable
     public ScheduledExecutorService getAudioPool(@Nonnull Supplier<String> identifier)
     {
@@ -209,6 +269,16 @@ public class ThreadingConfig
         return new ScheduledThreadPoolExecutor(coreSize, new CountingThreadFactory(identifier, baseName, daemon));
     }
 
+    // Used for event orderings without a configured pool, one thread per core or a virtual thread per event
+    @Nonnull
+    public static ExecutorService newEventPool(@Nonnull Supplier<String> identifier, boolean virtualThreads)
+    {
+        if (virtualThreads && VirtualThreads.checkSupported())
+            return VirtualThreads.newExecutor(identifier, "Event");
+        int threads = Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(threads, new CountingThreadFactory(identifier, "Event"));
+    }
+
     @Nonnull
     public static ThreadingConfig getDefault()
     {
@@ -26,7 +26,11 @@ public enum ConfigFlag
     BULK_DELETE_SPLIT(true),
     SHUTDOWN_HOOK(true),
     MDC_CONTEXT(true),
-    AUTO_RECONNECT(true);
+    AUTO_RECONNECT(true),
+    COMPACT_DATA,
+    CONCURRENT_REQUESTS,
+    LAZY_MESSAGES,
+    STREAMING_GUILD_SETUP;
 
     private final boolean isDefault;
 
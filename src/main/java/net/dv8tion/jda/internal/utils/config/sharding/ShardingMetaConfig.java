@@ -19,6 +19,7 @@ package net.dv8tion.jda.internal.utils.config.sharding;
 import net.dv8tion.jda.api.GatewayEncoding;
 import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheType;
 import net.dv8tion.jda.internal.utils.config.MetaConfig;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 
@@ -30,7 +31,7 @@ import java.util.function.IntFunction;
 
 public class ShardingMetaConfig extends MetaConfig
 {
-    private static final ShardingMetaConfig defaultConfig = new ShardingMetaConfig(2048, null, null, ConfigFlag.getDefault(), Compression.ZLIB, GatewayEncoding.JSON);
+    private static final ShardingMetaConfig defaultConfig = new ShardingMetaConfig(2048, null, null, null, ConfigFlag.getDefault(), Compression.ZLIB, GatewayEncoding.JSON);
     private final Compression compression;
     private final GatewayEncoding encoding;
     private final IntFunction<? extends ConcurrentMap<String, String>> contextProvider;
@@ -38,10 +39,11 @@ public class ShardingMetaConfig extends MetaConfig
     public ShardingMetaConfig(
         int maxBufferSize,
         @Nullable IntFunction<? extends ConcurrentMap<String, String>> contextProvider,
-        @Nullable EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags,
+        @Nullable EnumSet<CacheFlag> cacheFlags,
+        @Nullable EnumSet<SnowflakeCacheType> optimisticCaches, EnumSet<ConfigFlag> flags,
         Compression compression, GatewayEncoding encoding)
     {
-        super(maxBufferSize, null, cacheFlags, flags);
+        super(maxBufferSize, null, cacheFlags, optimisticCaches, flags);
 
         this.compression = compression;
         this.contextProvider = contextProvider;
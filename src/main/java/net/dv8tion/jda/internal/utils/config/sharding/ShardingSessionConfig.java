@@ -18,7 +18,10 @@ package net.dv8tion.jda.internal.utils.config.sharding;
 
 import com.neovisionaries.ws.client.WebSocketFactory;
 import net.dv8tion.jda.api.hooks.VoiceDispatchInterceptor;
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator;
 import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.internal.hooks.EventFilter;
+import net.dv8tion.jda.internal.requests.ratelimit.RateLimitRegistry;
 import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.config.SessionConfig;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
@@ -43,9 +46,26 @@ public class ShardingSessionConfig extends SessionConfig
             EnumSet<ConfigFlag> flags,
             EnumSet<ShardingConfigFlag> shardingFlags,
             int maxReconnectDelay,
-            int largeThreshold)
+            int largeThreshold,
+            @Nullable EventFilter eventFilter)
     {
-        super(sessionController, httpClient, webSocketFactory, interceptor, flags, maxReconnectDelay, largeThreshold);
+        this(sessionController, interceptor, httpClient, httpClientBuilder, webSocketFactory, flags, shardingFlags, maxReconnectDelay, largeThreshold, eventFilter, null);
+    }
+
+    public ShardingSessionConfig(
+            @Nullable SessionController sessionController,
+            @Nullable VoiceDispatchInterceptor interceptor,
+            @Nullable OkHttpClient httpClient,
+            @Nullable OkHttpClient.Builder httpClientBuilder,
+            @Nullable WebSocketFactory webSocketFactory,
+            EnumSet<ConfigFlag> flags,
+            EnumSet<ShardingConfigFlag> shardingFlags,
+            int maxReconnectDelay,
+            int largeThreshold,
+            @Nullable EventFilter eventFilter,
+            @Nullable RateLimitCoordinator rateLimitCoordinator)
+    {
+        super(sessionController, httpClient, webSocketFactory, interceptor, flags, maxReconnectDelay, largeThreshold, eventFilter, rateLimitCoordinator, null);
         if (httpClient == null)
             this.builder = httpClientBuilder == null ? IOUtil.newHttpClientBuilder() : httpClientBuilder;
         else
@@ -56,12 +76,24 @@ public class ShardingSessionConfig extends SessionConfig
     @Nonnull
     public static ShardingSessionConfig getDefault()
     {
-        return new ShardingSessionConfig(null, null, new OkHttpClient(), null, null, ConfigFlag.getDefault(), ShardingConfigFlag.getDefault(), 900, 250);
+        return new ShardingSessionConfig(null, null, new OkHttpClient(), null, null, ConfigFlag.getDefault(), ShardingConfigFlag.getDefault(), 900, 250, null);
     }
 
     public SessionConfig toSessionConfig(OkHttpClient client)
     {
-        return new SessionConfig(getSessionController(), client, getWebSocketFactory(), getVoiceDispatchInterceptor(), getFlags(), getMaxReconnectDelay(), getLargeThreshold());
+        return toSessionConfig(client, null);
+    }
+
+    public SessionConfig toSessionConfig(OkHttpClient client, @Nullable RateLimitRegistry rateLimitRegistry)
+    {
+        SessionConfig config = new SessionConfig(getSessionController(), client, getWebSocketFactory(), getVoiceDispatchInterceptor(), getFlags(), getMaxReconnectDelay(), getLargeThreshold(), getEventFilter(), getRateLimitCoordinator(), rateLimitRegistry);
+        config.setSnapshotDirectory(getSnapshotDirectory());
+        return config;
+    }
+
+    public boolean isSharedRateLimit()
+    {
+        return shardingFlags.contains(ShardingConfigFlag.SHARED_RATELIMIT);
     }
 
     public EnumSet<ShardingConfigFlag> getShardingFlags()
@@ -16,6 +16,7 @@
 
 package net.dv8tion.jda.internal.utils.config.sharding;
 
+import net.dv8tion.jda.api.hooks.EventOrdering;
 import net.dv8tion.jda.api.sharding.ThreadPoolProvider;
 
 import javax.annotation.Nonnull;
@@ -32,6 +33,9 @@ public class ThreadingProviderConfig
     private final ThreadPoolProvider<? extends ExecutorService> eventPoolProvider;
     private final ThreadPoolProvider<? extends ScheduledExecutorService> audioPoolProvider;
     private final ThreadFactory threadFactory;
+    private final EventOrdering eventOrdering;
+    private final int eventQueueCapacity;
+    private final boolean virtualThreads;
 
     public ThreadingProviderConfig(
             @Nullable ThreadPoolProvider<? extends ScheduledExecutorService> rateLimitPoolProvider,
@@ -39,7 +43,10 @@ public class ThreadingProviderConfig
             @Nullable ThreadPoolProvider<? extends ExecutorService> callbackPoolProvider,
             @Nullable ThreadPoolProvider<? extends ExecutorService> eventPoolProvider,
             @Nullable ThreadPoolProvider<? extends ScheduledExecutorService> audioPoolProvider,
-            @Nullable ThreadFactory threadFactory)
+            @Nullable ThreadFactory threadFactory,
+            @Nonnull EventOrdering eventOrdering,
+            int eventQueueCapacity,
+            boolean virtualThreads)
     {
         this.rateLimitPoolProvider = rateLimitPoolProvider;
         this.gatewayPoolProvider = gatewayPoolProvider;
@@ -47,6 +54,9 @@ public class ThreadingProviderConfig
         this.eventPoolProvider = eventPoolProvider;
         this.audioPoolProvider = audioPoolProvider;
         this.threadFactory = threadFactory;
+        this.eventOrdering = eventOrdering;
+        this.eventQueueCapacity = eventQueueCapacity;
+        this.virtualThreads = virtualThreads;
     }
 
     @Nullable
@@ -85,9 +95,25 @@ public class ThreadingProviderConfig
         return audioPoolProvider;
     }
 
+    @Nonnull
+    public EventOrdering getEventOrdering()
+    {
+        return eventOrdering;
+    }
+
+    public int getEventQueueCapacity()
+    {
+        return eventQueueCapacity;
+    }
+
+    public boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
     @Nonnull
     public static ThreadingProviderConfig getDefault()
     {
-        return new ThreadingProviderConfig(null, null, null, null, null, null);
+        return new ThreadingProviderConfig(null, null, null, null, null, null, EventOrdering.NONE, 1000, false);
     }
 }
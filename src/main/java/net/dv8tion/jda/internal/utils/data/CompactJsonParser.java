@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming JSON reader which builds {@link CompactMap} trees.
+ *
+ * <p>Jackson interns field names by default, which means the keys of all parsed objects
+ * share the same instances as the string literals used for lookups.
+ *
+ * <p>The entries of objects and arrays are collected on a stack shared by the whole payload,
+ * so every map and list is created once with its exact size.
+ */
+public class CompactJsonParser
+{
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final JsonParser parser;
+    private Object[] stack = new Object[64];
+    private int top = 0;
+
+    private CompactJsonParser(JsonParser parser)
+    {
+        this.parser = parser;
+    }
+
+    public static CompactMap parseObject(byte[] data, int offset, int length) throws IOException
+    {
+        try (JsonParser parser = factory.createParser(data, offset, length))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new JsonParseException(parser, "Expected object but got " + parser.currentToken());
+            return new CompactJsonParser(parser).readObject();
+        }
+    }
+
+    private void push(Object value)
+    {
+        if (top == stack.length)
+            stack = Arrays.copyOf(stack, top << 1);
+        stack[top++] = value;
+    }
+
+    private CompactMap readObject() throws IOException
+    {
+        int start = top;
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            push(parser.getCurrentName());
+            parser.nextToken();
+            push(readValue());
+        }
+
+        CompactMap map = new CompactMap((top - start) >> 1);
+        for (int i = start; i < top; i += 2)
+            map.append((String) stack[i], stack[i + 1]);
+        release(start);
+        return map;
+    }
+
+    private List<Object> readArray() throws IOException
+    {
+        int start = top;
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+            push(readValue());
+
+        List<Object> list = new ArrayList<>(top - start);
+        for (int i = start; i < top; i++)
+            list.add(stack[i]);
+        release(start);
+        return list;
+    }
+
+    // Clears the references, the parsed values should not be kept alive by the stack
+    private void release(int start)
+    {
+        Arrays.fill(stack, start, top, null);
+        top = start;
+    }
+
+    private Object readValue() throws IOException
+    {
+        JsonToken token = parser.currentToken();
+        if (token == null)
+            throw new JsonParseException(parser, "Unexpected end of input");
+        switch (token)
+        {
+            case START_OBJECT:
+                return readObject();
+            case START_ARRAY:
+                return readArray();
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return readInt();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonParseException(parser, "Unexpected token " + token);
+        }
+    }
+
+    private Object readInt() throws IOException
+    {
+        switch (parser.getNumberType())
+        {
+            case INT:
+                return parser.getIntValue();
+            case LONG:
+                return parser.getLongValue();
+            default:
+                return parser.getBigIntegerValue();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.data;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Flat map implementation for short-lived payload objects.
+ *
+ * <p>Keys, their hashes and the values are stored in parallel arrays instead of hash nodes.
+ * Lookups are a linear scan which compares the cached key hash first and the key identity second,
+ * since the parsers share key instances this rarely has to fall back to {@link String#equals(Object)}.
+ * Gateway objects rarely have more than a few dozen keys, which keeps the scan cheaper than hashing.
+ *
+ * <p>This class is not Thread-Safe.
+ */
+public class CompactMap extends AbstractMap<String, Object>
+{
+    private static final String[] EMPTY_KEYS = new String[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+    private static final int[] EMPTY_HASHES = new int[0];
+
+    private String[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+    private EntrySet entrySet;
+
+    public CompactMap()
+    {
+        this(0);
+    }
+
+    public CompactMap(int capacity)
+    {
+        if (capacity == 0)
+        {
+            keys = EMPTY_KEYS;
+            values = EMPTY_VALUES;
+            hashes = EMPTY_HASHES;
+        }
+        else
+        {
+            keys = new String[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+        }
+    }
+
+    private int indexOf(Object key)
+    {
+        if (key == null)
+            return -1;
+        int hash = key.hashCode();
+        for (int i = 0; i < size; i++)
+        {
+            if (hashes[i] == hash && (keys[i] == key || keys[i].equals(key)))
+                return i;
+        }
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= keys.length)
+            return;
+        int newCapacity = Math.max(capacity, keys.length < 4 ? 4 : keys.length + (keys.length >> 1));
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+    }
+
+    // Used by the parsers, the payload never contains duplicate keys
+    public void append(@Nonnull String key, Object value)
+    {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        values[size] = value;
+        hashes[size] = key.hashCode();
+        size++;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key)
+    {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value)
+    {
+        Objects.requireNonNull(key);
+        int index = indexOf(key);
+        if (index >= 0)
+        {
+            Object old = values[index];
+            values[index] = value;
+            return old;
+        }
+        append(key, value);
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key)
+    {
+        int index = indexOf(key);
+        if (index < 0)
+            return null;
+        Object old = values[index];
+        removeAt(index);
+        return old;
+    }
+
+    private void removeAt(int index)
+    {
+        int moved = size - index - 1;
+        if (moved > 0)
+        {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            System.arraycopy(hashes, index + 1, hashes, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<String, Object>> entrySet()
+    {
+        if (entrySet == null)
+            entrySet = new EntrySet();
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, Object>>
+    {
+        @Nonnull
+        @Override
+        public Iterator<Entry<String, Object>> iterator()
+        {
+            return new Iterator<Entry<String, Object>>()
+            {
+                private int index = 0;
+                private int last = -1;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return index < size;
+                }
+
+                @Override
+                public Entry<String, Object> next()
+                {
+                    if (index >= size)
+                        throw new NoSuchElementException();
+                    last = index++;
+                    return new Entry<String, Object>()
+                    {
+                        private final int position = last;
+
+                        @Override
+                        public String getKey()
+                        {
+                            return keys[position];
+                        }
+
+                        @Override
+                        public Object getValue()
+                        {
+                            return values[position];
+                        }
+
+                        @Override
+                        public Object setValue(Object value)
+                        {
+                            Object old = values[position];
+                            values[position] = value;
+                            return old;
+                        }
+
+                        @Override
+                        public boolean equals(Object obj)
+                        {
+                            if (!(obj instanceof Entry))
+                                return false;
+                            Entry<?, ?> other = (Entry<?, ?>) obj;
+                            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+                        }
+
+                        @Override
+                        public int hashCode()
+                        {
+                            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+                        }
+
+                        @Override
+                        public String toString()
+                        {
+                            return getKey() + "=" + getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public void remove()
+                {
+                    if (last < 0)
+                        throw new IllegalStateException();
+                    removeAt(last);
+                    index = last;
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.internal.utils.concurrent.AppendOnlyList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+public class AppendOnlyListTest
+{
+    @Test
+    public void testGrow()
+    {
+        List<Integer> list = new AppendOnlyList<>();
+        for (int i = 0; i < 1000; i++)
+            list.add(i);
+        Assertions.assertEquals(1000, list.size());
+        for (int i = 0; i < 1000; i++)
+            Assertions.assertEquals(i, (int) list.get(i));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.get(1000));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+    }
+
+    @Test
+    public void testSnapshotIterator()
+    {
+        List<Integer> list = new AppendOnlyList<>();
+        list.add(1);
+        list.add(2);
+        Iterator<Integer> iterator = list.iterator();
+        for (int i = 3; i < 100; i++)
+            list.add(i);
+
+        Assertions.assertEquals(1, (int) iterator.next());
+        Assertions.assertEquals(2, (int) iterator.next());
+        Assertions.assertFalse(iterator.hasNext());
+    }
+}
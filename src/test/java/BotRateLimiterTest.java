@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.sharding.DefaultShardManager;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.RateLimiter;
+import net.dv8tion.jda.internal.requests.RestActionImpl;
+import net.dv8tion.jda.internal.requests.Route;
+import net.dv8tion.jda.internal.requests.ratelimit.RateLimitRegistry;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import net.dv8tion.jda.internal.utils.config.flags.ShardingConfigFlag;
+import net.dv8tion.jda.internal.utils.config.sharding.ShardingSessionConfig;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BotRateLimiterTest
+{
+    private static final Route.CompiledRoute ROUTE = Route.Messages.SEND_MESSAGE.compile("1");
+
+    @Test
+    public void testBucketOrder() throws Exception
+    {
+        BucketServer server = new BucketServer(5);
+        try (RestClientMock client = new RestClientMock(server))
+        {
+            submit(client.create(null, null), 15);
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 15; i++)
+            expected.add(Integer.toString(i));
+        Assertions.assertEquals(expected, server.order);
+        Assertions.assertEquals(1, server.maxInFlight.get());
+    }
+
+    @Test
+    public void testConcurrentRequestLimit() throws Exception
+    {
+        BucketServer server = new BucketServer(3);
+        try (RestClientMock client = new RestClientMock(server))
+        {
+            submit(client.create(null, null, ConfigFlag.CONCURRENT_REQUESTS), 12);
+        }
+        Assertions.assertEquals(12, server.order.size());
+        Assertions.assertEquals(0, server.limited.get());
+        // The remaining uses are shared by the requests in flight
+        Assertions.assertTrue(server.maxInFlight.get() > 1);
+        Assertions.assertTrue(server.maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testSharedBucket() throws Exception
+    {
+        Interceptor interceptor = chain -> RestClientMock.response(chain, 204, "via", "1.1 google",
+            "X-RateLimit-Bucket", "abc", "X-RateLimit-Limit", "1", "X-RateLimit-Remaining", "0",
+            "X-RateLimit-Reset-After", "60", "X-RateLimit-Reset", Double.toString(System.currentTimeMillis() / 1000.0 + 60));
+        try (RestClientMock client = new RestClientMock(interceptor); SharedShardManager manager = new SharedShardManager())
+        {
+            JDAImpl first = client.create(null, manager.getRegistry());
+            JDAImpl second = client.create(null, manager.getRegistry());
+            JDAImpl separate = client.create(null, null);
+            submit(first, 1);
+
+            // The other shard waits for the reset of the bucket instead of learning it from a 429
+            Assertions.assertTrue(getRateLimiter(second).getRateLimit(ROUTE) > 0);
+            Assertions.assertEquals(0L, (long) getRateLimiter(separate).getRateLimit(ROUTE));
+        }
+    }
+
+    @Test
+    public void testSharedPoolSize()
+    {
+        try (SharedShardManager manager = new SharedShardManager())
+        {
+            // Every shard adds the threads it would have with its own pool, restarted shards are only counted once
+            Assertions.assertEquals(5, manager.getPool(0).getCorePoolSize());
+            Assertions.assertEquals(10, manager.getPool(1).getCorePoolSize());
+            Assertions.assertEquals(10, manager.getPool(1).getCorePoolSize());
+            Assertions.assertEquals(15, manager.getPool(2).getCorePoolSize());
+            Assertions.assertSame(manager.getRegistry().getScheduler(), manager.getPool(0));
+        }
+    }
+
+    @Test
+    public void testSharedGlobalRateLimit() throws Exception
+    {
+        AtomicInteger calls = new AtomicInteger();
+        Interceptor interceptor = chain ->
+        {
+            calls.incrementAndGet();
+            return RestClientMock.response(chain, 429, "via", "1.1 google", "X-RateLimit-Global", "true", "Retry-After", "60");
+        };
+        try (RestClientMock client = new RestClientMock(interceptor); SharedShardManager manager = new SharedShardManager())
+        {
+            JDAImpl first = client.create(null, manager.getRegistry());
+            JDAImpl second = client.create(null, manager.getRegistry());
+            new RestActionImpl<Void>(first, ROUTE).queue();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (getRateLimiter(first).getRateLimit(ROUTE) == 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            // The global rate-limit applies to every route of every shard
+            new RestActionImpl<Void>(second, Route.Self.GET_SELF.compile()).queue();
+            Thread.sleep(200);
+            Assertions.assertEquals(1, calls.get());
+        }
+    }
+
+    private static RateLimiter getRateLimiter(JDAImpl api)
+    {
+        return api.getRequester().getRateLimiter();
+    }
+
+    private static void submit(JDAImpl api, int count) throws Exception
+    {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            futures.add(new RestActionImpl<Void>(api, ROUTE.withQueryParams("n", Integer.toString(i))).submit());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+    }
+
+    private static class SharedShardManager extends DefaultShardManager implements AutoCloseable
+    {
+        private SharedShardManager()
+        {
+            super("token", null, null, null, null, null, new ShardingSessionConfig(null, null, null, null, null,
+                ConfigFlag.getDefault(), EnumSet.of(ShardingConfigFlag.SHARED_RATELIMIT), 900, 250, null), null, null);
+        }
+
+        private RateLimitRegistry getRegistry()
+        {
+            return rateLimitRegistry;
+        }
+
+        private ScheduledThreadPoolExecutor getPool(int shardId)
+        {
+            return (ScheduledThreadPoolExecutor) getSharedRateLimitPool(shardId);
+        }
+
+        @Override
+        public void close()
+        {
+            rateLimitRegistry.getScheduler().shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    // Simulates a bucket with a fixed window, requests over the limit are answered with 429
+    private static class BucketServer implements Interceptor
+    {
+        private static final long WINDOW = 100;
+
+        private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger limited = new AtomicInteger();
+        private final int limit;
+        private long windowEnd;
+        private int used;
+
+        private BucketServer(int limit)
+        {
+            this.limit = limit;
+        }
+
+        @Nonnull
+        @Override
+        public Response intercept(@Nonnull Chain chain) throws IOException
+        {
+            String url = chain.request().url().toString();
+            order.add(url.substring(url.lastIndexOf('=') + 1));
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try
+            {
+                Thread.sleep(20);
+                return respond(chain);
+            }
+            catch (InterruptedException e)
+            {
+                throw new InterruptedIOException();
+            }
+            finally
+            {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private synchronized Response respond(Chain chain)
+        {
+            long now = System.currentTimeMillis();
+            if (windowEnd <= now)
+            {
+                windowEnd = now + WINDOW;
+                used = 0;
+            }
+            String resetAfter = Double.toString((windowEnd - now) / 1000.0);
+            if (used >= limit)
+            {
+                limited.incrementAndGet();
+                return RestClientMock.response(chain, 429, "via", "1.1 google", "Retry-After", "1",
+                    "X-RateLimit-Bucket", "abc", "X-RateLimit-Limit", Integer.toString(limit), "X-RateLimit-Remaining", "0",
+                    "X-RateLimit-Reset-After", resetAfter, "X-RateLimit-Reset", Double.toString(windowEnd / 1000.0));
+            }
+            int remaining = limit - ++used;
+            return RestClientMock.response(chain, 204, "via", "1.1 google",
+                "X-RateLimit-Bucket", "abc", "X-RateLimit-Limit", Integer.toString(limit), "X-RateLimit-Remaining", Integer.toString(remaining),
+                "X-RateLimit-Reset-After", resetAfter, "X-RateLimit-Reset", Double.toString(windowEnd / 1000.0));
+        }
+    }
+}
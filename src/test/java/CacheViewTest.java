@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CacheViewTest
+{
+    private static final int STABLE = 100;
+
+    @Test
+    public void testConcurrentOptimisticReads() throws Exception
+    {
+        SnowflakeCacheViewImpl<ISnowflake> view = new SnowflakeCacheViewImpl<>(ISnowflake.class, null);
+        view.setOptimisticReads(true);
+        try (UnlockHook hook = view.writeLock())
+        {
+            for (long id = 0; id < STABLE; id++)
+                view.getMap().put(id, snowflake(id));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            readers.add(pool.submit(() -> {
+                while (running.get())
+                {
+                    for (long id = 0; id < STABLE; id++)
+                        Assertions.assertEquals(id, view.get(id).getIdLong());
+                }
+                return null;
+            }));
+        }
+
+        // Growing and shrinking the map rehashes it while the readers are looking up elements
+        Future<?> writer = pool.submit(() -> {
+            for (int round = 0; round < 200; round++)
+            {
+                try (UnlockHook hook = view.writeLock())
+                {
+                    for (long id = STABLE; id < STABLE + 500; id++)
+                        view.getMap().put(id, snowflake(id));
+                    // Lookups of the writing thread fall back to the reentrant lock
+                    Assertions.assertEquals(STABLE, view.get(STABLE).getIdLong());
+                }
+                try (UnlockHook hook = view.writeLock())
+                {
+                    for (long id = STABLE; id < STABLE + 500; id++)
+                        view.getMap().remove(id);
+                }
+            }
+            return null;
+        });
+
+        writer.get(30, TimeUnit.SECONDS);
+        running.set(false);
+        for (Future<?> reader : readers)
+            reader.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        Assertions.assertEquals(STABLE, view.size());
+    }
+
+    private static ISnowflake snowflake(long id)
+    {
+        return () -> id;
+    }
+}
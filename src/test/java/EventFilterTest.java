@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.PrivateChannel;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.ReconnectedEvent;
+import net.dv8tion.jda.api.events.ResumedEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.handle.MessageCreateHandler;
+import net.dv8tion.jda.internal.hooks.EventFilter;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.SessionConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventFilterTest
+{
+    @Test
+    public void testDispatch()
+    {
+        EventFilter filter = new EventFilter(Collections.singleton(ResumedEvent.class));
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"),
+            new SessionConfig(null, null, null, null, ConfigFlag.getDefault(), 900, 250, filter), null, null);
+        List<GenericEvent> events = new ArrayList<>();
+        api.addEventListener((EventListener) events::add);
+
+        ResumedEvent resumed = new ResumedEvent(api, 1);
+        api.handleEvent(resumed);
+        api.handleEvent(new ReconnectedEvent(api, 2));
+        Assertions.assertEquals(Collections.singletonList(resumed), events);
+        Assertions.assertFalse(api.isEventEnabled(ReconnectedEvent.class));
+    }
+
+    @Test
+    public void testSuperType()
+    {
+        EventFilter filter = new EventFilter(Collections.singleton(GenericEvent.class));
+        Assertions.assertTrue(filter.isEnabled(ResumedEvent.class));
+        Assertions.assertTrue(filter.isAnyEnabled(ReconnectedEvent.class));
+        Assertions.assertTrue(EventFilter.ALL.isAll());
+    }
+
+    @Test
+    public void testBuilders() throws ReflectiveOperationException
+    {
+        JDABuilder builder = JDABuilder.createLight("token").setListenedEvents(ResumedEvent.class, ReconnectedEvent.class);
+        EventFilter filter = getFilter(JDABuilder.class, builder);
+        Assertions.assertEquals(2, filter.getEvents().size());
+        Assertions.assertTrue(filter.isEnabled(ResumedEvent.class));
+        Assertions.assertTrue(filter.isEnabled(ReconnectedEvent.class));
+        Assertions.assertNull(getFilter(JDABuilder.class, builder.setListenedEvents(null)));
+
+        DefaultShardManagerBuilder shardBuilder = DefaultShardManagerBuilder.createLight("token").setListenedEvents(ResumedEvent.class);
+        filter = getFilter(DefaultShardManagerBuilder.class, shardBuilder);
+        Assertions.assertTrue(filter.isEnabled(ResumedEvent.class));
+        Assertions.assertFalse(filter.isEnabled(ReconnectedEvent.class));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.setListenedEvents(ResumedEvent.class, ReconnectedEvent.class, null));
+    }
+
+    @Test
+    public void testHandlerSkipsMessage()
+    {
+        AtomicInteger built = new AtomicInteger();
+        JDAImpl api = createApi(new EventFilter(Collections.singleton(ResumedEvent.class)), built);
+        PrivateChannel channel = createChannel(api);
+        new MessageCreateHandler(api).handle(1, DataObject.empty().put("d", message(20, user("after"))));
+
+        // Without message events the message is never built, but the channel and author are still updated
+        Assertions.assertEquals(0, built.get());
+        Assertions.assertEquals(20L, channel.getLatestMessageIdLong());
+        Assertions.assertEquals("after", channel.getUser().getName());
+
+        api = createApi(new EventFilter(Collections.singleton(MessageReceivedEvent.class)), built);
+        channel = createChannel(api);
+        new MessageCreateHandler(api).handle(1, DataObject.empty().put("d", message(30, user("after"))));
+        Assertions.assertEquals(1, built.get());
+        Assertions.assertEquals(30L, channel.getLatestMessageIdLong());
+    }
+
+    private static JDAImpl createApi(EventFilter filter, AtomicInteger built)
+    {
+        return new JDAImpl(new AuthorizationConfig("token"),
+            new SessionConfig(null, null, null, null, ConfigFlag.getDefault(), 900, 250, filter), null, null)
+        {
+            private final EntityBuilder builder = new EntityBuilder(this)
+            {
+                @Override
+                public Message createMessage(DataObject jsonObject, boolean modifyCache)
+                {
+                    built.incrementAndGet();
+                    return super.createMessage(jsonObject, modifyCache);
+                }
+            };
+
+            @Override
+            public EntityBuilder getEntityBuilder()
+            {
+                return builder;
+            }
+        };
+    }
+
+    private static PrivateChannel createChannel(JDAImpl api)
+    {
+        api.getEntityBuilder().createSelfUser(DataObject.empty()
+            .put("id", 1)
+            .put("username", "self")
+            .put("discriminator", "0001")
+            .put("avatar", null));
+        return api.getEntityBuilder().createPrivateChannel(DataObject.empty()
+            .put("id", 10)
+            .put("recipient", user("before")));
+    }
+
+    private static DataObject user(String name)
+    {
+        return DataObject.empty()
+            .put("id", 2)
+            .put("username", name)
+            .put("discriminator", "0001")
+            .put("avatar", null);
+    }
+
+    private static DataObject message(long id, DataObject author)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("channel_id", 10)
+            .put("type", 0)
+            .put("content", "content")
+            .put("mentions", DataArray.empty())
+            .put("author", author);
+    }
+
+    private static EventFilter getFilter(Class<?> type, Object builder) throws ReflectiveOperationException
+    {
+        Field field = type.getDeclaredField("eventFilter");
+        field.setAccessible(true);
+        return (EventFilter) field.get(builder);
+    }
+}
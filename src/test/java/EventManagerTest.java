@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.ResumedEvent;
+import net.dv8tion.jda.api.events.Event;
+import net.dv8tion.jda.api.hooks.AnnotatedEventManager;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.EventOrdering;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.hooks.SubscribeEvent;
+import net.dv8tion.jda.internal.hooks.EventManagerProxy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class EventManagerTest
+{
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDispatchOrder()
+    {
+        List<String> calls = new ArrayList<>();
+        InterfacedEventManager manager = new InterfacedEventManager();
+        manager.register(new ListenerAdapter()
+        {
+            @Override
+            public void onGenericEvent(@Nonnull GenericEvent event)
+            {
+                calls.add("generic");
+            }
+
+            @Override
+            public void onResume(@Nonnull ResumedEvent event)
+            {
+                calls.add("resume");
+            }
+
+            @Override
+            public void onResumed(@Nonnull ResumedEvent event)
+            {
+                calls.add("resumed");
+            }
+        });
+        manager.register(new ListenerAdapter() {});
+
+        manager.handle(new ResumedEvent(null, 0));
+        Assertions.assertEquals(Arrays.asList("generic", "resume", "resumed"), calls);
+
+        calls.clear();
+        manager.register((EventListener) (event) -> calls.add("listener"));
+        manager.handle(new ResumedEvent(null, 0));
+        Assertions.assertEquals(Arrays.asList("generic", "resume", "resumed", "listener"), calls);
+    }
+
+    @Test
+    public void testAnnotatedDispatch()
+    {
+        List<String> calls = PublicListener.calls;
+        calls.clear();
+        AnnotatedEventManager manager = new AnnotatedEventManager();
+        manager.register(new PublicListener());
+        manager.register(new Object()
+        {
+            @SubscribeEvent
+            private void onResumed(ResumedEvent event)
+            {
+                calls.add("private");
+            }
+        });
+
+        manager.handle(new ResumedEvent(null, 0));
+        calls.sort(null);
+        Assertions.assertEquals(Arrays.asList("event", "private", "resumed", "static"), calls);
+
+        calls.clear();
+        manager.unregister(manager.getRegisteredListeners().get(0));
+        manager.unregister(manager.getRegisteredListeners().get(0));
+        manager.register(PublicListener.class);
+        manager.handle(new ResumedEvent(null, 0));
+        Assertions.assertEquals(Collections.singletonList("static"), calls);
+    }
+
+    @Test
+    public void testOrderedProxy() throws InterruptedException
+    {
+        List<Long> handled = new ArrayList<>();
+        InterfacedEventManager manager = new InterfacedEventManager();
+        manager.register((EventListener) (event) -> handled.add(event.getResponseNumber()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        EventManagerProxy proxy = new EventManagerProxy(manager, pool, EventOrdering.GUILD, 10);
+        List<Long> expected = new ArrayList<>();
+        for (long i = 0; i < 1000; i++)
+        {
+            proxy.handle(new ResumedEvent(null, i));
+            expected.add(i);
+        }
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(expected, handled);
+    }
+
+    @Test
+    public void testOrderedProxyShutdown() throws InterruptedException
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InterfacedEventManager manager = new InterfacedEventManager();
+        manager.register((EventListener) (event) -> {
+            started.countDown();
+            // The worker ignores the interrupt of shutdownNow and never drains the full queue
+            while (true)
+            {
+                try
+                {
+                    release.await();
+                    return;
+                }
+                catch (InterruptedException ignored) {}
+            }
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        EventManagerProxy proxy = new EventManagerProxy(manager, pool, EventOrdering.GUILD, 1);
+        Thread producer = new Thread(() -> {
+            for (long i = 0; i < 3; i++)
+                proxy.handle(new ResumedEvent(null, i));
+        });
+        producer.start();
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        pool.shutdownNow();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        Assertions.assertFalse(producer.isAlive());
+        release.countDown();
+    }
+
+    public static class PublicListener
+    {
+        private static final List<String> calls = new ArrayList<>();
+
+        @SubscribeEvent
+        public void onResumed(ResumedEvent event)
+        {
+            calls.add("resumed");
+        }
+
+        @SubscribeEvent
+        public void onEvent(Event event)
+        {
+            calls.add("event");
+        }
+
+        @SubscribeEvent
+        public static void onStatic(ResumedEvent event)
+        {
+            calls.add("static");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.internal.requests.GatewayTokenBucket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GatewayTokenBucketTest
+{
+    @Test
+    public void testReserve()
+    {
+        GatewayTokenBucket bucket = new GatewayTokenBucket();
+        bucket.reset(0);
+        int regular = GatewayTokenBucket.CAPACITY - GatewayTokenBucket.PRIORITY_RESERVE;
+        for (int i = 0; i < regular; i++)
+            Assertions.assertTrue(bucket.tryAcquire(i, false));
+        Assertions.assertFalse(bucket.tryAcquire(1000, false));
+        Assertions.assertTrue(bucket.isDepleted(1000));
+
+        for (int i = 0; i < GatewayTokenBucket.PRIORITY_RESERVE; i++)
+            Assertions.assertTrue(bucket.tryAcquire(1000, true));
+        Assertions.assertFalse(bucket.tryAcquire(1000, true));
+        Assertions.assertEquals(0, bucket.getTokens(1000));
+    }
+
+    @Test
+    public void testRefill()
+    {
+        GatewayTokenBucket bucket = new GatewayTokenBucket();
+        bucket.reset(0);
+        while (bucket.tryAcquire(10, false));
+        Assertions.assertEquals(GatewayTokenBucket.WINDOW - 10, bucket.getDelay(10));
+        Assertions.assertEquals(GatewayTokenBucket.CAPACITY, bucket.getTokens(GatewayTokenBucket.WINDOW));
+        Assertions.assertEquals(0, bucket.getDelay(GatewayTokenBucket.WINDOW));
+    }
+}
@@ -15,9 +15,17 @@
  */
 
 import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 public class JsonTest
 {
     private static final String json = "{\"int\":10,\"long\":100,\"boolean\":true,\"string\":\"test\"}";
@@ -40,4 +48,52 @@ public class JsonTest
         DataObject symmetric = DataObject.fromJson(result);
         Assertions.assertEquals(object.toMap(), symmetric.toMap()); // lucky that this works here :)
     }
+
+    @Test
+    public void testCompactParse()
+    {
+        String nested = "{\"id\":\"123\",\"list\":[1,{\"name\":\"a\"},null],\"obj\":{\"float\":1.5},\"big\":12345678901234," + json.substring(1);
+        DataObject object = DataObject.fromCompactJson(ByteBuffer.wrap(nested.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(12345678901234L, object.getLong("big"));
+        Assertions.assertEquals(3, object.getArray("list").length());
+        Assertions.assertEquals(10, object.getInt("int", 0));
+        Assertions.assertEquals(100, object.getLong("long", 0));
+        Assertions.assertEquals(123L, object.getUnsignedLong("id"));
+        Assertions.assertEquals("a", object.getArray("list").getObject(1).getString("name"));
+        Assertions.assertTrue(object.getArray("list").isNull(2));
+        Assertions.assertEquals(1.5, object.getObject("obj").getDouble("float"));
+        Assertions.assertEquals(DataObject.fromJson(nested).toMap(), object.toMap());
+
+        object.put("int", 5).remove("string");
+        Assertions.assertEquals(5, object.getInt("int"));
+        Assertions.assertFalse(object.hasKey("string"));
+        Assertions.assertEquals(object.toMap(), DataObject.fromJson(object.toString()).toMap());
+    }
+
+    @Test
+    public void testSkippedETF()
+    {
+        String presences = "\"presences\":[{\"status\":\"online\",\"activities\":[{\"name\":\"x\"}]}]";
+        String guild = "{\"t\":\"GUILD_CREATE\",\"d\":{" + presences + ",\"obj\":{" + presences + "}}," + json.substring(1);
+        DataObject object = DataObject.fromJson(guild);
+        ByteBuffer buffer = ByteBuffer.wrap(object.toETF());
+
+        Map<String, Set<String>> skippedPaths = new HashMap<>();
+        skippedPaths.put("GUILD_CREATE", Collections.singleton("d.presences.activities"));
+        skippedPaths.put("GUILD_MEMBERS_CHUNK", Collections.singleton("d.presences"));
+        ExTermDecoder decoder = new ExTermDecoder(HashMap::new, "t", skippedPaths);
+
+        // Only the exact path of the matching type is skipped
+        DataObject skipped = DataObject.fromETF(buffer.duplicate(), decoder);
+        DataObject presence = skipped.getObject("d").getArray("presences").getObject(0);
+        Assertions.assertEquals("online", presence.getString("status"));
+        Assertions.assertFalse(presence.hasKey("activities"));
+        Assertions.assertEquals(object.getObject("d").getObject("obj").toMap(), skipped.getObject("d").getObject("obj").toMap());
+
+        // Other types are decoded in full, even though the values are skipped until the type is known
+        object.put("t", "MESSAGE_CREATE");
+        buffer = ByteBuffer.wrap(object.toETF());
+        Assertions.assertEquals(object.toMap(), DataObject.fromETF(buffer.duplicate(), decoder).toMap());
+        Assertions.assertEquals(object.toMap(), DataObject.fromETF(buffer).toMap());
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.internal.utils.MentionTokenizer;
+import net.dv8tion.jda.internal.utils.MentionTokenizer.Token;
+import net.dv8tion.jda.internal.utils.MentionTokenizer.TokenType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class MentionTokenizerTest
+{
+    @Test
+    public void testTokens()
+    {
+        String content = "<@123> <@!456> <@&789> <#42> <:kappa:11> <a:dance:12> </ban user:13> <t:-60:R> <t:1600000000>";
+        List<Token> tokens = MentionTokenizer.tokenize(content);
+        Assertions.assertEquals(9, tokens.size());
+        assertToken(tokens.get(0), TokenType.USER, 123, null);
+        assertToken(tokens.get(1), TokenType.USER, 456, null);
+        assertToken(tokens.get(2), TokenType.ROLE, 789, null);
+        assertToken(tokens.get(3), TokenType.CHANNEL, 42, null);
+        assertToken(tokens.get(4), TokenType.EMOTE, 11, "kappa");
+        assertToken(tokens.get(5), TokenType.EMOTE, 12, "dance");
+        assertToken(tokens.get(6), TokenType.SLASH_COMMAND, 13, "ban user");
+        assertToken(tokens.get(7), TokenType.TIMESTAMP, -60, "R");
+        assertToken(tokens.get(8), TokenType.TIMESTAMP, 1600000000, null);
+        Assertions.assertFalse(tokens.get(4).animated);
+        Assertions.assertTrue(tokens.get(5).animated);
+
+        Token token = tokens.get(1);
+        Assertions.assertEquals("<@!456>", content.substring(token.start, token.end));
+    }
+
+    @Test
+    public void testInvalid()
+    {
+        Assertions.assertTrue(MentionTokenizer.tokenize("no mentions").isEmpty());
+        Assertions.assertTrue(MentionTokenizer.tokenize("<@> <@!> <@abc> <#1 <:name:> <b:name:1> <t:1:x> <").isEmpty());
+        Assertions.assertTrue(MentionTokenizer.tokenize("<@99999999999999999999>").isEmpty());
+        Assertions.assertTrue(MentionTokenizer.tokenize("<t:123456789012345678>").isEmpty());
+
+        List<Token> tokens = MentionTokenizer.tokenize("<<@1>><@2");
+        Assertions.assertEquals(1, tokens.size());
+        Assertions.assertEquals(1, tokens.get(0).start);
+        Assertions.assertEquals(1, tokens.get(0).id);
+    }
+
+    private static void assertToken(Token token, TokenType type, long id, String name)
+    {
+        Assertions.assertEquals(type, token.type);
+        Assertions.assertEquals(id, token.id);
+        Assertions.assertEquals(name, token.name);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.handle.ChannelUpdateHandler;
+import net.dv8tion.jda.internal.handle.GuildMemberRemoveHandler;
+import net.dv8tion.jda.internal.handle.GuildRoleUpdateHandler;
+import net.dv8tion.jda.internal.utils.PermissionUtil;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PermissionCacheTest
+{
+    private static final long GUILD_ID = 100, CHANNEL_ID = 200, ROLE_ID = 300;
+    private static final long OWNER_ID = 1, FIRST_ID = 2, SECOND_ID = 3;
+
+    @Test
+    public void testGeneration()
+    {
+        PermissionCache cache = new PermissionCache();
+        long generation = cache.getGeneration();
+        cache.put(FIRST_ID, PermissionCache.GUILD, 8, generation);
+        Assertions.assertEquals(8, cache.get(FIRST_ID, PermissionCache.GUILD));
+
+        // A result computed before an invalidation is not stored
+        cache.invalidateMember(SECOND_ID);
+        cache.put(SECOND_ID, CHANNEL_ID, 16, generation);
+        Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(SECOND_ID, CHANNEL_ID));
+        cache.put(SECOND_ID, CHANNEL_ID, 16, cache.getGeneration());
+        Assertions.assertEquals(16, cache.get(SECOND_ID, CHANNEL_ID));
+
+        cache.invalidateChannel(CHANNEL_ID);
+        Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(SECOND_ID, CHANNEL_ID));
+        Assertions.assertEquals(8, cache.get(FIRST_ID, PermissionCache.GUILD));
+        cache.clear();
+        Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, PermissionCache.GUILD));
+    }
+
+    @Test
+    public void testRoleUpdate()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            GuildImpl guild = createGuild(api);
+            PermissionCache cache = guild.getPermissionCache();
+            Member first = guild.getMemberById(FIRST_ID), second = guild.getMemberById(SECOND_ID);
+            Assertions.assertTrue(first.hasPermission(Permission.MESSAGE_MANAGE));
+            Assertions.assertFalse(second.hasPermission(Permission.MESSAGE_MANAGE));
+
+            // Only the members with the updated role are invalidated
+            new GuildRoleUpdateHandler(api).handle(1, event(DataObject.empty()
+                .put("guild_id", GUILD_ID)
+                .put("role", role(ROLE_ID, "Mod", Permission.MESSAGE_READ.getRawValue()))));
+            Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, PermissionCache.GUILD));
+            Assertions.assertNotEquals(PermissionCache.NOT_CACHED, cache.get(SECOND_ID, PermissionCache.GUILD));
+            Assertions.assertFalse(first.hasPermission(Permission.MESSAGE_MANAGE));
+
+            // The public role applies to everyone
+            new GuildRoleUpdateHandler(api).handle(2, event(DataObject.empty()
+                .put("guild_id", GUILD_ID)
+                .put("role", role(GUILD_ID, "@everyone", Permission.MESSAGE_MANAGE.getRawValue()))));
+            Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(SECOND_ID, PermissionCache.GUILD));
+            Assertions.assertTrue(second.hasPermission(Permission.MESSAGE_MANAGE));
+        }
+    }
+
+    @Test
+    public void testChannelUpdate()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            GuildImpl guild = createGuild(api);
+            PermissionCache cache = guild.getPermissionCache();
+            TextChannel channel = guild.getTextChannelById(CHANNEL_ID);
+            Member first = guild.getMemberById(FIRST_ID);
+            Assertions.assertTrue(first.hasPermission(channel, Permission.MESSAGE_WRITE));
+            Assertions.assertNotEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, CHANNEL_ID));
+
+            DataObject overwrite = DataObject.empty()
+                .put("id", ROLE_ID)
+                .put("type", 0)
+                .put("allow", "0")
+                .put("deny", Long.toString(Permission.MESSAGE_WRITE.getRawValue()));
+            new ChannelUpdateHandler(api).handle(1, event(channel(DataArray.empty().add(overwrite))));
+            Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, CHANNEL_ID));
+            Assertions.assertNotEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, PermissionCache.GUILD));
+            Assertions.assertFalse(first.hasPermission(channel, Permission.MESSAGE_WRITE));
+        }
+    }
+
+    @Test
+    public void testMemberRemove()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            GuildImpl guild = createGuild(api);
+            PermissionCache cache = guild.getPermissionCache();
+            Member first = guild.getMemberById(FIRST_ID), second = guild.getMemberById(SECOND_ID);
+            first.hasPermission(Permission.MESSAGE_MANAGE);
+            second.hasPermission(Permission.MESSAGE_MANAGE);
+
+            new GuildMemberRemoveHandler(api).handle(1, event(DataObject.empty()
+                .put("guild_id", GUILD_ID)
+                .put("user", user(FIRST_ID))));
+            Assertions.assertNull(guild.getMemberById(FIRST_ID));
+            Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, PermissionCache.GUILD));
+            Assertions.assertNotEquals(PermissionCache.NOT_CACHED, cache.get(SECOND_ID, PermissionCache.GUILD));
+            // Permissions of a member which is no longer cached are not stored
+            PermissionUtil.getEffectivePermission(first);
+            Assertions.assertEquals(PermissionCache.NOT_CACHED, cache.get(FIRST_ID, PermissionCache.GUILD));
+        }
+    }
+
+    private static GuildImpl createGuild(JDAImpl api)
+    {
+        EntityBuilder builder = api.getEntityBuilder();
+        builder.createSelfUser(user(OWNER_ID));
+        DataArray members = DataArray.empty()
+            .add(member(OWNER_ID))
+            .add(member(FIRST_ID).put("roles", DataArray.empty().add(Long.toString(ROLE_ID))))
+            .add(member(SECOND_ID));
+        DataObject guild = DataObject.empty()
+            .put("id", GUILD_ID)
+            .put("name", "guild")
+            .put("owner_id", OWNER_ID)
+            .put("afk_timeout", 300)
+            .put("member_count", members.length())
+            .put("roles", DataArray.empty()
+                .add(role(GUILD_ID, "@everyone", Permission.MESSAGE_READ.getRawValue() | Permission.MESSAGE_WRITE.getRawValue()))
+                .add(role(ROLE_ID, "Mod", Permission.MESSAGE_MANAGE.getRawValue())))
+            .put("channels", DataArray.empty().add(channel(DataArray.empty())))
+            .put("members", members)
+            .put("voice_states", DataArray.empty())
+            .put("emojis", DataArray.empty())
+            .put("features", DataArray.empty());
+        return builder.createGuild(GUILD_ID, guild, builder.convertToUserMap(o -> o.getObject("user").getUnsignedLong("id"), members), members.length());
+    }
+
+    private static DataObject event(DataObject content)
+    {
+        return DataObject.empty().put("d", content);
+    }
+
+    private static DataObject user(long id)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("username", "user" + id)
+            .put("discriminator", "0001")
+            .put("avatar", null);
+    }
+
+    private static DataObject member(long id)
+    {
+        return DataObject.empty()
+            .put("user", user(id))
+            .put("roles", DataArray.empty())
+            .put("joined_at", "2021-01-01T00:00:00.000000+00:00");
+    }
+
+    private static DataObject role(long id, String name, long permissions)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("name", name)
+            .put("permissions", Long.toString(permissions))
+            .put("position", id == GUILD_ID ? 0 : 1)
+            .put("color", 0)
+            .put("hoist", false)
+            .put("managed", false)
+            .put("mentionable", false);
+    }
+
+    private static DataObject channel(DataArray overwrites)
+    {
+        return DataObject.empty()
+            .put("id", CHANNEL_ID)
+            .put("guild_id", GUILD_ID)
+            .put("type", 0)
+            .put("name", "general")
+            .put("position", 0)
+            .put("nsfw", false)
+            .put("parent_id", null)
+            .put("permission_overwrites", overwrites);
+    }
+}
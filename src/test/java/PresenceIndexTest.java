@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.utils.cache.PresenceIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PresenceIndexTest
+{
+    private static final String ACTIVITIES = "[{\"name\":\"Minecraft\",\"type\":0},{\"name\":\"Spotify\",\"type\":2}]";
+
+    @Test
+    public void testShareWithinWindow()
+    {
+        PresenceIndex index = new PresenceIndex();
+        List<Activity> shared = index.putActivities(1, DataArray.fromJson(ACTIVITIES), parse(ACTIVITIES), 0);
+
+        Assertions.assertSame(shared, index.getActivities(1, DataArray.fromJson(ACTIVITIES), 1000));
+        Assertions.assertNull(index.getActivities(2, DataArray.fromJson(ACTIVITIES), 1000));
+        Assertions.assertNull(index.getActivities(1, DataArray.fromJson("[]"), 1000));
+        Assertions.assertNull(index.getActivities(1, DataArray.fromJson(ACTIVITIES), PresenceIndex.WINDOW));
+        Assertions.assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testIntern()
+    {
+        PresenceIndex index = new PresenceIndex();
+        List<Activity> first = index.putActivities(1, DataArray.fromJson(ACTIVITIES), parse(ACTIVITIES), 0);
+        List<Activity> second = index.putActivities(2, DataArray.fromJson(ACTIVITIES), parse(ACTIVITIES), 0);
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertSame(first.get(0), second.get(0));
+        Assertions.assertSame(first.get(1), second.get(1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.add(Activity.playing("Test")));
+    }
+
+    @Test
+    public void testCustomStatusEmoji()
+    {
+        String fire = "[{\"name\":\"Custom Status\",\"type\":4,\"state\":\"Busy\",\"emoji\":{\"name\":\"\uD83D\uDD25\"}}]";
+        String sleep = "[{\"name\":\"Custom Status\",\"type\":4,\"state\":\"Busy\",\"emoji\":{\"name\":\"\uD83D\uDCA4\"}}]";
+        PresenceIndex index = new PresenceIndex();
+        List<Activity> first = index.putActivities(1, DataArray.fromJson(fire), parse(fire), 0);
+        List<Activity> second = index.putActivities(2, DataArray.fromJson(sleep), parse(sleep), 0);
+
+        Assertions.assertEquals("\uD83D\uDD25", first.get(0).getEmoji().getName());
+        Assertions.assertEquals("\uD83D\uDCA4", second.get(0).getEmoji().getName());
+        Assertions.assertNull(index.getActivities(1, DataArray.fromJson(sleep), 1000));
+    }
+
+    private static List<Activity> parse(String json)
+    {
+        DataArray array = DataArray.fromJson(json);
+        List<Activity> activities = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++)
+            activities.add(EntityBuilder.createActivity(array.getObject(i)));
+        return activities;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ratelimit.LocalRateLimitCoordinator;
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinatorServer;
+import net.dv8tion.jda.api.requests.ratelimit.SocketRateLimitCoordinator;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.RestActionImpl;
+import net.dv8tion.jda.internal.requests.Route;
+import okhttp3.Interceptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RateLimitCoordinatorTest
+{
+    private static final String BUCKET = "abcdef:guild_id=1";
+
+    @Test
+    public void testBucketReservations()
+    {
+        FixedClockCoordinator coordinator = new FixedClockCoordinator(50);
+        // Unknown buckets are not limited
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        coordinator.update(BUCKET, 2, 2, 1000);
+
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        Assertions.assertEquals(1000, coordinator.reserve(BUCKET));
+        // Responses arrive out of order, the late response does not increase the remaining uses
+        coordinator.update(BUCKET, 2, 0, 1000);
+        coordinator.update(BUCKET, 2, 1, 1000);
+        Assertions.assertEquals(1000, coordinator.reserve(BUCKET));
+
+        coordinator.now = 1000;
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        Assertions.assertEquals(LocalRateLimitCoordinator.PENDING_DELAY, coordinator.reserve(BUCKET));
+
+        // Reservations of disconnected processes are released eventually
+        coordinator.now += LocalRateLimitCoordinator.RESERVATION_TIMEOUT + 1;
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+    }
+
+    @Test
+    public void testReleaseReservations()
+    {
+        FixedClockCoordinator coordinator = new FixedClockCoordinator(50);
+        coordinator.update(BUCKET, 1, 1, 1000);
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        Assertions.assertEquals(1000, coordinator.reserve(BUCKET));
+        // The request failed without a response, its use of the bucket is still remaining
+        coordinator.release(BUCKET);
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        // Releases after the reset are ignored, the reservations have already expired
+        coordinator.now = 1000;
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        coordinator.release(BUCKET);
+        coordinator.release(BUCKET);
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        Assertions.assertEquals(LocalRateLimitCoordinator.PENDING_DELAY, coordinator.reserve(BUCKET));
+    }
+
+    @Test
+    public void testReleaseOnServerError() throws InterruptedException
+    {
+        testRelease(chain -> RestClientMock.response(chain, 502));
+    }
+
+    @Test
+    public void testReleaseOnIOException() throws InterruptedException
+    {
+        testRelease(chain -> { throw new IOException("Stream closed"); });
+    }
+
+    private void testRelease(Interceptor interceptor) throws InterruptedException
+    {
+        CountingCoordinator coordinator = new CountingCoordinator();
+        try (RestClientMock client = new RestClientMock(interceptor))
+        {
+            JDAImpl api = client.create(coordinator, null);
+            for (int i = 0; i < 2; i++)
+            {
+                CompletableFuture<Void> future = new RestActionImpl<Void>(api, Route.Messages.SEND_MESSAGE.compile("1")).submit();
+                CompletionException failure = Assertions.assertThrows(CompletionException.class, future::join);
+                Assertions.assertTrue(failure.getCause() instanceof ErrorResponseException);
+                Assertions.assertTrue(coordinator.released.tryAcquire(5, TimeUnit.SECONDS));
+                Assertions.assertEquals(0, coordinator.reservations.get());
+            }
+        }
+    }
+
+    @Test
+    public void testGlobalLimit()
+    {
+        FixedClockCoordinator coordinator = new FixedClockCoordinator(3);
+        for (int i = 0; i < 3; i++)
+            Assertions.assertEquals(0, coordinator.reserve(BUCKET + i));
+        Assertions.assertEquals(1000, coordinator.reserve(BUCKET));
+
+        coordinator.now = 1000;
+        Assertions.assertEquals(0, coordinator.reserve(BUCKET));
+        coordinator.setGlobalRateLimit(5000);
+        Assertions.assertEquals(4000, coordinator.reserve(BUCKET));
+    }
+
+    @Test
+    public void testSocketProtocol() throws IOException
+    {
+        FixedClockCoordinator coordinator = new FixedClockCoordinator(50);
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        SocketRateLimitCoordinator client;
+        try (RateLimitCoordinatorServer server = new RateLimitCoordinatorServer(coordinator, address).start())
+        {
+            client = new SocketRateLimitCoordinator(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 1000);
+            // Only reservations wait for a response, the server handles the pipelined requests in order
+            client.update(BUCKET, 1, 1, 1000);
+            Assertions.assertEquals(0, client.reserve(BUCKET));
+            Assertions.assertEquals(1, coordinator.size());
+            Assertions.assertEquals(1000, client.reserve(BUCKET));
+            client.setGlobalRateLimit(2000);
+            Assertions.assertEquals(2000, client.reserve(BUCKET));
+        }
+        // Without a server the coordinator is bypassed
+        Assertions.assertEquals(0, client.reserve(BUCKET));
+        client.close();
+    }
+
+    @Test
+    public void testSocketSecret() throws IOException
+    {
+        FixedClockCoordinator coordinator = new FixedClockCoordinator(50);
+        coordinator.update(BUCKET, 1, 0, 1000);
+        // Remote addresses cannot be used without a secret
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RateLimitCoordinatorServer(coordinator, new InetSocketAddress(0)));
+
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (RateLimitCoordinatorServer server = new RateLimitCoordinatorServer(coordinator, address, "secret").start())
+        {
+            InetSocketAddress serverAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            SocketRateLimitCoordinator client = new SocketRateLimitCoordinator(serverAddress, 1000, "secret");
+            SocketRateLimitCoordinator invalid = new SocketRateLimitCoordinator(serverAddress, 1000, "invalid");
+            SocketRateLimitCoordinator missing = new SocketRateLimitCoordinator(serverAddress, 1000);
+            Assertions.assertEquals(1000, client.reserve(BUCKET));
+            // Rejected clients are disconnected and bypass the coordinator
+            Assertions.assertEquals(0, invalid.reserve(BUCKET));
+            Assertions.assertEquals(0, missing.reserve(BUCKET));
+            Assertions.assertEquals(1000, client.reserve(BUCKET));
+            client.close();
+            invalid.close();
+            missing.close();
+        }
+    }
+
+    private static class CountingCoordinator extends LocalRateLimitCoordinator
+    {
+        private final AtomicInteger reservations = new AtomicInteger();
+        private final Semaphore released = new Semaphore(0);
+
+        @Override
+        public long reserve(@Nonnull String bucket)
+        {
+            long delay = super.reserve(bucket);
+            if (delay == 0)
+                reservations.incrementAndGet();
+            return delay;
+        }
+
+        @Override
+        public void release(@Nonnull String bucket)
+        {
+            super.release(bucket);
+            reservations.decrementAndGet();
+            released.release();
+        }
+    }
+
+    private static class FixedClockCoordinator extends LocalRateLimitCoordinator
+    {
+        private long now = 0;
+
+        private FixedClockCoordinator(int globalLimit)
+        {
+            super(globalLimit);
+        }
+
+        @Override
+        protected long getNow()
+        {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.requests.Response;
+import net.dv8tion.jda.internal.requests.RestActionImpl;
+import net.dv8tion.jda.internal.requests.Route;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import okhttp3.Interceptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class RequesterTest
+{
+    @Test
+    public void testAsyncResponseThread() throws Exception
+    {
+        RecordingAction action = submit(chain -> RestClientMock.response(chain, 204), false);
+        Assertions.assertEquals("RateLimit-Worker", action.thread);
+    }
+
+    @Test
+    public void testAsyncFailureThread() throws Exception
+    {
+        RecordingAction action = submit(chain -> { throw new IOException("Stream closed"); }, true);
+        Assertions.assertEquals("RateLimit-Worker", action.thread);
+    }
+
+    private RecordingAction submit(Interceptor interceptor, boolean failure) throws Exception
+    {
+        try (RestClientMock client = new RestClientMock(interceptor))
+        {
+            RecordingAction action = new RecordingAction(client.create(null, null, ConfigFlag.CONCURRENT_REQUESTS));
+            try
+            {
+                action.submit().get(5, TimeUnit.SECONDS);
+                Assertions.assertFalse(failure);
+            }
+            catch (ExecutionException e)
+            {
+                Assertions.assertTrue(failure);
+                Assertions.assertTrue(e.getCause() instanceof ErrorResponseException);
+            }
+            return action;
+        }
+    }
+
+    private static class RecordingAction extends RestActionImpl<Void>
+    {
+        private volatile String thread;
+
+        private RecordingAction(JDA api)
+        {
+            super(api, Route.Messages.SEND_MESSAGE.compile("1"));
+        }
+
+        @Override
+        public void handleResponse(Response response, Request<Void> request)
+        {
+            thread = Thread.currentThread().getName();
+            super.handleResponse(response, request);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.requests.ratelimit.RateLimitCoordinator;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.ratelimit.RateLimitRegistry;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.SessionConfig;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import okhttp3.*;
+
+import java.io.Closeable;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Creates JDA instances which answer all REST requests with an {@link Interceptor} instead of the network.
+ */
+public class RestClientMock implements Closeable
+{
+    public final ScheduledExecutorService rateLimitPool = Executors.newScheduledThreadPool(4, (r) -> new Thread(r, "RateLimit-Worker"));
+    public final ExecutorService dispatcherPool = Executors.newCachedThreadPool();
+    private final OkHttpClient httpClient;
+
+    public RestClientMock(Interceptor interceptor)
+    {
+        this.httpClient = new OkHttpClient.Builder()
+            .dispatcher(new Dispatcher(dispatcherPool))
+            .addInterceptor(interceptor)
+            .build();
+    }
+
+    public JDAImpl create(RateLimitCoordinator coordinator, RateLimitRegistry registry, ConfigFlag... flags)
+    {
+        EnumSet<ConfigFlag> configFlags = ConfigFlag.getDefault();
+        for (ConfigFlag flag : flags)
+            configFlags.add(flag);
+        SessionConfig sessionConfig = new SessionConfig(null, httpClient, null, null, configFlags, 900, 250, null, coordinator, registry);
+        ThreadingConfig threadingConfig = new ThreadingConfig();
+        threadingConfig.setRateLimitPool(rateLimitPool, false);
+        return new JDAImpl(new AuthorizationConfig("token"), sessionConfig, threadingConfig, null);
+    }
+
+    public static Response response(Interceptor.Chain chain, int code, String... headers)
+    {
+        return new Response.Builder()
+            .request(chain.request())
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message(Integer.toString(code))
+            .headers(Headers.of(headers))
+            .body(ResponseBody.create(null, ""))
+            .build();
+    }
+
+    @Override
+    public void close()
+    {
+        rateLimitPool.shutdownNow();
+        dispatcherPool.shutdownNow();
+    }
+}
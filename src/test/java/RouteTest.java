@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.internal.requests.BucketKey;
+import net.dv8tion.jda.internal.requests.Method;
+import net.dv8tion.jda.internal.requests.Route;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RouteTest
+{
+    @Test
+    public void testCompile()
+    {
+        Route.CompiledRoute route = Route.Messages.EDIT_MESSAGE.compile("123", "456");
+        Assertions.assertEquals("channels/123/messages/456", route.getCompiledRoute());
+        Assertions.assertEquals("channel_id=123", route.getMajorParameters());
+        Assertions.assertEquals("channels/123/messages/456?limit=1", route.withQueryParams("limit", "1").getCompiledRoute());
+
+        String token = "aW50ZXJhY3Rpb246ODg4ODg4ODg4ODg4ODg4ODg4ODg4ODg4ODg4ODg4ODg4";
+        Route.CompiledRoute interaction = Route.Interactions.CALLBACK.compile("789", token);
+        Assertions.assertEquals("interactions/789/" + token + "/callback", interaction.getCompiledRoute());
+        Assertions.assertEquals("interaction_token=" + Integer.toUnsignedString(token.hashCode()), interaction.getMajorParameters());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Route.Messages.EDIT_MESSAGE.compile("123"));
+    }
+
+    @Test
+    public void testBucketKey()
+    {
+        Route.CompiledRoute first = Route.Messages.EDIT_MESSAGE.compile("123", "456");
+        Route.CompiledRoute second = Route.Messages.EDIT_MESSAGE.compile("123", "789");
+        Route.CompiledRoute other = Route.Messages.EDIT_MESSAGE.compile("321", "456");
+
+        BucketKey key = first.getBucketKey(null);
+        Assertions.assertSame(key, first.getBucketKey(null));
+        Assertions.assertTrue(key.isUnlimited());
+        Assertions.assertEquals(key, second.getBucketKey(null));
+        Assertions.assertNotEquals(key, other.getBucketKey(null));
+        Assertions.assertNotEquals(key, Route.Messages.DELETE_MESSAGE.compile("123", "456").getBucketKey(null));
+        Assertions.assertEquals("unlimited+PATCH/channels/{channel_id}/messages/{message_id}:channel_id=123", key.toString());
+
+        String hash = "abcdef";
+        Assertions.assertEquals(first.getBucketKey(hash), Route.Messages.DELETE_MESSAGE.compile("123", "456").getBucketKey(hash));
+        Assertions.assertEquals("abcdef:channel_id=123", first.getBucketKey(hash).toString());
+        Assertions.assertEquals(Route.custom(Method.GET, "custom/{guild_id}").compile("1").getBucketKey(null),
+                                Route.custom(Method.GET, "custom/{guild_id}").compile("1").getBucketKey(null));
+
+        // Parameters which are not snowflakes are compared by their full value, "Aa" and "BB" have the same hash code
+        Route.CompiledRoute aa = Route.Interactions.CALLBACK.compile("789", "Aa");
+        Route.CompiledRoute bb = Route.Interactions.CALLBACK.compile("789", "BB");
+        Assertions.assertEquals(aa.getBucketKey(hash).hashCode(), bb.getBucketKey(hash).hashCode());
+        Assertions.assertNotEquals(aa.getBucketKey(hash), bb.getBucketKey(hash));
+        Assertions.assertEquals(aa.getBucketKey(hash), Route.Interactions.CALLBACK.compile("789", "Aa").getBucketKey(hash));
+        Assertions.assertEquals("interaction_token=Aa", aa.getMajorParameters());
+    }
+
+    @Test
+    public void testCustomRoute()
+    {
+        Route custom = Route.custom(Method.PATCH, "channels/{channel_id}/messages/{message_id}");
+        Assertions.assertEquals(-1, custom.getOrdinal());
+        Assertions.assertTrue(Route.Messages.EDIT_MESSAGE.getOrdinal() >= 0);
+        Assertions.assertEquals(Route.Messages.EDIT_MESSAGE, custom);
+        Assertions.assertEquals(custom, Route.Messages.EDIT_MESSAGE);
+        Assertions.assertEquals(Route.Messages.EDIT_MESSAGE.hashCode(), custom.hashCode());
+        Assertions.assertEquals(Route.Messages.EDIT_MESSAGE.compile("123", "456").getBucketKey(null),
+                                custom.compile("123", "456").getBucketKey(null));
+        Assertions.assertNotEquals(custom, Route.custom(Method.GET, "channels/{channel_id}/messages/{message_id}"));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.requests.SessionSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class SessionSnapshotTest
+{
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        File file = File.createTempFile("session", ".snapshot");
+        try
+        {
+            DataObject self = DataObject.empty().put("id", "1").put("username", "bot");
+            DataObject first = DataObject.empty()
+                .put("id", "10")
+                .put("name", "first")
+                .put("members", DataArray.empty().add(DataObject.empty().put("user", self).put("nick", null)));
+            DataObject second = DataObject.empty().put("id", "20").put("name", "second");
+            SessionSnapshot.write(file, "abc", 42, 1, 4, self, Arrays.asList(first, second));
+
+            SessionSnapshot snapshot = SessionSnapshot.read(file);
+            Assertions.assertEquals("abc", snapshot.getSessionId());
+            Assertions.assertEquals(42, snapshot.getSequence());
+            Assertions.assertTrue(snapshot.isShard(new JDA.ShardInfo(1, 4)));
+            Assertions.assertFalse(snapshot.isShard(new JDA.ShardInfo(0, 4)));
+            Assertions.assertEquals("bot", snapshot.getSelfUser().getString("username"));
+            Assertions.assertEquals(2, snapshot.getGuildCount());
+            Assertions.assertEquals("first", snapshot.getGuild(0).getString("name"));
+            Assertions.assertTrue(snapshot.getGuild(0).getArray("members").getObject(0).isNull("nick"));
+            Assertions.assertEquals(20L, snapshot.getGuild(1).getUnsignedLong("id"));
+        }
+        finally
+        {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void testReplaceAfterRead() throws IOException
+    {
+        File file = File.createTempFile("session", ".snapshot");
+        try
+        {
+            DataObject self = DataObject.empty().put("id", "1").put("username", "bot");
+            SessionSnapshot.write(file, "abc", 42, 0, 1, self, Arrays.asList(DataObject.empty().put("id", "10").put("name", "first")));
+            SessionSnapshot snapshot = SessionSnapshot.read(file);
+
+            // The snapshot does not hold on to the file, it can be deleted and written again right away
+            Assertions.assertTrue(file.delete());
+            SessionSnapshot.write(file, "def", 50, 0, 1, self, Arrays.asList(DataObject.empty().put("id", "20").put("name", "second")));
+            SessionSnapshot.write(file, "ghi", 60, 0, 1, self, Arrays.asList(DataObject.empty().put("id", "30").put("name", "third")));
+
+            Assertions.assertEquals("first", snapshot.getGuild(0).getString("name"));
+            Assertions.assertEquals("third", SessionSnapshot.read(file).getGuild(0).getString("name"));
+        }
+        finally
+        {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException
+    {
+        File file = File.createTempFile("session", ".snapshot");
+        try
+        {
+            try (FileOutputStream out = new FileOutputStream(file))
+            {
+                out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+            }
+            Assertions.assertThrows(IOException.class, () -> SessionSnapshot.read(file));
+        }
+        finally
+        {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
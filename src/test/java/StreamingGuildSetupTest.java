@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StreamingGuildSetupTest
+{
+    private static final long SELF_ID = 1, USER_ID = 2, OTHER_ID = 3;
+    private static final long FIRST_GUILD = 100, SECOND_GUILD = 200, VOICE_CHANNEL = 300;
+
+    @Test
+    public void testOverlappingSetup()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            EntityBuilder builder = api.getEntityBuilder();
+            builder.createSelfUser(user(SELF_ID, "self"));
+            DataObject firstJson = guild(FIRST_GUILD, DataArray.empty()), secondJson = guild(SECOND_GUILD, DataArray.empty());
+            GuildImpl first = builder.createGuildShell(FIRST_GUILD, firstJson, 1);
+            GuildImpl second = builder.createGuildShell(SECOND_GUILD, secondJson, 1);
+
+            // Both guilds receive a chunk with the same user before either of them is complete
+            MemberImpl firstMember = builder.createSetupMember(first, member(USER_ID, "before"), null);
+            MemberImpl secondMember = builder.createSetupMember(second, member(USER_ID, "before"), null);
+            Assertions.assertSame(firstMember.getUser(), secondMember.getUser());
+            Assertions.assertSame(firstMember.getUser(), api.getUserById(USER_ID));
+
+            // Updates to the user reach the members of both guilds
+            builder.createUser(user(USER_ID, "after"));
+            Assertions.assertEquals("after", firstMember.getUser().getName());
+
+            builder.createGuild(second, secondJson, members(secondMember));
+            builder.createGuild(first, firstJson, members(firstMember));
+            User user = api.getUserById(USER_ID);
+            Assertions.assertSame(user, first.getMemberById(USER_ID).getUser());
+            Assertions.assertSame(user, second.getMemberById(USER_ID).getUser());
+            Assertions.assertArrayEquals(new long[] { FIRST_GUILD, SECOND_GUILD }, api.getUserGuildIndex().getGuildIds(USER_ID));
+        }
+    }
+
+    @Test
+    public void testRemoveSetupMember()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            EntityBuilder builder = api.getEntityBuilder();
+            builder.createSelfUser(user(SELF_ID, "self"));
+            GuildImpl first = builder.createGuildShell(FIRST_GUILD, guild(FIRST_GUILD, DataArray.empty()), 1);
+            GuildImpl second = builder.createGuildShell(SECOND_GUILD, guild(SECOND_GUILD, DataArray.empty()), 1);
+            builder.createSetupMember(first, member(USER_ID, "user"), null);
+            builder.createSetupMember(second, member(USER_ID, "user"), null);
+
+            // The user is kept as long as another guild in setup references it
+            builder.removeSetupMember(FIRST_GUILD, USER_ID);
+            Assertions.assertNotNull(api.getUserById(USER_ID));
+            builder.removeSetupMember(SECOND_GUILD, USER_ID);
+            Assertions.assertNull(api.getUserById(USER_ID));
+            Assertions.assertFalse(api.getUserGuildIndex().hasGuilds(USER_ID));
+        }
+    }
+
+    @Test
+    public void testCachePolicy()
+    {
+        // Without a gateway connection the intents have to be provided here
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"))
+        {
+            @Override
+            public boolean isIntent(GatewayIntent intent)
+            {
+                return true;
+            }
+        };
+        api.setChunkingFilter(ChunkingFilter.NONE);
+        api.setMemberCachePolicy(MemberCachePolicy.VOICE);
+        EntityBuilder builder = api.getEntityBuilder();
+        builder.createSelfUser(user(SELF_ID, "self"));
+        DataObject voiceState = DataObject.empty()
+            .put("user_id", USER_ID)
+            .put("channel_id", VOICE_CHANNEL)
+            .put("session_id", "session")
+            .put("mute", false)
+            .put("deaf", false)
+            .put("self_mute", false)
+            .put("self_deaf", false)
+            .put("suppress", false);
+        DataObject json = guild(FIRST_GUILD, DataArray.empty().add(voiceState));
+        GuildImpl guild = builder.createGuildShell(FIRST_GUILD, json, 3);
+        MemberImpl inVoice = builder.createSetupMember(guild, member(USER_ID, "voice"), null);
+        MemberImpl other = builder.createSetupMember(guild, member(OTHER_ID, "other"), null);
+        MemberImpl self = builder.createSetupMember(guild, member(SELF_ID, "self"), null);
+
+        // The voice policy can only be checked once the channels and voice states are loaded
+        builder.createGuild(guild, json, members(inVoice, other, self));
+        Member member = guild.getMemberById(USER_ID);
+        Assertions.assertNotNull(member);
+        Assertions.assertEquals(VOICE_CHANNEL, member.getVoiceState().getChannel().getIdLong());
+        Assertions.assertNull(guild.getMemberById(OTHER_ID));
+        Assertions.assertNull(api.getUserById(OTHER_ID));
+        Assertions.assertFalse(api.getUserGuildIndex().hasGuilds(OTHER_ID));
+        Assertions.assertNotNull(guild.getMemberById(SELF_ID));
+    }
+
+    private static TLongObjectMap<MemberImpl> members(MemberImpl... members)
+    {
+        TLongObjectMap<MemberImpl> map = new TLongObjectHashMap<>();
+        for (MemberImpl member : members)
+            map.put(member.getIdLong(), member);
+        return map;
+    }
+
+    private static DataObject guild(long id, DataArray voiceStates)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("name", "guild")
+            .put("owner_id", SELF_ID)
+            .put("afk_timeout", 300)
+            .put("roles", DataArray.empty().add(DataObject.empty()
+                .put("id", id)
+                .put("name", "@everyone")
+                .put("permissions", "0")
+                .put("position", 0)
+                .put("color", 0)
+                .put("hoist", false)
+                .put("managed", false)
+                .put("mentionable", false)))
+            .put("channels", DataArray.empty().add(DataObject.empty()
+                .put("id", VOICE_CHANNEL)
+                .put("type", 2)
+                .put("name", "voice")
+                .put("position", 0)
+                .put("bitrate", 64000)
+                .put("user_limit", 0)
+                .put("parent_id", null)
+                .put("permission_overwrites", DataArray.empty())))
+            .put("voice_states", voiceStates)
+            .put("emojis", DataArray.empty())
+            .put("features", DataArray.empty());
+    }
+
+    private static DataObject user(long id, String name)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("username", name)
+            .put("discriminator", "0001")
+            .put("avatar", null);
+    }
+
+    private static DataObject member(long id, String name)
+    {
+        return DataObject.empty()
+            .put("user", user(id, name))
+            .put("roles", DataArray.empty())
+            .put("joined_at", "2021-01-01T00:00:00.000000+00:00");
+    }
+}
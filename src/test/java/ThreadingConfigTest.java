@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.hooks.EventOrdering;
+import net.dv8tion.jda.api.sharding.DefaultShardManager;
+import net.dv8tion.jda.internal.utils.concurrent.VirtualThreads;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.sharding.ThreadingProviderConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ThreadingConfigTest
+{
+    @Test
+    public void testVirtualThreadSupport() throws Exception
+    {
+        // Tests do not run with --enable-preview, preview runtimes must not report support
+        String version = System.getProperty("java.specification.version");
+        int feature = Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+        Assertions.assertEquals(feature >= 21, VirtualThreads.isSupported());
+        if (!VirtualThreads.isSupported())
+            return;
+
+        ExecutorService executor = VirtualThreads.newExecutor(() -> "JDA", "Test");
+        String name = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        Assertions.assertEquals("JDA Test-Worker 1", name);
+    }
+
+    @Test
+    public void testSequentialEventsWithVirtualThreads()
+    {
+        ThreadingConfig config = new ThreadingConfig();
+        config.setVirtualThreads(true);
+        config.initEventPool(() -> "JDA");
+        Assertions.assertNull(config.getEventPool());
+
+        config.setEventOrdering(EventOrdering.GUILD, 100);
+        config.initEventPool(() -> "JDA");
+        ExecutorService pool = config.getEventPool();
+        Assertions.assertNotNull(pool);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSharedEventPool()
+    {
+        ThreadingProviderConfig threading = new ThreadingProviderConfig(null, null, null, null, null, null, EventOrdering.GUILD, 100, false);
+        EventPoolShardManager manager = new EventPoolShardManager(threading);
+
+        // All shards without an event pool provider use the same pool, which is owned by the manager
+        ExecutorService pool = manager.getSharedEventPool();
+        Assertions.assertSame(pool, manager.getSharedEventPool());
+        Assertions.assertFalse(pool.isShutdown());
+        manager.shutdownSharedEventPool();
+        Assertions.assertTrue(pool.isShutdown());
+    }
+
+    private static class EventPoolShardManager extends DefaultShardManager
+    {
+        private EventPoolShardManager(ThreadingProviderConfig threading)
+        {
+            super("token", null, null, null, null, threading, null, null, null);
+        }
+
+        @Override
+        protected synchronized ExecutorService getSharedEventPool()
+        {
+            return super.getSharedEventPool();
+        }
+
+        @Override
+        protected synchronized void shutdownSharedEventPool()
+        {
+            super.shutdownSharedEventPool();
+        }
+    }
+}
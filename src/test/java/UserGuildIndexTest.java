@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.handle.GuildMemberAddHandler;
+import net.dv8tion.jda.internal.handle.GuildMemberRemoveHandler;
+import net.dv8tion.jda.internal.utils.cache.UserGuildIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UserGuildIndexTest
+{
+    private static final long SELF_ID = 1, USER_ID = 2;
+    private static final long FIRST_GUILD = 100, SECOND_GUILD = 200;
+
+    @Test
+    public void testSorted()
+    {
+        UserGuildIndex index = new UserGuildIndex();
+        index.add(USER_ID, SECOND_GUILD);
+        index.add(USER_ID, FIRST_GUILD);
+        index.add(USER_ID, SECOND_GUILD);
+        Assertions.assertArrayEquals(new long[] { FIRST_GUILD, SECOND_GUILD }, index.getGuildIds(USER_ID));
+        Assertions.assertTrue(index.isMember(USER_ID, FIRST_GUILD));
+
+        index.remove(USER_ID, FIRST_GUILD);
+        Assertions.assertArrayEquals(new long[] { SECOND_GUILD }, index.getGuildIds(USER_ID));
+        index.remove(USER_ID, SECOND_GUILD);
+        Assertions.assertFalse(index.hasGuilds(USER_ID));
+        Assertions.assertEquals(0, index.getGuildIds(USER_ID).length);
+        Assertions.assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testMemberAddRemove()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            UserGuildIndex index = api.getUserGuildIndex();
+            api.getEntityBuilder().createSelfUser(user(SELF_ID));
+            createGuild(api, FIRST_GUILD);
+            createGuild(api, SECOND_GUILD);
+            Assertions.assertFalse(index.hasGuilds(USER_ID));
+
+            new GuildMemberAddHandler(api).handle(1, event(member(USER_ID).put("guild_id", FIRST_GUILD)));
+            new GuildMemberAddHandler(api).handle(2, event(member(USER_ID).put("guild_id", SECOND_GUILD)));
+            Assertions.assertArrayEquals(new long[] { FIRST_GUILD, SECOND_GUILD }, index.getGuildIds(USER_ID));
+
+            // The user is still cached while a guild is shared
+            new GuildMemberRemoveHandler(api).handle(3, event(DataObject.empty().put("guild_id", FIRST_GUILD).put("user", user(USER_ID))));
+            Assertions.assertArrayEquals(new long[] { SECOND_GUILD }, index.getGuildIds(USER_ID));
+            Assertions.assertNotNull(api.getUserById(USER_ID));
+
+            new GuildMemberRemoveHandler(api).handle(4, event(DataObject.empty().put("guild_id", SECOND_GUILD).put("user", user(USER_ID))));
+            Assertions.assertFalse(index.hasGuilds(USER_ID));
+            Assertions.assertNull(api.getUserById(USER_ID));
+        }
+    }
+
+    @Test
+    public void testGuildLeave()
+    {
+        try (RestClientMock mock = new RestClientMock((chain) -> RestClientMock.response(chain, 200)))
+        {
+            JDAImpl api = mock.create(null, null);
+            UserGuildIndex index = api.getUserGuildIndex();
+            api.getEntityBuilder().createSelfUser(user(SELF_ID));
+            GuildImpl first = createGuild(api, FIRST_GUILD, member(USER_ID));
+            GuildImpl second = createGuild(api, SECOND_GUILD, member(USER_ID));
+            Assertions.assertArrayEquals(new long[] { FIRST_GUILD, SECOND_GUILD }, index.getGuildIds(USER_ID));
+            Assertions.assertArrayEquals(new long[] { FIRST_GUILD, SECOND_GUILD }, index.getGuildIds(SELF_ID));
+
+            // GUILD_DELETE drops the guild from the index, but keeps its members for the leave event
+            first.getMembersView().removeFromIndex();
+            Assertions.assertArrayEquals(new long[] { SECOND_GUILD }, index.getGuildIds(USER_ID));
+            Assertions.assertArrayEquals(new long[] { SECOND_GUILD }, index.getGuildIds(SELF_ID));
+            Assertions.assertNotNull(first.getMemberById(USER_ID));
+
+            // Later changes to the removed guild no longer reach the index
+            first.getMembersView().remove(USER_ID);
+            Assertions.assertArrayEquals(new long[] { SECOND_GUILD }, index.getGuildIds(USER_ID));
+
+            second.getMembersView().removeFromIndex();
+            Assertions.assertFalse(index.hasGuilds(USER_ID));
+            Assertions.assertEquals(0, index.size());
+        }
+    }
+
+    private static GuildImpl createGuild(JDAImpl api, long guildId, DataObject... extraMembers)
+    {
+        EntityBuilder builder = api.getEntityBuilder();
+        DataArray members = DataArray.empty().add(member(SELF_ID));
+        for (DataObject member : extraMembers)
+            members.add(member);
+        DataObject guild = DataObject.empty()
+            .put("id", guildId)
+            .put("name", "guild")
+            .put("owner_id", SELF_ID)
+            .put("afk_timeout", 300)
+            .put("member_count", members.length())
+            .put("roles", DataArray.empty().add(DataObject.empty()
+                .put("id", guildId)
+                .put("name", "@everyone")
+                .put("permissions", "0")
+                .put("position", 0)
+                .put("color", 0)
+                .put("hoist", false)
+                .put("managed", false)
+                .put("mentionable", false)))
+            .put("channels", DataArray.empty())
+            .put("members", members)
+            .put("voice_states", DataArray.empty())
+            .put("emojis", DataArray.empty())
+            .put("features", DataArray.empty());
+        return builder.createGuild(guildId, guild, builder.convertToUserMap(o -> o.getObject("user").getUnsignedLong("id"), members), members.length());
+    }
+
+    private static DataObject event(DataObject content)
+    {
+        return DataObject.empty().put("d", content);
+    }
+
+    private static DataObject user(long id)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("username", "user" + id)
+            .put("discriminator", "0001")
+            .put("avatar", null);
+    }
+
+    private static DataObject member(long id)
+    {
+        return DataObject.empty()
+            .put("user", user(id))
+            .put("roles", DataArray.empty())
+            .put("joined_at", "2021-01-01T00:00:00.000000+00:00");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+public class ZlibDecompressorTest
+{
+    private final Deflater deflater = new Deflater();
+
+    private byte[] compress(String json)
+    {
+        deflater.setInput(json.getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[json.length() + 64];
+        int length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @Test
+    public void testStream() throws DataFormatException
+    {
+        // The small max buffer size forces the output buffer to grow
+        ZlibDecompressor decompressor = new ZlibDecompressor(16);
+        for (int i = 0; i < 3; i++)
+        {
+            StringBuilder builder = new StringBuilder();
+            for (int j = 0; j < 100 * (i + 1); j++)
+                builder.append(j);
+            String content = builder.toString();
+            String json = "{\"op\":0,\"d\":\"" + content + "\"}";
+
+            ByteBuffer result = decompressor.decompress(compress(json));
+            Assertions.assertNotNull(result);
+            Assertions.assertEquals(content, DataObject.fromJson(result).getString("d"));
+        }
+    }
+
+    @Test
+    public void testSplitFrames() throws DataFormatException
+    {
+        ZlibDecompressor decompressor = new ZlibDecompressor(2048);
+        String json = "{\"op\":10,\"d\":{\"heartbeat_interval\":41250}}";
+        byte[] data = compress(json);
+        byte[] first = Arrays.copyOfRange(data, 0, data.length / 2);
+        byte[] second = Arrays.copyOfRange(data, data.length / 2, data.length);
+
+        Assertions.assertNull(decompressor.decompress(first));
+        ByteBuffer result = decompressor.decompress(second);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(41250, DataObject.fromJson(result).getObject("d").getInt("heartbeat_interval"));
+    }
+}